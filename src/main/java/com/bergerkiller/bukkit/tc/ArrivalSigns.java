@@ -1,6 +1,5 @@
 package com.bergerkiller.bukkit.tc;
 
-import com.bergerkiller.bukkit.common.Task;
 import com.bergerkiller.bukkit.common.collections.BlockMap;
 import com.bergerkiller.bukkit.common.config.FileConfiguration;
 import com.bergerkiller.bukkit.common.utils.MaterialUtil;
@@ -9,20 +8,35 @@ import com.bergerkiller.bukkit.common.utils.ParseUtil;
 import com.bergerkiller.bukkit.sl.API.Variables;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
 import com.bergerkiller.bukkit.tc.utils.TimeDurationFormat;
+import com.bergerkiller.bukkit.tc.utils.TimerWheel;
 
 import org.bukkit.ChatColor;
 import org.bukkit.block.Block;
 import org.bukkit.block.Sign;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.logging.Level;
 
 public class ArrivalSigns {
     private static HashMap<String, TimeSign> timerSigns = new HashMap<>();
     private static BlockMap<TimeCalculation> timeCalculations = new BlockMap<>();
     private static TimeDurationFormat timeFormat = new TimeDurationFormat("HH:mm:ss");
-    private static Task updateTask;
+    private static TimerWheel timeouts;
+    /** Interval in ticks at which the variables of running timers are updated */
+    private static final int TIMER_UPDATE_INTERVAL = 10;
+    /** Interval in ticks at which time calculations check the member is still alive, in case no event fires */
+    private static final int TIME_CALC_CHECK_INTERVAL = 20;
+
+    private static TimerWheel getTimeouts() {
+        if (timeouts == null) {
+            timeouts = new TimerWheel(TrainCarts.plugin, 64);
+        }
+        return timeouts;
+    }
 
     public static TimeSign getTimer(String name) {
         return timerSigns.computeIfAbsent(name, new_timesign_name -> new TimeSign(new_timesign_name));
@@ -68,10 +82,14 @@ public class ArrivalSigns {
         }
     }
 
+    /**
+     * Updates the variables of all running timers, and schedules them to be
+     * updated until they run out
+     */
     public static void updateAll() {
-        for (TimeSign t : timerSigns.values()) {
-            if (!t.update()) {
-                return;
+        for (TimeSign t : new ArrayList<>(timerSigns.values())) {
+            if (t.update()) {
+                t.scheduleUpdate();
             }
         }
     }
@@ -84,7 +102,7 @@ public class ArrivalSigns {
             if (dur != null) {
                 TimeSign t = getTimer(key);
                 t.duration = ParseUtil.parseTime(dur);
-                t.startTime = System.currentTimeMillis();
+                t.trigger();
             }
         }
     }
@@ -102,10 +120,10 @@ public class ArrivalSigns {
         timerSigns = null;
         timeCalculations.clear();
         timeCalculations = null;
-        if (updateTask != null && updateTask.isRunning()) {
-            updateTask.stop();
+        if (timeouts != null) {
+            timeouts.clear();
+            timeouts = null;
         }
-        updateTask = null;
     }
 
     public static void timeCalcStart(Block signblock, MinecartMember<?> member) {
@@ -113,49 +131,102 @@ public class ArrivalSigns {
         calc.startTime = System.currentTimeMillis();
         calc.signblock = signblock;
         calc.member = member;
-        for (Player player : calc.signblock.getWorld().getPlayers()) {
-            if (player.hasPermission("train.build.trigger")) {
-                if (member == null) {
-                    player.sendMessage(ChatColor.YELLOW + "[Train Carts] Remove the power source to stop recording");
-                } else {
-                    player.sendMessage(ChatColor.YELLOW + "[Train Carts] Stop or destroy the minecart to stop recording");
-                }
+        calc.recipients = getTriggerBuilders(signblock);
+        for (Player player : calc.recipients) {
+            if (member == null) {
+                player.sendMessage(ChatColor.YELLOW + "[Train Carts] Remove the power source to stop recording");
+            } else {
+                player.sendMessage(ChatColor.YELLOW + "[Train Carts] Stop or destroy the minecart to stop recording");
             }
         }
-        timeCalculations.put(calc.signblock, calc);
-        if (updateTask == null) {
-            updateTask = new Task(TrainCarts.plugin) {
-                public void run() {
-                    if (timeCalculations.isEmpty()) {
-                        this.stop();
-                        updateTask = null;
-                    }
-                    for (TimeCalculation calc : timeCalculations.values()) {
-                        if (calc.member != null) {
-                            if (calc.member.isUnloaded() || calc.member.getEntity().getEntity().isDead() || !calc.member.getEntity().isMoving()) {
-                                calc.setTime();
-                                timeCalculations.remove(calc.signblock);
-                                return;
-                            }
-                        }
-                    }
-                }
-            }.start(0, 1);
+        TimeCalculation prev = timeCalculations.put(calc.signblock, calc);
+        if (prev != null) {
+            prev.cancelCheck();
+        }
+
+        // Stopping is normally detected by onMemberStopped(). Check once after a tick, as the
+        // member might not be moving at all, and in intervals after in case no event fires.
+        if (member != null) {
+            calc.scheduleCheck(1);
         }
     }
 
     public static void timeCalcStop(Block signblock) {
         TimeCalculation calc = timeCalculations.get(signblock);
         if (calc != null && calc.member == null) {
-            calc.setTime();
-            timeCalculations.remove(signblock);
+            calc.finish();
         }
     }
 
+    /**
+     * Called when a member stops moving, dies or unloads. Completes the time calculations
+     * started by this member.
+     *
+     * @param member Member that stopped
+     */
+    public static void onMemberStopped(MinecartMember<?> member) {
+        if (timeCalculations == null || timeCalculations.isEmpty()) {
+            return;
+        }
+        List<TimeCalculation> stopped = Collections.emptyList();
+        for (TimeCalculation calc : timeCalculations.values()) {
+            if (calc.member == member) {
+                if (stopped.isEmpty()) {
+                    stopped = new ArrayList<>(2);
+                }
+                stopped.add(calc);
+            }
+        }
+        stopped.forEach(TimeCalculation::finish);
+    }
+
+    private static List<Player> getTriggerBuilders(Block signblock) {
+        List<Player> players = Collections.emptyList();
+        for (Player player : signblock.getWorld().getPlayers()) {
+            if (player.hasPermission("train.build.trigger")) {
+                if (players.isEmpty()) {
+                    players = new ArrayList<>(4);
+                }
+                players.add(player);
+            }
+        }
+        return players;
+    }
+
     private static class TimeCalculation {
         public long startTime;
         public Block signblock;
         public MinecartMember<?> member = null;
+        public List<Player> recipients = Collections.emptyList();
+        private TimerWheel.Timeout checkTimeout = null;
+
+        public void scheduleCheck(int delay) {
+            checkTimeout = getTimeouts().schedule(delay, this::check);
+        }
+
+        public void cancelCheck() {
+            if (checkTimeout != null) {
+                checkTimeout.cancel();
+                checkTimeout = null;
+            }
+        }
+
+        private void check() {
+            checkTimeout = null;
+            if (member.isUnloaded() || member.getEntity().getEntity().isDead() || !member.getEntity().isMoving()) {
+                finish();
+            } else {
+                scheduleCheck(TIME_CALC_CHECK_INTERVAL);
+            }
+        }
+
+        public void finish() {
+            cancelCheck();
+            if (timeCalculations.get(signblock) == this) {
+                timeCalculations.remove(signblock);
+                setTime();
+            }
+        }
 
         public void setTime() {
             long duration = System.currentTimeMillis() - startTime;
@@ -164,9 +235,9 @@ public class ArrivalSigns {
                 String dur = timeFormat.format(duration);
                 sign.setLine(3, dur);
                 sign.update(true);
-                //Message
-                for (Player player : sign.getWorld().getPlayers()) {
-                    if (player.hasPermission("train.build.trigger")) {
+                //Message the players that were told recording started
+                for (Player player : this.recipients) {
+                    if (player.isOnline() && player.getWorld() == sign.getWorld()) {
                         player.sendMessage(ChatColor.YELLOW + "[Train Carts] Trigger time of '" + sign.getLine(2) + "' set to " + dur);
                     }
                 }
@@ -178,6 +249,7 @@ public class ArrivalSigns {
         public long startTime = -1;
         public long duration;
         private String name;
+        private TimerWheel.Timeout updateTimeout = null;
 
         public TimeSign(String name) {
             this.name = name;
@@ -185,6 +257,18 @@ public class ArrivalSigns {
 
         public void trigger() {
             this.startTime = System.currentTimeMillis();
+            this.scheduleUpdate();
+        }
+
+        private void scheduleUpdate() {
+            if (updateTimeout == null || !updateTimeout.isScheduled()) {
+                updateTimeout = getTimeouts().schedule(TIMER_UPDATE_INTERVAL, () -> {
+                    updateTimeout = null;
+                    if (timerSigns != null && timerSigns.get(name) == this && update()) {
+                        scheduleUpdate();
+                    }
+                });
+            }
         }
 
         public String getName() {
@@ -192,19 +276,23 @@ public class ArrivalSigns {
         }
 
         public String getDuration() {
+            return timeFormat.format(getRemainingTime());
+        }
+
+        private long getRemainingTime() {
             long elapsed = System.currentTimeMillis() - this.startTime;
             long remaining = duration - elapsed;
-            if (remaining < 0) remaining = 0;
-            return timeFormat.format(remaining);
+            return (remaining < 0) ? 0 : remaining;
         }
 
         public boolean update() {
             if (!TrainCarts.plugin.isSignLinkEnabled()) return false;
             //Calculate the time to display
-            String dur = getDuration();
+            long remaining = getRemainingTime();
+            String dur = timeFormat.format(remaining);
             Variables.get(this.name).set(dur);
             Variables.get(this.name + 'T').set(dur);
-            if (dur.equals("00:00:00")) {
+            if (remaining < 1000) {
                 timerSigns.remove(this.name);
                 return false;
             } else {
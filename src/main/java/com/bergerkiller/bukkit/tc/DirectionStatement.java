@@ -13,6 +13,7 @@ public class DirectionStatement {
     public String direction;
     public String text;
     public Counter counter;
+    private Statement.Compiled compiledText = null;
 
     public DirectionStatement(String text, String defaultDirection) {
         int idx = text.indexOf(':');
@@ -58,12 +59,26 @@ public class DirectionStatement {
         }
     }
 
+    /**
+     * Gets the compiled statement of the {@link #text} of this direction statement.
+     * It is compiled once, and again only when the text is changed.
+     *
+     * @return compiled statement
+     */
+    public Statement.Compiled getStatement() {
+        Statement.Compiled compiled = this.compiledText;
+        if (compiled == null || compiled.getText() != this.text) {
+            this.compiledText = compiled = Statement.Compiled.of(this.text);
+        }
+        return compiled;
+    }
+
     public boolean has(SignActionEvent event, MinecartMember<?> member) {
-        return Statement.has(member, this.text, event);
+        return getStatement().has(member, null, event);
     }
 
     public boolean has(SignActionEvent event, MinecartGroup group) {
-        return Statement.has(group, this.text, event);
+        return getStatement().has(null, group, event);
     }
 
     /**
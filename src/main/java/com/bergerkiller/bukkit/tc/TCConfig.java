@@ -26,6 +26,7 @@ import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.utils.ParseUtil;
 import com.bergerkiller.bukkit.tc.attachments.animation.Animation;
 import com.bergerkiller.bukkit.tc.pathfinding.PathProvider;
+import com.bergerkiller.bukkit.tc.statements.Statement;
 import com.bergerkiller.bukkit.tc.utils.ConfiguredWorldSet;
 
 /**
@@ -60,6 +61,7 @@ public class TCConfig {
     public static boolean setOwnerOnPlacement;
     public static boolean keepChunksLoadedOnlyWhenMoving;
     public static int maxKeepChunksLoadedRadius;
+    public static double keepChunksLoadedPreloadTime;
     public static int maxDetectorLength;
     public static int maxMutexSize;
     public static boolean debugMutexGlow;
@@ -102,6 +104,7 @@ public class TCConfig {
     public static boolean playHissWhenLinked = true;
     public static boolean playHissWhenCartRemoved = true;
     public static boolean rerouteOnStartup = false;
+    public static boolean rerouteUsingSnapshot = false;
     public static boolean switcherResetCountersOnFirstCart = true;
     public static boolean logMutexConflicts = false;
     public static boolean logSyncChunkLoads = false;
@@ -116,7 +119,11 @@ public class TCConfig {
     public static int attachmentTransformParallelism = -1;
     public static boolean allowExternalTicketImagePaths = false; // Whether images outside of the images subdirectory are allowed
     public static boolean allowSchematicAttachment = true;
+    public static boolean schematicCullHiddenBlocks = false;
+    public static boolean schematicMergeBlocks = false;
+    public static double schematicLowDetailDistance = 0.0;
     public static int maxCommandSelectorValues = 128;
+    public static int maxLightSectionUpdatesPerTick = 64;
     public static int maxConcurrentEffectLoops = 20;
     public static double spawnSignCooldown = -1.0;
     public static double itemPickupRadius = 2.0;
@@ -268,6 +275,11 @@ public class TCConfig {
         config.addHeader("maxKeepChunksLoadedRadius", "The default is radius is 2, which loads a 5x5 chunk area. Avoid abuse, don't make it too big.");
         maxKeepChunksLoadedRadius = config.get("maxKeepChunksLoadedRadius", 7);
 
+        config.setHeader("keepChunksLoadedPreloadTime", "\nHow many seconds in advance chunks up ahead of trains that keep chunks loaded are loaded");
+        config.addHeader("keepChunksLoadedPreloadTime", "Chunks the train reaches first are loaded first. Only chunks of the track up ahead");
+        config.addHeader("keepChunksLoadedPreloadTime", "are preloaded, and a short distance past it. Set to 0 to disable preloading.");
+        keepChunksLoadedPreloadTime = config.get("keepChunksLoadedPreloadTime", 0.0);
+
         config.setHeader("enableCeilingBlockCollision", "\nWhether to enable or cancel collisions with blocks above minecarts");
         config.addHeader("enableCeilingBlockCollision", "Some constructions depend on these block collisions to block minecarts");
         config.addHeader("enableCeilingBlockCollision", "If these collisions are unwanted, they can be turned off here");
@@ -368,6 +380,25 @@ public class TCConfig {
         config.addHeader("allowSchematicAttachment", "Only works on Minecraft server/clients 1.19.4 and later");
         allowSchematicAttachment = config.get("allowSchematicAttachment", true);
 
+        config.setHeader("schematicCullHiddenBlocks", "\nWhether blocks of SCHEMATIC attachments that are fully enclosed by other opaque blocks");
+        config.addHeader("schematicCullHiddenBlocks", "are left out. These cannot be seen, so this reduces the number of display entities spawned");
+        config.addHeader("schematicCullHiddenBlocks", "With this or the below options enabled, schematics only show once fully loaded, not gradually");
+        schematicCullHiddenBlocks = config.get("schematicCullHiddenBlocks", false);
+
+        config.setHeader("schematicMergeBlocks", "\nWhether boxes of identical opaque blocks of SCHEMATIC attachments are merged into a single");
+        config.addHeader("schematicMergeBlocks", "scaled display entity. This greatly reduces the number of entities and packets for large schematics,");
+        config.addHeader("schematicMergeBlocks", "but the block texture is stretched across the box, and gaps between merged blocks aren't shown");
+        schematicMergeBlocks = config.get("schematicMergeBlocks", false);
+
+        config.setHeader("schematicLowDetailDistance", "\nBeyond this distance players see a low-detail version of SCHEMATIC attachments,");
+        config.addHeader("schematicLowDetailDistance", "that uses blocks twice the size. Set to 0 to disable this");
+        schematicLowDetailDistance = config.get("schematicLowDetailDistance", 0.0);
+
+        config.setHeader("maxLightSectionUpdatesPerTick", "\nMaximum number of chunk sections (16x16x16 blocks) relit every tick because light attachments moved");
+        config.addHeader("maxLightSectionUpdatesPerTick", "Changes to more sections than this are relit in later ticks, to avoid lag spikes");
+        config.addHeader("maxLightSectionUpdatesPerTick", "Set to 0 or less to relight all changed sections every tick");
+        maxLightSectionUpdatesPerTick = config.get("maxLightSectionUpdatesPerTick", 64);
+
         config.setHeader("itemPickupRadius", "The radius with which minecarts with chest pick up items, when item pickup is enabled for the train");
         itemPickupRadius = config.get("itemPickupRadius", 2.0);
 
@@ -492,6 +523,7 @@ public class TCConfig {
             config.set("statementShortcuts.diamond", "i@diamond");
         }
         statementShortcuts.clear().load(config.getNode("statementShortcuts"));
+        Statement.invalidateCompiled();
 
         //parser shortcuts
         config.setHeader("itemShortcuts", "\nSeveral shortcuts you can use on signs to set the items");
@@ -544,6 +576,11 @@ public class TCConfig {
         config.setHeader("rerouteOnStartup", "\nWhen enabled, re-calculates all path finding routes on plugin startup");
         rerouteOnStartup = config.get("rerouteOnStartup", false);
 
+        config.setHeader("rerouteUsingSnapshot", "\nWhen enabled, re-calculating all path finding routes first captures the rails and signs");
+        config.addHeader("rerouteUsingSnapshot", "connected to the nodes, and then walks them on multiple threads at once");
+        config.addHeader("rerouteUsingSnapshot", "Reading the rails and signs is still done on the main thread, limited by pathFindingMaxProcessingPerTick");
+        rerouteUsingSnapshot = config.get("rerouteUsingSnapshot", false);
+
         config.setHeader("pathFindingMaxProcessingPerTick", "\nSets the maximum amount of time (in milliseconds) to spend, per tick,");
         config.addHeader("pathFindingMaxProcessingPerTick", "calculating train routing information. (/train reroute, reroute debug stick)");
         config.addHeader("pathFindingMaxProcessingPerTick", "Raising this can make computations go faster at the cost of server TPS");
@@ -45,6 +45,7 @@ import com.bergerkiller.bukkit.tc.controller.global.SignController;
 import com.bergerkiller.bukkit.tc.controller.global.TrainCartsPlayer;
 import com.bergerkiller.bukkit.tc.controller.global.TrainCartsPlayerStore;
 import com.bergerkiller.bukkit.tc.controller.global.TrainUpdateController;
+import com.bergerkiller.bukkit.tc.controller.spawnable.SpawnableGroup;
 import com.bergerkiller.bukkit.tc.detector.DetectorRegion;
 import com.bergerkiller.bukkit.tc.itemanimation.ItemAnimation;
 import com.bergerkiller.bukkit.tc.locator.TrainLocator;
@@ -147,7 +148,6 @@ public class TrainCarts extends PluginBase {
         }
     };
     private final SoftDependency<Plugin> signLink = new SoftDependency<Plugin>(this, "SignLink") {
-        private Task signtask;
         private Listener variableSuppressionListener = null;
 
         @Override
@@ -158,13 +158,7 @@ public class TrainCarts extends PluginBase {
         @Override
         protected void onEnable() {
             log(Level.INFO, "SignLink detected, support for arrival signs added!");
-            Task.stop(signtask);
-            signtask = new Task(TrainCarts.this) {
-                public void run() {
-                    ArrivalSigns.updateAll();
-                }
-            };
-            signtask.start(0, 10);
+            ArrivalSigns.updateAll();
 
             // If SignLink supports it, add a variable detection event handler that suppresses detection
             // inside TrainCarts ([train]/[cart]) signs. This is primarily to make the spawn sign % chance
@@ -193,8 +187,6 @@ public class TrainCarts extends PluginBase {
 
         @Override
         protected void onDisable() {
-            Task.stop(signtask);
-            signtask = null;
             if (variableSuppressionListener != null) {
                 CommonUtil.unregisterListener(variableSuppressionListener);
                 variableSuppressionListener = null;
@@ -1035,6 +1027,10 @@ public class TrainCarts extends PluginBase {
         //Stop pending tasks for fake player list clearing
         FakePlayerSpawner.runAndClearCleanupTasks();
 
+        //Forget about previously parsed spawn patterns and indexed minecarts
+        SpawnableGroup.clearParsedTemplates();
+        MinecartMemberStore.clearCachedMembers();
+
         //Stop tasks
         Task.stop(autosaveTask);
         Task.stop(cacheCleanupTask);
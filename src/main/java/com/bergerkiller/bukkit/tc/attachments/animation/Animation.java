@@ -31,6 +31,7 @@ public class Animation implements Cloneable {
     private double _time;
     private boolean _startedPlaying;
     private boolean _reachedEnd;
+    private int _timelineCursor;
 
     protected Animation(Animation source) {
         this._options = source._options.clone();
@@ -348,7 +349,93 @@ public class Animation implements Cloneable {
             }
         }
 
-        return findPlayPosition(scene, curr_time).toNode();
+        return findNode(scene, curr_time);
+    }
+
+    /**
+     * Calculates the (interpolated) animation node at the play position of this animation
+     * for a given scene and time. This produces the same node as
+     * {@link #findPlayPosition(Scene, double)}, but does not create the play position.
+     *
+     * @param scene Scene
+     * @param elapsedTime Time since the beginning of the scene
+     * @return Animation node
+     */
+    private AnimationNode findNode(Scene scene, double elapsedTime) {
+        if (scene.isSingleFrame()) {
+            return this._nodes[scene.nodeBeginIndex()];
+        }
+
+        Scene.Timeline timeline = scene.getTimeline(this._nodes);
+        int count = timeline.getPositionCount(this._options.isLooped());
+        int index = findTimelineIndex(timeline, count, elapsedTime);
+        if (index == -1) {
+            return this._nodes[scene.nodeEndIndex()]; // Should never be reached
+        } else if (index == (count - 1)) {
+            return this._nodes[timeline.nodeIndices[index]];
+        }
+
+        // Same logic as PlayPositionBetween findPosition() and toNode()
+        AnimationNode node0 = this._nodes[timeline.nodeIndices[index]];
+        AnimationNode node1 = this._nodes[timeline.nodeIndices[index + 1]];
+        double delta = elapsedTime - timeline.times[index];
+        double duration = timeline.durations[index];
+        if (delta == 0.0) {
+            return (duration > 0.0 || this._options.isReversed()) ? node0 : node1;
+        } else if (delta == duration) {
+            return node1;
+        } else {
+            return AnimationNode.interpolate(node0, node1, delta / duration);
+        }
+    }
+
+    /**
+     * Finds the index of the play position in a scene timeline that contains the elapsed time.
+     * The position found the previous time is checked first, as during playback
+     * the time only moves forwards or backwards by a little. Otherwise a binary search
+     * is used.
+     *
+     * @param timeline Scene timeline
+     * @param count Number of play positions in the timeline
+     * @param elapsedTime Elapsed time
+     * @return Timeline index, or -1 if not found
+     */
+    private int findTimelineIndex(Scene.Timeline timeline, int count, double elapsedTime) {
+        int lastBetween = count - 2;
+        if (lastBetween >= 0) {
+            // Try the last position found, or the one right after/before
+            int cursor = Math.min(this._timelineCursor, lastBetween);
+            if (timeline.isWithinBetween(cursor, elapsedTime)) {
+                if (cursor == 0 || !timeline.isWithinBetween(cursor - 1, elapsedTime)) {
+                    return cursor;
+                } else if (cursor == 1 || !timeline.isWithinBetween(cursor - 2, elapsedTime)) {
+                    return (this._timelineCursor = cursor - 1);
+                }
+            } else if (cursor < lastBetween && timeline.isWithinBetween(cursor + 1, elapsedTime)) {
+                return (this._timelineCursor = cursor + 1);
+            }
+
+            // Binary search for the first position with the time in range
+            int low = 0, high = lastBetween;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timeline.isWithinBetween(mid, elapsedTime)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            if (timeline.isWithinBetween(low, elapsedTime)) {
+                // Guard against rounding errors accumulating the times
+                while (low > 0 && timeline.isWithinBetween(low - 1, elapsedTime)) {
+                    low--;
+                }
+                return (this._timelineCursor = low);
+            }
+        }
+
+        // Last position, which is not a between position, only matches the exact time
+        return (timeline.times[count - 1] == elapsedTime) ? (count - 1) : -1;
     }
 
     /**
@@ -365,9 +452,12 @@ public class Animation implements Cloneable {
         }
 
         // Interpolate to find the correct animation node
-        boolean playReversed = this._options.isReversed();
-        for (PlayPosition scenePosition : scene.iteratePlayPositions(this._nodes, this._options.isLooped())) {
-            PlayPosition result = scenePosition.findPosition(elapsedTime, playReversed);
+        Scene.Timeline timeline = scene.getTimeline(this._nodes);
+        int count = timeline.getPositionCount(this._options.isLooped());
+        int index = findTimelineIndex(timeline, count, elapsedTime);
+        if (index != -1) {
+            PlayPosition result = timeline.getPlayPosition(this._nodes, index, count)
+                    .findPosition(elapsedTime, this._options.isReversed());
             if (result != null) {
                 return result;
             }
@@ -385,17 +475,19 @@ public class Animation implements Cloneable {
      * @return Time from start of the scene
      */
     private double findTime(Scene scene, PlayPosition playPosition) {
-        double time = 0.0;
-        for (PlayPosition scenePosition : scene.iteratePlayPositions(this._nodes, this._options.isLooped())) {
-            if (scenePosition.node0Index() == playPosition.node0Index()) {
-                return scenePosition.elapsedTime() + playPosition.deltaTime();
-            } else {
-                time = scenePosition.elapsedTime();
-            }
+        if (scene.nodeBeginIndex() == scene.nodeEndIndex()) {
+            return (playPosition.node0Index() == scene.nodeBeginIndex()) ? playPosition.deltaTime() : 0.0;
+        }
+
+        Scene.Timeline timeline = scene.getTimeline(this._nodes);
+        int count = timeline.getPositionCount(this._options.isLooped());
+        int index = timeline.indexOfNode(playPosition.node0Index(), this._nodes.length);
+        if (index >= 0 && index < count) {
+            return timeline.times[index] + playPosition.deltaTime();
         }
 
         // Probably never gets here?
-        return time;
+        return timeline.times[count - 1];
     }
 
     /**
@@ -419,6 +511,7 @@ public class Animation implements Cloneable {
 
         // Assign
         this._currentScene = scene;
+        this._timelineCursor = 0;
     }
 
     /**
@@ -505,6 +598,7 @@ public class Animation implements Cloneable {
         private final int _nodeBegin;
         private final int _nodeEnd;
         private final double _duration;
+        private Timeline _timeline;
 
         public Scene(int nodeBegin, int nodeEnd, double duration) {
             this._nodeBegin = nodeBegin;
@@ -581,10 +675,132 @@ public class Animation implements Cloneable {
             return PlayPosition.iterate(nodes, nodeBeginIndex(), nodeEndIndex(), looped);
         }
 
+        /**
+         * Gets the precomputed timeline of this scene, which stores the node index and
+         * elapsed time of every play position of the scene. Is computed the first
+         * time this is called, the same nodes must be specified every time.
+         *
+         * @param nodes All animation nodes of the Animation
+         * @return Timeline
+         */
+        Timeline getTimeline(AnimationNode[] nodes) {
+            Timeline timeline = this._timeline;
+            if (timeline == null) {
+                this._timeline = timeline = new Timeline(this, nodes);
+            }
+            return timeline;
+        }
+
         @Override
         public String toString() {
             return "Scene{duration=" + this._duration + ", start=" + this._nodeBegin + ", end=" + this._nodeEnd + "}";
         }
+
+        /**
+         * The play positions of a scene, in the same order as they are iterated by
+         * {@link Scene#iteratePlayPositions(AnimationNode[], boolean)}. When looped, an
+         * additional position is included to loop from the end back to the beginning.
+         * Stores the elapsed times as a sorted array, so the play position at a time
+         * can be found using a binary search.
+         */
+        static final class Timeline {
+            /** Node index of each play position */
+            final int[] nodeIndices;
+            /** Elapsed time since the start of the scene at each play position */
+            final double[] times;
+            /** Duration of the node at each play position */
+            final double[] durations;
+            /** Index into the nodes array of the first node of the scene */
+            private final int nodeBegin;
+
+            Timeline(Scene scene, AnimationNode[] nodes) {
+                int numNodes = scene._nodeEnd - scene._nodeBegin + 1;
+                if (scene.isInsideOut()) {
+                    numNodes += nodes.length;
+                }
+
+                this.nodeBegin = scene._nodeBegin;
+                this.nodeIndices = new int[numNodes + 1];
+                this.times = new double[numNodes + 1];
+                this.durations = new double[numNodes + 1];
+
+                double totalElapsedTime = 0.0;
+                int nodeIndex = scene._nodeBegin;
+                for (int i = 0; i <= numNodes; i++) {
+                    double duration = nodes[nodeIndex].getDuration();
+                    this.nodeIndices[i] = nodeIndex;
+                    this.times[i] = totalElapsedTime;
+                    this.durations[i] = duration;
+                    totalElapsedTime += duration;
+                    if (i == (numNodes - 1)) {
+                        nodeIndex = scene._nodeBegin; // Loops back around
+                    } else if (++nodeIndex >= nodes.length) {
+                        nodeIndex = 0; // Inside-out scene
+                    }
+                }
+            }
+
+            /**
+             * Gets the number of play positions of the scene
+             *
+             * @param looped Whether the scene loops around at the end
+             * @return Play position count
+             */
+            int getPositionCount(boolean looped) {
+                int numNodes = this.nodeIndices.length - 1;
+                return (looped && numNodes > 1) ? (numNodes + 1) : numNodes;
+            }
+
+            /**
+             * Gets whether an elapsed time lies within the between play position at an index.
+             * Returns the same as whether {@link PlayPositionBetween#findPosition(double, boolean)}
+             * returns non-null.
+             *
+             * @param index Play position index
+             * @param elapsedTime Elapsed time
+             * @return True if within
+             */
+            boolean isWithinBetween(int index, double elapsedTime) {
+                double delta = elapsedTime - this.times[index];
+                return delta == 0.0 || delta <= this.durations[index];
+            }
+
+            /**
+             * Gets the first play position index of a node
+             *
+             * @param nodeIndex Index of the node
+             * @param numAnimationNodes Total number of nodes of the animation
+             * @return Play position index, or -1 if the node is not played
+             */
+            int indexOfNode(int nodeIndex, int numAnimationNodes) {
+                int index = nodeIndex - this.nodeBegin;
+                if (index < 0) {
+                    index += numAnimationNodes;
+                }
+                return (index < (this.nodeIndices.length - 1)) ? index : -1;
+            }
+
+            /**
+             * Creates the PlayPosition at an index, as would be iterated by
+             * {@link Scene#iteratePlayPositions(AnimationNode[], boolean)}
+             *
+             * @param nodes All animation nodes of the Animation
+             * @param index Play position index
+             * @param count Number of play positions
+             * @return PlayPosition at this index
+             */
+            PlayPosition getPlayPosition(AnimationNode[] nodes, int index, int count) {
+                int node0Index = this.nodeIndices[index];
+                if (index == (count - 1)) {
+                    return new PlayPosition(this.times[index], node0Index, nodes[node0Index]);
+                } else {
+                    int node1Index = this.nodeIndices[index + 1];
+                    return new PlayPositionBetween(this.times[index], 0.0,
+                            node0Index, nodes[node0Index],
+                            node1Index, nodes[node1Index]);
+                }
+            }
+        }
     }
 
     /**
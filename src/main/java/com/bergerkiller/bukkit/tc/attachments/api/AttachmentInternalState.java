@@ -3,7 +3,6 @@ package com.bergerkiller.bukkit.tc.attachments.api;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -16,6 +15,8 @@ import com.bergerkiller.bukkit.common.config.ConfigurationNode;
 import com.bergerkiller.bukkit.common.math.Matrix4x4;
 import com.bergerkiller.bukkit.tc.attachments.animation.Animation;
 import com.bergerkiller.bukkit.tc.attachments.animation.AnimationNode;
+import com.bergerkiller.bukkit.tc.attachments.config.AttachmentConfig;
+import com.bergerkiller.bukkit.tc.attachments.config.AttachmentTemplate;
 import com.bergerkiller.bukkit.tc.attachments.config.ObjectPosition;
 import com.bergerkiller.bukkit.tc.attachments.control.CartAttachment;
 import com.bergerkiller.bukkit.tc.attachments.helper.ActiveChangeHandler;
@@ -146,45 +147,37 @@ public class AttachmentInternalState {
             final AttachmentType attachmentType,
             final ConfigurationNode config
     ) {
+        onLoad(AttachmentTemplate.compile(managerType, attachmentType, config));
+    }
+
+    /**
+     * Loads configuration that applies to all attachments into this internal state,
+     * using the pre-parsed information stored in a shared template. This avoids
+     * reading the YAML configuration again for every attachment.
+     *
+     * @param template Compiled template of the attachment configuration
+     * @see AttachmentConfig#template(Class, AttachmentType)
+     */
+    public void onLoad(final AttachmentTemplate template) {
         // Reset prior to loading (new) animations
         this.resetEffectsAndAnimations();
 
-        // Migrations
-        try {
-            attachmentType.migrateConfiguration(config);
-        } catch (Throwable t) {
-            attachmentType.getPlugin().getLogger().log(Level.SEVERE,
-                    "Failed to migrate attachment configuration of " + attachmentType.getName(), t);
-        }
-
         // Store it
-        this.plugin = attachmentType.getPlugin();
-        this.config = config;
+        this.plugin = template.getAttachmentType().getPlugin();
+        this.config = template.getConfig();
 
         // Position
-        this.position.load(managerType, attachmentType, config.getNodeIfExists("position"));
+        this.position.loadCopy(template.getPosition());
 
         // Effect names (for effect attachments)
-        List<String> effectNamesList;
-        if (config.contains("names") &&
-            !(effectNamesList = config.getList("names", String.class)).isEmpty()
-        ) {
-            this.names = new LinkedHashSet<>(effectNamesList);
-        } else {
-            this.names = Collections.emptySet();
-        }
-
-        // Animation list
-        if (config.isNode("animations")) {
-            ConfigurationNode animations = config.getNode("animations");
-            for (ConfigurationNode animationConfig : animations.getNodes()) {
-                Animation anim = Animation.loadFromConfig(animationConfig);
-                if (anim != null) {
-                    this.animations.put(anim.getOptions().getName(), anim);
-                    if (anim.getOptions().isAutoPlay()) {
-                        this.currentAnimation = anim;
-                    }
-                }
+        this.names = template.getNames();
+
+        // Animation list. Animations store play state, so must be cloned.
+        for (Animation templateAnim : template.getAnimations()) {
+            Animation anim = templateAnim.clone();
+            this.animations.put(anim.getOptions().getName(), anim);
+            if (anim.getOptions().isAutoPlay()) {
+                this.currentAnimation = anim;
             }
         }
     }
@@ -1,7 +1,7 @@
 package com.bergerkiller.bukkit.tc.attachments.api;
 
-import com.bergerkiller.bukkit.common.config.ConfigurationNode;
 import com.bergerkiller.bukkit.tc.attachments.config.AttachmentConfig;
+import com.bergerkiller.bukkit.tc.attachments.config.AttachmentTemplate;
 import com.bergerkiller.bukkit.tc.attachments.control.CartAttachmentEmpty;
 import org.bukkit.entity.Player;
 
@@ -80,12 +80,14 @@ public interface AttachmentManager {
     default Attachment createAttachment(AttachmentConfig attachmentConfig) {
         AttachmentType attachmentType = getTypeRegistry().findOrEmpty(attachmentConfig.typeId());
 
-        ConfigurationNode config = attachmentConfig.config();
-        Attachment attachment = attachmentType.createController(config);
+        // Shared by all attachments created from the same configuration
+        AttachmentTemplate template = attachmentConfig.template(this.getClass(), attachmentType);
+
+        Attachment attachment = attachmentType.createController(template.getConfig());
         AttachmentInternalState state = attachment.getInternalState();
         state.manager = this;
         state.rootParent = attachment; // Until assigned to a parent, is its own root
-        state.onLoad(this.getClass(), attachmentType, config);
+        state.onLoad(template);
 
         for (AttachmentConfig childAttachmentConfig : attachmentConfig.children()) {
             attachment.addChild(createAttachment(childAttachmentConfig));
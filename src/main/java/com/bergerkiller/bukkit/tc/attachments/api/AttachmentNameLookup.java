@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,26 +30,33 @@ public class AttachmentNameLookup {
         EMPTY.invalidate(); // Not backed by anything so is invalid
     }
 
+    /** Maximum number of changed names kept apart before they are merged into a new by-name mapping */
+    private static final int MAX_CHANGED_NAMES = 32;
+
     private final List<Attachment> all;
     private final List<Attachment> parents;
     private final Map<String, List<Attachment>> byName;
-    private final List<String> names;
+    private final Map<String, List<Attachment>> changedByName;
+    private volatile List<String> names;
     private boolean valid = true;
 
-    private AttachmentNameLookup(AttachmentNameLookup original) {
-        this.all = original.all;
-        this.parents = original.parents;
-        this.byName = original.byName;
-        this.names = original.names;
-        this.valid = original.valid;
+    private AttachmentNameLookup(List<Attachment> all, List<Attachment> parents, Map<String, List<Attachment>> byName) {
+        this(all, parents, byName, Collections.emptyMap());
     }
 
-    private AttachmentNameLookup(List<Attachment> all, List<Attachment> parents, Map<String, List<Attachment>> byName) {
+    /**
+     * Creates a lookup with a by-name mapping shared with a previous lookup, and the lists of the
+     * names that changed since. Changed names that no longer have attachments map to an empty list.
+     */
+    private AttachmentNameLookup(List<Attachment> all, List<Attachment> parents,
+                                 Map<String, List<Attachment>> byName,
+                                 Map<String, List<Attachment>> changedByName
+    ) {
         this.all = all;
         this.parents = parents;
         this.byName = byName;
-        this.names = byName.isEmpty() ? Collections.emptyList()
-                : Collections.unmodifiableList(new ArrayList<>(byName.keySet()));
+        this.changedByName = changedByName;
+        this.names = (byName.isEmpty() && changedByName.isEmpty()) ? Collections.emptyList() : null;
     }
 
     private static void makeListsImmutable(Map<String, List<Attachment>> attachments) {
@@ -91,6 +99,21 @@ public class AttachmentNameLookup {
      * @return Names
      */
     public List<String> names() {
+        List<String> names = this.names;
+        if (names == null) {
+            List<String> result = new ArrayList<>(byName.size() + changedByName.size());
+            for (String name : byName.keySet()) {
+                if (!changedByName.containsKey(name)) {
+                    result.add(name);
+                }
+            }
+            for (Map.Entry<String, List<Attachment>> e : changedByName.entrySet()) {
+                if (!e.getValue().isEmpty()) {
+                    result.add(e.getKey());
+                }
+            }
+            this.names = names = Collections.unmodifiableList(result);
+        }
         return names;
     }
 
@@ -102,9 +125,8 @@ public class AttachmentNameLookup {
      * @return Names
      */
     public List<String> names(Predicate<Attachment> filter) {
-        return byName.entrySet().stream()
-                .filter(e -> containsMatching(e.getValue(), filter))
-                .map(Map.Entry::getKey)
+        return names().stream()
+                .filter(name -> containsMatching(get(name), filter))
                 .collect(StreamUtil.toUnmodifiableList());
     }
 
@@ -116,7 +138,11 @@ public class AttachmentNameLookup {
      * @return List of attachments matching this name
      */
     public List<Attachment> get(String name) {
-        return byName.getOrDefault(name, Collections.emptyList());
+        List<Attachment> attachments = changedByName.get(name);
+        if (attachments == null) {
+            attachments = byName.getOrDefault(name, Collections.emptyList());
+        }
+        return attachments;
     }
 
     /**
@@ -166,7 +192,7 @@ public class AttachmentNameLookup {
      * @return List of all attachments
      */
     public List<Attachment> all(Predicate<Attachment> filter) {
-        return Util.filterList(all, filter);
+        return Util.filterList(all(), filter);
     }
 
     /**
@@ -195,7 +221,7 @@ public class AttachmentNameLookup {
      * @return List of all parent attachments
      */
     public List<Attachment> parents(Predicate<Attachment> filter) {
-        return parents.stream().filter(filter).collect(StreamUtil.toUnmodifiableList());
+        return parents().stream().filter(filter).collect(StreamUtil.toUnmodifiableList());
     }
 
     /**
@@ -211,7 +237,7 @@ public class AttachmentNameLookup {
             case NONE:
                 return Collections.emptyList();
             case PARENTS:
-                return Util.filterAndMultiMapList(parents,
+                return Util.filterAndMultiMapList(parents(),
                         a -> selector.matches(a) && !excluding.contains(a),
                         Attachment::getNames);
             default:
@@ -259,6 +285,145 @@ public class AttachmentNameLookup {
         return false;
     }
 
+    /**
+     * Creates a new lookup with attachments added to the attachment tree. Only the
+     * attachment lists of the names of the added attachments are copied, the
+     * other lists are shared with this lookup. This lookup is invalidated.
+     *
+     * @param all Unmodifiable flattened list of all attachments of the updated tree
+     * @param added Attachments that were added to the tree
+     * @return Updated AttachmentNameLookup
+     */
+    public AttachmentNameLookup withAdded(List<Attachment> all, List<Attachment> added) {
+        return withChanges(all, Collections.emptyList(), null, added);
+    }
+
+    /**
+     * Creates a new lookup with attachments removed from the attachment tree. Only the
+     * attachment lists of the names of the removed attachments are copied, the
+     * other lists are shared with this lookup. This lookup is invalidated.
+     *
+     * @param all Unmodifiable flattened list of all attachments of the updated tree
+     * @param removed Attachments that were removed from the tree
+     * @return Updated AttachmentNameLookup
+     */
+    public AttachmentNameLookup withRemoved(List<Attachment> all, List<Attachment> removed) {
+        return withChanges(all, removed, null, Collections.emptyList());
+    }
+
+    /**
+     * Creates a new lookup with the names of an attachment changed. Only the attachment
+     * lists of the old and new names are copied, the other lists are shared with this
+     * lookup. This lookup is invalidated.
+     *
+     * @param attachment Attachment whose names changed
+     * @param oldNames Names the attachment had before
+     * @return Updated AttachmentNameLookup
+     */
+    public AttachmentNameLookup withRenamed(Attachment attachment, Collection<String> oldNames) {
+        return withChanges(all, Collections.singletonList(attachment), oldNames, Collections.singletonList(attachment));
+    }
+
+    private AttachmentNameLookup withChanges(List<Attachment> all, List<Attachment> removed,
+                                             Collection<String> removedNames, List<Attachment> added
+    ) {
+        // Only the lists of names that changed are copied. The by-name mapping is shared,
+        // with the changed lists kept apart, until too many names have changed.
+        Map<String, List<Attachment>> changed = new HashMap<>(changedByName);
+        for (Attachment attachment : removed) {
+            for (String name : (removedNames == null) ? attachment.getNames() : removedNames) {
+                changedList(changed, name).remove(attachment);
+            }
+        }
+        for (Attachment attachment : added) {
+            for (String name : attachment.getNames()) {
+                insertInTreeOrder(changedList(changed, name), attachment);
+            }
+        }
+
+        // Lists that were copied just now are made immutable
+        changed.replaceAll((name, list) -> {
+            if (!(list instanceof ArrayList)) {
+                return list;
+            } else if (list.isEmpty()) {
+                return Collections.emptyList();
+            } else {
+                return Collections.unmodifiableList(list);
+            }
+        });
+
+        invalidate();
+        if (changed.size() > MAX_CHANGED_NAMES) {
+            Map<String, List<Attachment>> newByName = new HashMap<>(byName);
+            for (Map.Entry<String, List<Attachment>> e : changed.entrySet()) {
+                if (e.getValue().isEmpty()) {
+                    newByName.remove(e.getKey());
+                } else {
+                    newByName.put(e.getKey(), e.getValue());
+                }
+            }
+            return new AttachmentNameLookup(all, parents, newByName);
+        } else {
+            return new AttachmentNameLookup(all, parents, byName, changed);
+        }
+    }
+
+    private List<Attachment> changedList(Map<String, List<Attachment>> changed, String name) {
+        List<Attachment> list = changed.get(name);
+        if (!(list instanceof ArrayList)) {
+            list = new ArrayList<>(get(name));
+            changed.put(name, list);
+        }
+        return list;
+    }
+
+    /**
+     * Inserts an attachment into a list of attachments sorted in the same depth-first order
+     * as {@link #create(Attachment)} lists them
+     *
+     * @param list List to insert into
+     * @param attachment Attachment to insert
+     */
+    private static void insertInTreeOrder(List<Attachment> list, Attachment attachment) {
+        int index = list.size();
+        while (index > 0 && compareTreeOrder(list.get(index - 1), attachment) > 0) {
+            index--;
+        }
+        list.add(index, attachment);
+    }
+
+    /**
+     * Compares the position of two attachments of the same tree in depth-first order.
+     * Parents come before their children, and children in the order they were added.
+     */
+    private static int compareTreeOrder(Attachment a, Attachment b) {
+        if (a == b) {
+            return 0;
+        }
+
+        // All parents of a, starting with a itself
+        List<Attachment> pathA = new ArrayList<>();
+        for (Attachment p = a; p != null; p = p.getParent()) {
+            pathA.add(p);
+        }
+
+        // Find the first parent of b that is also a parent of a
+        Attachment childB = null;
+        for (Attachment p = b; p != null; childB = p, p = p.getParent()) {
+            int indexA = pathA.indexOf(p);
+            if (indexA == 0) {
+                return -1; // a is a parent of b
+            } else if (indexA != -1) {
+                if (childB == null) {
+                    return 1; // b is a parent of a
+                }
+                List<Attachment> children = p.getChildren();
+                return Integer.compare(children.indexOf(pathA.get(indexA - 1)), children.indexOf(childB));
+            }
+        }
+        return 0; // Not part of the same tree
+    }
+
     /**
      * Creates a new AttachmentNameLookup of an attachment tree starting at the
      * root attachment specified
@@ -294,7 +459,9 @@ public class AttachmentNameLookup {
     }
 
     /**
-     * Merges all the by-name lookups into a single by-name lookup view.
+     * Merges all the by-name lookups into a single by-name lookup view. The view
+     * does not copy the attachments of the lookups, but queries the lookups
+     * when needed.
      *
      * @param nameLookups Lookups to merge. This Collection must be immutable.
      * @return Merged view
@@ -307,55 +474,91 @@ public class AttachmentNameLookup {
             return nameLookups.iterator().next();
         }
 
-        // Go by all lookups and merge them into one collection
-        Map<String, List<Attachment>> resultByName = new HashMap<>(32);
-        List<Attachment> resultAll = new ArrayList<>(64);
-        List<Attachment> resultParents = new ArrayList<>(16);
-        for (AttachmentNameLookup lookup : nameLookups) {
-            // Merge into the by-name mapping
-            if (!lookup.byName.isEmpty()) {
-                for (Map.Entry<String, List<Attachment>> e : lookup.byName.entrySet()) {
-                    resultByName.computeIfAbsent(e.getKey(), n -> new ArrayList<>()).addAll(e.getValue());
-                }
-            }
-
-            // Merge All
-            resultAll.addAll(lookup.all);
-
-            // Merge Parents
-            resultParents.addAll(lookup.parents);
-        }
-
-        makeListsImmutable(resultByName);
-        return new AttachmentNameLookupMerged(
-                Collections.unmodifiableList(resultAll),
-                Collections.unmodifiableList(resultParents),
-                resultByName,
-                nameLookups);
+        return new AttachmentNameLookupMerged(nameLookups);
     }
 
     /**
-     * Provides a merged view of the attachments of many members
+     * Provides a merged view of the attachments of many members. Name queries are
+     * forwarded to the lookups of the members. The lists of all names, attachments
+     * and parents are combined the first time they are requested.
      */
     private static class AttachmentNameLookupMerged extends AttachmentNameLookup {
         private final Collection<AttachmentNameLookup> originalLookups;
+        private volatile List<String> mergedNames = null;
+        private volatile List<Attachment> mergedAll = null;
+        private volatile List<Attachment> mergedParents = null;
 
-        private AttachmentNameLookupMerged(
-                AttachmentNameLookup original,
-                Collection<AttachmentNameLookup> originalLookups
-        ) {
-            super(original);
+        private AttachmentNameLookupMerged(Collection<AttachmentNameLookup> originalLookups) {
+            super(Collections.emptyList(), Collections.emptyList(), Collections.emptyMap());
             this.originalLookups = originalLookups;
         }
 
-        private AttachmentNameLookupMerged(
-                List<Attachment> all,
-                List<Attachment> parents,
-                Map<String, List<Attachment>> byName,
-                Collection<AttachmentNameLookup> originalLookups
-        ) {
-            super(all, parents, byName);
-            this.originalLookups = originalLookups;
+        @Override
+        public List<String> names() {
+            List<String> names = this.mergedNames;
+            if (names == null) {
+                Set<String> result = new LinkedHashSet<>();
+                for (AttachmentNameLookup lookup : originalLookups) {
+                    result.addAll(lookup.names());
+                }
+                this.mergedNames = names = Collections.unmodifiableList(new ArrayList<>(result));
+            }
+            return names;
+        }
+
+        @Override
+        public List<String> names(Predicate<Attachment> filter) {
+            Set<String> result = new LinkedHashSet<>();
+            for (AttachmentNameLookup lookup : originalLookups) {
+                result.addAll(lookup.names(filter));
+            }
+            return Collections.unmodifiableList(new ArrayList<>(result));
+        }
+
+        @Override
+        public List<Attachment> get(String name) {
+            List<Attachment> found = Collections.emptyList();
+            List<Attachment> result = null;
+            for (AttachmentNameLookup lookup : originalLookups) {
+                List<Attachment> attachments = lookup.get(name);
+                if (attachments.isEmpty()) {
+                    continue;
+                } else if (found.isEmpty()) {
+                    found = attachments;
+                } else {
+                    if (result == null) {
+                        result = new ArrayList<>(found);
+                    }
+                    result.addAll(attachments);
+                }
+            }
+            return (result == null) ? found : Collections.unmodifiableList(result);
+        }
+
+        @Override
+        public List<Attachment> all() {
+            List<Attachment> all = this.mergedAll;
+            if (all == null) {
+                List<Attachment> result = new ArrayList<>(64);
+                for (AttachmentNameLookup lookup : originalLookups) {
+                    result.addAll(lookup.all());
+                }
+                this.mergedAll = all = Collections.unmodifiableList(result);
+            }
+            return all;
+        }
+
+        @Override
+        public List<Attachment> parents() {
+            List<Attachment> parents = this.mergedParents;
+            if (parents == null) {
+                List<Attachment> result = new ArrayList<>(16);
+                for (AttachmentNameLookup lookup : originalLookups) {
+                    result.addAll(lookup.parents());
+                }
+                this.mergedParents = parents = Collections.unmodifiableList(result);
+            }
+            return parents;
         }
 
         @Override
@@ -3,6 +3,8 @@ package com.bergerkiller.bukkit.tc.attachments.config;
 import com.bergerkiller.bukkit.common.config.ConfigurationNode;
 import com.bergerkiller.bukkit.common.config.yaml.YamlPath;
 import com.bergerkiller.bukkit.tc.attachments.api.Attachment;
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentManager;
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentType;
 import com.bergerkiller.bukkit.tc.utils.ListCallbackCollector;
 
 import java.util.ArrayList;
@@ -260,6 +262,21 @@ public interface AttachmentConfig {
      */
     ConfigurationNode config();
 
+    /**
+     * Gets the compiled {@link AttachmentTemplate} of this attachment configuration.
+     * The template stores the pre-parsed position, names and animations, and is
+     * shared by all attachments created from the same configuration. Tracked
+     * configurations cache the template until the configuration changes, so
+     * that it is only compiled once per change.
+     *
+     * @param managerType Type of attachment manager that will host the attachment
+     * @param attachmentType Type of attachment being loaded
+     * @return compiled attachment template
+     */
+    default AttachmentTemplate template(Class<? extends AttachmentManager> managerType, AttachmentType attachmentType) {
+        return AttachmentTemplate.compile(managerType, attachmentType, config());
+    }
+
     /**
      * Gets whether this attachment has an empty configuration.
      * If the {@link #config() configuration} does not declare an attachment
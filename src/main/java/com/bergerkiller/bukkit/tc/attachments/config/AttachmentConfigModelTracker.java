@@ -3,6 +3,8 @@ package com.bergerkiller.bukkit.tc.attachments.config;
 import com.bergerkiller.bukkit.common.config.ConfigurationNode;
 import com.bergerkiller.bukkit.common.config.yaml.YamlPath;
 import com.bergerkiller.bukkit.tc.attachments.api.Attachment;
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentManager;
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentType;
 import org.bukkit.plugin.Plugin;
 
 import java.util.ArrayList;
@@ -269,6 +271,11 @@ public abstract class AttachmentConfigModelTracker extends AttachmentConfigTrack
             return base.isEmptyConfig();
         }
 
+        @Override
+        public AttachmentTemplate template(Class<? extends AttachmentManager> managerType, AttachmentType attachmentType) {
+            return base.template(managerType, attachmentType);
+        }
+
         @Override
         public void runAction(Consumer<Attachment> action) {
             if (!position.isRemoved()) {
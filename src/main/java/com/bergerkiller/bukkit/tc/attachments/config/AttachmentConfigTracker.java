@@ -6,6 +6,7 @@ import com.bergerkiller.bukkit.common.config.yaml.YamlChangeListener;
 import com.bergerkiller.bukkit.common.config.yaml.YamlPath;
 import com.bergerkiller.bukkit.common.utils.LogicUtil;
 import com.bergerkiller.bukkit.tc.attachments.api.Attachment;
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentManager;
 import com.bergerkiller.bukkit.tc.attachments.api.AttachmentType;
 import org.bukkit.plugin.Plugin;
 
@@ -402,6 +403,7 @@ public class AttachmentConfigTracker extends AttachmentConfigTrackerBase impleme
         private boolean configChanged;
         private boolean childrenRefreshNeeded;
         private boolean removed;
+        private AttachmentTemplate template;
 
         private TrackedAttachmentConfig(TrackedAttachmentConfig parent, YamlPath rootPath, ConfigurationNode config, String typeId, int childIndex) {
             this.parent = parent;
@@ -522,6 +524,15 @@ public class AttachmentConfigTracker extends AttachmentConfigTrackerBase impleme
             return false;
         }
 
+        @Override
+        public AttachmentTemplate template(Class<? extends AttachmentManager> managerType, AttachmentType attachmentType) {
+            AttachmentTemplate template = this.template;
+            if (template == null || !template.isCompatible(managerType, attachmentType)) {
+                this.template = template = AttachmentTemplate.compile(managerType, attachmentType, config);
+            }
+            return template;
+        }
+
         @Override
         public void runAction(Consumer<Attachment> action) {
             if (!removed) {
@@ -574,6 +585,7 @@ public class AttachmentConfigTracker extends AttachmentConfigTrackerBase impleme
                 changed = false;
                 if (configChanged) {
                     configChanged = false;
+                    template = null; // Re-compile when next requested
                     if (handleLoad()) {
                         // We track all CHANGED messages separately, so that if further REMOVE/ADD occur,
                         // the index isn't all messed up and errors occur later on in handling it.
@@ -0,0 +1,166 @@
+package com.bergerkiller.bukkit.tc.attachments.config;
+
+import com.bergerkiller.bukkit.common.config.ConfigurationNode;
+import com.bergerkiller.bukkit.tc.attachments.animation.Animation;
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentManager;
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Immutable pre-parsed representation of the configuration every attachment has
+ * in common: the position, the effect names and the animations. A template is
+ * compiled once for an {@link AttachmentConfig} and is then shared by all live
+ * attachments created from it, for example by all carts spawned using the same
+ * saved attachment model. It is rebuilt when the attachment configuration
+ * changes.<br>
+ * <br>
+ * The position and animations stored here must not be modified. Use
+ * {@link #getPosition()} with {@link ObjectPosition#loadCopy(ObjectPosition)} and
+ * clone the animations before playing them.
+ */
+public final class AttachmentTemplate {
+    private final Class<? extends AttachmentManager> managerType;
+    private final AttachmentType attachmentType;
+    private final ConfigurationNode config;
+    private final ObjectPosition position;
+    private final Set<String> names;
+    private final List<Animation> animations;
+
+    private AttachmentTemplate(
+            Class<? extends AttachmentManager> managerType,
+            AttachmentType attachmentType,
+            ConfigurationNode config,
+            ObjectPosition position,
+            Set<String> names,
+            List<Animation> animations
+    ) {
+        this.managerType = managerType;
+        this.attachmentType = attachmentType;
+        this.config = config;
+        this.position = position;
+        this.names = names;
+        this.animations = animations;
+    }
+
+    /**
+     * Gets whether this template was compiled for the manager and attachment type
+     * specified. Templates are only compatible when both match, because the
+     * anchor of the position is resolved using them.
+     *
+     * @param managerType Type of attachment manager that will host the attachment
+     * @param attachmentType Type of attachment being loaded
+     * @return True if this template can be used
+     */
+    public boolean isCompatible(Class<? extends AttachmentManager> managerType, AttachmentType attachmentType) {
+        return this.managerType == managerType && this.attachmentType == attachmentType;
+    }
+
+    /**
+     * Gets the attachment type this template was compiled for
+     *
+     * @return attachment type
+     */
+    public AttachmentType getAttachmentType() {
+        return attachmentType;
+    }
+
+    /**
+     * Gets the (migrated) configuration this template was compiled from. This is the
+     * same live configuration node that is returned by {@link AttachmentConfig#config()}.
+     *
+     * @return attachment configuration
+     */
+    public ConfigurationNode getConfig() {
+        return config;
+    }
+
+    /**
+     * Gets the pre-parsed position of the attachment. Should not be modified.
+     *
+     * @return position
+     */
+    public ObjectPosition getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets the unmodifiable set of effect names assigned to the attachment
+     *
+     * @return names
+     */
+    public Set<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Gets the pre-parsed animations stored in the attachment. These should be
+     * cloned before use, as playing an animation changes its state.
+     *
+     * @return unmodifiable list of animations
+     */
+    public List<Animation> getAnimations() {
+        return animations;
+    }
+
+    /**
+     * Compiles a new template by reading the configuration specified. Performs
+     * the configuration migrations of the attachment type first.
+     *
+     * @param managerType Type of attachment manager that will host the attachment
+     * @param attachmentType Type of attachment being loaded
+     * @param config Attachment configuration
+     * @return compiled template
+     */
+    public static AttachmentTemplate compile(
+            Class<? extends AttachmentManager> managerType,
+            AttachmentType attachmentType,
+            ConfigurationNode config
+    ) {
+        // Migrations
+        try {
+            attachmentType.migrateConfiguration(config);
+        } catch (Throwable t) {
+            attachmentType.getPlugin().getLogger().log(Level.SEVERE,
+                    "Failed to migrate attachment configuration of " + attachmentType.getName(), t);
+        }
+
+        // Position
+        ObjectPosition position = new ObjectPosition();
+        position.load(managerType, attachmentType, config.getNodeIfExists("position"));
+
+        // Effect names (for effect attachments)
+        Set<String> names;
+        List<String> effectNamesList;
+        if (config.contains("names") &&
+            !(effectNamesList = config.getList("names", String.class)).isEmpty()
+        ) {
+            names = Collections.unmodifiableSet(new LinkedHashSet<>(effectNamesList));
+        } else {
+            names = Collections.emptySet();
+        }
+
+        // Animation list
+        List<Animation> animations;
+        if (config.isNode("animations")) {
+            ConfigurationNode animationsConfig = config.getNode("animations");
+            animations = new ArrayList<>();
+            for (ConfigurationNode animationConfig : animationsConfig.getNodes()) {
+                Animation anim = Animation.loadFromConfig(animationConfig);
+                if (anim != null) {
+                    animations.add(anim);
+                }
+            }
+            animations = Collections.unmodifiableList(animations);
+        } else {
+            animations = Collections.emptyList();
+        }
+
+        return new AttachmentTemplate(managerType, attachmentType, config, position, names, animations);
+    }
+}
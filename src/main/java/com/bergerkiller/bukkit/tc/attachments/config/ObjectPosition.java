@@ -77,6 +77,23 @@ public class ObjectPosition {
         this._isIdentity = source._isIdentity;
     }
 
+    /**
+     * Loads the full object position configuration by copying the values of another
+     * object position. Unlike {@link #load(ObjectPosition)}, the vectors of the source
+     * are not shared, so the source can be safely re-used.
+     *
+     * @param source
+     */
+    public void loadCopy(ObjectPosition source) {
+        this.anchor = source.anchor;
+        this.position = new Vector3(source.position.x, source.position.y, source.position.z);
+        this.rotation = new Vector3(source.rotation.x, source.rotation.y, source.rotation.z);
+        this.size = new Vector3(source.size.x, source.size.y, source.size.z);
+        this.transform.set(source.transform);
+        this._isDefault = source._isDefault;
+        this._isIdentity = source._isIdentity;
+    }
+
     /**
      * Loads the position from the configuration specified
      *
@@ -215,7 +215,8 @@ public class CartAttachmentSchematic extends CartAttachment {
                 schematic.addBlock((double) block.x - originX,
                                    (double) block.y - originY,
                                    (double) block.z - originZ,
-                        block.blockData);
+                        block.sizeX, block.sizeY, block.sizeZ,
+                        block.blockData, block.lowDetail);
             } while ((block = schematicReader.next()) != null);
 
             // This spawned new blocks, now mount them into the armorstand again
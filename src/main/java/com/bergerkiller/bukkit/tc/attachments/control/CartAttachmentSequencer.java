@@ -189,7 +189,7 @@ public class CartAttachmentSequencer extends CartAttachment implements Attachmen
     @Override
     public void onLoad(ConfigurationNode config) {
         runMode = config.getOrDefault("runMode", EffectLoop.RunMode.ASYNCHRONOUS);
-        autoplayFunction.load(config.getNodeIfExists("autoplay"), functionHost::loadFunction);
+        autoplayFunction.load(config.getNodeIfExists("autoplay"), functionHost::loadCompiledFunction);
         for (SequencerMode mode : SequencerMode.values()) {
             sequencerGroups.get(mode).load(config.getNodeIfExists(mode.configKey()));
         }
@@ -523,7 +523,7 @@ public class CartAttachmentSequencer extends CartAttachment implements Attachmen
             }
 
             // Speed
-            speedFunction.load(config.getNodeIfExists("speed"), sequencer.functionHost::loadFunction);
+            speedFunction.load(config.getNodeIfExists("speed"), sequencer.functionHost::loadCompiledFunction);
 
             // Duration
             duration = EffectLoop.Time.seconds(Math.max(0.0, config.getOrDefault("duration", 0.0)));
@@ -736,13 +736,13 @@ public class CartAttachmentSequencer extends CartAttachment implements Attachmen
                             .excludingSelf());
 
             // Active
-            activeFunction.load(config.getNodeIfExists("active"), sequencer.functionHost::loadFunction);
+            activeFunction.load(config.getNodeIfExists("active"), sequencer.functionHost::loadCompiledFunction);
 
             // Volume
-            volumeFunction.load(config.getNodeIfExists("volume"), sequencer.functionHost::loadFunction);
+            volumeFunction.load(config.getNodeIfExists("volume"), sequencer.functionHost::loadCompiledFunction);
 
             // Pitch
-            pitchFunction.load(config.getNodeIfExists("pitch"), sequencer.functionHost::loadFunction);
+            pitchFunction.load(config.getNodeIfExists("pitch"), sequencer.functionHost::loadCompiledFunction);
 
             // Stop-After time
             {
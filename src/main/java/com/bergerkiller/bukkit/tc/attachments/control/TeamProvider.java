@@ -15,20 +15,27 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Generates scoreboard teams and manages the assigning of these teams to groups
  * of entities. The name for the team is automatically generated. Three further
  * Team implementations are available: glow colors, disabling collision and
- * a disabled team which removes an entity from all teams when assigned.
+ * a disabled team which removes an entity from all teams when assigned.<br>
+ * <br>
+ * Teams can be joined from any thread. Each viewer has its own lock, so that
+ * attachment threads updating different viewers do not wait on each other.
+ * Viewers with changes to send are queued, and the queue is drained every tick.
  */
 public class TeamProvider {
     private final TrainCarts plugin;
     private final UniqueHash teamIdHash = new UniqueHash();
-    private final Map<Player, ViewerState> viewerStates = new HashMap<>();
-    private final Set<ViewerState.ViewedTeam> pendingTeamUpdates = new HashSet<>();
+    private final Map<Player, ViewerState> viewerStates = new ConcurrentHashMap<>();
+    private final Queue<ViewerState> pendingViewers = new ConcurrentLinkedQueue<>();
     private final Task updateTask;
     private final Team disabledTeam = new Team() {
         @Override
@@ -65,17 +72,9 @@ public class TeamProvider {
         this.updateTask = new Task(plugin) {
             @Override
             public void run() {
-                synchronized (TeamProvider.this) {
-                    // Process all the teams with entities to remove from the team (or teams to remove)
-                    for (Iterator<ViewerState.ViewedTeam> iter = pendingTeamUpdates.iterator(); iter.hasNext();) {
-                        if (!iter.next().update()) {
-                            iter.remove();
-                        }
-                    }
-
-                    // Process all the teams with entities to add to the team (or teams to create)
-                    pendingTeamUpdates.forEach(ViewerState.ViewedTeam::assignEntities);
-                    pendingTeamUpdates.clear();
+                ViewerState state;
+                while ((state = pendingViewers.poll()) != null) {
+                    state.sendPendingUpdates();
                 }
             }
         };
@@ -119,29 +118,36 @@ public class TeamProvider {
      * Enables the provider, initializing background services
      */
     public synchronized void enable() {
+        this.updateTask.start(1, 1);
     }
 
     /**
      * Disables the provider, resetting state immediately
      */
     public synchronized void disable() {
-        if (!this.pendingTeamUpdates.isEmpty()) {
-            this.pendingTeamUpdates.clear();
-            this.updateTask.stop();
-        }
+        this.updateTask.stop();
+        this.pendingViewers.clear();
         for (ViewerState state : this.viewerStates.values()) {
-            state.teams.forEach(ViewerState.ViewedTeam::reset);
+            state.remove();
         }
         this.viewerStates.clear();
     }
 
-    private void schedule(ViewerState.ViewedTeam viewedTeam) {
-        if (this.pendingTeamUpdates.isEmpty()) {
-            if (this.updateTask.getPlugin().isEnabled()) {
-                this.updateTask.start();
-            }
+    private ViewerState getViewerState(Player viewer) {
+        ViewerState state = this.viewerStates.get(viewer);
+        if (state == null) {
+            state = this.viewerStates.computeIfAbsent(viewer, p -> new ViewerState(p));
         }
-        this.pendingTeamUpdates.add(viewedTeam);
+        return state;
+    }
+
+    private ViewerState getViewerState(AttachmentViewer viewer) {
+        Player player = viewer.getPlayer();
+        ViewerState state = this.viewerStates.get(player);
+        if (state == null) {
+            state = this.viewerStates.computeIfAbsent(player, p -> new ViewerState(viewer));
+        }
+        return state;
     }
 
     /**
@@ -178,14 +184,10 @@ public class TeamProvider {
      * @param viewer
      * @param entityUUIDs
      */
-    public synchronized void reset(Player viewer, Iterable<UUID> entityUUIDs) {
+    public void reset(Player viewer, Iterable<UUID> entityUUIDs) {
         ViewerState state = this.viewerStates.get(viewer);
         if (state != null) {
-            for (ViewerState.ViewedTeam team : state.teams) {
-                for (UUID entityUUID : entityUUIDs) {
-                    team.removeEntity(entityUUID);
-                }
-            }
+            state.removeEntities(entityUUIDs);
         }
     }
 
@@ -209,14 +211,10 @@ public class TeamProvider {
      * @param viewer
      * @param entityUUID
      */
-    public synchronized void reset(Player viewer, UUID entityUUID) {
+    public void reset(Player viewer, UUID entityUUID) {
         ViewerState state = this.viewerStates.get(viewer);
         if (state != null) {
-            for (ViewerState.ViewedTeam team : state.teams) {
-                if (team.removeEntity(entityUUID)) {
-                    break;
-                }
-            }
+            state.removeEntity(entityUUID);
         }
     }
 
@@ -225,10 +223,10 @@ public class TeamProvider {
      *
      * @param viewer
      */
-    public synchronized void reset(Player viewer) {
+    public void reset(Player viewer) {
         ViewerState state = this.viewerStates.remove(viewer);
         if (state != null) {
-            state.teams.forEach(ViewerState.ViewedTeam::reset);
+            state.remove();
         }
     }
 
@@ -333,10 +331,10 @@ public class TeamProvider {
          * @param entityUUIDs Iterable/List of entity UUIDs to assign
          */
         public void join(Player viewer, Iterable<UUID> entityUUIDs) {
-            synchronized (TeamProvider.this) {
-                ViewerState state = viewerStates.computeIfAbsent(viewer.getPlayer(), ViewerState::new);
-                state.assignTeamEntities(this, entityUUIDs);
-            }
+            ViewerState state;
+            do {
+                state = getViewerState(viewer);
+            } while (!state.assignTeamEntities(this, entityUUIDs));
         }
 
         /**
@@ -347,10 +345,10 @@ public class TeamProvider {
          * @param entityUUIDs Iterable/List of entity UUIDs to assign
          */
         public void join(AttachmentViewer viewer, Iterable<UUID> entityUUIDs) {
-            synchronized (TeamProvider.this) {
-                ViewerState state = viewerStates.computeIfAbsent(viewer.getPlayer(), p -> new ViewerState(viewer));
-                state.assignTeamEntities(this, entityUUIDs);
-            }
+            ViewerState state;
+            do {
+                state = getViewerState(viewer);
+            } while (!state.assignTeamEntities(this, entityUUIDs));
         }
 
         /**
@@ -361,10 +359,10 @@ public class TeamProvider {
          * @param entityUUID UUID of the Entity to join
          */
         public void join(Player viewer, UUID entityUUID) {
-            synchronized (TeamProvider.this) {
-                ViewerState state = viewerStates.computeIfAbsent(viewer.getPlayer(), ViewerState::new);
-                state.assignTeamEntity(this, entityUUID);
-            }
+            ViewerState state;
+            do {
+                state = getViewerState(viewer);
+            } while (!state.assignTeamEntity(this, entityUUID));
         }
 
         /**
@@ -375,10 +373,10 @@ public class TeamProvider {
          * @param entityUUID UUID of the Entity to join
          */
         public void join(AttachmentViewer viewer, UUID entityUUID) {
-            synchronized (TeamProvider.this) {
-                ViewerState state = viewerStates.computeIfAbsent(viewer.getPlayer(), p -> new ViewerState(viewer));
-                state.assignTeamEntity(this, entityUUID);
-            }
+            ViewerState state;
+            do {
+                state = getViewerState(viewer);
+            } while (!state.assignTeamEntity(this, entityUUID));
         }
 
         private PacketPlayOutScoreboardTeamHandle createPacket(int method) {
@@ -398,9 +396,21 @@ public class TeamProvider {
         }
     }
 
+    /**
+     * The teams and entities sent to a single viewer. All methods synchronize on the
+     * viewer state, so different viewers can be updated at the same time.
+     */
     private final class ViewerState {
         private final AttachmentViewer viewer;
         private final ArrayList<ViewedTeam> teams;
+        /** Tracks what team each entity was assigned to, for fast removal from previous teams */
+        private final Map<UUID, ViewedTeam> entityTeams;
+        /** Teams with changes to send the next tick */
+        private final Set<ViewedTeam> pendingTeams = new HashSet<>();
+        /** Whether this viewer state is in the pending viewers queue */
+        private boolean queued = false;
+        /** Whether this viewer state was reset, and is no longer used */
+        private boolean removed = false;
 
         public ViewerState(Player viewer) {
             this(plugin.getPacketQueueMap().getQueue(viewer));
@@ -409,92 +419,127 @@ public class TeamProvider {
         public ViewerState(AttachmentViewer viewer) {
             this.viewer = viewer;
             this.teams = new ArrayList<>();
+            this.entityTeams = new HashMap<>();
         }
 
-        public void assignTeamEntities(Team team, Iterable<UUID> entityUUIDs) {
-            ViewedTeam foundViewedTeam = null;
-            for (ViewedTeam viewedTeam : teams) {
-                if (viewedTeam.team == team) {
-                    // Check whether all entity UUIDs are already contained for this team
-                    Iterator<UUID> iter = entityUUIDs.iterator();
-                    if (!iter.hasNext()) {
-                        return;
-                    }
-                    UUID eid;
-                    boolean hasPendingRemove = !viewedTeam.pendingRemove.isEmpty();
-                    while (viewedTeam.entities.contains((eid = iter.next()))) {
-                        if (hasPendingRemove) {
-                            viewedTeam.pendingRemove.remove(eid.toString());
-                        }
-                        if (!iter.hasNext()) {
-                            return;
-                        }
-                    }
-
-                    // Keep for later
-                    foundViewedTeam = viewedTeam;
-                } else {
-                    // Remove from previous team
-                    for (UUID uuid : entityUUIDs) {
-                        viewedTeam.removeEntity(uuid);
-                    }
+        /**
+         * Assigns entities to a team
+         *
+         * @param team Team to assign to
+         * @param entityUUIDs UUIDs of the entities to assign
+         * @return True if assigned, False if this viewer state was reset and a new
+         *         one must be used instead
+         */
+        public synchronized boolean assignTeamEntities(Team team, Iterable<UUID> entityUUIDs) {
+            if (removed) {
+                return false;
+            }
+            ViewedTeam viewedTeam = null;
+            for (UUID entityUUID : entityUUIDs) {
+                if (viewedTeam == null) {
+                    viewedTeam = getViewedTeam(team);
                 }
+                assignTeamEntity(viewedTeam, entityUUID);
+            }
+            return true;
+        }
+
+        /**
+         * Assigns an entity to a team
+         *
+         * @param team Team to assign to
+         * @param entityUUID UUID of the entity to assign
+         * @return True if assigned, False if this viewer state was reset and a new
+         *         one must be used instead
+         */
+        public synchronized boolean assignTeamEntity(Team team, UUID entityUUID) {
+            if (removed) {
+                return false;
             }
+            assignTeamEntity(getViewedTeam(team), entityUUID);
+            return true;
+        }
 
-            Iterator<UUID> iter = entityUUIDs.iterator();
-            if (!iter.hasNext()) {
-                return;
+        private void assignTeamEntity(ViewedTeam viewedTeam, UUID entityUUID) {
+            ViewedTeam previousViewedTeam = entityTeams.get(entityUUID);
+            if (previousViewedTeam == viewedTeam) {
+                return; // Already assigned to this team
+            } else if (previousViewedTeam != null) {
+                previousViewedTeam.removeEntity(entityUUID);
             }
+            viewedTeam.addEntity(entityUUID);
+        }
 
-            // Create a new team if needed
-            if (foundViewedTeam == null) {
-                foundViewedTeam = new ViewedTeam(team);
-                this.teams.add(foundViewedTeam);
+        public synchronized void removeEntities(Iterable<UUID> entityUUIDs) {
+            for (UUID entityUUID : entityUUIDs) {
+                removeEntity(entityUUID);
             }
+        }
 
-            // Assign the entity UUIDs
-            do {
-                foundViewedTeam.addEntity(iter.next());
-            } while (iter.hasNext());
+        public synchronized boolean removeEntity(UUID entityUUID) {
+            ViewedTeam viewedTeam = entityTeams.get(entityUUID);
+            return viewedTeam != null && viewedTeam.removeEntity(entityUUID);
         }
 
-        public void assignTeamEntity(Team team, UUID entityUUID) {
-            ViewedTeam foundViewedTeam = null;
-            for (ViewedTeam viewedTeam : teams) {
-                if (viewedTeam.team == team) {
-                    // If already stored for the desired team, do nothing
-                    if (viewedTeam.entities.contains(entityUUID)) {
-                        if (!viewedTeam.pendingRemove.isEmpty()) {
-                            viewedTeam.pendingRemove.remove(entityUUID.toString());
-                        }
-                        return;
-                    } else {
-                        foundViewedTeam = viewedTeam; // Keep for later
-                    }
-                } else {
-                    // Remove from previous team
-                    viewedTeam.removeEntity(entityUUID);
+        /**
+         * Removes all teams that were sent to this viewer. After this, this viewer state
+         * is no longer used.
+         */
+        public synchronized void remove() {
+            removed = true;
+            pendingTeams.clear();
+            teams.forEach(ViewedTeam::reset);
+        }
+
+        private void schedule(ViewedTeam viewedTeam) {
+            pendingTeams.add(viewedTeam);
+            if (!queued) {
+                queued = true;
+                pendingViewers.add(this);
+            }
+        }
+
+        /**
+         * Sends the team changes that accumulated since the previous tick
+         */
+        public synchronized void sendPendingUpdates() {
+            queued = false;
+
+            // Process all the teams with entities to remove from the team (or teams to remove)
+            for (Iterator<ViewedTeam> iter = pendingTeams.iterator(); iter.hasNext();) {
+                if (!iter.next().update()) {
+                    iter.remove();
                 }
             }
 
-            // Create a new team if needed
-            if (foundViewedTeam == null) {
-                foundViewedTeam = new ViewedTeam(team);
-                this.teams.add(foundViewedTeam);
+            // Process all the teams with entities to add to the team (or teams to create)
+            pendingTeams.forEach(ViewedTeam::assignEntities);
+            pendingTeams.clear();
+        }
+
+        private ViewedTeam getViewedTeam(Team team) {
+            for (ViewedTeam viewedTeam : teams) {
+                if (viewedTeam.team == team) {
+                    return viewedTeam;
+                }
             }
 
-            // Add the entity UUID
-            foundViewedTeam.addEntity(entityUUID);
+            ViewedTeam viewedTeam = new ViewedTeam(team);
+            teams.add(viewedTeam);
+            return viewedTeam;
         }
 
         /**
-         * The state of a single team according to a single viewer
+         * The state of a single team according to a single viewer. Entities that join
+         * or leave the team are accumulated until the next tick, and are then sent
+         * as a single join and a single leave packet. Entities that join and leave
+         * within the same tick are not sent at all.
          */
         public final class ViewedTeam {
             public final Team team;
             public final Set<UUID> entities = new HashSet<>();
-            private Set<String> pendingAdd = Collections.emptySet();
-            private Set<String> pendingRemove = Collections.emptySet();
+            private Set<UUID> pendingAdd = Collections.emptySet();
+            private Set<UUID> pendingRemove = Collections.emptySet();
             private boolean teamCreated;
 
             public ViewedTeam(Team team) {
@@ -504,16 +549,16 @@ public class TeamProvider {
 
             public boolean addEntity(UUID entityUUID) {
                 if (this.entities.add(entityUUID)) {
-                    String entityUUIDStr = entityUUID.toString();
-                    if (!this.pendingRemove.isEmpty() && this.pendingRemove.remove(entityUUIDStr)) {
+                    entityTeams.put(entityUUID, this);
+                    if (!this.pendingRemove.isEmpty() && this.pendingRemove.remove(entityUUID)) {
                         return true; // It was never removed in the first place
                     }
 
                     // Add to the 'to add' set
                     if (this.pendingAdd.isEmpty()) {
-                        this.pendingAdd = new HashSet<String>();
+                        this.pendingAdd = new HashSet<UUID>();
                     }
-                    this.pendingAdd.add(entityUUIDStr);
+                    this.pendingAdd.add(entityUUID);
                     schedule(this);
                     return true;
                 }
@@ -522,35 +567,42 @@ public class TeamProvider {
 
             public boolean removeEntity(UUID entityUUID) {
                 if (this.entities.remove(entityUUID)) {
-                    String entityUUIDStr = entityUUID.toString();
-                    if (!this.pendingAdd.isEmpty() && this.pendingAdd.remove(entityUUIDStr)) {
+                    entityTeams.remove(entityUUID, this);
+                    if (!this.pendingAdd.isEmpty() && this.pendingAdd.remove(entityUUID)) {
                         return true; // It was never added in the first place
                     }
 
                     // Add to the 'to remove' set
                     if (this.pendingRemove.isEmpty()) {
-                        this.pendingRemove = new HashSet<String>();
+                        this.pendingRemove = new HashSet<UUID>();
                     }
-                    this.pendingRemove.add(entityUUIDStr);
+                    this.pendingRemove.add(entityUUID);
                     schedule(this);
                     return true;
                 }
                 return false;
             }
 
+            private void clearEntities() {
+                for (UUID entityUUID : this.entities) {
+                    entityTeams.remove(entityUUID, this);
+                }
+                this.entities.clear();
+            }
+
             public void reset() {
                 if (this.teamCreated) {
                     this.teamCreated = false;
                     this.pendingRemove = Collections.emptySet();
                     this.pendingAdd = Collections.emptySet();
-                    this.entities.clear();
+                    this.clearEntities();
                     viewer.send(team.createPacket(PacketPlayOutScoreboardTeamHandle.METHOD_REMOVE));
                 }
             }
 
             public boolean update() {
                 if (!team.rememberEntities) {
-                    entities.clear();
+                    clearEntities();
                 }
 
                 if (team.rememberEntities && entities.isEmpty()) {
@@ -559,7 +611,7 @@ public class TeamProvider {
                 } else if (!pendingRemove.isEmpty()) {
                     // Remove the set of entities for this viewer
                     PacketPlayOutScoreboardTeamHandle packet = team.createPacket(PacketPlayOutScoreboardTeamHandle.METHOD_LEAVE);
-                    packet.setPlayers(pendingRemove);
+                    packet.setPlayers(toEntityNames(pendingRemove));
                     pendingRemove = Collections.emptySet();
                     viewer.send(packet);
                 }
@@ -576,17 +628,25 @@ public class TeamProvider {
 
                     // We are sending all entities for a team for the first time. Create the team with these entities.
                     PacketPlayOutScoreboardTeamHandle packet = team.createPacket(PacketPlayOutScoreboardTeamHandle.METHOD_ADD);
-                    packet.setPlayers(pendingAdd);
+                    packet.setPlayers(toEntityNames(pendingAdd));
                     pendingAdd = Collections.emptySet();
                     viewer.send(packet);
                 } else {
                     // Add the set of entities for this viewer
                     PacketPlayOutScoreboardTeamHandle packet = team.createPacket(PacketPlayOutScoreboardTeamHandle.METHOD_JOIN);
-                    packet.setPlayers(pendingAdd);
+                    packet.setPlayers(toEntityNames(pendingAdd));
                     pendingAdd = Collections.emptySet();
                     viewer.send(packet);
                 }
             }
         }
     }
+
+    private static Set<String> toEntityNames(Set<UUID> entityUUIDs) {
+        Set<String> names = new HashSet<>(entityUUIDs.size());
+        for (UUID entityUUID : entityUUIDs) {
+            names.add(entityUUID.toString());
+        }
+        return names;
+    }
 }
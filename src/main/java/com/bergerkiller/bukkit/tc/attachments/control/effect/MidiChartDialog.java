@@ -114,8 +114,10 @@ public abstract class MidiChartDialog extends MapWidgetMenu {
         if (selection.isEmpty()) {
             selection.addNoteOnBar(0, 0, 1.0);
         } else {
-            while (selection.getNotes().size() > 1) {
-                selection.removeNote(selection.getNotes().get(selection.getNotes().size() - 1));
+            if (selection.getNotes().size() > 1) {
+                MidiNote firstNote = selection.getNotes().get(0);
+                selection.clearNotes();
+                selection.addNote(firstNote);
             }
         }
         pianoRoll.scrollToSelection();
@@ -9,18 +9,25 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * Sequence of notes, sorted by time and then pitch, aligned on a
  * 'piano roll' chart. Offers methods for placing, removing and moving
- * notes on the chart, as well as handling serialization from/to YAML.
+ * notes on the chart, as well as handling serialization from/to YAML.<br>
+ * <br>
+ * Notes are stored in a sorted tree keyed by time step index and pitch class,
+ * so that adding, removing and finding notes, as well as querying notes
+ * within a time range, are O(log n) operations. A sorted list of all notes
+ * is kept for playback and is only rebuilt after the notes change.
  */
 public final class MidiChart implements Cloneable {
     private final MidiChartParameters chartParams;
-    private final List<MidiNote> notes = new ArrayList<>();
+    private final TreeMap<Long, MidiNote> notes = new TreeMap<>();
+    private List<MidiNote> notesList = Collections.emptyList();
+    private boolean notesListValid = true;
     private int lastIndex = 0;
 
     /**
@@ -54,7 +61,7 @@ public final class MidiChart implements Cloneable {
      */
     public MidiChart withChartParameters(MidiChartParameters chartParams) {
         MidiChart updated = new MidiChart(chartParams);
-        for (MidiNote note : this.notes) {
+        for (MidiNote note : this.notes.values()) {
             updated.addNote(note);
         }
         return updated;
@@ -86,10 +93,14 @@ public final class MidiChart implements Cloneable {
     /**
      * Gets a List of all the notes that exist, sorted by time and then by speed (pitch)
      *
-     * @return notes
+     * @return Unmodifiable List of notes
      */
     public List<MidiNote> getNotes() {
-        return notes;
+        if (!notesListValid) {
+            notesList = Collections.unmodifiableList(new ArrayList<>(notes.values()));
+            notesListValid = true;
+        }
+        return notesList;
     }
 
     /**
@@ -104,11 +115,11 @@ public final class MidiChart implements Cloneable {
             return Bounds.EMPTY;
         }
 
-        int minTimeStepIndex = notes.get(0).timeStepIndex();
-        int maxTimeStepIndex = notes.get(notes.size() - 1).timeStepIndex();
+        int minTimeStepIndex = notes.firstEntry().getValue().timeStepIndex();
+        int maxTimeStepIndex = notes.lastEntry().getValue().timeStepIndex();
         int minPitch = Integer.MAX_VALUE;
         int maxPitch = Integer.MIN_VALUE;
-        for (MidiNote note : notes) {
+        for (MidiNote note : notes.values()) {
             minPitch = Math.min(minPitch, note.pitchClass());
             maxPitch = Math.max(maxPitch, note.pitchClass());
         }
@@ -120,6 +131,7 @@ public final class MidiChart implements Cloneable {
      */
     public void clearNotes() {
         notes.clear();
+        notesListValid = false;
     }
 
     /**
@@ -129,8 +141,10 @@ public final class MidiChart implements Cloneable {
      */
     public void timeShift(int numTimeSteps) {
         if (numTimeSteps != 0) {
-            for (ListIterator<MidiNote> it = notes.listIterator(); it.hasNext();) {
-                it.set(it.next().withTimeShift(numTimeSteps));
+            List<MidiNote> original = new ArrayList<>(notes.values());
+            notes.clear();
+            for (MidiNote note : original) {
+                addNoteDirect(note.withTimeShift(numTimeSteps));
             }
         }
     }
@@ -159,39 +173,43 @@ public final class MidiChart implements Cloneable {
      */
     public void pitchShift(int numPitchClasses) {
         if (numPitchClasses != 0) {
-            for (ListIterator<MidiNote> it = notes.listIterator(); it.hasNext();) {
-                it.set(it.next().withPitchShift(numPitchClasses));
+            List<MidiNote> original = new ArrayList<>(notes.values());
+            notes.clear();
+            for (MidiNote note : original) {
+                addNoteDirect(note.withPitchShift(numPitchClasses));
             }
         }
     }
 
     /**
      * Performs an operation for all the MIDI notes that lie within a range of two nanos timestamps.
-     * Is optimized for sequential playback. Returns False if no more notes can be found
-     * without looping back to the beginning.
+     * Is optimized for sequential playback. When seeking, the first note is found using
+     * a binary search. Returns False if no more notes can be found without looping back
+     * to the beginning.
      *
-     * @param prevNanos Previous nanos timestamp
-     * @param currNanos Current nanos timestamp
+     * @param prevNanos Previous nanos timestamp (inclusive)
+     * @param currNanos Current nanos timestamp (exclusive)
      * @param action Action to perform on the notes within
      * @return True if more notes will be played later, False if the end of the chart has been reached
      */
     public boolean forNotesInRange(long prevNanos, long currNanos, Consumer<MidiNote> action) {
         int currIndex = this.lastIndex;
-        List<MidiNote> notes = this.notes;
+        List<MidiNote> notes = this.getNotes();
         int notesCount = notes.size();
 
-        // Reset search to beginning if we're skipping over stuff
-        if (currIndex >= notesCount || notes.get(currIndex).timeStepTimestampNanos > prevNanos) {
-            currIndex = 0;
+        // If the previous call ended at the note where this range starts, continue from there.
+        // Otherwise, seek to the first note at or after prevNanos.
+        if (currIndex > notesCount
+                || (currIndex > 0 && notes.get(currIndex - 1).timeStepTimestampNanos >= prevNanos)
+                || (currIndex < notesCount && notes.get(currIndex).timeStepTimestampNanos < prevNanos)
+        ) {
+            currIndex = findFirstNoteIndexAtNanos(notes, prevNanos);
         }
 
         // Advance currIndex until it is beyond currNanos
-        // Call callback if it is after or equal to prevNanos
         MidiNote n;
         while (currIndex < notesCount && (n = notes.get(currIndex)).timeStepTimestampNanos < currNanos) {
-            if (n.timeStepTimestampNanos >= prevNanos) {
-                action.accept(n);
-            }
+            action.accept(n);
             currIndex++;
         }
 
@@ -210,15 +228,48 @@ public final class MidiChart implements Cloneable {
      * @return List of MIDI notes visible in this time range on the chart
      */
     public List<MidiNote> getChartVisibleNotes(int startTimeStepIndex, int numTimeSteps) {
-        //TODO: Could be optimized, do binary search maybe
-        List<MidiNote> result = new ArrayList<>();
-        for (MidiNote note : notes) {
-            int offset = note.timeStepIndex() - startTimeStepIndex;
-            if (offset >= 0 && offset < numTimeSteps) {
-                result.add(note);
+        if (numTimeSteps <= 0) {
+            return new ArrayList<>();
+        }
+        long endTimeStepIndex = (long) startTimeStepIndex + numTimeSteps;
+        return new ArrayList<>(notes.subMap(
+                key(startTimeStepIndex, Integer.MIN_VALUE), true,
+                endTimeStepIndex << 32, false).values());
+    }
+
+    /**
+     * Gets the notes whose (chart-aligned) timestamp lies within a range of nanos timestamps
+     *
+     * @param startNanos Start nanos timestamp (inclusive)
+     * @param endNanos End nanos timestamp (exclusive)
+     * @return List of MIDI notes within this time range, sorted by time and then pitch
+     */
+    public List<MidiNote> getNotesInRange(long startNanos, long endNanos) {
+        List<MidiNote> notes = this.getNotes();
+        int startIndex = findFirstNoteIndexAtNanos(notes, startNanos);
+        int endIndex = findFirstNoteIndexAtNanos(notes, endNanos);
+        return (startIndex < endIndex) ? notes.subList(startIndex, endIndex) : Collections.emptyList();
+    }
+
+    /**
+     * Performs a binary search to find the index of the first note whose timestamp is
+     * at or beyond a nanos timestamp
+     *
+     * @param notes Sorted list of notes
+     * @param nanos Nanos timestamp
+     * @return Index of the first note at or beyond nanos, or the number of notes if none are
+     */
+    private static int findFirstNoteIndexAtNanos(List<MidiNote> notes, long nanos) {
+        int low = 0, high = notes.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (notes.get(mid).timeStepTimestampNanos < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
-        return result;
+        return low;
     }
 
     /**
@@ -242,7 +293,7 @@ public final class MidiChart implements Cloneable {
      * @return True if this note is contained on this chart
      */
     public boolean containsNote(MidiNote note) {
-        return Collections.binarySearch(notes, note) >= 0;
+        return notes.containsKey(key(note));
     }
 
     /**
@@ -266,9 +317,8 @@ public final class MidiChart implements Cloneable {
      * @param note MIDI Note to remove
      */
     public void removeNote(MidiNote note) {
-        int index = Collections.binarySearch(notes, note);
-        if (index >= 0) {
-            notes.remove(index);
+        if (notes.remove(key(note)) != null) {
+            notesListValid = false;
         }
     }
 
@@ -326,9 +376,9 @@ public final class MidiChart implements Cloneable {
     public void addChartNotes(MidiChart chart) {
         // If parameters are identical we can skip the per-note withChartParameters stuff
         if (chart.chartParams.equals(this.chartParams)) {
-            chart.notes.forEach(this::addNoteDirect);
+            chart.notes.values().forEach(this::addNoteDirect);
         } else {
-            chart.notes.forEach(this::addNote);
+            chart.notes.values().forEach(this::addNote);
         }
     }
 
@@ -342,9 +392,9 @@ public final class MidiChart implements Cloneable {
     public void removeChartNotes(MidiChart chart) {
         // If parameters are identical we can skip the per-note withChartParameters stuff
         if (chart.chartParams.equals(this.chartParams)) {
-            chart.notes.forEach(this::removeNote);
+            chart.notes.values().forEach(this::removeNote);
         } else {
-            chart.notes.forEach(n -> removeNote(n.withChartParameters(chartParams)));
+            chart.notes.values().forEach(n -> removeNote(n.withChartParameters(chartParams)));
         }
     }
 
@@ -357,7 +407,7 @@ public final class MidiChart implements Cloneable {
      * @return True if notes were added, False if notes were removed
      */
     public boolean toggleChartNotes(MidiChart chart) {
-        if (containsAllNotes(chart.getNotes())) {
+        if (containsAllNotes(chart.notes.values())) {
             removeChartNotes(chart);
             return false;
         } else {
@@ -381,18 +431,30 @@ public final class MidiChart implements Cloneable {
     }
 
     private void addNoteDirect(MidiNote note) {
-        int index = Collections.binarySearch(notes, note);
-        if (index >= 0) {
-            notes.set(index, note); // Overwrite
-        } else {
-            notes.add(-index - 1, note); // Insert new
-        }
+        notes.put(key(note), note); // Overwrites a previous note at this position
+        notesListValid = false;
+    }
+
+    /**
+     * Gets the key of a note in the notes tree. The key sorts the same way as
+     * {@link MidiNote#compareTo(MidiNote)}, by time step index and then pitch class.
+     *
+     * @param note MIDI note
+     * @return Key
+     */
+    private static long key(MidiNote note) {
+        return key(note.timeStepIndex(), note.pitchClass());
+    }
+
+    private static long key(int timeStepIndex, int pitchClass) {
+        return ((long) timeStepIndex << 32) | ((pitchClass ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
     }
 
     @Override
     public MidiChart clone() {
         MidiChart copy = new MidiChart(chartParams);
-        copy.notes.addAll(this.notes);
+        copy.notes.putAll(this.notes);
+        copy.notesListValid = false;
         return copy;
     }
 
@@ -407,7 +469,7 @@ public final class MidiChart implements Cloneable {
         getParameters().toYaml(yaml);
         if (!isEmpty()) {
             List<String> notesStr = yaml.getList("notes", String.class);
-            for (MidiNote note : notes) {
+            for (MidiNote note : notes.values()) {
                 notesStr.add(note.toString());
             }
         }
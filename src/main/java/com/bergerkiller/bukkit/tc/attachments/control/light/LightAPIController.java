@@ -1,7 +1,11 @@
 package com.bergerkiller.bukkit.tc.attachments.control.light;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 
 import org.bukkit.Bukkit;
@@ -10,13 +14,26 @@ import org.bukkit.plugin.Plugin;
 
 import com.bergerkiller.bukkit.common.Task;
 import com.bergerkiller.bukkit.common.bases.IntVector3;
+import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.TrainCarts;
 
+/**
+ * Controls the light sources created by light attachments on a single World.
+ * Changes to the light sources are coalesced per chunk section, and applied
+ * at most once per tick. Changes that cancel each other out, such as a light
+ * moving away and back again, are not applied at all. When many sections
+ * change at once, only a limited number of sections are relit every tick, and
+ * the remaining sections are relit in later ticks.
+ */
 public abstract class LightAPIController {
     private static final Map<World, LightAPIController> _blockLightControllers = new HashMap<>();
     private static final Map<World, LightAPIController> _skyLightControllers = new HashMap<>();
     private static SyncTask _task;
     private boolean syncPending;
+    private final Map<IntVector3, LightLevelList> levels = new HashMap<>();
+    /** Positions whose light level changed, by chunk section. In order of when the section first changed. */
+    private final LinkedHashMap<IntVector3, Set<IntVector3>> dirtySections = new LinkedHashMap<>();
+    private final Statistics statistics = new Statistics();
 
     protected LightAPIController() {
         syncPending = false;
@@ -107,6 +124,19 @@ public abstract class LightAPIController {
         return controller;
     }
 
+    /**
+     * Gets the light update statistics of the light controller of a World.
+     * Returns null if no light attachments were used on the World.
+     *
+     * @param world World
+     * @param skyLight Whether to get the statistics of sky light (true) or block light (false)
+     * @return statistics, or null if there is no controller for this World
+     */
+    public static Statistics getStatistics(World world, boolean skyLight) {
+        LightAPIController controller = (skyLight ? _skyLightControllers : _blockLightControllers).get(world);
+        return (controller == null) ? null : controller.getStatistics();
+    }
+
     public static void disableWorld(World world) {
         _blockLightControllers.remove(world);
         _skyLightControllers.remove(world);
@@ -119,19 +149,180 @@ public abstract class LightAPIController {
         _task = null;
     }
 
-    public abstract void add(IntVector3 position, int level);
+    public void add(IntVector3 position, int level) {
+        if (level >= 1 && level <= 15) {
+            LightLevelList list = levels.computeIfAbsent(position, p -> new LightLevelList());
+            if (list.add(level)) {
+                markDirty(position);
+            }
+        }
+    }
+
+    public void remove(IntVector3 position, int level) {
+        LightLevelList list = levels.get(position);
+        if (list != null && list.remove(level)) {
+            markDirty(position);
+        }
+    }
+
+    public void move(IntVector3 old_position, IntVector3 new_position, int level) {
+        remove(old_position, level);
+        add(new_position, level);
+    }
+
+    public void update(IntVector3 position, int old_level, int new_level) {
+        LightLevelList list = levels.get(position);
+        if (list != null && (list.remove(old_level) | list.add(new_level))) {
+            markDirty(position);
+        }
+    }
 
-    public abstract void remove(IntVector3 position, int level);
+    /**
+     * Gets the statistics of the light updates done by this controller
+     *
+     * @return statistics
+     */
+    public Statistics getStatistics() {
+        statistics.backlog = dirtySections.size();
+        return statistics;
+    }
 
-    public abstract void move(IntVector3 old_position, IntVector3 new_position, int level);
+    private void markDirty(IntVector3 position) {
+        IntVector3 section = new IntVector3(position.x >> 4, position.y >> 4, position.z >> 4);
+        Set<IntVector3> positions = dirtySections.get(section);
+        if (positions == null) {
+            positions = new HashSet<>();
+            dirtySections.put(section, positions);
+        }
+        if (!positions.add(position)) {
+            statistics.skipped++; // Coalesced with a previous change this tick
+        }
+        schedule();
+    }
 
-    public abstract void update(IntVector3 position, int old_level, int new_level);
+    /**
+     * Applies a change in light level at a position. Is called during {@link #sync()}
+     * for every light level that changed since it was last applied.
+     *
+     * @param position Position of the light source
+     * @param oldLevel Previous light level applied, 0 if there was no light source
+     * @param newLevel New light level to apply, 0 to remove the light source
+     */
+    protected abstract void applyLight(IntVector3 position, int oldLevel, int newLevel);
 
-    protected abstract boolean onSync();
+    /**
+     * Called at the end of {@link #sync()} after all light changes have been applied
+     * using {@link #applyLight(IntVector3, int, int)}. Can be used to apply the changes
+     * in bulk.
+     */
+    protected void flushLight() {
+    }
 
     public final boolean sync() {
         syncPending = false;
-        return onSync();
+        if (dirtySections.isEmpty()) {
+            return false;
+        }
+
+        // Relight a limited number of sections this tick. Other sections stay in the backlog.
+        int limit = TCConfig.maxLightSectionUpdatesPerTick;
+        int numSections = 0;
+        Iterator<Set<IntVector3>> iter = dirtySections.values().iterator();
+        while (iter.hasNext() && (limit <= 0 || numSections < limit)) {
+            Set<IntVector3> positions = iter.next();
+            iter.remove();
+            numSections++;
+
+            boolean changed = false;
+            for (IntVector3 position : positions) {
+                LightLevelList list = levels.get(position);
+                if (list == null) {
+                    continue;
+                }
+                if (list.isEmpty()) {
+                    levels.remove(position);
+                }
+
+                int oldLevel = list.getSynchronized();
+                int newLevel = list.sync();
+                if (oldLevel == newLevel) {
+                    statistics.skipped++; // Changes cancelled out
+                } else {
+                    applyLight(position, oldLevel, newLevel);
+                    statistics.relit++;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                statistics.sectionsRelit++;
+            }
+        }
+        flushLight();
+
+        // Make sure the remaining sections are relit next tick
+        if (!dirtySections.isEmpty()) {
+            statistics.sectionsDeferred += dirtySections.size();
+            schedule();
+        }
+        return true;
+    }
+
+    /**
+     * Statistics about the light updates done by a light controller
+     */
+    public static final class Statistics {
+        private long relit = 0;
+        private long skipped = 0;
+        private long sectionsRelit = 0;
+        private long sectionsDeferred = 0;
+        private int backlog = 0;
+
+        /**
+         * Gets the number of times a light level was changed
+         *
+         * @return number of light changes applied
+         */
+        public long getRelitCount() {
+            return relit;
+        }
+
+        /**
+         * Gets the number of light changes that were not applied, because they were
+         * coalesced with another change in the same tick, or cancelled out.
+         *
+         * @return number of light changes skipped
+         */
+        public long getSkippedCount() {
+            return skipped;
+        }
+
+        /**
+         * Gets the number of chunk sections that were relit
+         *
+         * @return number of sections relit
+         */
+        public long getSectionsRelitCount() {
+            return sectionsRelit;
+        }
+
+        /**
+         * Gets the number of times a chunk section could not be relit in the tick it
+         * changed, because too many sections changed at once.
+         *
+         * @return number of sections deferred to a later tick
+         */
+        public long getSectionsDeferredCount() {
+            return sectionsDeferred;
+        }
+
+        /**
+         * Gets the number of chunk sections that are still waiting to be relit
+         *
+         * @return backlog of sections
+         */
+        public int getBacklog() {
+            return backlog;
+        }
     }
 
     private static class SyncTask extends Task {
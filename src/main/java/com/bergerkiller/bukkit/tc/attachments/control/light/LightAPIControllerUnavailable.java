@@ -25,7 +25,6 @@ class LightAPIControllerUnavailable extends LightAPIController {
     }
 
     @Override
-    protected boolean onSync() {
-        return false;
+    protected void applyLight(IntVector3 position, int oldLevel, int newLevel) {
     }
 }
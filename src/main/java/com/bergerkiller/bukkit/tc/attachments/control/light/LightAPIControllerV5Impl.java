@@ -42,29 +42,7 @@ class LightAPIControllerV5Impl extends LightAPIController {
     }
 
     @Override
-    public void add(IntVector3 position, int level) {
-        set(position, level, EditPolicy.DEFERRED);
-    }
-
-    @Override
-    public void remove(IntVector3 position, int level) {
-        // Must be immediate, otherwise sync operations fail (bug)
-        set(position, 0, EditPolicy.DEFERRED);
-    }
-
-    @Override
-    public void move(IntVector3 old_position, IntVector3 new_position, int level) {
-        set(new_position, level, EditPolicy.DEFERRED);
-        set(old_position, 0, EditPolicy.DEFERRED);
-    }
-
-    @Override
-    public void update(IntVector3 position, int old_level, int new_level) {
-        set(position, new_level, EditPolicy.DEFERRED);
-    }
-
-    @Override
-    protected boolean onSync() {
-        return false;
+    protected void applyLight(IntVector3 position, int oldLevel, int newLevel) {
+        set(position, newLevel, EditPolicy.DEFERRED);
     }
 }
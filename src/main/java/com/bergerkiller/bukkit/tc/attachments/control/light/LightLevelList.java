@@ -0,0 +1,163 @@
+package com.bergerkiller.bukkit.tc.attachments.control.light;
+
+/**
+ * List of light levels configured for a given block. Tracks the light level
+ * that was last applied, so that changes that cancel out are not applied.
+ */
+final class LightLevelList {
+    private static final int[] NO_LEVELS = new int[0];
+    private static final int[][] SINGLE_LEVEL = new int[16][1];
+    static {
+        for (int level = 0; level <= 15; level++) {
+            SINGLE_LEVEL[level][0] = level;
+        }
+    }
+
+    // Light level that was last synchronized
+    private int sync = 0;
+    // Sorted list of light levels, highest value first
+    private int[] levels = NO_LEVELS;
+
+    /**
+     * Gets whether the original light source needs to be removed
+     * to properly update the light
+     * 
+     * @return True if the previous light needs to be removed
+     */
+    public boolean needsRemoving() {
+        return (levels == NO_LEVELS) ? (sync > 0) : (sync > levels[0]);
+    }
+
+    /**
+     * Gets whether the list of levels is empty.
+     * An empty list results in no light sources being created.
+     * 
+     * @return True if empty
+     */
+    public boolean isEmpty() {
+        return levels == NO_LEVELS;
+    }
+
+    /**
+     * Gets the light level that was last synchronized
+     *
+     * @return synchronized light level, 0 if none was
+     */
+    public int getSynchronized() {
+        return sync;
+    }
+
+    /**
+     * Gets the current maximum light level, which should be applied
+     *
+     * @return light level, 0 if empty
+     */
+    public int getLevel() {
+        return (levels == NO_LEVELS) ? 0 : levels[0];
+    }
+
+    /**
+     * Synchronizes the light level, returning the new maximum light level
+     * applied. Returns 0 if empty.
+     * 
+     * @return light level
+     */
+    public int sync() {
+        return sync = getLevel();
+    }
+
+    /**
+     * Adds a new light level to this list. Returns true
+     * if the maximum light level stored has increased as a
+     * result.
+     * 
+     * @param level Light level to add
+     * @return True if the maximum light level has increased as a result
+     */
+    public boolean add(int level) {
+        if (levels == NO_LEVELS) {
+            levels = SINGLE_LEVEL[level];
+            return true;
+        } else if (level > levels[0]) {
+            int[] new_levels = new int[levels.length + 1];
+            new_levels[0] = level;
+            System.arraycopy(levels, 0, new_levels, 1, levels.length);
+            levels = new_levels;
+            return true;
+        } else {
+            int[] new_levels = new int[levels.length + 1];
+            for (int i = 0; i < levels.length; i++) {
+                int other_level = levels[i];
+                if (level <= other_level) {
+                    new_levels[i] = other_level;
+                    continue;
+                }
+
+                // Level must be put here, in place of a previous level
+                // Copy all remaining values after
+                new_levels[i] = level;
+                System.arraycopy(levels, i, new_levels, i+1, levels.length - i);
+                levels = new_levels;
+                return false;
+            }
+
+            // Add level at the end of the list
+            new_levels[levels.length] = level;
+            levels = new_levels;
+            return false;
+        }
+    }
+
+    /**
+     * Removes a single light level from this list. Returns true if the maximum
+     * light level has gone down as a result of removing it.
+     * 
+     * @param level Light level to remove
+     * @return True if the maximum light level dropped
+     */
+    public boolean remove(int level) {
+        int len = levels.length;
+        if (len == 1) {
+            // Optimized for if only one level is stored
+            if (levels[0] == level) {
+                levels = NO_LEVELS;
+                return true;
+            } else {
+                return false;
+            }
+        } else if (len == 2) {
+            // Switch to a single by-level, when two values are stored
+            if (levels[1] == level) {
+                levels = SINGLE_LEVEL[levels[0]];
+                return false;
+            } else if (levels[0] == level) {
+                levels = SINGLE_LEVEL[levels[1]];
+                return true;
+            } else {
+                return false;
+            }
+        } else if (levels[0] == level) {
+            // List of levels, and the highest light level was removed
+            // If the level following it is lower, then the light level changed
+            int[] new_levels = new int[len - 1];
+            System.arraycopy(levels, 1, new_levels, 0, len - 1);
+            levels = new_levels;
+            return new_levels[0] != level;
+        } else {
+            // 3 or more requires list remove logic in the middle of the list
+            // The maximum light level doesn't change
+            for (int i = 1; i < len; i++) {
+                if (levels[i] == level) {
+                    int[] new_levels = new int[len - 1];
+                    System.arraycopy(levels, 0, new_levels, 0, i);
+                    System.arraycopy(levels, i+1, new_levels, i, len - i - 1);
+                    levels = new_levels;
+                    return false;
+                }
+            }
+
+            // Not found
+            return false;
+        }
+    }
+}
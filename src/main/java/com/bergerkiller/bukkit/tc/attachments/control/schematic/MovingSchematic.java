@@ -10,6 +10,7 @@ import com.bergerkiller.bukkit.common.utils.EntityUtil;
 import com.bergerkiller.bukkit.common.utils.MaterialUtil;
 import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.wrappers.BlockData;
+import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.Util;
 import com.bergerkiller.bukkit.tc.attachments.VirtualDisplayEntity;
 import com.bergerkiller.bukkit.tc.attachments.VirtualSpawnableObject;
@@ -20,22 +21,29 @@ import com.bergerkiller.generated.net.minecraft.network.protocol.game.PacketPlay
 import com.bergerkiller.generated.net.minecraft.network.protocol.game.PacketPlayOutEntityTeleportHandle;
 import com.bergerkiller.generated.net.minecraft.network.protocol.game.PacketPlayOutMountHandle;
 import com.bergerkiller.generated.net.minecraft.network.protocol.game.PacketPlayOutSpawnEntityLivingHandle;
+import org.bukkit.Location;
 import org.bukkit.entity.EntityType;
 import org.bukkit.util.Vector;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Moves a cuboid of blocks from a schematic around using a single armorstand as a base
- * entity for the smooth interpolation.
+ * entity for the smooth interpolation. Optionally, a low-detail version of the blocks
+ * can be added, which is shown instead to viewers far away.
  */
 public class MovingSchematic extends VirtualSpawnableObject {
     private final int mountEntityId;
     private final List<SingleSchematicBlock> blocks = new ArrayList<>();
+    private final List<SingleSchematicBlock> lowDetailBlocks = new ArrayList<>();
+    private final Set<AttachmentViewer> lowDetailViewers = new HashSet<>();
     private final Vector livePos = new Vector();
     private final Vector syncPos = new Vector();
     private final Quaternion liveRot = new Quaternion();
@@ -47,6 +55,8 @@ public class MovingSchematic extends VirtualSpawnableObject {
     private boolean hasOrigin = false;
     private float bbSize = 1.0F;
     private int[] cachedBlockEntityIds = null;
+    private int[] cachedLowDetailBlockEntityIds = null;
+    private int lowDetailCheckCounter = 0;
     private boolean hasKnownPosition = false;
 
     public MovingSchematic(AttachmentManager manager) {
@@ -77,10 +87,33 @@ public class MovingSchematic extends VirtualSpawnableObject {
      * @param blockData BlockData of the block
      */
     public void addBlock(double x, double y, double z, BlockData blockData) {
+        addBlock(x, y, z, 1, 1, 1, blockData, false);
+    }
+
+    /**
+     * Adds a box of identical blocks to be displayed as a single scaled block.
+     * If the BlockData is AIR, does not add the block.
+     *
+     * @param x X-coordinate relative to the origin
+     * @param y Y-coordinate relative to the origin
+     * @param z Z-coordinate relative to the origin
+     * @param sizeX Number of blocks along the x-axis
+     * @param sizeY Number of blocks along the y-axis
+     * @param sizeZ Number of blocks along the z-axis
+     * @param blockData BlockData of the blocks
+     * @param lowDetail Whether this is a block of the low-detail version shown to
+     *                  viewers far away, instead of the normal blocks
+     */
+    public void addBlock(double x, double y, double z, int sizeX, int sizeY, int sizeZ, BlockData blockData, boolean lowDetail) {
         if (!MaterialUtil.ISAIR.get(blockData)) {
-            SingleSchematicBlock block = new SingleSchematicBlock(x, y, z, blockData);
-            this.blocks.add(block);
-            this.cachedBlockEntityIds = null;
+            SingleSchematicBlock block = new SingleSchematicBlock(x, y, z, sizeX, sizeY, sizeZ, blockData);
+            if (lowDetail) {
+                this.lowDetailBlocks.add(block);
+                this.cachedLowDetailBlockEntityIds = null;
+            } else {
+                this.blocks.add(block);
+                this.cachedBlockEntityIds = null;
+            }
             if (hasKnownPosition) {
                 if (hasSpacing) {
                     block.setScaleAndSpacing(scale, origin, spacing, bbSize);
@@ -88,7 +121,11 @@ public class MovingSchematic extends VirtualSpawnableObject {
                     block.setScaleZeroSpacing(scale, origin, bbSize);
                 }
                 block.sync(liveRot, Collections.emptyList());
-                forAllViewers(v -> block.spawn(v, syncPos, new Vector(0.0, 0.0, 0.0)));
+                forAllViewers(v -> {
+                    if (lowDetailViewers.contains(v) == lowDetail) {
+                        block.spawn(v, syncPos, new Vector(0.0, 0.0, 0.0));
+                    }
+                });
             }
         }
     }
@@ -126,7 +163,12 @@ public class MovingSchematic extends VirtualSpawnableObject {
 
     public void resendMounts() {
         if (hasKnownPosition) {
-            broadcast(PacketPlayOutMountHandle.createNew(mountEntityId, getBlockEntityIds()));
+            if (lowDetailViewers.isEmpty()) {
+                broadcast(PacketPlayOutMountHandle.createNew(mountEntityId, getBlockEntityIds()));
+            } else {
+                forAllViewers(v -> v.send(PacketPlayOutMountHandle.createNew(mountEntityId,
+                        getBlockEntityIds(lowDetailViewers.contains(v)))));
+            }
         }
     }
 
@@ -139,6 +181,87 @@ public class MovingSchematic extends VirtualSpawnableObject {
         return ids;
     }
 
+    private int[] getLowDetailBlockEntityIds() {
+        int[] ids = cachedLowDetailBlockEntityIds;
+        if (ids == null) {
+            cachedLowDetailBlockEntityIds = ids = lowDetailBlocks.stream().mapToInt(
+                    SingleSchematicBlock::getEntityId).toArray();
+        }
+        return ids;
+    }
+
+    private int[] getBlockEntityIds(boolean lowDetail) {
+        return lowDetail ? getLowDetailBlockEntityIds() : getBlockEntityIds();
+    }
+
+    /**
+     * Gets the viewers that see the normal blocks, and not the low-detail version
+     *
+     * @return Viewers of the normal blocks
+     */
+    private Collection<AttachmentViewer> getFullDetailViewers() {
+        if (lowDetailViewers.isEmpty()) {
+            return getViewers();
+        }
+        List<AttachmentViewer> viewers = new ArrayList<>(getViewers());
+        viewers.removeAll(lowDetailViewers);
+        return viewers;
+    }
+
+    /**
+     * Gets whether a viewer should see the low-detail version of the blocks, based
+     * on the distance between the viewer and this schematic
+     *
+     * @param viewer Viewer
+     * @return True if the viewer should see the low-detail blocks
+     */
+    private boolean isLowDetailFor(AttachmentViewer viewer) {
+        double distance = TCConfig.schematicLowDetailDistance;
+        if (distance <= 0.0 || lowDetailBlocks.isEmpty()) {
+            return false;
+        }
+        if (lowDetailViewers.contains(viewer)) {
+            distance *= 0.9; // Avoids flickering between the two near the distance threshold
+        }
+        Location loc = viewer.getPlayer().getLocation();
+        double dx = loc.getX() - livePos.getX();
+        double dy = loc.getY() - livePos.getY();
+        double dz = loc.getZ() - livePos.getZ();
+        return (dx * dx + dy * dy + dz * dz) > (distance * distance);
+    }
+
+    /**
+     * Switches viewers between the normal and low-detail version of the blocks
+     * when their distance to this schematic changed enough.
+     */
+    private void updateLowDetailViewers() {
+        for (AttachmentViewer viewer : getViewers()) {
+            boolean lowDetail = isLowDetailFor(viewer);
+            if (lowDetail == lowDetailViewers.contains(viewer)) {
+                continue;
+            }
+
+            // Despawn the blocks previously shown
+            viewer.send(PacketPlayOutEntityDestroyHandle.createNewMultiple(getBlockEntityIds(!lowDetail)));
+
+            // Spawn the other blocks and mount them
+            Vector motion = new Vector(0.0, 0.0, 0.0);
+            if (lowDetail) {
+                lowDetailViewers.add(viewer);
+                for (SingleSchematicBlock block : lowDetailBlocks) {
+                    block.sync(liveRot, Collections.emptyList()); // Not kept in sync without viewers
+                    block.spawn(viewer, syncPos, motion);
+                }
+            } else {
+                lowDetailViewers.remove(viewer);
+                for (SingleSchematicBlock block : blocks) {
+                    block.spawn(viewer, syncPos, motion);
+                }
+            }
+            viewer.send(PacketPlayOutMountHandle.createNew(mountEntityId, getBlockEntityIds(lowDetail)));
+        }
+    }
+
     @Override
     public boolean containsEntityId(int entityId) {
         return entityId == mountEntityId; // Others can't be interacted with, so ignore those
@@ -186,24 +309,37 @@ public class MovingSchematic extends VirtualSpawnableObject {
         bbSize = (float) (VirtualDisplayEntity.BBOX_FACT * Util.absMaxAxis(blockBounds.toVector().add(spacing).multiply(scale)));
         if (hasKnownPosition) {
             Float bbSize = Float.valueOf(this.bbSize);
-            if (hasSpacing) {
-                for (SingleSchematicBlock block : blocks) {
-                    block.setScaleAndSpacing(scale, origin, spacing, bbSize);
-                    block.sync(liveRot, getViewers());
-                }
-            } else {
-                for (SingleSchematicBlock block : blocks) {
-                    block.setScaleZeroSpacing(scale, origin, bbSize);
-                    block.sync(liveRot, getViewers());
-                }
+            rescaleBlocks(blocks, bbSize, getFullDetailViewers());
+            rescaleBlocks(lowDetailBlocks, bbSize, lowDetailViewers);
+        }
+    }
+
+    private void rescaleBlocks(List<SingleSchematicBlock> blocks, Float bbSize, Collection<AttachmentViewer> viewers) {
+        if (hasSpacing) {
+            for (SingleSchematicBlock block : blocks) {
+                block.setScaleAndSpacing(scale, origin, spacing, bbSize);
+                block.sync(liveRot, viewers);
+            }
+        } else {
+            for (SingleSchematicBlock block : blocks) {
+                block.setScaleZeroSpacing(scale, origin, bbSize);
+                block.sync(liveRot, viewers);
             }
         }
     }
 
     private void syncBlockPositions() {
         if (hasKnownPosition) {
+            Collection<AttachmentViewer> viewers = getFullDetailViewers();
             for (SingleSchematicBlock block : blocks) {
-                block.sync(liveRot, getViewers());
+                block.sync(liveRot, viewers);
+            }
+
+            // Low-detail blocks are only synchronized while someone sees them
+            if (!lowDetailViewers.isEmpty()) {
+                for (SingleSchematicBlock block : lowDetailBlocks) {
+                    block.sync(liveRot, lowDetailViewers);
+                }
             }
         }
     }
@@ -228,18 +364,28 @@ public class MovingSchematic extends VirtualSpawnableObject {
             viewer.sendEntityLivingSpawnPacket(spawnPacket, VirtualDisplayEntity.ARMORSTAND_MOUNT_METADATA);
         }
 
-        // Spawn all individual blocks
-        for (SingleSchematicBlock block : blocks) {
-            block.spawn(viewer, syncPos, motion);
+        // Spawn all individual blocks. Viewers far away see the low-detail blocks instead.
+        boolean lowDetail = isLowDetailFor(viewer);
+        if (lowDetail) {
+            lowDetailViewers.add(viewer);
+            for (SingleSchematicBlock block : lowDetailBlocks) {
+                block.sync(liveRot, Collections.emptyList()); // Not kept in sync without viewers
+                block.spawn(viewer, syncPos, motion);
+            }
+        } else {
+            lowDetailViewers.remove(viewer);
+            for (SingleSchematicBlock block : blocks) {
+                block.spawn(viewer, syncPos, motion);
+            }
         }
 
         // Mount all individual blocks into the single armorstand
-        viewer.send(PacketPlayOutMountHandle.createNew(mountEntityId, getBlockEntityIds()));
+        viewer.send(PacketPlayOutMountHandle.createNew(mountEntityId, getBlockEntityIds(lowDetail)));
     }
 
     @Override
     protected void sendDestroyPackets(AttachmentViewer viewer) {
-        int[] ids = getBlockEntityIds();
+        int[] ids = getBlockEntityIds(lowDetailViewers.remove(viewer));
         ids = Arrays.copyOf(ids, ids.length + 1);
         ids[ids.length - 1] = mountEntityId;
         viewer.send(PacketPlayOutEntityDestroyHandle.createNewMultiple(ids));
@@ -264,6 +410,12 @@ public class MovingSchematic extends VirtualSpawnableObject {
 
     @Override
     public void syncPosition(boolean absolute) {
+        // Every second, check whether viewers moved far away enough to see the low-detail blocks
+        if (!lowDetailBlocks.isEmpty() && ++lowDetailCheckCounter >= 20) {
+            lowDetailCheckCounter = 0;
+            updateLowDetailViewers();
+        }
+
         // Sync rotation and relative translations of all the block entities
         syncBlockPositions();
 
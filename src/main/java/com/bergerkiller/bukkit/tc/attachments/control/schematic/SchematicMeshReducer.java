@@ -0,0 +1,238 @@
+package com.bergerkiller.bukkit.tc.attachments.control.schematic;
+
+import com.bergerkiller.bukkit.common.utils.MaterialUtil;
+import com.bergerkiller.bukkit.common.wrappers.BlockData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reduces the number of display entities needed to display a schematic. Blocks
+ * fully enclosed by opaque blocks are left out, and boxes of identical opaque
+ * blocks can be merged into a single scaled block. Can also produce a
+ * low-detail version of a schematic, using blocks twice the size.<br>
+ * <br>
+ * Block data is indexed the same way as {@link WorldEditSchematicLoader}
+ * does, with x changing fastest, then z, then y.
+ */
+class SchematicMeshReducer {
+    private final int dimX, dimY, dimZ;
+    private final BlockData[] blockData;
+    private final boolean[] occluding;
+
+    public SchematicMeshReducer(int dimX, int dimY, int dimZ, BlockData[] blockData) {
+        this.dimX = dimX;
+        this.dimY = dimY;
+        this.dimZ = dimZ;
+        this.blockData = blockData;
+        this.occluding = new boolean[blockData.length];
+        for (int i = 0; i < blockData.length; i++) {
+            BlockData data = blockData[i];
+            occluding[i] = (data != null && !MaterialUtil.ISAIR.get(data) && data.getType().isOccluding());
+        }
+    }
+
+    /**
+     * Computes the boxes of blocks to display
+     *
+     * @param cull Whether to leave out boxes fully enclosed by opaque blocks
+     * @param merge Whether to merge boxes of identical opaque blocks
+     * @return List of boxes to display
+     */
+    public List<Box> reduce(boolean cull, boolean merge) {
+        List<Box> boxes = new ArrayList<>();
+        boolean[] visited = new boolean[blockData.length];
+        int index = 0;
+        for (int y = 0; y < dimY; y++) {
+            for (int z = 0; z < dimZ; z++) {
+                for (int x = 0; x < dimX; x++, index++) {
+                    if (visited[index]) {
+                        continue;
+                    }
+                    BlockData data = blockData[index];
+                    if (data == null || MaterialUtil.ISAIR.get(data)) {
+                        continue;
+                    }
+
+                    Box box = (merge && occluding[index])
+                            ? growBox(x, y, z, data, visited)
+                            : new Box(x, y, z, 1, 1, 1, data);
+                    if (!cull || !isEnclosed(box)) {
+                        boxes.add(box);
+                    }
+                }
+            }
+        }
+        return boxes;
+    }
+
+    /**
+     * Creates a low-detail version of this schematic. Every 2x2x2 cell of blocks
+     * is replaced with the most common block of that cell, if at least half the
+     * cell is filled with blocks. The result is then reduced the same as
+     * {@link #reduce(boolean, boolean)}, with coordinates and sizes converted back
+     * to those of this schematic.
+     *
+     * @param cull Whether to leave out boxes fully enclosed by opaque blocks
+     * @param merge Whether to merge boxes of identical opaque blocks
+     * @return List of low-detail boxes to display
+     */
+    public List<Box> reduceLowDetail(boolean cull, boolean merge) {
+        final int lodX = (dimX + 1) >> 1;
+        final int lodY = (dimY + 1) >> 1;
+        final int lodZ = (dimZ + 1) >> 1;
+        final BlockData[] lodData = new BlockData[lodX * lodY * lodZ];
+        final Map<BlockData, Integer> counts = new HashMap<>();
+        int lodIndex = 0;
+        for (int y = 0; y < lodY; y++) {
+            for (int z = 0; z < lodZ; z++) {
+                for (int x = 0; x < lodX; x++, lodIndex++) {
+                    counts.clear();
+                    int filled = 0;
+                    BlockData best = null;
+                    int bestCount = 0;
+                    for (int dy = 0; dy < 2; dy++) {
+                        for (int dz = 0; dz < 2; dz++) {
+                            for (int dx = 0; dx < 2; dx++) {
+                                BlockData data = get(2 * x + dx, 2 * y + dy, 2 * z + dz);
+                                if (data == null || MaterialUtil.ISAIR.get(data)) {
+                                    continue;
+                                }
+                                filled++;
+                                int count = counts.merge(data, 1, Integer::sum);
+                                if (count > bestCount) {
+                                    best = data;
+                                    bestCount = count;
+                                }
+                            }
+                        }
+                    }
+                    lodData[lodIndex] = (filled >= 4) ? best : null;
+                }
+            }
+        }
+
+        List<Box> lodBoxes = (new SchematicMeshReducer(lodX, lodY, lodZ, lodData)).reduce(cull, merge);
+        List<Box> boxes = new ArrayList<>(lodBoxes.size());
+        for (Box lodBox : lodBoxes) {
+            int x = 2 * lodBox.x, y = 2 * lodBox.y, z = 2 * lodBox.z;
+            boxes.add(new Box(x, y, z,
+                    Math.min(2 * lodBox.sizeX, dimX - x),
+                    Math.min(2 * lodBox.sizeY, dimY - y),
+                    Math.min(2 * lodBox.sizeZ, dimZ - z),
+                    lodBox.blockData));
+        }
+        return boxes;
+    }
+
+    private Box growBox(int x, int y, int z, BlockData data, boolean[] visited) {
+        // Grow along x, then z, then y for as long as all blocks added are identical
+        int sizeX = 1;
+        while ((x + sizeX) < dimX && canMerge(x + sizeX, y, z, data, visited)) {
+            sizeX++;
+        }
+        int sizeZ = 1;
+        while ((z + sizeZ) < dimZ && canMergeRow(x, sizeX, y, z + sizeZ, data, visited)) {
+            sizeZ++;
+        }
+        int sizeY = 1;
+        growY:
+        while ((y + sizeY) < dimY) {
+            for (int dz = 0; dz < sizeZ; dz++) {
+                if (!canMergeRow(x, sizeX, y + sizeY, z + dz, data, visited)) {
+                    break growY;
+                }
+            }
+            sizeY++;
+        }
+
+        // Mark all blocks of the box as visited
+        for (int dy = 0; dy < sizeY; dy++) {
+            for (int dz = 0; dz < sizeZ; dz++) {
+                int rowIndex = index(x, y + dy, z + dz);
+                for (int dx = 0; dx < sizeX; dx++) {
+                    visited[rowIndex + dx] = true;
+                }
+            }
+        }
+
+        return new Box(x, y, z, sizeX, sizeY, sizeZ, data);
+    }
+
+    private boolean canMergeRow(int x, int sizeX, int y, int z, BlockData data, boolean[] visited) {
+        for (int dx = 0; dx < sizeX; dx++) {
+            if (!canMerge(x + dx, y, z, data, visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean canMerge(int x, int y, int z, BlockData data, boolean[] visited) {
+        int index = index(x, y, z);
+        return !visited[index] && occluding[index] && data.equals(blockData[index]);
+    }
+
+    private boolean isEnclosed(Box box) {
+        final int x0 = box.x - 1, x1 = box.x + box.sizeX;
+        final int y0 = box.y - 1, y1 = box.y + box.sizeY;
+        final int z0 = box.z - 1, z1 = box.z + box.sizeZ;
+        if (x0 < 0 || y0 < 0 || z0 < 0 || x1 >= dimX || y1 >= dimY || z1 >= dimZ) {
+            return false; // Visible from outside the schematic
+        }
+        for (int y = box.y; y < y1; y++) {
+            for (int z = box.z; z < z1; z++) {
+                if (!occluding[index(x0, y, z)] || !occluding[index(x1, y, z)]) {
+                    return false;
+                }
+            }
+        }
+        for (int z = box.z; z < z1; z++) {
+            for (int x = box.x; x < x1; x++) {
+                if (!occluding[index(x, y0, z)] || !occluding[index(x, y1, z)]) {
+                    return false;
+                }
+            }
+        }
+        for (int y = box.y; y < y1; y++) {
+            for (int x = box.x; x < x1; x++) {
+                if (!occluding[index(x, y, z0)] || !occluding[index(x, y, z1)]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private BlockData get(int x, int y, int z) {
+        if (x >= dimX || y >= dimY || z >= dimZ) {
+            return null;
+        }
+        return blockData[index(x, y, z)];
+    }
+
+    private int index(int x, int y, int z) {
+        return x + dimX * (z + dimZ * y);
+    }
+
+    /**
+     * A box of identical blocks to display
+     */
+    public static final class Box {
+        public final int x, y, z;
+        public final int sizeX, sizeY, sizeZ;
+        public final BlockData blockData;
+
+        public Box(int x, int y, int z, int sizeX, int sizeY, int sizeZ, BlockData blockData) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.sizeX = sizeX;
+            this.sizeY = sizeY;
+            this.sizeZ = sizeZ;
+            this.blockData = blockData;
+        }
+    }
+}
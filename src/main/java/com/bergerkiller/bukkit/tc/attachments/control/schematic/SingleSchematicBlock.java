@@ -16,10 +16,13 @@ import java.util.Iterator;
 import java.util.UUID;
 
 /**
- * A single non-air block that is being displayed
+ * A single non-air block that is being displayed. Can also be a box of
+ * identical blocks, displayed as a single scaled block.
  */
 class SingleSchematicBlock {
     private final double x, y, z;
+    private final int sizeX, sizeY, sizeZ; // Number of blocks along each axis
+    private final Vector boxScale; // Null if a single block
     private double sx, sy, sz; // Scaled x/y/z
     private final Vector translation;
     private final int entityId;
@@ -33,9 +36,17 @@ class SingleSchematicBlock {
             .create();
 
     public SingleSchematicBlock(double x, double y, double z, BlockData blockData) {
+        this(x, y, z, 1, 1, 1, blockData);
+    }
+
+    public SingleSchematicBlock(double x, double y, double z, int sizeX, int sizeY, int sizeZ, BlockData blockData) {
         this.x = x;
         this.y = y;
         this.z = z;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.boxScale = (sizeX == 1 && sizeY == 1 && sizeZ == 1) ? null : new Vector();
         this.sx = x;
         this.sy = y;
         this.sz = z;
@@ -67,7 +78,16 @@ class SingleSchematicBlock {
         sx = scale.getX() * (x + (spacing.getX() * (x + 0.5))) - origin.getX();
         sy = scale.getY() * (y + (spacing.getY() * y)) - origin.getY();
         sz = scale.getZ() * (z + (spacing.getZ() * (z + 0.5))) - origin.getZ();
-        metadata.set(DisplayHandle.DATA_SCALE, scale);
+        if (boxScale != null) {
+            // Box stretches across the gaps between the blocks
+            MathUtil.setVector(boxScale,
+                    scale.getX() * (sizeX + spacing.getX() * (sizeX - 1)),
+                    scale.getY() * (sizeY + spacing.getY() * (sizeY - 1)),
+                    scale.getZ() * (sizeZ + spacing.getZ() * (sizeZ - 1)));
+            metadata.set(DisplayHandle.DATA_SCALE, boxScale);
+        } else {
+            metadata.set(DisplayHandle.DATA_SCALE, scale);
+        }
         metadata.set(DisplayHandle.DATA_WIDTH, bb);
         metadata.set(DisplayHandle.DATA_HEIGHT, bb);
     }
@@ -83,7 +103,12 @@ class SingleSchematicBlock {
         sx = scale.getX() * x - origin.getX();
         sy = scale.getY() * y - origin.getY();
         sz = scale.getZ() * z - origin.getZ();
-        metadata.set(DisplayHandle.DATA_SCALE, scale);
+        if (boxScale != null) {
+            MathUtil.setVector(boxScale, scale.getX() * sizeX, scale.getY() * sizeY, scale.getZ() * sizeZ);
+            metadata.set(DisplayHandle.DATA_SCALE, boxScale);
+        } else {
+            metadata.set(DisplayHandle.DATA_SCALE, scale);
+        }
         metadata.set(DisplayHandle.DATA_WIDTH, bb);
         metadata.set(DisplayHandle.DATA_HEIGHT, bb);
     }
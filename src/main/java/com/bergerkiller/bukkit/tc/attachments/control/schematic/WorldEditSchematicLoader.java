@@ -218,6 +218,8 @@ public class WorldEditSchematicLoader {
         protected boolean wasModified;
 
         protected final BlockData[] blockData;
+        protected final boolean reduceMesh;
+        protected volatile List<SchematicBlock> reducedBlocks = null;
         protected boolean error = false;
         protected boolean done = false;
         protected long lastAccessed;
@@ -236,6 +238,27 @@ public class WorldEditSchematicLoader {
             this.wasModified = false;
             this.lastModifiedLastChecked = this.lastAccessed = System.currentTimeMillis();
             this.blockData = new BlockData[numOfBlocks];
+            this.reduceMesh = TCConfig.schematicCullHiddenBlocks ||
+                              TCConfig.schematicMergeBlocks ||
+                              TCConfig.schematicLowDetailDistance > 0.0;
+        }
+
+        /**
+         * Computes the boxes of blocks to display once all blocks have been loaded.
+         * Blocks of the low-detail version of the schematic are included at the end.
+         */
+        protected void computeReducedBlocks() {
+            SchematicMeshReducer reducer = new SchematicMeshReducer(dimensions.x, dimensions.y, dimensions.z, blockData);
+            List<SchematicBlock> result = new ArrayList<>();
+            for (SchematicMeshReducer.Box box : reducer.reduce(TCConfig.schematicCullHiddenBlocks, TCConfig.schematicMergeBlocks)) {
+                result.add(new SchematicBlock(this, box, false));
+            }
+            if (TCConfig.schematicLowDetailDistance > 0.0) {
+                for (SchematicMeshReducer.Box box : reducer.reduceLowDetail(TCConfig.schematicCullHiddenBlocks, TCConfig.schematicMergeBlocks)) {
+                    result.add(new SchematicBlock(this, box, true));
+                }
+            }
+            reducedBlocks = result;
         }
 
         public boolean isDone() {
@@ -310,19 +333,48 @@ public class WorldEditSchematicLoader {
     }
 
     /**
-     * A single Block in the schematic
+     * A single Block in the schematic. If blocks were merged, it can also
+     * be a box of identical blocks of a given size.
      */
     public static class SchematicBlock {
         public final Schematic schematic;
         public final int x, y, z;
+        public final int sizeX, sizeY, sizeZ;
         public final BlockData blockData;
+        /** Whether this block is part of the low-detail version of the schematic */
+        public final boolean lowDetail;
 
         public SchematicBlock(Schematic schematic, int x, int y, int z, BlockData blockData) {
             this.schematic = schematic;
             this.x = x;
             this.y = y;
             this.z = z;
+            this.sizeX = 1;
+            this.sizeY = 1;
+            this.sizeZ = 1;
             this.blockData = blockData;
+            this.lowDetail = false;
+        }
+
+        private SchematicBlock(Schematic schematic, SchematicMeshReducer.Box box, boolean lowDetail) {
+            this.schematic = schematic;
+            this.x = box.x;
+            this.y = box.y;
+            this.z = box.z;
+            this.sizeX = box.sizeX;
+            this.sizeY = box.sizeY;
+            this.sizeZ = box.sizeZ;
+            this.blockData = box.blockData;
+            this.lowDetail = lowDetail;
+        }
+
+        /**
+         * Gets whether this is a box of more than one block
+         *
+         * @return True if this is a box of blocks
+         */
+        public boolean isBox() {
+            return sizeX != 1 || sizeY != 1 || sizeZ != 1;
         }
     }
 
@@ -427,6 +479,7 @@ public class WorldEditSchematicLoader {
     private class ReaderStateBusy extends BlockIterator implements ReaderState {
         public final Schematic schematic;
         public boolean error;
+        private int reducedIndex = 0;
 
         public ReaderStateBusy(Schematic schematic) {
             super(schematic.dimensions);
@@ -456,6 +509,24 @@ public class WorldEditSchematicLoader {
                 return null;
             }
 
+            // When reducing the blocks, wait until all blocks are loaded in and reduced
+            if (schematic.reduceMesh) {
+                List<SchematicBlock> reduced = schematic.reducedBlocks;
+                if (reduced == null) {
+                    if (schematic.isDone() && schematic.reducedBlocks == null) {
+                        done = true; // Failed to load
+                        error = true;
+                    }
+                    return null;
+                } else if (reducedIndex < reduced.size()) {
+                    return reduced.get(reducedIndex++);
+                } else {
+                    done = true;
+                    error = schematic.hasError();
+                    return null;
+                }
+            }
+
             // Return current block being read, and advance indices as we do
             BlockData data = schematic.blockData[index];
             if (data != null) {
@@ -675,6 +746,9 @@ public class WorldEditSchematicLoader {
                             }
                         }
                     }
+                    if (!loadedSchematic.error && loadedSchematic.reduceMesh) {
+                        loadedSchematic.computeReducedBlocks();
+                    }
                 } catch (Throwable t) {
                     plugin.getLogger().log(Level.SEVERE, "Failed to load schematic " + schematicFilePath, t);
                     loadedSchematic.error = true;
@@ -57,6 +57,7 @@ import org.incendo.cloud.annotations.CommandDescription;
 import org.incendo.cloud.annotations.Flag;
 import org.incendo.cloud.description.Description;
 
+import java.io.File;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.util.Collection;
@@ -370,6 +371,18 @@ public class GlobalCommands {
         sender.sendMessage(ChatColor.YELLOW + "TrainCarts' information has been saved to file.");
     }
 
+    @CommandRequiresPermission(Permission.COMMAND_SAVEALL)
+    @Command("train globalconfig exportproperties")
+    @CommandDescription("Exports the properties of all trains to a YAML file for editing")
+    private void commandExportTrainProperties(
+            final CommandSender sender,
+            final TrainCarts plugin
+    ) {
+        File exportedFile = TrainProperties.exportYaml();
+        sender.sendMessage(ChatColor.YELLOW + "Train properties have been exported to " + exportedFile.getName());
+        sender.sendMessage(ChatColor.YELLOW + "Rename it to TrainProperties.yml to import it again on the next reload");
+    }
+
     @Command("train edit")
     @CommandDescription("Selects a train the player is looking at for editing")
     private void commandEditLookingAt(
@@ -290,7 +290,6 @@ public class TicketCommands {
               final @Argument("newrealm") String newRealm
     ) {
         ticket.setRealm(newRealm);
-        TicketStore.markChanged();
         sender.sendMessage(ChatColor.GREEN + "Ticket realm set to " + ChatColor.YELLOW + newRealm);
     }
 
@@ -318,7 +317,6 @@ public class TicketCommands {
               final @Quoted @Argument("newimage") String newImage
     ) {
         ticket.setBackgroundImagePath(newImage);
-        TicketStore.markChanged();
         if (newImage.isEmpty()) {
             sender.sendMessage(ChatColor.GREEN + "Ticket background image reset to the default image");
         } else {
@@ -352,7 +350,6 @@ public class TicketCommands {
               final @Argument("newmaxuses") int newMaximumUses
     ) {
         ticket.setMaxNumberOfUses(newMaximumUses);
-        TicketStore.markChanged();
         if (newMaximumUses >= 0) {
             sender.sendMessage(ChatColor.GREEN + "Ticket maximum number of uses set to " + ChatColor.YELLOW +
                     newMaximumUses);
@@ -370,6 +367,7 @@ public class TicketCommands {
               final @Quoted @Argument("newdestination") String newDestination
     ) {
         ticket.getProperties().set("destination", newDestination);
+        ticket.markChanged();
         sender.sendMessage(ChatColor.GREEN + "Ticket destination set to " + ChatColor.YELLOW + newDestination);
     }
 
@@ -383,9 +381,11 @@ public class TicketCommands {
     ) {
         if (newTags == null || newTags.length == 0) {
             ticket.getProperties().set("tags", new String[0]);
+            ticket.markChanged();
             sender.sendMessage(ChatColor.GREEN + "All ticket tags have been cleared");
         } else {
             ticket.getProperties().set("tags", newTags);
+            ticket.markChanged();
             sender.sendMessage(ChatColor.GREEN + "Ticket tags set: " + ChatColor.YELLOW + StringUtil.combineNames(newTags));
         }
     }
@@ -860,6 +860,7 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
         member.getWheels().startTeleport();
         member.getEntity().teleport(location);
         member.getOrientation();
+        MinecartMemberStore.onMemberChunkChanged(member);
     }
 
     /**
@@ -1984,7 +1985,7 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
                     MemberBlockChangeEvent.call(member, member.getLastBlock(), member.getBlock());
                     member.checkMissing();
                     member.onBlockChange(member.getLastBlock(), member.getBlock());
-                    this.getSignTracker().updatePosition();
+                    this.getSignTracker().updateRailPosition();
                     member.checkMissing();
                 }
             }
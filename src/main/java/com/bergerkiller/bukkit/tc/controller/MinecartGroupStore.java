@@ -222,7 +222,7 @@ public class MinecartGroupStore extends ArrayList<MinecartMember<?>> {
         }
 
         MinecartGroup group = new MinecartGroup(spawnableGroup.getTrainCarts());
-        group.setProperties(TrainPropertiesStore.createFromConfig(spawnableGroup.getConfig()));
+        group.setProperties(TrainPropertiesStore.createFromConfig(spawnableGroup.getConfigReadOnly()));
         groups.add(group);
 
         for (int i = locations.locations.size() - 1; i >= 0; i--) {
@@ -56,6 +56,7 @@ import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.DamageSource;
 import com.bergerkiller.bukkit.common.wrappers.HumanHand;
 import com.bergerkiller.bukkit.common.wrappers.MoveType;
+import com.bergerkiller.bukkit.tc.ArrivalSigns;
 import com.bergerkiller.bukkit.tc.CollisionMode;
 import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.TCListener;
@@ -114,6 +115,7 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
     private final SignTrackerMember signTracker;
     private final ActionTrackerMember actionTracker;
     private final RailTrackerMember railTrackerMember;
+    private final RailState preMoveStateBuffer = new RailState(); // Buffered and re-used during onPhysicsPostMove()
     private final WheelTrackerMember wheelTracker;
     private final AttachmentControllerMember attachmentController;
     private final ToggledState railActivated = new ToggledState(false);
@@ -121,6 +123,8 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
     protected MinecartGroup group;
     protected boolean died = false;
     private boolean unloaded = true;
+    boolean chunkIndexed = false; // Managed by MinecartMemberChunkIndex
+    long chunkIndexKey = 0L; // Managed by MinecartMemberChunkIndex
     protected boolean unloadedLastPlayerTakable = false;
     protected SoundLoop<?> soundLoop;
     protected BlockFace direction;
@@ -445,6 +449,20 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
      * @return orientation
      */
     public Quaternion getOrientation() {
+        return this.getCachedOrientation().clone();
+    }
+
+    /**
+     * Gets the orientation of the Minecart, storing it in an existing Quaternion
+     * instead of creating a new one. See also: {@link #getOrientation()}.
+     * 
+     * @param orientation Quaternion to store the orientation in
+     */
+    public void getOrientation(Quaternion orientation) {
+        orientation.setTo(this.getCachedOrientation());
+    }
+
+    private Quaternion getCachedOrientation() {
         if (entity.loc.getYaw() != this.cachedOrientation_yaw) {
             this.cachedOrientation_yaw = entity.loc.getYaw();
             this.cachedOrientation_quat = null;
@@ -458,7 +476,7 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
             this.cachedOrientation_quat = orientation = Quaternion.fromYawPitchRoll(this.cachedOrientation_pitch,
                     this.cachedOrientation_yaw + 90.0f, 0.0f);
         }
-        return orientation.clone();
+        return orientation;
     }
 
     /**
@@ -488,13 +506,17 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
             double dz = this.cachedOrientation_quat.getZ() - orientation.getZ();
             double dw = this.cachedOrientation_quat.getW() - orientation.getW();
             if ((dx * dx + dy * dy + dz * dz + dw * dw) < 1E-20) {
-                this.cachedOrientation_quat = orientation.clone();
+                this.cachedOrientation_quat.setTo(orientation);
                 return;
             }
         }
 
         // Refresh
-        this.cachedOrientation_quat = orientation.clone();
+        if (this.cachedOrientation_quat == null) {
+            this.cachedOrientation_quat = orientation.clone();
+        } else {
+            this.cachedOrientation_quat.setTo(orientation);
+        }
         Vector ypr = this.cachedOrientation_quat.getYawPitchRoll();
         entity.setRotation((float) ypr.getY() - 90.0f, (float) ypr.getX());
         this.cachedOrientation_yaw = entity.loc.getYaw();
@@ -573,9 +595,13 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
     public void setUnloaded(boolean unloaded) {
         if (this.unloaded != unloaded) {
             this.unloaded = unloaded;
+            MinecartMemberStore.onMemberChunkChanged(this);
             if (unloaded && this.group != null) {
                 this.unloadedLastPlayerTakable = this.group.getProperties().isPlayerTakeable();
             }
+            if (unloaded) {
+                ArrivalSigns.onMemberStopped(this);
+            }
         }
     }
 
@@ -1428,6 +1454,9 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
     public void onDie(boolean killed) {
         try {
             if (!entity.isRemoved() || !this.died) {
+                // Complete arrival time calculations started by this cart
+                ArrivalSigns.onMemberStopped(this);
+
                 // Before we actually die, eject passengers and release the signs
                 // This must be done while the entity is still "alive"
                 boolean cancelDrops = false;
@@ -1462,6 +1491,7 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
                     }
                 }
                 this.died = true;
+                MinecartMemberStore.onMemberChunkChanged(this);
             }
         } catch (Throwable t) {
             traincarts.handle(t);
@@ -2268,7 +2298,9 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
         // Detect when the train starts and stops moving, to play a configured drive sound
         if (wasMoving != (vel.lengthSquared() >= 1e-10)) {
             wasMoving = !wasMoving;
-            if (wasMoving) {
+            if (!wasMoving) {
+                ArrivalSigns.onMemberStopped(this);
+            } else {
                 String effectName = this.getProperties().getDriveSound();
                 if (effectName != null && !effectName.isEmpty()) {
                     Effect effect = new Effect();
@@ -2299,9 +2331,10 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
         boolean preMoveInverted = false;
         /* Timings: onPhysicsPostMove:onMove  (Train Physics, Post-Move) */
         {
-            preMoveState = this.railTrackerMember.getRail().state.clone();
+            preMoveState = this.preMoveStateBuffer;
+            preMoveState.setTo(this.railTrackerMember.getRail().state);
             if (preMoveState.position().motDot(vel) < 0.0) {
-                preMoveState = preMoveState.cloneAndInvertMotion();
+                preMoveState.position().invertMotion();
                 preMoveInverted = true;
             }
 
@@ -2417,6 +2450,7 @@ public abstract class MinecartMember<T extends CommonMinecart<?>> extends Entity
         if (from == null || from.getWorld() != to.getWorld()) {
             lastLocation = from = to; // Force correct it
         }
+        MinecartMemberStore.onMemberChunkChanged(this);
         lastLocationSync = from;
         lastLocation = to;
         entity.last.set(from);
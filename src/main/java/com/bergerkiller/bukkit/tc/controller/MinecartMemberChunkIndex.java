@@ -0,0 +1,122 @@
+package com.bergerkiller.bukkit.tc.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.bukkit.World;
+
+import com.bergerkiller.bukkit.common.entity.type.CommonMinecart;
+import com.bergerkiller.bukkit.common.utils.MathUtil;
+import com.bergerkiller.bukkit.common.wrappers.LongHashMap;
+
+/**
+ * Indexes all loaded TrainCarts Minecarts by the chunk they are in, so that the
+ * Minecarts near a position can be found without going by all the entities of the world.
+ * Minecarts are added when they load, moved to another chunk list when they move into
+ * another chunk, and removed again when they unload or die.
+ */
+final class MinecartMemberChunkIndex {
+    private final LongHashMap<List<MinecartMember<?>>> byChunk = new LongHashMap<>();
+    // Buffered and re-used
+    private final List<List<MinecartMember<?>>> unusedLists = new ArrayList<>();
+
+    /**
+     * Finds a TrainCarts Minecart near a position that matches a predicate
+     *
+     * @param world World of the position
+     * @param x X-coordinate of the position
+     * @param z Z-coordinate of the position
+     * @param radius Radius around the position to look for Minecarts. The predicate must
+     *               check the exact distance itself.
+     * @param predicate Predicate that returns true when a Minecart is found
+     * @return First Minecart the predicate returned true for, or null if none did
+     */
+    public MinecartMember<?> find(World world, double x, double z, double radius, Predicate<MinecartMember<?>> predicate) {
+        int cxMin = MathUtil.toChunk(x - radius);
+        int cxMax = MathUtil.toChunk(x + radius);
+        int czMin = MathUtil.toChunk(z - radius);
+        int czMax = MathUtil.toChunk(z + radius);
+        for (int cx = cxMin; cx <= cxMax; cx++) {
+            for (int cz = czMin; cz <= czMax; cz++) {
+                List<MinecartMember<?>> members = byChunk.get(cx, cz);
+                if (members == null) {
+                    continue;
+                }
+                for (MinecartMember<?> member : members) {
+                    if (member.getEntity().getWorld() == world && predicate.test(member)) {
+                        return member;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds, moves or removes a Minecart in the index based on whether it is loaded and
+     * what chunk it is in right now. Should be called when Minecarts are loaded, unloaded,
+     * die or move into another chunk.
+     *
+     * @param member Minecart to update
+     */
+    public void update(MinecartMember<?> member) {
+        CommonMinecart<?> entity = member.getEntity();
+        if (member.isUnloaded() || member.died || entity == null || entity.isRemoved()) {
+            remove(member);
+            return;
+        }
+
+        long key = MathUtil.longHashToLong(MathUtil.toChunk(entity.loc.getX()),
+                                           MathUtil.toChunk(entity.loc.getZ()));
+        if (member.chunkIndexed) {
+            if (member.chunkIndexKey == key) {
+                return;
+            }
+            removeFromChunk(member, member.chunkIndexKey);
+        }
+
+        List<MinecartMember<?>> members = byChunk.get(key);
+        if (members == null) {
+            members = unusedLists.isEmpty() ? new ArrayList<>(4) : unusedLists.remove(unusedLists.size() - 1);
+            byChunk.put(key, members);
+        }
+        members.add(member);
+        member.chunkIndexed = true;
+        member.chunkIndexKey = key;
+    }
+
+    /**
+     * Removes a Minecart from the index, if it was indexed
+     *
+     * @param member Minecart to remove
+     */
+    public void remove(MinecartMember<?> member) {
+        if (member.chunkIndexed) {
+            member.chunkIndexed = false;
+            removeFromChunk(member, member.chunkIndexKey);
+        }
+    }
+
+    /**
+     * Removes all indexed Minecarts
+     */
+    public void clear() {
+        for (List<MinecartMember<?>> members : byChunk.getValues()) {
+            for (MinecartMember<?> member : members) {
+                member.chunkIndexed = false;
+            }
+            members.clear();
+            unusedLists.add(members);
+        }
+        byChunk.clear();
+    }
+
+    private void removeFromChunk(MinecartMember<?> member, long key) {
+        List<MinecartMember<?>> members = byChunk.get(key);
+        if (members != null && members.remove(member) && members.isEmpty()) {
+            byChunk.remove(key);
+            unusedLists.add(members);
+        }
+    }
+}
@@ -33,12 +33,15 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 public abstract class MinecartMemberStore {
     private static ClassMap<Function<TrainCarts, ? extends MinecartMember<?>>> controllers = new ClassMap<>();
+    private static final MinecartMemberChunkIndex memberChunkIndex = new MinecartMemberChunkIndex();
 
     static {
         controllers.put(CommonMinecartRideable.class, MinecartMemberRideable::new);
@@ -55,13 +58,30 @@ public abstract class MinecartMemberStore {
      */
     public static void convertAllAutomatically(TrainCarts plugin) {
         List<Minecart> minecarts = new ArrayList<>();
-        for (org.bukkit.World world : WorldUtil.getWorlds()) {
-            if (TrainCarts.isWorldDisabled(world)) {
-                continue;
+        if (TCConfig.allMinecartsAreTrainCarts) {
+            // All Minecarts must be found, which requires going by all entities
+            for (org.bukkit.World world : WorldUtil.getWorlds()) {
+                if (TrainCarts.isWorldDisabled(world)) {
+                    continue;
+                }
+                for (org.bukkit.entity.Entity entity : WorldUtil.getEntities(world)) {
+                    if (canConvertAutomatically(entity)) {
+                        minecarts.add((Minecart) entity);
+                    }
+                }
             }
-            for (org.bukkit.entity.Entity entity : WorldUtil.getEntities(world)) {
-                if (canConvertAutomatically(entity)) {
-                    minecarts.add((Minecart) entity);
+        } else {
+            // Only Minecarts stored in offline storage are converted, look those up by UUID
+            Collection<UUID> minecartUUIDs = plugin.getOfflineGroups().getContainedMinecarts();
+            for (org.bukkit.World world : WorldUtil.getWorlds()) {
+                if (TrainCarts.isWorldDisabled(world)) {
+                    continue;
+                }
+                for (UUID minecartUUID : minecartUUIDs) {
+                    org.bukkit.entity.Entity entity = EntityUtil.getEntity(world, minecartUUID);
+                    if (entity != null && canConvertAutomatically(entity)) {
+                        minecarts.add((Minecart) entity);
+                    }
                 }
             }
         }
@@ -459,26 +479,74 @@ public abstract class MinecartMemberStore {
         if (at == null || TrainCarts.isWorldDisabled(at.getWorld())) {
             return null;
         }
-        MinecartMember<?> result = null;
-        final double distSquared = searchRadius * searchRadius;
-        for (org.bukkit.entity.Entity e : WorldUtil.getNearbyEntities(at, searchRadius, searchRadius, searchRadius)) {
-            MinecartMember<?> mm = getFromEntity(e);
-            if (mm == null) {
-                continue;
+
+        MemberAtSearch search = new MemberAtSearch(at, searchRadius);
+        if (in != null) {
+            // Only the members of the group itself have to be checked
+            for (MinecartMember<?> mm : in) {
+                if (!mm.isUnloaded() && mm.getEntity().getWorld() == at.getWorld() && search.test(mm)) {
+                    return mm;
+                }
             }
-            if (in != null && mm.getGroup() != in) {
-                continue;
+            return search.result;
+        }
+
+        // Members on the rails at this position are known by the rail cache
+        RailPiece piece = RailType.findRailPiece(at);
+        if (piece != null) {
+            for (MinecartMember<?> mm : piece.members()) {
+                if (!mm.isUnloaded() && search.test(mm)) {
+                    return mm;
+                }
             }
+        }
+
+        // Members that are further away, or derailed
+        MinecartMember<?> heading = memberChunkIndex.find(at.getWorld(), at.getX(), at.getZ(), searchRadius, search);
+        return (heading != null) ? heading : search.result;
+    }
+
+    /**
+     * Signals that a TrainCarts Minecart was loaded, unloaded, died or moved, so that
+     * cached information about what chunk the Minecart is in is updated.
+     *
+     * @param member Minecart that changed
+     */
+    static void onMemberChunkChanged(MinecartMember<?> member) {
+        memberChunkIndex.update(member);
+    }
+
+    /**
+     * Clears cached information about the TrainCarts Minecarts that exist.
+     * Is called when the plugin disables.
+     */
+    public static void clearCachedMembers() {
+        memberChunkIndex.clear();
+    }
+
+    /**
+     * Tests Minecarts for being near a position. Keeps track of a Minecart nearby,
+     * and returns true once a Minecart is found that is heading towards the position.
+     */
+    private static final class MemberAtSearch implements Predicate<MinecartMember<?>> {
+        private final Location at;
+        private final double distSquared;
+        public MinecartMember<?> result = null;
+
+        public MemberAtSearch(Location at, double searchRadius) {
+            this.at = at;
+            this.distSquared = searchRadius * searchRadius;
+        }
+
+        @Override
+        public boolean test(MinecartMember<?> mm) {
             if (mm.getEntity().loc.distanceSquared(at) > distSquared) {
-                continue;
+                return false;
             }
             result = mm;
             // If heading (moving) towards the point, instantly return it
-            if (mm.isHeadingTo(at)) {
-                return result;
-            }
+            return mm.isHeadingTo(at);
         }
-        return result;
     }
 
     /**
@@ -12,7 +12,7 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
-import java.util.logging.Level;
+import java.util.function.UnaryOperator;
 
 import com.bergerkiller.bukkit.tc.TrainCarts;
 import com.bergerkiller.bukkit.tc.Util;
@@ -22,6 +22,7 @@ import com.bergerkiller.bukkit.tc.attachments.config.AttachmentConfig;
 import com.bergerkiller.bukkit.tc.attachments.config.AttachmentConfigListener;
 import com.bergerkiller.bukkit.tc.attachments.config.AttachmentConfigModelTracker;
 import com.bergerkiller.bukkit.tc.attachments.config.AttachmentConfigTracker;
+import com.bergerkiller.bukkit.tc.attachments.config.AttachmentTemplate;
 import com.bergerkiller.bukkit.tc.attachments.config.SavedAttachmentModel;
 import com.bergerkiller.bukkit.tc.attachments.config.SavedAttachmentModelStore;
 import com.bergerkiller.bukkit.tc.utils.SetCallbackCollector;
@@ -964,6 +965,25 @@ public class AttachmentControllerMember
         this.cachedNameLookups.clear();
     }
 
+    /**
+     * Updates the cached name lookup of the root attachment with a change made to the
+     * attachment tree, instead of re-creating it. Lookups of subtrees are invalidated.
+     *
+     * @param update Produces the updated name lookup from the previous one
+     */
+    private void updateCachedNameLookups(UnaryOperator<AttachmentNameLookup> update) {
+        AttachmentNameLookup rootLookup = (this.rootAttachment == null) ? null
+                : this.cachedNameLookups.get(this.rootAttachment);
+        if (rootLookup == null || !rootLookup.isValid()) {
+            this.invalidateCachedNameLookups();
+            return;
+        }
+
+        this.cachedNameLookups.remove(this.rootAttachment);
+        this.invalidateCachedNameLookups();
+        this.cachedNameLookups.put(this.rootAttachment, update.apply(rootLookup));
+    }
+
     private static void detachAttachments(List<Attachment> flattenedAttachments) {
         ListIterator<Attachment> iter = flattenedAttachments.listIterator(flattenedAttachments.size());
         while (iter.hasPrevious()) {
@@ -972,13 +992,108 @@ public class AttachmentControllerMember
     }
 
     private void updateFlattenedLists() {
+        this.updateFlattenedListsOnly();
+        this.invalidateCachedNameLookups(); // Invalidate
+    }
+
+    private void updateFlattenedListsOnly() {
         this.flattenedAttachments = HelperMethods.listAllAttachments(this.rootAttachment);
         this.seatAttachments = this.flattenedAttachments.stream()
                 .filter(attachment -> attachment instanceof CartAttachmentSeat)
                 .map(attachment -> (CartAttachmentSeat) attachment)
                 .collect(StreamUtil.toUnmodifiableList());
         this.cachedSeatAttachmentsByPassenger.clear();
-        this.invalidateCachedNameLookups(); // Invalidate
+    }
+
+    /**
+     * Removes the attachments of a subtree from the flattened lists. The attachments of a
+     * subtree are listed next to each other, so they are removed as a single range.
+     *
+     * @param removedAttachments Flattened list of the attachments of the removed subtree
+     */
+    private void removeFromFlattenedLists(List<Attachment> removedAttachments) {
+        List<Attachment> flattened = this.flattenedAttachments;
+        int start = flattened.indexOf(removedAttachments.get(0));
+        if (start == -1) {
+            this.updateFlattenedListsOnly(); // Should never happen
+            return;
+        }
+
+        ArrayList<Attachment> result = new ArrayList<>(flattened.size() - removedAttachments.size());
+        result.addAll(flattened.subList(0, start));
+        result.addAll(flattened.subList(start + removedAttachments.size(), flattened.size()));
+        this.flattenedAttachments = Collections.unmodifiableList(result);
+
+        List<CartAttachmentSeat> removedSeats = listSeats(removedAttachments);
+        if (!removedSeats.isEmpty()) {
+            ArrayList<CartAttachmentSeat> seats = new ArrayList<>(this.seatAttachments);
+            seats.removeAll(removedSeats);
+            this.seatAttachments = Collections.unmodifiableList(seats);
+            this.cachedSeatAttachmentsByPassenger.clear();
+        }
+    }
+
+    /**
+     * Inserts the attachments of a subtree that was added into the flattened lists,
+     * right after the attachment that comes before it in the tree.
+     *
+     * @param addedRoot Root attachment of the added subtree, already added to its parent
+     * @param addedAttachments Flattened list of the attachments of the added subtree
+     */
+    private void addToFlattenedLists(Attachment addedRoot, List<Attachment> addedAttachments) {
+        // The attachment before the subtree is its parent, or the last attachment
+        // in the subtree of the child before it
+        Attachment before = addedRoot.getParent();
+        int childIndex = before.getChildren().indexOf(addedRoot);
+        if (childIndex > 0) {
+            before = before.getChildren().get(childIndex - 1);
+            while (!before.getChildren().isEmpty()) {
+                before = before.getChildren().get(before.getChildren().size() - 1);
+            }
+        }
+
+        List<Attachment> flattened = this.flattenedAttachments;
+        int index = flattened.indexOf(before) + 1;
+        if (index == 0) {
+            this.updateFlattenedListsOnly(); // Should never happen
+            return;
+        }
+
+        ArrayList<Attachment> result = new ArrayList<>(flattened.size() + addedAttachments.size());
+        result.addAll(flattened.subList(0, index));
+        result.addAll(addedAttachments);
+        result.addAll(flattened.subList(index, flattened.size()));
+        this.flattenedAttachments = Collections.unmodifiableList(result);
+
+        List<CartAttachmentSeat> addedSeats = listSeats(addedAttachments);
+        if (!addedSeats.isEmpty()) {
+            // Added seats come right after the last seat before the subtree
+            int seatIndex = 0;
+            for (int i = index - 1; i >= 0; i--) {
+                Attachment attachment = flattened.get(i);
+                if (attachment instanceof CartAttachmentSeat) {
+                    seatIndex = this.seatAttachments.indexOf(attachment) + 1;
+                    break;
+                }
+            }
+            ArrayList<CartAttachmentSeat> seats = new ArrayList<>(this.seatAttachments);
+            seats.addAll(seatIndex, addedSeats);
+            this.seatAttachments = Collections.unmodifiableList(seats);
+            this.cachedSeatAttachmentsByPassenger.clear();
+        }
+    }
+
+    private static List<CartAttachmentSeat> listSeats(List<Attachment> attachments) {
+        List<CartAttachmentSeat> seats = Collections.emptyList();
+        for (Attachment attachment : attachments) {
+            if (attachment instanceof CartAttachmentSeat) {
+                if (seats.isEmpty()) {
+                    seats = new ArrayList<>();
+                }
+                seats.add((CartAttachmentSeat) attachment);
+            }
+        }
+        return seats;
     }
 
     @Override
@@ -1024,8 +1139,8 @@ public class AttachmentControllerMember
             curr_parent.removeChild(curr);
 
             // Update flattened lists / seats
-            // TODO: Optimize?
-            this.updateFlattenedLists();
+            this.removeFromFlattenedLists(removedAttachments);
+            this.updateCachedNameLookups(l -> l.withRemoved(this.flattenedAttachments, removedAttachments));
         }
     }
 
@@ -1064,9 +1179,9 @@ public class AttachmentControllerMember
             List<Attachment> addedAttachments = HelperMethods.listAllAttachments(curr);
 
             // Handle onAttached
-            //TODO: Optimize away updateFlattenedLists()?
             int prevSeatCount = this.seatAttachments.size();
-            this.updateFlattenedLists();
+            this.addToFlattenedLists(curr, addedAttachments);
+            this.updateCachedNameLookups(l -> l.withAdded(this.flattenedAttachments, addedAttachments));
             if (this.seatAttachments.size() > prevSeatCount) {
                 this.changeListenerSeatsAddedOrRemoved = true;
             }
@@ -1093,14 +1208,10 @@ public class AttachmentControllerMember
             curr = curr.findChild(attachmentConfig.childPath());
 
             // Reload the configuration of just this one attachment
+            // The template is compiled only once for all carts using this configuration
             AttachmentType type = getTypeRegistry().findOrEmpty(attachmentConfig.typeId());
-            ConfigurationNode config = attachmentConfig.config();
-            try {
-                type.migrateConfiguration(config);
-            } catch (Throwable t) {
-                this.plugin.getLogger().log(Level.SEVERE,
-                        "Failed to migrate attachment configuration of " + type.getName(), t);
-            }
+            AttachmentTemplate template = attachmentConfig.template(this.getClass(), type);
+            ConfigurationNode config = template.getConfig();
 
             // If this attachment disallows hot-reloading like this, perform a remove-and-readd instead
             if (!curr.checkCanReload(config)) {
@@ -1112,9 +1223,10 @@ public class AttachmentControllerMember
             // Load the internal state first.
             // Invalidate by-name cache if names changed
             Collection<String> oldNames = curr.getNames();
-            curr.getInternalState().onLoad(this.getClass(), type, config);
+            curr.getInternalState().onLoad(template);
             if (!oldNames.equals(curr.getNames())) {
-                this.invalidateCachedNameLookups();
+                final Attachment renamed = curr;
+                this.updateCachedNameLookups(l -> l.withRenamed(renamed, oldNames));
             }
 
             curr.onLoad(config);
@@ -12,6 +12,7 @@ import org.bukkit.Location;
 import org.bukkit.util.Vector;
 
 import com.bergerkiller.bukkit.common.bases.IntVector3;
+import com.bergerkiller.bukkit.common.entity.CommonEntity;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.tc.TCConfig;
@@ -480,6 +481,12 @@ public class ObstacleTracker implements TrainStatusProvider {
 
             // If no wait distance is set and no mutex zones are anywhere close, skip these expensive calculations
             if (distance <= 0.0 && trainDistance <= 0.0 && (!checkRailObstacles || !mutexZones.isNear())) {
+                if (forwardChunks != null) {
+                    CommonEntity<?> headEntity = group.head().getEntity();
+                    forwardChunks.preload(group, headEntity.loc.getX(), headEntity.loc.getZ(),
+                            headEntity.vel.getX(), headEntity.vel.getZ(), 0.0,
+                            group.head().getRealSpeedLimited());
+                }
                 return Collections.emptyList();
             }
 
@@ -497,7 +504,7 @@ public class ObstacleTracker implements TrainStatusProvider {
 
                 // Refresh that we've visited this rail/position block, keeping the area loaded for this tick
                 if (forwardChunks != null) {
-                    forwardChunks.addBlock(iter.state.railBlock());
+                    forwardChunks.addBlock(iter.state.railBlock(), distanceFromFront);
                 }
 
                 if (checkRailObstacles) {
@@ -629,7 +636,7 @@ public class ObstacleTracker implements TrainStatusProvider {
 
                     // Refresh that we've visited this rail/position block, keeping the area loaded for this tick
                     if (forwardChunks != null) {
-                        forwardChunks.addBlock(iter.state.railBlock());
+                        forwardChunks.addBlock(iter.state.railBlock(), iter.movedTotal - selfCartOffset);
                     }
 
                     // Check still within mutex. If not, abort.
@@ -655,6 +662,13 @@ public class ObstacleTracker implements TrainStatusProvider {
                 }
             }
 
+            // Preload the chunks past the end of the track walked, in the direction the track goes
+            if (forwardChunks != null) {
+                RailPath.Position end = iter.state.position();
+                forwardChunks.preload(group, end.posX, end.posZ, end.motX, end.motZ,
+                        iter.movedTotal - selfCartOffset, group.head().getRealSpeedLimited());
+            }
+
             return obstacles;
         }
 
@@ -801,6 +801,26 @@ public class RailPath {
             }
         }
 
+        /**
+         * Gets the forward and up vectors of the orientation of wheels at this rail position.
+         * Unlike {@link #getWheelOrientation()} no new objects are created, which makes this
+         * suitable for use during the physics update.
+         *
+         * @param forward Vector to assign the forward direction of the wheel orientation to
+         * @param up Vector to assign the up direction of the wheel orientation to
+         */
+        public void getWheelOrientation(Vector forward, Vector up) {
+            Segment s = this.wheelSegment;
+            if (s == null) {
+                // Fallback. Should never be used, really.
+                Quaternion q = this.getWheelOrientation();
+                Util.setVector(forward, q.forwardVector());
+                Util.setVector(up, q.upVector());
+            } else {
+                s.calcWheelOrientation(this.wheelTheta, forward, up);
+            }
+        }
+
         /**
          * Moves a distance forwards along the same current movement
          * vector.
@@ -1492,10 +1512,7 @@ public class RailPath {
          * @return distance squared
          */
         public final double calcDistanceSquared(Vector position, double theta) {
-            Vector segmentPosition = new Vector();
-            calcPosition(segmentPosition, theta);
-            segmentPosition.subtract(position);
-            return segmentPosition.lengthSquared();
+            return calcDistanceSquared(position.getX(), position.getY(), position.getZ(), theta);
         }
 
         /**
@@ -1507,12 +1524,7 @@ public class RailPath {
          * @return distance squared
          */
         public final double calcDistanceSquared(Position position, double theta) {
-            Vector segmentPosition = new Vector();
-            calcPosition(segmentPosition, theta);
-            segmentPosition.setX(segmentPosition.getX() - position.posX);
-            segmentPosition.setY(segmentPosition.getY() - position.posY);
-            segmentPosition.setZ(segmentPosition.getZ() - position.posZ);
-            return segmentPosition.lengthSquared();
+            return calcDistanceSquared(position.posX, position.posY, position.posZ, theta);
         }
 
         /**
@@ -1619,6 +1631,64 @@ public class RailPath {
             }
         }
 
+        /**
+         * Calculates the forward and up vectors of the orientation wheels have somewhere
+         * along this rail path segment. This does the same as {@link #calcWheelOrientation(double)},
+         * but assigns the result to existing vectors instead of creating a new Quaternion.
+         *
+         * @param theta (0.0 ... 1.0)
+         * @param forward Vector to assign the forward direction to
+         * @param up Vector to assign the up direction to
+         */
+        public void calcWheelOrientation(double theta, Vector forward, Vector up) {
+            double x, y, z, w;
+            if (theta <= 0.0) {
+                x = p0_orientation.getX(); y = p0_orientation.getY();
+                z = p0_orientation.getZ(); w = p0_orientation.getW();
+            } else if (theta >= 1.0) {
+                x = p1_orientation.getX(); y = p1_orientation.getY();
+                z = p1_orientation.getZ(); w = p1_orientation.getW();
+            } else {
+                double x0 = p0_orientation.getX(), y0 = p0_orientation.getY();
+                double z0 = p0_orientation.getZ(), w0 = p0_orientation.getW();
+                double x1 = p1_orientation.getX(), y1 = p1_orientation.getY();
+                double z1 = p1_orientation.getZ(), w1 = p1_orientation.getW();
+
+                // Take the shortest path between the two orientations
+                double dot = x0 * x1 + y0 * y1 + z0 * z1 + w0 * w1;
+                if (dot < 0.0) {
+                    dot = -dot;
+                    x1 = -x1; y1 = -y1; z1 = -z1; w1 = -w1;
+                }
+
+                // Spherical interpolation, falls back to linear when the orientations are (nearly) equal
+                double f0, f1;
+                if (dot > 0.9995) {
+                    f0 = 1.0 - theta;
+                    f1 = theta;
+                } else {
+                    double angle = Math.acos(dot);
+                    double sinInv = 1.0 / Math.sin(angle);
+                    f0 = Math.sin((1.0 - theta) * angle) * sinInv;
+                    f1 = Math.sin(theta * angle) * sinInv;
+                }
+                x = f0 * x0 + f1 * x1;
+                y = f0 * y0 + f1 * y1;
+                z = f0 * z0 + f1 * z1;
+                w = f0 * w0 + f1 * w1;
+
+                double n = 1.0 / Math.sqrt(x * x + y * y + z * z + w * w);
+                x *= n; y *= n; z *= n; w *= n;
+            }
+
+            forward.setX(2.0 * (x * z + y * w));
+            forward.setY(2.0 * (y * z - x * w));
+            forward.setZ(1.0 + 2.0 * (-x * x - y * y));
+            up.setX(2.0 * (x * y - z * w));
+            up.setY(1.0 + 2.0 * (-x * x - z * z));
+            up.setZ(2.0 * (y * z + x * w));
+        }
+
         /**
          * Calculates the theta (0.0 ... 1.0) for the point
          * on this segment closest to a particular coordinate.
@@ -2,8 +2,8 @@ package com.bergerkiller.bukkit.tc.controller.components;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -33,6 +33,11 @@ public class RailTrackerGroup extends RailTracker {
     private final MinecartGroup owner;
     private final ArrayList<TrackedRail> prevRails = new ArrayList<TrackedRail>();
     private final ArrayList<TrackedRail> rails = new ArrayList<TrackedRail>();
+    private final HashMap<IntVector3, TrackedRail> railsByPosition = new HashMap<IntVector3, TrackedRail>();
+    private boolean railsByPositionDirty = false;
+    // Buffered and re-used
+    private final ArrayList<TrackedRail> finderBuffer = new ArrayList<TrackedRail>();
+    private final ArrayList<TrackedRail> finderAlterBuffer = new ArrayList<TrackedRail>();
 
     public RailTrackerGroup(MinecartGroup owner) {
         this.owner = owner;
@@ -46,6 +51,8 @@ public class RailTrackerGroup extends RailTracker {
         this.rails.forEach(TrackedRail::handleMemberRemove);
         this.rails.clear();
         this.prevRails.clear();
+        this.railsByPosition.clear();
+        this.railsByPositionDirty = false;
     }
 
     /**
@@ -56,6 +63,7 @@ public class RailTrackerGroup extends RailTracker {
     public void removeMemberRails(MinecartMember<?> member) {
         removeMemberRails(prevRails, member);
         removeMemberRails(rails, member);
+        this.railsByPositionDirty = true;
     }
 
     private static void removeMemberRails(List<TrackedRail> rails, MinecartMember<?> member) {
@@ -78,6 +86,7 @@ public class RailTrackerGroup extends RailTracker {
      */
     public void reverseRailData() {
         Collections.reverse(this.rails);
+        this.railsByPositionDirty = true;
 
         // Invert motion direction on the rails
         for (TrackedRail rail : this.rails) {
@@ -123,13 +132,16 @@ public class RailTrackerGroup extends RailTracker {
      * @return the Minecart Member, or null if not found
      */
     public MinecartMember<?> getMemberFromRails(IntVector3 railsBlockPosition) {
-        //TODO: Is keeping a hashmap up to date a good idea? This loop works just fine, too.
-        for (TrackedRail info : rails) {
-            if (railsBlockPosition.equals(info.state.railPiece().blockPosition())) {
-                return info.member;
+        if (this.railsByPositionDirty) {
+            this.railsByPositionDirty = false;
+            this.railsByPosition.clear();
+            for (TrackedRail info : this.rails) {
+                // First rail in the list wins, like when searching the list
+                this.railsByPosition.putIfAbsent(info.state.railPiece().blockPosition(), info);
             }
         }
-        return null;
+        TrackedRail info = this.railsByPosition.get(railsBlockPosition);
+        return (info == null) ? null : info.member;
     }
 
     /**
@@ -141,7 +153,10 @@ public class RailTrackerGroup extends RailTracker {
             this.prevRails.clear();
             this.prevRails.addAll(this.rails);
             this.rails.clear();
+            this.railsByPositionDirty = true;
             refreshFrom(this.owner.size() - 1, false);
+            this.finderBuffer.clear();
+            this.finderAlterBuffer.clear();
 
             if (TCConfig.railTrackerDebugEnabled) {
                 List<TrackedRail> behindRails = new ArrayList<TrackedRail>();
@@ -188,6 +203,7 @@ public class RailTrackerGroup extends RailTracker {
             }
 
             Collections.reverse(this.rails);
+            this.railsByPositionDirty = true;
 
             // Log the rail information
             /*
@@ -198,9 +214,8 @@ public class RailTrackerGroup extends RailTracker {
             this.owner.getPlugin().log(Level.INFO, s);
             */
 
-            // TODO: Detect when the rails are changed
-            // Compare rails with prevRails to do so
-            owner.getSignTracker().updatePosition();
+            // Sign tracker only re-synchronizes active signs when rails with signs were added or removed
+            owner.getSignTracker().updateRailPosition();
         }
 
         // Remove all previous rails from the rail member cache, and add the new rails
@@ -559,18 +574,22 @@ public class RailTrackerGroup extends RailTracker {
                 isAbormal = true;
 
                 // Restore back into a buffer
-                result.rails = new ArrayList<TrackedRail>(result.rails);
+                this.finderBuffer.clear();
+                this.finderBuffer.addAll(result.rails);
+                result.rails = this.finderBuffer;
                 this.rails.clear();
             }
         } else {
-            result = finder.test(finder.startInfo);
+            this.finderBuffer.clear();
+            result = finder.test(finder.startInfo, this.finderBuffer);
             isAbormal = true;
         }
 
         if (isAbormal) {
             // Try the opposite direction when not all carts could be found
             if (result.numMembers < remainingCnt && !result.endIsDerailed) {
-                RailFinderResult alter = finder.test(finder.startInfo.invertMotionVector());
+                this.finderAlterBuffer.clear();
+                RailFinderResult alter = finder.test(finder.startInfo.invertMotionVector(), this.finderAlterBuffer);
                 if (alter.numMembers > result.numMembers) {
                     result = alter;
                 }
@@ -597,8 +616,6 @@ public class RailTrackerGroup extends RailTracker {
         }
 
         // Apply found rails to the members themselves
-        // Use a somewhat complex iteration scheme to avoid get(index)
-        // LinkedList does not like the use of indices
         {
             Iterator<TrackedRail> iter = result.rails.iterator();
             if (iter.hasNext()) {
@@ -644,10 +661,6 @@ public class RailTrackerGroup extends RailTracker {
             this.startIndex = (index - 1);
         }
 
-        public RailFinderResult test(TrackedRail moveInfo) {
-            return test(moveInfo, new LinkedList<TrackedRail>());
-        }
-
         public RailFinderResult test(TrackedRail moveInfo, List<TrackedRail> buffer) {
             RailFinderResult result = new RailFinderResult(this.startIndex, buffer);
             result.rails.add(moveInfo);
@@ -117,6 +117,27 @@ public class SignSkipTracker {
         }
     }
 
+    /**
+     * Gets whether the sign skipping states have been initialized, either by
+     * {@link #loadSigns(List)} or the first {@link #onSignVisitStart(List)}
+     *
+     * @return True if loaded
+     */
+    public boolean isLoaded() {
+        return this.isLoaded;
+    }
+
+    /**
+     * Removes the skipping state of a single sign the train or cart is no longer
+     * seeing. Is the same as it being omitted from the list passed to
+     * {@link #onSignVisitStart(List)}.
+     *
+     * @param sign Sign that was left
+     */
+    public void forgetSign(TrackedSign sign) {
+        this.history.remove(sign);
+    }
+
     /**
      * Removes all sign skipping states (free memory)
      */
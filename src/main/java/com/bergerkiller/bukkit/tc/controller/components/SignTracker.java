@@ -27,7 +27,6 @@ import java.util.stream.Collectors;
  * Keeps track of the active signs and detector regions from rail information
  */
 public abstract class SignTracker {
-    private static final ArrayList<ActiveSign> tmpSignBuffer = new ArrayList<>();
     private Set<Object> offlineLoadedSkippedSignKeys = Collections.emptySet();
     private Set<Object> offlineLoadedActiveSignKeys = Collections.emptySet();
     private final Map<Object, ActiveSign> activeSignsByKey = new LinkedHashMap<Object, ActiveSign>();
@@ -89,6 +88,16 @@ public abstract class SignTracker {
         offlineLoadedSkippedSignKeys = Collections.emptySet();
     }
 
+    /**
+     * Gets whether active or skipped sign keys restored from an offline state still
+     * have to be applied. This happens the first time the signs are updated.
+     *
+     * @return True if there are offline sign keys
+     */
+    protected boolean hasOfflineSignKeys() {
+        return !offlineLoadedActiveSignKeys.isEmpty() || !offlineLoadedSkippedSignKeys.isEmpty();
+    }
+
     /**
      * Called when a new list of signs is visited by a cart or train. Restores information
      * from cached offline state and pokes the sign skip tracker as well.
@@ -283,7 +292,8 @@ public abstract class SignTracker {
         }
 
         // Mark all current signs as not detected
-        activeSigns.forEach(a -> a.detected = false);
+        // This includes skipped signs, which are only stored in the map
+        activeSignsByKey.values().forEach(a -> a.detected = false);
 
         // Go by all detected signs and try to add it to the map
         // If this succeeds, fire an 'enter' event
@@ -315,33 +325,7 @@ public abstract class SignTracker {
                     onSignChange(currActiveSign, true);
                 }
             } else if (currActiveSign.sign != newActiveSign.sign) {
-                // If old and new signs have identical text, don't fire any events
-                if (currActiveSign.sign.hasIdenticalText(newActiveSign.sign)) {
-                    // Silent update
-                    currActiveSign.setSign(newActiveSign.sign);
-                    continue;
-                }
-
-                // Ask SignAction (if available) whether we should trigger a change here
-                SignAction action = currActiveSign.sign.getAction();
-                boolean fireEvents = true;
-                if (action != null && newActiveSign.sign.getAction() == action) {
-                    SignActionEvent event = newActiveSign.sign.createEvent(SignActionType.NONE);
-                    fireEvents = action.signTextChanged(event);
-                }
-
-                // Fire events of removing the old sign
-                if (fireEvents) {
-                    onSignChange(currActiveSign, false);
-                }
-
-                // Update sign
-                currActiveSign.setSign(newActiveSign.sign);
-
-                // Fire enter event (again)
-                if (fireEvents) {
-                    onSignChange(currActiveSign, true);
-                }
+                updateSign(currActiveSign, newActiveSign.sign);
             }
 
             // If list changed, restart from the beginning
@@ -370,28 +354,91 @@ public abstract class SignTracker {
             }
         }
 
+        // Skipped signs that are no longer in the list are forgotten as well,
+        // so that they are passed by the sign skip tracker again when re-entered
+        activeSignsByKey.values().removeIf(a -> !a.detected);
+
         // Done!
         return true;
     }
 
-    private void forEachActiveSignSafe(Consumer<ActiveSign> action) {
-        List<ActiveSign> buffer = tmpSignBuffer;
-        if (buffer.isEmpty()) {
-            // Can use the buffer
-            buffer.addAll(activeSigns);
-            try {
-                buffer.forEach(action);
-            } finally {
-                buffer.clear();
+    /**
+     * Activates a single sign found on rails that were added below the cart or train.
+     * If the sign is already active only the sign instance is updated, firing events
+     * if its text changed.
+     *
+     * @param sign Sign that was entered
+     * @param enterState State of the member on the rails when entering the sign
+     */
+    protected void enterSign(TrackedSign sign, RailState enterState) {
+        ActiveSign currActiveSign = activeSignsByKey.get(sign.getUniqueKey());
+        if (currActiveSign == null) {
+            currActiveSign = new ActiveSign(sign, enterState);
+            activeSignsByKey.put(currActiveSign.getUniqueKey(), currActiveSign);
+
+            // Pass it by the sign skip tracker, to see if we skip this one
+            if (signSkipTracker.onSignVisit(currActiveSign)) {
+                activeSigns.add(currActiveSign);
+                onSignChange(currActiveSign, true);
             }
-        } else {
-            // Use clone copy
-            try (ImplicitlySharedList<ActiveSign> copy = activeSigns.clone()) {
-                copy.forEach(action);
+        } else if (currActiveSign.sign != sign) {
+            updateSign(currActiveSign, sign);
+        }
+    }
+
+    /**
+     * Deactivates a single sign that is no longer on any of the rails below the
+     * cart or train. Fires a leave event if the sign was active and not skipped.
+     *
+     * @param sign Sign that was left
+     */
+    protected void leaveSign(TrackedSign sign) {
+        ActiveSign removed = activeSignsByKey.remove(sign.getUniqueKey());
+        if (removed != null) {
+            signSkipTracker.forgetSign(removed.sign);
+            if (activeSigns.remove(removed)) {
+                onSignChange(removed, false);
             }
         }
     }
 
+    private void updateSign(ActiveSign currActiveSign, TrackedSign newSign) {
+        // If old and new signs have identical text, don't fire any events
+        if (currActiveSign.sign.hasIdenticalText(newSign)) {
+            // Silent update
+            currActiveSign.setSign(newSign);
+            return;
+        }
+
+        // Ask SignAction (if available) whether we should trigger a change here
+        SignAction action = currActiveSign.sign.getAction();
+        boolean fireEvents = true;
+        if (action != null && newSign.getAction() == action) {
+            SignActionEvent event = newSign.createEvent(SignActionType.NONE);
+            fireEvents = action.signTextChanged(event);
+        }
+
+        // Fire events of removing the old sign
+        if (fireEvents) {
+            onSignChange(currActiveSign, false);
+        }
+
+        // Update sign
+        currActiveSign.setSign(newSign);
+
+        // Fire enter event (again)
+        if (fireEvents) {
+            onSignChange(currActiveSign, true);
+        }
+    }
+
+    private void forEachActiveSignSafe(Consumer<ActiveSign> action) {
+        // Clone is only copied when the action modifies the active signs
+        try (ImplicitlySharedList<ActiveSign> copy = activeSigns.clone()) {
+            copy.forEach(action);
+        }
+    }
+
     /*
      * Below methods should not be used, because they only work for real sign blocks.
      * Fake signs added by add-ons are not supported at all, and are ignored.
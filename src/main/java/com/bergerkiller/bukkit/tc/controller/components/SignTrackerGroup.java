@@ -24,6 +24,14 @@ import java.util.*;
 public class SignTrackerGroup extends SignTracker {
     private final MinecartGroup owner;
     private final ToggledState needsPositionUpdate = new ToggledState(true);
+    private final ToggledState needsSignResync = new ToggledState(true);
+    // Buffered and re-used
+    private ArrayList<SignRail> signRails = new ArrayList<>();
+    private int signRailCount = 0;
+    private ArrayList<SignRail> prevSignRails = new ArrayList<>();
+    private int prevSignRailCount = 0;
+    private final ArrayList<SignRail> addedSignRails = new ArrayList<>();
+    private final ArrayList<SignRail> removedSignRails = new ArrayList<>();
     private final ModificationTrackedList2D<ActiveSign> liveActiveSigns = new ModificationTrackedList2D<>();
 
     public SignTrackerGroup(MinecartGroup owner) {
@@ -89,6 +97,7 @@ public class SignTrackerGroup extends SignTracker {
         }
         super.clear(clearMode);
         detectorRegions.clear(); // Notified per member already
+        needsSignResync.set();
     }
 
     /**
@@ -170,11 +179,22 @@ public class SignTrackerGroup extends SignTracker {
      */
     public void updatePosition() {
         needsPositionUpdate.set();
+        needsSignResync.set();
+    }
+
+    /**
+     * Tells that the rails below the train changed, and that the Block Space (signs, detectors)
+     * needs to be updated at some point. Unlike {@link #updatePosition()}, only the signs of
+     * rails with signs that were added or removed are updated.
+     */
+    public void updateRailPosition() {
+        needsPositionUpdate.set();
     }
 
     @Override
     @Deprecated
     public boolean removeSign(Block signBlock) {
+        needsSignResync.set();
         if (super.removeSign(signBlock)) {
             for (MinecartMember<?> member : owner) {
                 member.getSignTracker().removeSign(signBlock);
@@ -187,6 +207,7 @@ public class SignTrackerGroup extends SignTracker {
 
     @Override
     public boolean removeSign(TrackedSign sign) {
+        needsSignResync.set();
         if (super.removeSign(sign)) {
             for (MinecartMember<?> member : owner) {
                 member.getSignTracker().removeSign(sign);
@@ -206,75 +227,294 @@ public class SignTrackerGroup extends SignTracker {
     }
 
     /**
-     * Refreshes the block space and active signs if required
+     * Collects the rails with signs below the train, and compares them with those
+     * collected the previous time. Rails without signs are ignored, so that moving
+     * the train without entering or leaving rails with signs detects no changes.
+     *
+     * The rails that were added and removed since the previous time are stored in
+     * {@link #addedSignRails} and {@link #removedSignRails}.
+     *
+     * @return True if rails with signs were added or removed, or changed member
      */
-    public void refresh() {
-        /* Timings: refreshSigns  (Train Physics, Sign Tracker) */
-        {
-            // No need to update anything for empty trains
-            if (owner.isEmpty()) {
-                clearOfflineActiveSignKeys();
-                clear();
-                return;
-            }
+    private boolean detectSignRailChanges() {
+        // Swap the buffers, so the rails of the previous time can be compared with
+        final ArrayList<SignRail> prevSignRails = this.signRails;
+        final int prevCount = this.signRailCount;
+        final ArrayList<SignRail> signRails = this.prevSignRails;
+        this.prevSignRails = prevSignRails;
+        this.prevSignRailCount = prevCount;
+        this.signRails = signRails;
+
+        this.addedSignRails.clear();
+        this.removedSignRails.clear();
+        for (int i = 0; i < prevCount; i++) {
+            prevSignRails.get(i).matched = false;
+        }
 
-            // Do all active rails, signs and detector regions have to be refreshed?
-            if (needsPositionUpdate.clear()) {
+        int count = 0;
+        int searchStart = 0;
+        for (TrackedRail info : owner.getRailTracker().getRailInformation()) {
+            if (info.state.railType() == RailType.NONE) {
+                continue;
+            }
+            TrackedSign[] signs = info.state.railSigns();
+            if (signs.length == 0) {
+                continue;
+            }
 
-                // First clear the live active sign buffer of all members
-                for (MinecartMember<?> member : owner) {
-                    member.getSignTracker().liveActiveSigns.clear();
+            SignRail rail;
+            if (count < signRails.size()) {
+                rail = signRails.get(count);
+            } else {
+                rail = new SignRail();
+                signRails.add(rail);
+            }
+            rail.update(info.member, signs, info.state);
+            count++;
+
+            // Find the same rail in the previous rails. The rails shift along as the
+            // train moves, so continue searching after where the previous one was found.
+            boolean found = false;
+            for (int n = 0; n < prevCount; n++) {
+                int index = searchStart + n;
+                if (index >= prevCount) {
+                    index -= prevCount;
                 }
+                SignRail prevRail = prevSignRails.get(index);
+                if (!prevRail.matched && prevRail.member == info.member && prevRail.signs == signs) {
+                    prevRail.matched = true;
+                    searchStart = index + 1;
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                this.addedSignRails.add(rail);
+            }
+        }
+        this.signRailCount = count;
 
-                // Add all active signs to the block tracker of all members
-                // This stores, by member, the signs active and the state on the rails when activating
-                for (TrackedRail info : owner.getRailTracker().getRailInformation()) {
-                    if (info.state.railType() != RailType.NONE) {
-                        TrackedSign[] signs = info.state.railSigns();
-                        if (signs.length > 0) {
-                            ModificationTrackedList<ActiveSign> memberSigns = info.member.getSignTracker().liveActiveSigns;
-                            for (TrackedSign sign : signs) {
-                                if (sign.getAction() != null || !sign.getHeader().isEmpty()) {
-                                    memberSigns.add(new ActiveSign(sign, info.state));
-                                }
-                            }
-                        }
-                    }
+        // Rails with signs that are no longer below the train
+        for (int i = 0; i < prevCount; i++) {
+            SignRail prevRail = prevSignRails.get(i);
+            if (!prevRail.matched) {
+                this.removedSignRails.add(prevRail);
+            }
+        }
+
+        return !this.addedSignRails.isEmpty() || !this.removedSignRails.isEmpty();
+    }
+
+    /**
+     * Clears the rails of the previous time and the added/removed rails once the signs
+     * are updated, so that no references to members or signs linger.
+     */
+    private void clearPreviousSignRails() {
+        for (int i = 0; i < this.prevSignRailCount; i++) {
+            this.prevSignRails.get(i).update(null, null, null);
+        }
+        this.prevSignRailCount = 0;
+        this.addedSignRails.clear();
+        this.removedSignRails.clear();
+    }
+
+    /**
+     * Updates the active signs of the members and of this group using only the signs of the
+     * rails that were added or removed. Signs on the other rails below the train are left alone.
+     * Members are updated first, then the group, the same as a full re-synchronization.
+     *
+     * @return True if the signs were updated, False if a full re-synchronization is required
+     */
+    private boolean updateChangedSignRails() {
+        // Restoring offline state and (re)loading skip trackers requires the full sign list
+        if (owner.isUnloaded() || !canUpdateSignsOf(this)) {
+            return false;
+        }
+        for (SignRail rail : this.addedSignRails) {
+            if (!canUpdateSignsOf(rail.member)) {
+                return false;
+            }
+        }
+        for (SignRail rail : this.removedSignRails) {
+            if (!canUpdateSignsOf(rail.member)) {
+                return false;
+            }
+        }
+
+        // Firing events can change the train. When that happens, stop and fall back
+        // to a full re-synchronization, which restores a consistent state.
+        for (SignRail rail : this.addedSignRails) {
+            if (!enterRailSigns(rail.member.getSignTracker(), rail)) {
+                return false;
+            }
+        }
+        for (SignRail rail : this.removedSignRails) {
+            if (!leaveRailSigns(rail.member.getSignTracker(), rail, rail.member)) {
+                return false;
+            }
+        }
+        for (SignRail rail : this.addedSignRails) {
+            if (!enterRailSigns(this, rail)) {
+                return false;
+            }
+        }
+        for (SignRail rail : this.removedSignRails) {
+            if (!leaveRailSigns(this, rail, null)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean canUpdateSignsOf(MinecartMember<?> member) {
+        return !member.isUnloaded() && member.getGroup() == owner && canUpdateSignsOf(member.getSignTracker());
+    }
+
+    private static boolean canUpdateSignsOf(SignTracker tracker) {
+        return tracker.signSkipTracker.isLoaded() && !tracker.hasOfflineSignKeys();
+    }
+
+    private boolean enterRailSigns(SignTracker tracker, SignRail rail) {
+        for (TrackedSign sign : rail.signs) {
+            if (isTrackedSign(sign)) {
+                tracker.enterSign(sign, rail.state);
+                if (needsSignResync.get() || !canUpdateSignsOf(rail.member)) {
+                    return false;
                 }
+            }
+        }
+        return true;
+    }
 
-                // Filter based on cart skip options
-                for (MinecartMember<?> member : owner) {
-                    member.getSignTracker().onSignVisitStart(member.getSignTracker().liveActiveSigns);
+    private boolean leaveRailSigns(SignTracker tracker, SignRail rail, MinecartMember<?> member) {
+        for (TrackedSign sign : rail.signs) {
+            if (isTrackedSign(sign) && !isSignOnRails(sign, member)) {
+                tracker.leaveSign(sign);
+                if (needsSignResync.get() || owner.isUnloaded()) {
+                    return false;
                 }
+            }
+        }
+        return true;
+    }
 
-                // Synchronize the list of active signs using the liveActiveSigns of the members
-                this.liveActiveSigns.resetLists();
-                for (MinecartMember<?> member : owner) {
-                    this.liveActiveSigns.addListIfNotEmpty(member.getSignTracker().liveActiveSigns);
+    /**
+     * Checks whether a sign is still on one of the rails with signs below the train
+     *
+     * @param sign Sign to find
+     * @param member Member whose rails to check, null to check the rails of all members
+     * @return True if the sign is still on the rails
+     */
+    private boolean isSignOnRails(TrackedSign sign, MinecartMember<?> member) {
+        final Object key = sign.getUniqueKey();
+        for (int i = 0; i < this.signRailCount; i++) {
+            SignRail rail = this.signRails.get(i);
+            if (member == null || rail.member == member) {
+                for (TrackedSign railSign : rail.signs) {
+                    if (railSign == sign || railSign.getUniqueKey().equals(key)) {
+                        return true;
+                    }
                 }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTrackedSign(TrackedSign sign) {
+        return sign.getAction() != null || !sign.getHeader().isEmpty();
+    }
 
-                // Filter the list based on sign skip options before returning
-                // This will remove elements from the lists in the member sign tracker!
-                // That way, telling a train to skip signs will make it skip [cart] signs just the same
-                this.onSignVisitStart(this.liveActiveSigns);
-
-                // Update cart signs
-                // Activating a sign might cause a change to this train, make a defensive copy
-                for (MinecartMember<?> member : owner.toArray()) {
-                    if (!member.isUnloaded() && member.getGroup() == owner) {
-                        final SignTrackerMember tracker = member.getSignTracker();
-                        tracker.updateActiveSigns(() -> {
-                            return tracker.getOwner().isUnloaded() ?
-                                    ModificationTrackedEmptyList.emptyList() : tracker.liveActiveSigns;
-                        });
+    /**
+     * Rebuilds the active signs of all members and of this group from all the rails
+     * below the train
+     */
+    private void resyncActiveSigns() {
+        // First clear the live active sign buffer of all members
+        for (MinecartMember<?> member : owner) {
+            member.getSignTracker().liveActiveSigns.clear();
+        }
+
+        // Add all active signs to the block tracker of all members
+        // This stores, by member, the signs active and the state on the rails when activating
+        for (TrackedRail info : owner.getRailTracker().getRailInformation()) {
+            if (info.state.railType() != RailType.NONE) {
+                TrackedSign[] signs = info.state.railSigns();
+                if (signs.length > 0) {
+                    ModificationTrackedList<ActiveSign> memberSigns = info.member.getSignTracker().liveActiveSigns;
+                    for (TrackedSign sign : signs) {
+                        if (isTrackedSign(sign)) {
+                            memberSigns.add(new ActiveSign(sign, info.state));
+                        }
                     }
                 }
+            }
+        }
 
-                // Update the active signs for this Group
-                updateActiveSigns(() -> {
-                    return owner.isUnloaded() ? ModificationTrackedEmptyList.emptyList() : liveActiveSigns;
+        // Filter based on cart skip options
+        for (MinecartMember<?> member : owner) {
+            member.getSignTracker().onSignVisitStart(member.getSignTracker().liveActiveSigns);
+        }
+
+        // Synchronize the list of active signs using the liveActiveSigns of the members
+        this.liveActiveSigns.resetLists();
+        for (MinecartMember<?> member : owner) {
+            this.liveActiveSigns.addListIfNotEmpty(member.getSignTracker().liveActiveSigns);
+        }
+
+        // Filter the list based on sign skip options before returning
+        // This will remove elements from the lists in the member sign tracker!
+        // That way, telling a train to skip signs will make it skip [cart] signs just the same
+        this.onSignVisitStart(this.liveActiveSigns);
+
+        // Update cart signs
+        // Activating a sign might cause a change to this train, make a defensive copy
+        for (MinecartMember<?> member : owner.toArray()) {
+            if (!member.isUnloaded() && member.getGroup() == owner) {
+                final SignTrackerMember tracker = member.getSignTracker();
+                tracker.updateActiveSigns(() -> {
+                    return tracker.getOwner().isUnloaded() ?
+                            ModificationTrackedEmptyList.emptyList() : tracker.liveActiveSigns;
                 });
+            }
+        }
+
+        // Update the active signs for this Group
+        updateActiveSigns(() -> {
+            return owner.isUnloaded() ? ModificationTrackedEmptyList.emptyList() : liveActiveSigns;
+        });
+    }
+
+    /**
+     * Refreshes the block space and active signs if required
+     */
+    public void refresh() {
+        /* Timings: refreshSigns  (Train Physics, Sign Tracker) */
+        {
+            // No need to update anything for empty trains
+            if (owner.isEmpty()) {
+                clearOfflineActiveSignKeys();
+                clear();
+                return;
+            }
 
+            // Do all active rails, signs and detector regions have to be refreshed?
+            // Only the signs of rails that were added or removed can change what signs are active,
+            // so only those are updated. When the train moves without entering or leaving rails
+            // with signs, that is skipped entirely.
+            final boolean positionChanged = needsPositionUpdate.clear();
+            if (positionChanged) {
+                boolean signRailsChanged = detectSignRailChanges();
+                if (needsSignResync.clear()) {
+                    resyncActiveSigns();
+                } else if (signRailsChanged && !updateChangedSignRails()) {
+                    needsSignResync.clear();
+                    resyncActiveSigns();
+                }
+                clearPreviousSignRails();
+            }
+
+            // Detector regions are always updated when the rails changed
+            if (positionChanged) {
                 // Update existing detector regions that are in use.
                 // Here we add members to regions other members were on, and
                 // remove members when they are no longer on a region. When all
@@ -369,4 +609,28 @@ public class SignTrackerGroup extends SignTracker {
             clearOfflineActiveSignKeys();
         }
     }
+
+    /**
+     * A rail with signs below a member of the train. The signs array is cached by the
+     * rail piece, and is only re-created when the signs of the rail change.
+     */
+    private static final class SignRail {
+        private MinecartMember<?> member;
+        private TrackedSign[] signs;
+        private RailState state;
+        private boolean matched;
+
+        /**
+         * Updates the member, signs and rail state of this rail
+         *
+         * @param member Member on the rail
+         * @param signs Cached signs array of the rail piece
+         * @param state State of the member on the rail
+         */
+        public void update(MinecartMember<?> member, TrackedSign[] signs, RailState state) {
+            this.member = member;
+            this.signs = signs;
+            this.state = state;
+        }
+    }
 }
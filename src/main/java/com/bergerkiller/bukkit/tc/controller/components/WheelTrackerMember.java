@@ -27,11 +27,18 @@ public class WheelTrackerMember {
     private final MinecartMember<?> _owner;
     private final Wheel _front;
     private final Wheel _back;
-    private Quaternion _orientation_last = null;
+    private final Quaternion _orientation_last = new Quaternion(); // Buffered and re-used
+    private boolean _orientation_last_valid = false;
+    private final Quaternion _orientation_new = new Quaternion(); // Buffered and re-used during update()
+    private Quaternion _orientation_look = null; // Orientation looking into _orientation_look_dir/up
+    private final Vector _orientation_look_dir = new Vector();
+    private final Vector _orientation_look_up = new Vector();
     private Vector _asyncPosition = null;
     private Vector _position = null;
     private double _centripetalForce = 0.0;
     private double _bankingRoll = 0.0;
+    private final Vector _tmpDir = new Vector(); // Buffered and re-used during update()
+    private final Vector _tmpUp = new Vector();  // Buffered and re-used during update()
 
     public WheelTrackerMember(MinecartMember<?> owner) {
         this._owner = owner;
@@ -101,8 +108,9 @@ public class WheelTrackerMember {
     }
 
     public Quaternion getLastOrientation() {
-        if (this._orientation_last == null) {
-            this._orientation_last = this._owner.getOrientation();
+        if (!this._orientation_last_valid) {
+            this._owner.getOrientation(this._orientation_last);
+            this._orientation_last_valid = true;
         }
         return this._orientation_last;
     }
@@ -158,15 +166,18 @@ public class WheelTrackerMember {
     }
 
     public void update() {
-        this._orientation_last = this._owner.getOrientation();
+        this._owner.getOrientation(this._orientation_last);
+        this._orientation_last_valid = true;
         this._position = null; // Reset
         this._front.update();
         this._back.update();
 
         // Calculate new orientation
-        Quaternion new_orientation;
+        Quaternion new_orientation = this._orientation_new;
         {
-            Vector dir = front().getPosition().clone().subtract(back().getPosition());
+            Vector dir = this._tmpDir;
+            Util.setVector(dir, front().getPosition());
+            dir.subtract(back().getPosition());
             if (dir.lengthSquared() < 0.0001) {
                 Vector fwd_a = front().getForward();
                 Vector fwd_b = back().getForward();
@@ -179,33 +190,38 @@ public class WheelTrackerMember {
                 // In those cases, the forward direction (in which we move) is most reliable
                 // This slightly suppresses it, but does not fix it...
                 if (fwd_a.dot(fwd_b) > 0.0) {
-                    dir = fwd_a.clone().add(fwd_b);
+                    Util.setVector(dir, fwd_a);
+                    dir.add(fwd_b);
                 } else {
                     Vector a = this._owner.getOrientationForward();
                     if (a.dot(FaceUtil.faceToVector(this._owner.getDirection())) >= 0.0) {
-                        dir = fwd_a;
+                        Util.setVector(dir, fwd_a);
                     } else {
-                        dir = fwd_b;
+                        Util.setVector(dir, fwd_b);
                     }
                 }
             }
-            Vector up = front().getUp().clone().add(back().getUp());
+            Vector up = this._tmpUp;
+            Util.setVector(up, front().getUp());
+            up.add(back().getUp());
             if (up.lengthSquared() < 0.0001) {
                 up = this._owner.getOrientation().upVector();
             }
-            new_orientation = Quaternion.fromLookDirection(dir, up);
+            new_orientation.setTo(getLookOrientation(dir, up));
         }
 
         // Calculate banking effects
         TrainProperties props = (this._owner.isUnloaded() ? null : this._owner.getGroup().getProperties());
         if (props != null && props.getBankingStrength() != 0.0) {
             // Get the orientation difference between the current and last rotation
-            Quaternion q = Quaternion.divide(new_orientation, this.getLastOrientation());
-
             // Calculate the forward vector - the x (left/right) is what is interesting
             // This stores the change in direction, which allows calculation of centripetal force
-            double centripetalForceStep = q.forwardVector().getX();
-            if (MathUtil.isHeadingTo(_owner.getDirection(), new_orientation.forwardVector())) {
+            double centripetalForceStep = getForwardXOfDifference(new_orientation, this.getLastOrientation());
+            Vector forward = this._tmpDir;
+            forward.setX(2.0 * (new_orientation.getX() * new_orientation.getZ() + new_orientation.getY() * new_orientation.getW()));
+            forward.setY(2.0 * (new_orientation.getY() * new_orientation.getZ() - new_orientation.getX() * new_orientation.getW()));
+            forward.setZ(1.0 - 2.0 * (new_orientation.getX() * new_orientation.getX() + new_orientation.getY() * new_orientation.getY()));
+            if (MathUtil.isHeadingTo(_owner.getDirection(), forward)) {
                 centripetalForceStep = -centripetalForceStep;
             }
 
@@ -244,6 +260,52 @@ public class WheelTrackerMember {
         }
     }
 
+    /**
+     * Gets the orientation looking into a direction. The orientation is only computed again
+     * when the direction or up vector changed since the last time, which is not the case
+     * while the Minecart is stationary or moves along a straight track.
+     * 
+     * @param dir Forward direction vector, is normalized
+     * @param up Up direction vector, is normalized
+     * @return look orientation, must not be modified
+     */
+    private Quaternion getLookOrientation(Vector dir, Vector up) {
+        normalize(dir);
+        normalize(up);
+        if (this._orientation_look == null ||
+                this._orientation_look_dir.distanceSquared(dir) > 1e-14 ||
+                this._orientation_look_up.distanceSquared(up) > 1e-14)
+        {
+            Util.setVector(this._orientation_look_dir, dir);
+            Util.setVector(this._orientation_look_up, up);
+            this._orientation_look = Quaternion.fromLookDirection(dir, up);
+        }
+        return this._orientation_look;
+    }
+
+    private static void normalize(Vector v) {
+        double n = MathUtil.getNormalizationFactor(v);
+        if (n < 1e10) {
+            v.multiply(n);
+        }
+    }
+
+    /**
+     * Computes the x-coordinate of the forward vector of the quaternion
+     * <i>divide(q1, q2)</i>, without creating new Quaternion or Vector instances.
+     * 
+     * @param q1
+     * @param q2
+     * @return forward vector x-coordinate of q1 * inverse(q2)
+     */
+    private static double getForwardXOfDifference(Quaternion q1, Quaternion q2) {
+        double x = -q1.getW() * q2.getX() + q1.getX() * q2.getW() - q1.getY() * q2.getZ() + q1.getZ() * q2.getY();
+        double y = -q1.getW() * q2.getY() + q1.getX() * q2.getZ() + q1.getY() * q2.getW() - q1.getZ() * q2.getX();
+        double z = -q1.getW() * q2.getZ() - q1.getX() * q2.getY() + q1.getY() * q2.getX() + q1.getZ() * q2.getW();
+        double w = q1.getW() * q2.getW() + q1.getX() * q2.getX() + q1.getY() * q2.getY() + q1.getZ() * q2.getZ();
+        return 2.0 * (x * z + y * w);
+    }
+
     /**
      * Tracks the position of a wheel by looking at past positions, or alternatively,
      * walking the tracks to satisfy the wheel-to-center distance.
@@ -261,6 +323,7 @@ public class WheelTrackerMember {
         private boolean _displayInvalid = true; // displayPosition is invalid and must be recalculated
         private boolean _oriented;       // Last-known state whether we are moving in the same direction as orientation or not
         private final RailPath.Position _railPosition = new RailPath.Position(); // Buffered and re-used
+        private final RailPath.Position _railPositionAlt = new RailPath.Position(); // Buffered and re-used
 
         public Wheel(MinecartMember<?> member, boolean front) {
             this.member = member;
@@ -471,7 +534,7 @@ public class WheelTrackerMember {
                 // Too large an error. Check whether railIndex-1 or railIndex+1 are better suited
                 int original_rail_index = railIndex;
                 if (original_rail_index > 0) {
-                    RailPath.Position prev_position = new RailPath.Position();
+                    RailPath.Position prev_position = this._railPositionAlt;
                     prev_position.setLocation(this.member.getEntity().loc);
                     prev_position.setMotion(member.getRailTracker().getMotionVector());
                     {
@@ -487,7 +550,7 @@ public class WheelTrackerMember {
                     }
                 }
                 if (original_rail_index < (rails.size()-1)) {
-                    RailPath.Position next_position = new RailPath.Position();
+                    RailPath.Position next_position = this._railPositionAlt;
                     next_position.setLocation(this.member.getEntity().loc);
                     next_position.setMotion(member.getRailTracker().getMotionVector());
                     {
@@ -542,11 +605,7 @@ public class WheelTrackerMember {
             this._position.setY(position.posY - this.member.getEntity().loc.getY());
             this._position.setZ(position.posZ - this.member.getEntity().loc.getZ());
 
-            //TODO: Do we really have to split this into 'forward' and 'up'?
-            // Could just keep it a Quaternion storing both.
-            Quaternion orientation = position.getWheelOrientation();
-            Util.setVector(this._up, orientation.upVector());
-            Util.setVector(this._forward, orientation.forwardVector());
+            position.getWheelOrientation(this._forward, this._up);
             if (position.motDot(this._forward) < 0.0) {
                 this._forward.multiply(-1.0);
             }
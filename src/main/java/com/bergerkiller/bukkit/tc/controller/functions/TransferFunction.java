@@ -90,6 +90,22 @@ public interface TransferFunction extends DoubleUnaryOperator, Cloneable {
         return false;
     }
 
+    /**
+     * Creates a transfer function that produces the same outputs as this one, but that is
+     * cheaper to evaluate every tick. Constant and identity parts are folded away, nested
+     * lists are flattened and pure parts remember their last output, so that they are only
+     * evaluated again when their input changes.<br>
+     * <br>
+     * The result should only be used to call {@link #map(double)} on, and can share
+     * (stateful) functions with this one. If this function is still used or edited
+     * afterwards, compile a {@link #clone()} of it instead.
+     *
+     * @return Compiled transfer function, or this function if it can't be simplified
+     */
+    default TransferFunction compile() {
+        return this;
+    }
+
     @Override
     default double applyAsDouble(double v) {
         return map(v);
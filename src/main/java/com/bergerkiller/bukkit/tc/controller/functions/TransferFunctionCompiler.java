@@ -0,0 +1,136 @@
+package com.bergerkiller.bukkit.tc.controller.functions;
+
+import com.bergerkiller.bukkit.common.map.MapCanvas;
+import com.bergerkiller.bukkit.tc.controller.functions.ui.MapWidgetTransferFunctionItem;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Helper methods used by the {@link TransferFunction#compile()} implementations
+ */
+final class TransferFunctionCompiler {
+
+    private TransferFunctionCompiler() {
+    }
+
+    /**
+     * Gets whether a transfer function always outputs the same value, no matter the input
+     *
+     * @param function Transfer Function
+     * @return True if the function is a constant
+     */
+    public static boolean isConstant(TransferFunction function) {
+        return function instanceof TransferFunctionConstant || function instanceof TransferFunctionBoolean;
+    }
+
+    /**
+     * Creates a constant transfer function that outputs a value computed while compiling
+     *
+     * @param value Output value
+     * @param isBoolean Whether the value was the output of a boolean function
+     * @return Constant transfer function
+     */
+    public static TransferFunction constant(double value, boolean isBoolean) {
+        if (isBoolean && value == 1.0) {
+            return TransferFunctionBoolean.TRUE;
+        } else if (isBoolean && value == 0.0) {
+            return TransferFunctionBoolean.FALSE;
+        } else {
+            return TransferFunctionConstant.of(value);
+        }
+    }
+
+    /**
+     * Wraps a pure transfer function so that it is only evaluated again when the input
+     * changes. Constants and the identity function are returned as-is.
+     *
+     * @param function Pure transfer function
+     * @return Memoized transfer function
+     */
+    public static TransferFunction memoize(TransferFunction function) {
+        if (function instanceof Memoized || function == TransferFunction.identity() || isConstant(function)) {
+            return function;
+        } else {
+            return new Memoized(function);
+        }
+    }
+
+    /**
+     * Undoes {@link #memoize(TransferFunction)}. Used when a function becomes part of a
+     * pure function that is memoized itself, which makes remembering it twice pointless.
+     *
+     * @param function Transfer function
+     * @return Transfer function that was memoized, or the input function if it was not
+     */
+    public static TransferFunction unwrap(TransferFunction function) {
+        return (function instanceof Memoized) ? ((Memoized) function).function : function;
+    }
+
+    /**
+     * Remembers the last input and output of a pure transfer function. If the same
+     * input is mapped again, which is common for inputs that only change every so
+     * often, the previous output is returned without evaluating the function.
+     */
+    static final class Memoized implements TransferFunction {
+        private final TransferFunction function;
+        private boolean hasOutput = false;
+        private long lastInputBits;
+        private double lastOutput;
+
+        private Memoized(TransferFunction function) {
+            this.function = function;
+        }
+
+        @Override
+        public Serializer<? extends TransferFunction> getSerializer() {
+            return function.getSerializer();
+        }
+
+        @Override
+        public double map(double input) {
+            // Compare the exact bits, so that -0.0 and 0.0 are not treated the same
+            long inputBits = Double.doubleToRawLongBits(input);
+            if (!hasOutput || inputBits != lastInputBits) {
+                lastOutput = function.map(input);
+                lastInputBits = inputBits;
+                hasOutput = true;
+            }
+            return lastOutput;
+        }
+
+        @Override
+        public boolean isBooleanOutput(BooleanSupplier isBooleanInput) {
+            return function.isBooleanOutput(isBooleanInput);
+        }
+
+        @Override
+        public boolean isPure() {
+            return true;
+        }
+
+        @Override
+        public TransferFunction compile() {
+            return this;
+        }
+
+        @Override
+        public TransferFunction clone() {
+            return new Memoized(function.clone());
+        }
+
+        @Override
+        public void drawPreview(MapWidgetTransferFunctionItem widget, MapCanvas view) {
+            function.drawPreview(widget, view);
+        }
+
+        @Override
+        public void openDialog(Dialog dialog) {
+            function.openDialog(dialog);
+        }
+
+        @Override
+        public DialogMode openDialogMode() {
+            return function.openDialogMode();
+        }
+    }
+}
@@ -104,6 +104,10 @@ public class TransferFunctionConditional implements TransferFunction {
 
     @Override
     public double map(double input) {
+        return (evaluateCondition(input) ? trueOutput : falseOutput).getFunction().map(input);
+    }
+
+    private boolean evaluateCondition(double input) {
         boolean result;
         if (operator == Operator.BOOL) {
             result = leftInput.getFunction().map(input) != 0.0;
@@ -126,7 +130,7 @@ public class TransferFunctionConditional implements TransferFunction {
                                                     Math.abs(this.hysteresis));
         }
         hysteresisLastState = result;
-        return (result ? trueOutput : falseOutput).getFunction().map(input);
+        return result;
     }
 
     @Override
@@ -138,12 +142,45 @@ public class TransferFunctionConditional implements TransferFunction {
 
     @Override
     public boolean isPure() {
-        return leftInput.getFunction().isPure()
+        // With hysteresis the result depends on the previous result, not just on the input
+        return (operator == Operator.BOOL || hysteresis == 0.0)
+                && leftInput.getFunction().isPure()
                 && (operator == Operator.BOOL || rightInput.getFunction().isPure())
                 && falseOutput.getFunction().isPure()
                 && trueOutput.getFunction().isPure();
     }
 
+    @Override
+    public TransferFunction compile() {
+        TransferFunctionConditional compiled = new TransferFunctionConditional();
+        compiled.leftInput.setFunction(leftInput.getFunction().compile());
+        compiled.rightInput.setFunction(rightInput.getFunction().compile());
+        compiled.operator = this.operator;
+        compiled.hysteresis = this.hysteresis;
+        compiled.hysteresisLastState = this.hysteresisLastState;
+        compiled.falseOutput.setFunction(falseOutput.getFunction().compile());
+        compiled.trueOutput.setFunction(trueOutput.getFunction().compile());
+
+        // If the condition only compares constants, the same output is picked every time
+        // Hysteresis doesn't change that, as it only holds the state that was computed before
+        if (TransferFunctionCompiler.isConstant(compiled.leftInput.getFunction())
+                && (operator == Operator.BOOL || TransferFunctionCompiler.isConstant(compiled.rightInput.getFunction()))
+        ) {
+            return (compiled.evaluateCondition(0.0) ? compiled.trueOutput : compiled.falseOutput).getFunction();
+        }
+
+        // Remember the output of the conditional as a whole, rather than of the individual inputs
+        if (compiled.isPure()) {
+            compiled.leftInput.setFunction(TransferFunctionCompiler.unwrap(compiled.leftInput.getFunction()));
+            compiled.rightInput.setFunction(TransferFunctionCompiler.unwrap(compiled.rightInput.getFunction()));
+            compiled.falseOutput.setFunction(TransferFunctionCompiler.unwrap(compiled.falseOutput.getFunction()));
+            compiled.trueOutput.setFunction(TransferFunctionCompiler.unwrap(compiled.trueOutput.getFunction()));
+            return TransferFunctionCompiler.memoize(compiled);
+        }
+
+        return compiled;
+    }
+
     public void setLeftInput(TransferFunction input) {
         this.leftInput.setFunction(input);
     }
@@ -174,6 +211,7 @@ public class TransferFunctionConditional implements TransferFunction {
         copy.leftInput.setFunction(this.leftInput.getFunction().clone());
         copy.rightInput.setFunction(this.rightInput.getFunction().clone());
         copy.operator = this.operator;
+        copy.hysteresis = this.hysteresis;
         copy.falseOutput.setFunction(this.falseOutput.getFunction().clone());
         copy.trueOutput.setFunction(this.trueOutput.getFunction().clone());
         return copy;
@@ -381,6 +381,18 @@ public class TransferFunctionCurve implements TransferFunction, Cloneable {
         return true;
     }
 
+    @Override
+    public TransferFunction compile() {
+        int len = v.length >> 1;
+        if (len == 0) {
+            return TransferFunction.identity();
+        } else if (len == 1) {
+            return TransferFunctionConstant.of(v[1]);
+        } else {
+            return TransferFunctionCompiler.memoize(this);
+        }
+    }
+
     /**
      * Sends all input-output mapping entries to the consumer specified
      *
@@ -83,6 +83,18 @@ public interface TransferFunctionHost extends TrainCarts.Provider {
         return getRegistry().load(this, config);
     }
 
+    /**
+     * Loads a Transfer Function from configuration and compiles it, so that it is cheaper
+     * to evaluate every tick. The result should only be used to map values with.
+     *
+     * @param config Configuration to load
+     * @return Loaded and compiled TransferFunction
+     * @see TransferFunction#compile()
+     */
+    default TransferFunction loadCompiledFunction(ConfigurationNode config) {
+        return loadFunction(config).compile();
+    }
+
     /**
      * Saves a Transfer Function to configuration
      *
@@ -128,14 +128,95 @@ public class TransferFunctionList implements TransferFunction, Cloneable {
             Item item = items.get(i);
             if (!item.getFunction().isPure()) {
                 return false;
-            } else if (item.mode() == FunctionMode.ASSIGN) {
-                break; // Assigned. None of the other items are used.
+            } else if (item.mode() == FunctionMode.ASSIGN && TransferFunctionCompiler.isConstant(item.getFunction())) {
+                break; // Assigned a constant. None of the other items are used.
             }
         }
 
         return true;
     }
 
+    @Override
+    public TransferFunction compile() {
+        List<Item> compiledItems = new ArrayList<>(items.size());
+        for (Item item : items) {
+            addCompiled(compiledItems, item.mode(), item.getFunction().compile());
+        }
+
+        if (compiledItems.isEmpty()) {
+            return TransferFunction.identity();
+        } else if (compiledItems.size() == 1 && compiledItems.get(0).mode() == FunctionMode.ASSIGN) {
+            return compiledItems.get(0).getFunction();
+        }
+
+        TransferFunctionList compiled = new TransferFunctionList();
+        compiled.items.addAll(compiledItems);
+
+        // Remember the output of the list as a whole, rather than of the individual items
+        if (compiled.isPure()) {
+            for (int i = 0; i < compiled.items.size(); i++) {
+                Item item = compiled.items.get(i);
+                compiled.items.set(i, new Item(item.mode(), TransferFunctionCompiler.unwrap(item.getFunction())));
+            }
+            return TransferFunctionCompiler.memoize(compiled);
+        }
+
+        return compiled;
+    }
+
+    private static void addCompiled(List<Item> compiledItems, FunctionMode mode, TransferFunction function) {
+        // Assigning the result of a list is the same as processing its items in sequence
+        // The list is no longer memoized as a whole, but this list might be memoized instead
+        TransferFunction unwrapped = TransferFunctionCompiler.unwrap(function);
+        if (mode == FunctionMode.ASSIGN && unwrapped instanceof TransferFunctionList) {
+            for (Item item : ((TransferFunctionList) unwrapped).items) {
+                addCompiled(compiledItems, item.mode(), item.getFunction());
+            }
+            return;
+        }
+
+        // Items that leave the value unchanged can be omitted
+        // Note: adding 0.0 is not omitted, as it turns -0.0 into 0.0
+        if (mode == FunctionMode.ASSIGN && function == TransferFunction.identity()) {
+            return;
+        } else if (function instanceof TransferFunctionConstant) {
+            double output = ((TransferFunctionConstant) function).getOutput();
+            if ((output == 1.0 && (mode == FunctionMode.MULTIPLY || mode == FunctionMode.DIVIDE))
+                    || (output == 0.0 && mode == FunctionMode.SUBTRACT)
+            ) {
+                return;
+            }
+        }
+
+        // Assigning a constant discards the value computed by the pure items before it
+        // Items that aren't pure are kept, as they might rely on being called every tick
+        if (mode == FunctionMode.ASSIGN && TransferFunctionCompiler.isConstant(function)) {
+            while (!compiledItems.isEmpty() && compiledItems.get(compiledItems.size() - 1).getFunction().isPure()) {
+                compiledItems.remove(compiledItems.size() - 1);
+            }
+            compiledItems.add(new Item(mode, function));
+            return;
+        }
+
+        // Pure items applied to a constant value are computed right away
+        if (!compiledItems.isEmpty() && function.isPure()) {
+            Item last = compiledItems.get(compiledItems.size() - 1);
+            if (last.mode() == FunctionMode.ASSIGN && TransferFunctionCompiler.isConstant(last.getFunction())) {
+                TransferFunction lastFunction = last.getFunction();
+                Item item = new Item(mode, function);
+                boolean isBoolean = (mode.booleanMode() == FunctionBooleanMode.INPUT)
+                        ? function.isBooleanOutput(() -> lastFunction.isBooleanOutput(() -> false))
+                        : mode.booleanMode().asBool();
+                double value = item.map(lastFunction.map(0.0));
+                compiledItems.set(compiledItems.size() - 1, new Item(FunctionMode.ASSIGN,
+                        TransferFunctionCompiler.constant(value, isBoolean)));
+                return;
+            }
+        }
+
+        compiledItems.add(new Item(mode, function));
+    }
+
     /**
      * Gets whether a particular item of this list has a boolean output result.
      * This takes the function mode of that item into account.
@@ -25,6 +25,7 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.block.Sign;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -391,6 +392,9 @@ public class SignController implements LibraryComponent, Listener {
         SignControllerWorld controller = forWorld(block.getWorld());
         Entry e = controller.findForSign(block, false);
         if (e != null) {
+            // Signs stacked on top of this one lose their extra lines
+            e.chunk.markSignsChanged();
+
             // Make sure before true handling is done, we update the sign itself
             // That way we know what the text was after the sign is destroyed
             if (!e.verify()) {
@@ -775,6 +779,7 @@ public class SignController implements LibraryComponent, Listener {
          */
         void updateSignFacing() {
             if (sign.getAttachedFace() != blocks.getAttachedFace()) {
+                chunk.markSignsChanged();
                 if (registeredInNeighbouringBlocks) {
                     blocks.forAllBlocks(this, world::removeChunkByBlockEntry);
                     blocks = SignBlocksAround.of(sign.getAttachedFace());
@@ -820,6 +825,7 @@ public class SignController implements LibraryComponent, Listener {
          * Called when the Entry is removed from a cache
          */
         void onRemoved() {
+            this.chunk.markSignsChanged();
             this.redstoneUpdateTracker.untrack();
             this.ignoreRedstoneUpdateTracker.untrack();
         }
@@ -872,6 +878,7 @@ public class SignController implements LibraryComponent, Listener {
             // Refresh last-known state
             if ((frontChanged || backChanged) || (signLastState == null && !sign.isRemoved())) {
                 this.updateLastSignState();
+                chunk.markSignsChanged();
             }
 
             // If removed/unloaded, there is nothing more to do
@@ -917,6 +924,7 @@ public class SignController implements LibraryComponent, Listener {
          */
         boolean verifyBeforeSignChange(boolean frontText) {
             sign.update();
+            chunk.markSignsChanged();
             if (sign.isRemoved()) {
                 // Handle removal of the sign in the normal way
                 verifyAfterUpdate(frontText, !frontText);
@@ -1115,6 +1123,8 @@ public class SignController implements LibraryComponent, Listener {
             private SignActionHeader cachedHeader;
             private boolean hasSignAction;
             private boolean hasLoadedChangeHandler;
+            private String[] extraLines = null;
+            private int extraLinesVersion = 0;
             public boolean powered;
             public boolean activated;
 
@@ -1211,6 +1221,26 @@ public class SignController implements LibraryComponent, Listener {
                 return createTrackedSign(this.getHeader(), rail);
             }
 
+            /**
+             * Gets the lines of text of the signs stacked below this sign that extend the
+             * number of lines of this side of the sign. The result is cached until a sign
+             * in the same chunk changes, so repeated calls do no sign lookups. The signs
+             * stacked below are in the same block column, and thus in the same chunk.
+             *
+             * @param rail Rail piece the sign is for
+             * @return Extra lines of text, an empty array if there are none. Must not be modified.
+             * @see SignControllerWorld#findExtraLinesBelow(Block, BlockFace, boolean, RailPiece)
+             */
+            public String[] getExtraLines(RailPiece rail) {
+                int version = chunk.getSignsVersion();
+                String[] lines = this.extraLines;
+                if (lines == null || this.extraLinesVersion != version) {
+                    this.extraLines = lines = world.findExtraLinesBelow(sign.getBlock(), sign.getFacing(), front, rail);
+                    this.extraLinesVersion = version;
+                }
+                return lines;
+            }
+
             private TrackedSign createTrackedSign(SignActionHeader header, RailPiece rail) {
                 TrackedSign trackedSign = TrackedSign.forRealSign(sign, front, rail);
                 trackedSign.setCachedHeader(header);
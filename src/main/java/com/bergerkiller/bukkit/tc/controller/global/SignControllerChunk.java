@@ -27,6 +27,8 @@ public class SignControllerChunk {
     private LoadLevel neighbouringBlocksLoadLevel = LoadLevel.NOT_LOADED;
     /** The tick that the entries inside were last verified. At most we try to verify once a tick while in use */
     private int lastVerifyTick = -1;
+    /** Incremented every time a sign in this chunk changes, see {@link #getSignsVersion()} */
+    private int signsVersion = 0;
 
     public static long getKeyOf(Chunk chunk) {
         return MathUtil.longHashToLong(chunk.getX(), chunk.getZ());
@@ -48,6 +50,25 @@ public class SignControllerChunk {
         this.neighbouringBlocksLoadLevel = LoadLevel.NOT_LOADED; // Reset
     }
 
+    /**
+     * Gets a counter that is incremented every time a sign in this chunk is added, removed,
+     * changes text or changes facing, or when the chunk unloads. Information computed
+     * from the signs of this chunk can be cached for as long as this version stays the same.
+     *
+     * @return signs version
+     */
+    public int getSignsVersion() {
+        return this.signsVersion;
+    }
+
+    /**
+     * Increments the {@link #getSignsVersion() signs version}, invalidating information
+     * cached about the signs of this chunk
+     */
+    void markSignsChanged() {
+        this.signsVersion++;
+    }
+
     public boolean hasSigns() {
         return entries.count() > 0;
     }
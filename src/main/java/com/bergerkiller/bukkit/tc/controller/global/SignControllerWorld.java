@@ -33,10 +33,13 @@ import com.bergerkiller.bukkit.common.utils.ChunkUtil;
 import com.bergerkiller.bukkit.common.utils.FaceUtil;
 import com.bergerkiller.bukkit.common.utils.MaterialUtil;
 import com.bergerkiller.bukkit.common.utils.MathUtil;
+import com.bergerkiller.bukkit.common.utils.StringUtil;
 import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.BlockData;
 import com.bergerkiller.bukkit.common.wrappers.LongHashMap;
+import com.bergerkiller.bukkit.tc.controller.components.RailPiece;
 import com.bergerkiller.bukkit.tc.controller.global.SignController.Entry;
+import com.bergerkiller.bukkit.tc.rails.RailLookup;
 import com.bergerkiller.bukkit.tc.utils.LongBlockCoordinates;
 
 /**
@@ -87,6 +90,54 @@ public class SignControllerWorld {
         return this.offlineWorld.getLoadedWorld() == this.world;
     }
 
+    /**
+     * Finds the lines of text of the signs stacked below a sign, that extend the number
+     * of lines of that sign. Stops at the first sign that has a different facing, or
+     * that has a sign action of its own.
+     *
+     * @param signBlock Block of the sign above the stacked signs
+     * @param facing Facing of the sign block above the stacked signs
+     * @param front Whether to read the front (true) or back (false) text of the signs
+     * @param rail Rail piece the sign is for
+     * @return Extra lines of text, an empty array if there are none
+     */
+    public String[] findExtraLinesBelow(Block signBlock, BlockFace facing, boolean front, RailPiece rail) {
+        // Find other signs instances which are below this sign, repeatedly
+        // Ignore tracked signs which match a SignAction by itself.
+        // For this we use findForSign with a flag to include all signs in the
+        // results, not just ones that have sign actions.
+        //
+        // RailPiece signs() cannot be used, because those signs are only those
+        // that have sign actions.
+        List<String> lines = Collections.emptyList();
+        while (true) {
+            signBlock = signBlock.getRelative(BlockFace.DOWN);
+            SignController.Entry entry = this.findForSign(signBlock, false);
+            if (entry == null) {
+                break;
+            }
+            if (entry.sign.getFacing() != facing) {
+                break;
+            }
+
+            // Load the sign, make sure it isn't an action sign itself
+            RailLookup.TrackedSign sign = front ? entry.createFrontTrackedSign(rail)
+                                                : entry.createBackTrackedSign(rail);
+            if (sign.getAction() != null) {
+                break;
+            }
+
+            if (lines.isEmpty()) {
+                lines = new ArrayList<>();
+            }
+            for (int i = 0; i < 4; i++) {
+                lines.add(sign.getLine(i));
+            }
+        }
+
+        return lines.isEmpty() ? StringUtil.EMPTY_ARRAY : lines.toArray(new String[lines.size()]);
+    }
+
     /**
      * Gets whether this sign controller is enabled. If the World is disabled in Traincarts config,
      * this will return false to indicate no processing should occur.
@@ -471,6 +522,7 @@ public class SignControllerWorld {
         // Add it to the chunk.
         // If the chunk initialized the by-neighbour-mapping before, adds it there too
         signChunk.addEntry(entry);
+        signChunk.markSignsChanged();
 
         this.controller.activateEntry(entry, true, !isSignChange);
 
@@ -737,6 +789,8 @@ public class SignControllerWorld {
 
         SignControllerChunk signChunk = this.signChunks.remove(chunk.getX(), chunk.getZ());
         if (signChunk != null && signChunk.hasSigns()) {
+            signChunk.markSignsChanged();
+
             // Remove all entries from the by-neighbour-block mapping
             for (SignController.Entry entry : signChunk.getEntries()) {
                 // De-activate first, if it was activated still
@@ -40,7 +40,8 @@ import com.bergerkiller.bukkit.tc.utils.TrackWalkingPoint;
 public class SpawnableGroup implements TrainCarts.Provider {
     private final TrainCarts plugin;
     private final List<SpawnableMember> members = new ArrayList<>();
-    private final ConfigurationNode config;
+    private ConfigurationNode config;
+    private boolean configShared;
     private CenterMode centerMode = CenterMode.NONE;
 
     /**
@@ -60,6 +61,20 @@ public class SpawnableGroup implements TrainCarts.Provider {
     public SpawnableGroup(TrainCarts plugin) {
         this.plugin = plugin;
         this.config = new ConfigurationNode();
+        this.configShared = false;
+    }
+
+    /**
+     * Creates a new spawnable group for a {@link SpawnableGroupTemplate}. The configuration is
+     * shared with the template, and is only cloned once it is retrieved using {@link #getConfig()}.
+     *
+     * @param plugin TrainCarts plugin instance
+     * @param sharedConfig Group configuration of the template
+     */
+    SpawnableGroup(TrainCarts plugin, ConfigurationNode sharedConfig) {
+        this.plugin = plugin;
+        this.config = sharedConfig;
+        this.configShared = true;
     }
 
     @Override
@@ -85,6 +100,21 @@ public class SpawnableGroup implements TrainCarts.Provider {
      * @return train configuration
      */
     public ConfigurationNode getConfig() {
+        if (this.configShared) {
+            this.config = this.config.clone();
+            this.configShared = false;
+        }
+        return this.config;
+    }
+
+    /**
+     * Gets the train group configuration to be applied to the train's properties
+     * after spawning, without making a copy of it. The returned configuration
+     * must not be modified.
+     *
+     * @return train configuration (read-only)
+     */
+    public ConfigurationNode getConfigReadOnly() {
         return this.config;
     }
 
@@ -178,7 +208,7 @@ public class SpawnableGroup implements TrainCarts.Provider {
         ConfigurationNode fullConfig = this.config.clone();
         List<ConfigurationNode> cartConfigList = fullConfig.getNodeList("carts");
         for (int i = this.members.size() - 1; i >= 0; i--) {
-            cartConfigList.add(this.members.get(i).getConfig().clone());
+            cartConfigList.add(this.members.get(i).getConfigReadOnly().clone());
         }
         return fullConfig;
     }
@@ -266,7 +296,7 @@ public class SpawnableGroup implements TrainCarts.Provider {
     public List<SpawnableMember> addTrainWithConfig(ConfigurationNode savedConfig) {
         for (String key : savedConfig.getKeys()) {
             if (key.equals("carts")) continue;
-            this.config.set(key, savedConfig.get(key));
+            this.getConfig().set(key, savedConfig.get(key));
         }
         List<ConfigurationNode> cartConfigList = savedConfig.getNodeList("carts");
         List<SpawnableMember> newMembers = new ArrayList<>(cartConfigList.size());
@@ -755,14 +785,24 @@ public class SpawnableGroup implements TrainCarts.Provider {
      * @return spawnable group parsed from the types text
      */
     public static SpawnableGroup parse(TrainCarts plugin, String typesText) {
-        Function<String, String> savedTrainMatcher = name -> plugin.getSavedTrains().findName(name);
+        return SpawnableGroupTemplate.parse(plugin, typesText);
+    }
+
+    /**
+     * Clears the spawnable groups kept of previously parsed types-encoded Strings.
+     * Is called when the plugin disables.
+     */
+    public static void clearParsedTemplates() {
+        SpawnableGroupTemplate.clearAll();
+    }
 
+    static SpawnableGroup parse(TrainCarts plugin, String typesText, Function<String, String> savedTrainMatcher, Random random) {
         TrainSpawnPattern.ParsedSpawnPattern pattern = TrainSpawnPattern.parse(typesText, savedTrainMatcher);
 
         SpawnableGroup result = new SpawnableGroup(plugin);
         result.setCenterMode(pattern.centerMode());
         try {
-            pattern.newGroupApplier().apply(result, new Random(), savedTrainMatcher);
+            pattern.newGroupApplier().apply(result, random, savedTrainMatcher);
         } catch (TrainSpawnPattern.TrainTooLongException ex) {
             // TODO: Do we do anything with this? For now fail silently.
         }
@@ -0,0 +1,214 @@
+package com.bergerkiller.bukkit.tc.controller.spawnable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import com.bergerkiller.bukkit.common.config.ConfigurationNode;
+import com.bergerkiller.bukkit.common.config.yaml.YamlChangeListener;
+import com.bergerkiller.bukkit.common.config.yaml.YamlPath;
+import com.bergerkiller.bukkit.tc.TrainCarts;
+import com.bergerkiller.bukkit.tc.properties.SavedTrainProperties;
+import com.bergerkiller.bukkit.tc.properties.SavedTrainPropertiesStore;
+import com.bergerkiller.bukkit.tc.properties.TrainPropertiesStore;
+import com.bergerkiller.bukkit.tc.properties.defaults.DefaultProperties;
+
+/**
+ * The result of parsing a spawn pattern into a spawnable group, kept so that spawning the same
+ * pattern again does not parse it or clone the saved train configurations again. Groups are
+ * instantiated from it that share the group and member configurations of the template, which
+ * are only copied when retrieved for modifying. Spawning reads them, and only copies them into
+ * the properties of the spawned train and carts.<br>
+ * <br>
+ * A template stays valid as long as the saved trains it was created from are not changed,
+ * removed or shadowed by a saved train with a longer name. Patterns that pick carts at random
+ * produce a different group every time, and are not cached. When too many patterns are cached,
+ * the one used least recently is removed.
+ */
+final class SpawnableGroupTemplate implements YamlChangeListener {
+    private static final int CACHE_LIMIT = 256;
+    private static final Map<String, SpawnableGroupTemplate> cache = new LinkedHashMap<String, SpawnableGroupTemplate>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SpawnableGroupTemplate> eldest) {
+            if (size() > CACHE_LIMIT) {
+                eldest.getValue().detach();
+                return true;
+            }
+            return false;
+        }
+    };
+    private final TrainCarts plugin;
+    private final SpawnableGroup group;
+    private final List<NameLookup> nameLookups;
+    private final List<SavedTrainProperties> savedTrains;
+    private final DefaultProperties spawnerDefaults;
+    private volatile int savedTrainNamesModCount;
+    private volatile boolean changed = false;
+
+    private SpawnableGroupTemplate(TrainCarts plugin, SpawnableGroup group, List<NameLookup> nameLookups) {
+        this.plugin = plugin;
+        this.group = group;
+        this.nameLookups = nameLookups;
+        this.spawnerDefaults = TrainPropertiesStore.getDefaultsByName("spawner");
+
+        // Listen for changes to all saved trains that were used
+        SavedTrainPropertiesStore store = plugin.getSavedTrains();
+        this.savedTrainNamesModCount = store.getNamesModCount();
+        this.savedTrains = new ArrayList<>(nameLookups.size());
+        for (NameLookup lookup : nameLookups) {
+            if (lookup.name != null) {
+                SavedTrainProperties properties = store.getProperties(lookup.name);
+                if (properties != null && !savedTrains.contains(properties)) {
+                    savedTrains.add(properties);
+                    properties.getConfig().addChangeListener(this);
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the spawn pattern into a new spawnable group. If the same pattern was
+     * parsed before and the saved trains it uses did not change, the group is
+     * instantiated from the previous result instead.
+     *
+     * @param plugin TrainCarts plugin instance
+     * @param typesText Spawn pattern
+     * @return new spawnable group
+     */
+    public static SpawnableGroup parse(TrainCarts plugin, String typesText) {
+        SpawnableGroupTemplate template;
+        synchronized (cache) {
+            template = cache.get(typesText);
+            if (template != null && !template.isValid(plugin)) {
+                cache.remove(typesText);
+                template.detach();
+                template = null;
+            }
+        }
+        if (template != null) {
+            return template.instantiate();
+        }
+
+        // Parse the pattern, tracking what saved train names were looked up
+        // and whether random carts were picked.
+        final SavedTrainPropertiesStore store = plugin.getSavedTrains();
+        final List<NameLookup> nameLookups = new ArrayList<>();
+        Function<String, String> savedTrainMatcher = text -> {
+            String name = store.findName(text);
+            nameLookups.add(new NameLookup(text, name));
+            return name;
+        };
+        UsageTrackingRandom random = new UsageTrackingRandom();
+        SpawnableGroup result = SpawnableGroup.parse(plugin, typesText, savedTrainMatcher, random);
+        if (random.used) {
+            return result;
+        }
+
+        // Store as a template for the next time. The parsed result is kept as template,
+        // the caller receives a copy of it.
+        template = new SpawnableGroupTemplate(plugin, result, Collections.unmodifiableList(nameLookups));
+        synchronized (cache) {
+            SpawnableGroupTemplate previous = cache.put(typesText, template);
+            if (previous != null) {
+                previous.detach();
+            }
+        }
+        return template.instantiate();
+    }
+
+    /**
+     * Removes all cached templates
+     */
+    public static void clearAll() {
+        synchronized (cache) {
+            for (SpawnableGroupTemplate template : cache.values()) {
+                template.detach();
+            }
+            cache.clear();
+        }
+    }
+
+    private boolean isValid(TrainCarts plugin) {
+        if (this.changed || this.plugin != plugin) {
+            return false;
+        }
+        if (this.spawnerDefaults != TrainPropertiesStore.getDefaultsByName("spawner")) {
+            return false;
+        }
+
+        // Saved trains that were used must still exist, and no other (longer)
+        // saved train names should now match the pattern instead
+        // This can only change when saved trains were added, removed or replaced
+        SavedTrainPropertiesStore store = plugin.getSavedTrains();
+        int namesModCount = store.getNamesModCount();
+        if (namesModCount == this.savedTrainNamesModCount) {
+            return true;
+        }
+        for (SavedTrainProperties properties : savedTrains) {
+            if (store.getProperties(properties.getName()) != properties) {
+                return false;
+            }
+        }
+        for (NameLookup lookup : nameLookups) {
+            String name = store.findName(lookup.text);
+            if (name == null ? lookup.name != null : !name.equals(lookup.name)) {
+                return false;
+            }
+        }
+        this.savedTrainNamesModCount = namesModCount;
+        return true;
+    }
+
+    private SpawnableGroup instantiate() {
+        SpawnableGroup result = new SpawnableGroup(plugin, group.getConfigReadOnly());
+        result.setCenterMode(group.getCenterMode());
+        for (SpawnableMember member : group.getMembers()) {
+            result.getMembers().add(new SpawnableMember(result, member));
+        }
+        return result;
+    }
+
+    private void detach() {
+        for (SavedTrainProperties properties : savedTrains) {
+            properties.getConfig().removeChangeListener(this);
+        }
+    }
+
+    @Override
+    public void onNodeChanged(YamlPath yamlPath) {
+        changed = true;
+    }
+
+    /**
+     * A saved train name looked up while parsing the pattern
+     */
+    private static final class NameLookup {
+        public final String text;
+        public final String name;
+
+        public NameLookup(String text, String name) {
+            this.text = text;
+            this.name = name;
+        }
+    }
+
+    /**
+     * Random that tracks whether a random value was ever generated
+     */
+    private static final class UsageTrackingRandom extends Random {
+        private static final long serialVersionUID = 1L;
+        public boolean used = false;
+
+        @Override
+        protected int next(int bits) {
+            used = true;
+            return super.next(bits);
+        }
+    }
+}
@@ -19,7 +19,8 @@ import com.bergerkiller.bukkit.tc.controller.MinecartMemberStore;
 public class SpawnableMember implements TrainCarts.Provider {
     private static final double DEFAULT_CART_LENGTH = 0.98;
     private final SpawnableGroup group;
-    private final ConfigurationNode config;
+    private ConfigurationNode config;
+    private boolean configShared;
     private final double length;
     private final double couplerLength;
     private final EntityType entityType;
@@ -28,10 +29,11 @@ public class SpawnableMember implements TrainCarts.Provider {
     protected SpawnableMember(SpawnableGroup group, ConfigurationNode config) {
         this.group = group;
         this.config = config;
+        this.configShared = false;
         if (this.config.contains("model.physical.cartLength")) {
             this.length = this.config.get("model.physical.cartLength", DEFAULT_CART_LENGTH);
-        } else if (this.group.getConfig().contains("model.physical.cartLength")) {
-            this.length = this.group.getConfig().get("model.physical.cartLength", DEFAULT_CART_LENGTH);
+        } else if (this.group.getConfigReadOnly().contains("model.physical.cartLength")) {
+            this.length = this.group.getConfigReadOnly().get("model.physical.cartLength", DEFAULT_CART_LENGTH);
         } else {
             this.length = DEFAULT_CART_LENGTH;
         }
@@ -40,6 +42,24 @@ public class SpawnableMember implements TrainCarts.Provider {
         this.flipped = this.config.get("flipped", false);
     }
 
+    /**
+     * Creates a copy of a spawnable member of a {@link SpawnableGroupTemplate} for a new group.
+     * The configuration is shared with the template member, and is only cloned once it is
+     * retrieved using {@link #getConfig()}. Spawning the member does not need a copy of it.
+     *
+     * @param group Group the new member is a member of
+     * @param template Template member to copy
+     */
+    SpawnableMember(SpawnableGroup group, SpawnableMember template) {
+        this.group = group;
+        this.config = template.config;
+        this.configShared = true;
+        this.length = template.length;
+        this.couplerLength = template.couplerLength;
+        this.entityType = template.entityType;
+        this.flipped = template.flipped;
+    }
+
     /**
      * Gets the spawnable group information that this member is a member of.
      *
@@ -82,6 +102,21 @@ public class SpawnableMember implements TrainCarts.Provider {
      * @return cart configuration
      */
     public ConfigurationNode getConfig() {
+        if (this.configShared) {
+            this.config = this.config.clone();
+            this.configShared = false;
+        }
+        return this.config;
+    }
+
+    /**
+     * Gets the train member configuration to be applied to the cart's properties
+     * after spawning, without making a copy of it. The returned configuration
+     * must not be modified.
+     *
+     * @return cart configuration (read-only)
+     */
+    public ConfigurationNode getConfigReadOnly() {
         return this.config;
     }
 
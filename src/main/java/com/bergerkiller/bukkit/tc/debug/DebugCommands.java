@@ -9,6 +9,7 @@ import com.bergerkiller.bukkit.common.utils.MaterialUtil;
 import com.bergerkiller.bukkit.common.wrappers.ItemDisplayMode;
 import com.bergerkiller.bukkit.tc.attachments.VirtualDisplayItemEntity;
 import com.bergerkiller.bukkit.tc.attachments.api.AttachmentViewer;
+import com.bergerkiller.bukkit.tc.attachments.control.light.LightAPIController;
 import com.bergerkiller.bukkit.tc.commands.annotations.CommandTargetTrain;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroupStore;
@@ -253,6 +254,33 @@ public class DebugCommands {
                 (TCConfig.wheelTrackerDebugEnabled ? "ENABLED" : (ChatColor.RED + "DISABLED")));
     }
 
+    @CommandRequiresPermission(Permission.DEBUG_COMMAND_DEBUG)
+    @Command("train debug lights")
+    @CommandDescription("Shows statistics about the light updates of light attachments on every world")
+    private void commandDebugLightStatistics(
+            final CommandSender sender
+    ) {
+        boolean found = false;
+        for (World world : Bukkit.getWorlds()) {
+            for (boolean skyLight : new boolean[] { false, true }) {
+                LightAPIController.Statistics stats = LightAPIController.getStatistics(world, skyLight);
+                if (stats == null) {
+                    continue;
+                }
+                found = true;
+                sender.sendMessage(ChatColor.YELLOW + world.getName() + " (" + (skyLight ? "sky" : "block") + " light): " +
+                        ChatColor.GREEN + stats.getRelitCount() + " relit" + ChatColor.YELLOW + ", " +
+                        ChatColor.GREEN + stats.getSkippedCount() + " skipped" + ChatColor.YELLOW + ", " +
+                        ChatColor.WHITE + stats.getSectionsRelitCount() + " sections relit" + ChatColor.YELLOW + ", " +
+                        ChatColor.WHITE + stats.getSectionsDeferredCount() + " sections deferred" + ChatColor.YELLOW + ", " +
+                        ChatColor.RED + stats.getBacklog() + " sections in backlog");
+            }
+        }
+        if (!found) {
+            sender.sendMessage(ChatColor.YELLOW + "No light attachments have been used on any world");
+        }
+    }
+
     @CommandRequiresPermission(Permission.DEBUG_COMMAND_DEBUG)
     @Command("train debug splitting <enabled>")
     @CommandDescription("Sets whether messages are logged when trains split apart")
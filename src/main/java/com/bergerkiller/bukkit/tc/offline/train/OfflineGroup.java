@@ -40,6 +40,10 @@ public final class OfflineGroup {
     private boolean loaded;
     private boolean isBeingRemoved = false;
 
+    // Encoded group data as stored in the groupdata file. Lazily generated when saving,
+    // possibly asynchronously. As the group is immutable, this is never invalidated.
+    volatile byte[] encodedData = null;
+
     public static OfflineGroup save(MinecartGroup group) {
         try {
             return new OfflineGroup(group);
@@ -81,7 +85,7 @@ public final class OfflineGroup {
         this.loaded = false;
     }
 
-    // Renames the group
+    // Renames the group. Does not copy the encoded data, as that includes the name.
     private OfflineGroup(OfflineGroup original, String newName) {
         this.name = newName;
         this.world = original.world;
@@ -3,27 +3,42 @@ package com.bergerkiller.bukkit.tc.offline.train;
 import com.bergerkiller.bukkit.common.offline.OfflineWorld;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.common.utils.StreamUtil;
+import com.bergerkiller.bukkit.tc.Util;
 import com.bergerkiller.bukkit.tc.offline.train.format.OfflineDataBlock;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 /**
- * Modern group data format, which stored a flexible amount of data using the OfflineDataBlock format
+ * Modern group data format, which stored a flexible amount of data using the OfflineDataBlock format.<br>
+ * <br>
+ * The groups are stored in one segment per world. Every group in a segment is encoded as a
+ * self-contained data block, so that the encoded data of groups and worlds that did not change
+ * can be re-used when saving, and segments of worlds that are not loaded can be kept as-is
+ * without decoding them. Older files storing a 'world' data block per world can still be read.
  */
 public class OfflineGroupFileFormatModern {
 
     static {
         // Forward-initialize all classes that this class uses when reading and writing
         // This avoids a thread deadlock due to the class loader trying to call getPlugin()
-        bootstrap(DataInputStream.class, DataOutputStream.class, Data.class,
-                OfflineWorld.class, StreamUtil.class, OfflineDataBlock.class,
-                IOException.class, ArrayList.class, Collections.class, List.class, UUID.class);
+        bootstrap(DataInputStream.class, DataOutputStream.class, Data.class, WorldSegment.class,
+                OfflineWorld.class, StreamUtil.class, OfflineDataBlock.class, Util.class,
+                ByteArrayInputStream.class, ByteArrayOutputStream.class, IdentityHashMap.class,
+                LinkedHashSet.class, IOException.class, ArrayList.class, Collections.class, List.class, UUID.class,
+                OfflineGroupWorld.EncodedGroupsCache.class);
     }
 
     private static void bootstrap(Class<?>... classNames) {
@@ -40,13 +55,47 @@ public class OfflineGroupFileFormatModern {
         stream.writeInt(0);
 
         // Write the modern format data. First create a data block, then write it to the stream
+        // The same world can be included more than once, for example for loaded and unloaded trains
+        Map<OfflineWorld, List<OfflineGroupWorld>> worldsByWorld = new IdentityHashMap<>();
+        List<OfflineWorld> worldOrder = new ArrayList<>();
         for (OfflineGroupWorld world : data.worlds) {
-            writeWorldGroups(data.root, world);
+            List<OfflineGroupWorld> parts = worldsByWorld.get(world.getWorld());
+            if (parts == null) {
+                parts = new ArrayList<>(2);
+                worldsByWorld.put(world.getWorld(), parts);
+                worldOrder.add(world.getWorld());
+            }
+            parts.add(world);
+        }
+        for (OfflineWorld world : worldOrder) {
+            writeWorldSegment(data.root, world, worldsByWorld.get(world));
+        }
+
+        // Segments of worlds that were never loaded are written back unchanged
+        for (WorldSegment segment : data.unloadedWorlds) {
+            if (!worldsByWorld.containsKey(segment.world)) {
+                data.root.children.add(segment.data);
+            }
         }
+
         data.root.writeTo(stream);
     }
 
     public static Data readAll(DataInputStream stream) throws IOException {
+        return readAll(stream, world -> true);
+    }
+
+    /**
+     * Reads all offline group data from a stream. Only the groups of worlds accepted by the
+     * filter are decoded. The segments of the other worlds are returned in
+     * {@link Data#unloadedWorlds} so that they can be decoded later, or written back as-is.
+     *
+     * @param stream Stream to read from
+     * @param decodeFilter Filter for the worlds whose groups to decode right away
+     * @return Read data
+     * @throws IOException
+     */
+    public static Data readAll(DataInputStream stream, Predicate<OfflineWorld> decodeFilter) throws IOException {
         // The legacy format would never write group data for a world that has no groups
         // It's also extremely unlikely for a world to have UUID 0.
         // Perform these reads first, and if they meet this condition, it is the
@@ -75,15 +124,110 @@ public class OfflineGroupFileFormatModern {
         // This is for sure the modern group data format
         // Read all worlds
         OfflineDataBlock root = OfflineDataBlock.read(stream);
-        List<OfflineDataBlock> worldDataList = (root == null) ? Collections.emptyList() : root.findChildren("world");
-        if (worldDataList.isEmpty()) {
-            return new Data(Collections.emptyList(), root);
+        if (root == null) {
+            return new Data(Collections.emptyList());
+        }
+        List<OfflineGroupWorld> worlds = new ArrayList<>();
+        List<WorldSegment> unloadedWorlds = new ArrayList<>();
+        for (OfflineDataBlock worldData : root.findChildren("world")) {
+            worlds.add(readWorldGroups(worldData)); // Before world segments were used
+        }
+        for (OfflineDataBlock segmentData : root.findChildren("world-segment")) {
+            WorldSegment segment = WorldSegment.read(segmentData);
+            if (decodeFilter.test(segment.world)) {
+                worlds.add(segment.decode());
+            } else {
+                unloadedWorlds.add(segment);
+            }
+        }
+        return new Data(Collections.unmodifiableList(worlds),
+                        Collections.unmodifiableList(unloadedWorlds),
+                        root);
+    }
+
+    private static void writeWorldSegment(OfflineDataBlock root, OfflineWorld world, List<OfflineGroupWorld> parts) throws IOException {
+        int groupCount = 0;
+        for (OfflineGroupWorld part : parts) {
+            groupCount += part.totalGroupCount();
+        }
+        if (groupCount == 0) {
+            return;
+        }
+
+        final int totalGroupCount = groupCount;
+        root.addChild("world-segment", s -> {
+            StreamUtil.writeUUID(s, world.getUniqueId());
+            Util.writeVariableLengthInt(s, totalGroupCount);
+            for (OfflineGroupWorld part : parts) {
+                s.write(encodeWorldGroups(part));
+            }
+        });
+    }
+
+    /**
+     * Encodes the name and data of all groups of a world. If the groups did not change
+     * since they were last encoded, returns the previously encoded data.
+     *
+     * @param world World with groups to encode
+     * @return Encoded groups
+     * @throws IOException
+     */
+    private static byte[] encodeWorldGroups(OfflineGroupWorld world) throws IOException {
+        OfflineGroupWorld.EncodedGroupsCache cache = world.getEncodedGroupsCache();
+        byte[] data = cache.data;
+        if (data == null) {
+            ByteArrayOutputStream tmp = new ByteArrayOutputStream();
+            try (DataOutputStream stream = new DataOutputStream(tmp)) {
+                for (OfflineGroup group : world.getGroups()) {
+                    stream.writeUTF(group.name);
+                    Util.writeByteArray(stream, encodeGroup(group));
+                }
+            }
+            cache.data = data = tmp.toByteArray();
         }
-        List<OfflineGroupWorld> worlds = new ArrayList<>(worldDataList.size());
-        for (OfflineDataBlock worldData : worldDataList) {
-            worlds.add(readWorldGroups(worldData));
+        return data;
+    }
+
+    /**
+     * Encodes a single group as a self-contained data block. Groups are immutable, so the
+     * encoded data is stored in the group and re-used for later saves.
+     *
+     * @param group Group to encode
+     * @return Encoded group data
+     * @throws IOException
+     */
+    static byte[] encodeGroup(OfflineGroup group) throws IOException {
+        byte[] data = group.encodedData;
+        if (data == null) {
+            OfflineDataBlock groupRoot = OfflineDataBlock.create("group-root");
+            writeGroup(groupRoot, group);
+            ByteArrayOutputStream tmp = new ByteArrayOutputStream();
+            try (DataOutputStream stream = new DataOutputStream(tmp)) {
+                groupRoot.children.get(0).writeTo(stream);
+            }
+            group.encodedData = data = tmp.toByteArray();
         }
-        return new Data(Collections.unmodifiableList(worlds), root);
+        return data;
+    }
+
+    /**
+     * Decodes a single group previously encoded with {@link #encodeGroup(OfflineGroup)}
+     *
+     * @param data Encoded group data
+     * @param world World the group is on
+     * @return Decoded group, or <i>null</i> if invalid
+     * @throws IOException
+     */
+    static OfflineGroup decodeGroup(byte[] data, OfflineWorld world) throws IOException {
+        OfflineDataBlock groupData;
+        try (DataInputStream stream = new DataInputStream(new ByteArrayInputStream(data))) {
+            groupData = OfflineDataBlock.read(stream);
+        }
+        OfflineGroup group = (groupData == null) ? null : readGroup(groupData, world);
+        if (group != null) {
+            group.encodedData = data; // Unchanged, so can be written back as-is
+        }
+        return group;
     }
 
     public static void writeWorldGroups(OfflineDataBlock root, OfflineGroupWorld world) throws IOException {
@@ -191,16 +335,80 @@ public class OfflineGroupFileFormatModern {
 
     public static final class Data {
         public final List<OfflineGroupWorld> worlds;
+        public final List<WorldSegment> unloadedWorlds;
         public final OfflineDataBlock root; // Additional data can be included here
 
         public Data(List<OfflineGroupWorld> worlds) {
-            this.worlds = worlds;
-            this.root = OfflineDataBlock.create("root");
+            this(worlds, Collections.emptyList());
+        }
+
+        public Data(List<OfflineGroupWorld> worlds, List<WorldSegment> unloadedWorlds) {
+            this(worlds, unloadedWorlds, OfflineDataBlock.create("root"));
         }
 
         public Data(List<OfflineGroupWorld> worlds, OfflineDataBlock root) {
+            this(worlds, Collections.emptyList(), root);
+        }
+
+        public Data(List<OfflineGroupWorld> worlds, List<WorldSegment> unloadedWorlds, OfflineDataBlock root) {
             this.worlds = worlds;
+            this.unloadedWorlds = unloadedWorlds;
             this.root = root;
         }
     }
+
+    /**
+     * The still-encoded groups of a single world. Only the names of the groups are
+     * decoded, the groups themselves are decoded once the world loads.
+     */
+    public static final class WorldSegment {
+        public final OfflineWorld world;
+        public final OfflineDataBlock data;
+        public final Set<String> groupNames;
+
+        private WorldSegment(OfflineWorld world, OfflineDataBlock data, Set<String> groupNames) {
+            this.world = world;
+            this.data = data;
+            this.groupNames = groupNames;
+        }
+
+        /**
+         * Decodes all the groups stored in this segment
+         *
+         * @return Decoded groups of the world
+         * @throws IOException
+         */
+        public OfflineGroupWorld decode() throws IOException {
+            List<OfflineGroup> groups = new ArrayList<>(groupNames.size());
+            try (DataInputStream stream = data.readData()) {
+                StreamUtil.readUUID(stream);
+                int groupCount = Util.readVariableLengthInt(stream);
+                for (int i = 0; i < groupCount; i++) {
+                    stream.readUTF();
+                    OfflineGroup group = decodeGroup(Util.readByteArray(stream), world);
+                    if (group != null) {
+                        groups.add(group);
+                    }
+                }
+            }
+            return OfflineGroupWorld.snapshot(world, groups);
+        }
+
+        private static WorldSegment read(OfflineDataBlock data) throws IOException {
+            final OfflineWorld world;
+            final Set<String> groupNames = new LinkedHashSet<>();
+            try (DataInputStream stream = data.readData()) {
+                world = OfflineWorld.of(StreamUtil.readUUID(stream));
+                int groupCount = Util.readVariableLengthInt(stream);
+                for (int i = 0; i < groupCount; i++) {
+                    groupNames.add(stream.readUTF());
+                    int length = Util.readVariableLengthInt(stream);
+                    if (stream.skipBytes(length) != length) {
+                        throw new IOException("Unexpected end of world segment data");
+                    }
+                }
+            }
+            return new WorldSegment(world, data, Collections.unmodifiableSet(groupNames));
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.bergerkiller.bukkit.tc.offline.train;
 import com.bergerkiller.bukkit.common.AsyncTask;
 import com.bergerkiller.bukkit.common.config.DataReader;
 import com.bergerkiller.bukkit.common.config.TempFileOutputStream;
+import com.bergerkiller.bukkit.common.offline.OfflineWorld;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.common.utils.StreamUtil;
 import com.bergerkiller.bukkit.tc.TrainCarts;
@@ -12,6 +13,7 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -44,8 +46,9 @@ class OfflineGroupFileHandler {
         new DataReader(dataFile) {
             @Override
             public void read(DataInputStream stream) throws IOException {
-                OfflineGroupFileFormatModern.Data data = OfflineGroupFileFormatModern.readAll(stream);
-                manager.load(data.worlds);
+                // Groups of worlds that aren't loaded are decoded once the world loads
+                OfflineGroupFileFormatModern.Data data = OfflineGroupFileFormatModern.readAll(stream, OfflineWorld::isLoaded);
+                manager.load(data.worlds, data.unloadedWorlds);
                 MutexZoneCache.loadState(manager.getTrainCarts(), data.root);
             }
         }.read();
@@ -66,16 +69,19 @@ class OfflineGroupFileHandler {
         // asynchronously.
         // During auto-save also save all currently loaded trains. In case the server crashes
         // there is at least a 'chance' of these trains being recovered
+        // These are not merged with the offline groups, so that the encoded offline groups
+        // of worlds that did not change since the previous save can be re-used.
         final List<OfflineGroupWorld> worlds;
         if (saveMode == TrainCarts.SaveMode.SHUTDOWN) {
             worlds = manager.createSnapshot();
         } else {
-            worlds = OfflineGroupWorld.mergeSnapshots(manager.createSnapshot(),
-                                                      OfflineGroupManager.saveAllGroups());
+            worlds = new ArrayList<>(manager.createSnapshot());
+            worlds.addAll(OfflineGroupManager.saveAllGroups());
         }
 
         // Modern Data
-        final OfflineGroupFileFormatModern.Data data = new OfflineGroupFileFormatModern.Data(worlds);
+        final OfflineGroupFileFormatModern.Data data = new OfflineGroupFileFormatModern.Data(
+                worlds, manager.getUnloadedWorldSegments());
 
         // Save all mutex slot states
         MutexZoneCache.saveState(manager.getTrainCarts(), data.root);
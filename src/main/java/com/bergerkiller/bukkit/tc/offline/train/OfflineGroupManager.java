@@ -41,6 +41,8 @@ public class OfflineGroupManager implements TrainCarts.Provider {
     private Map<String, OfflineGroup> containedTrains = new HashMap<>();
     private HashSet<UUID> containedMinecarts = new HashSet<>();
     private final OfflineWorldMap<OfflineGroupWorldLiveImpl> worlds = new OfflineWorldMap<OfflineGroupWorldLiveImpl>();
+    private final Map<OfflineWorld, OfflineGroupFileFormatModern.WorldSegment> unloadedWorlds = new IdentityHashMap<>();
+    private final Map<String, OfflineWorld> unloadedWorldTrains = new HashMap<>();
 
     public OfflineGroupManager(TrainCarts plugin) {
         this.plugin = plugin;
@@ -58,6 +60,7 @@ public class OfflineGroupManager implements TrainCarts.Provider {
         if (map == null) {
             map = new OfflineGroupWorldLiveImpl(this, world);
             worlds.put(world, map);
+            decodeUnloadedWorld(map);
         }
         return map;
     }
@@ -68,10 +71,50 @@ public class OfflineGroupManager implements TrainCarts.Provider {
         if (map == null) {
             map = new OfflineGroupWorldLiveImpl(this, OfflineWorld.of(world));
             worlds.put(world, map);
+            decodeUnloadedWorld(map);
         }
         return map;
     }
 
+    /**
+     * Decodes the groups of a world that were not yet decoded when loading, because
+     * the world was not loaded at that time. Adds them to the live world.
+     *
+     * @param map Live world to add the decoded groups to
+     */
+    private void decodeUnloadedWorld(OfflineGroupWorldLiveImpl map) {
+        if (unloadedWorlds.isEmpty()) {
+            return;
+        }
+        OfflineGroupFileFormatModern.WorldSegment segment = unloadedWorlds.remove(map.getWorld());
+        if (segment == null) {
+            return;
+        }
+        for (String name : segment.groupNames) {
+            unloadedWorldTrains.remove(name);
+        }
+        try {
+            for (OfflineGroup group : segment.decode()) {
+                map.add(group);
+            }
+        } catch (Throwable t) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to decode offline trains of world " + map.getWorld(), t);
+        }
+    }
+
+    /**
+     * If a train is stored in a world whose groups have not yet been decoded,
+     * decodes the groups of that world.
+     *
+     * @param trainName Name of the train
+     */
+    private void decodeUnloadedWorldOf(String trainName) {
+        OfflineWorld world = unloadedWorldTrains.get(trainName);
+        if (world != null) {
+            get(world);
+        }
+    }
+
     public void unloadWorld(World world) {
         ArrayList<MinecartGroup> groupsOnWorld = new ArrayList<>();
         for (MinecartGroup group : MinecartGroup.getGroups().cloneAsIterable()) {
@@ -192,6 +235,10 @@ public class OfflineGroupManager implements TrainCarts.Provider {
     }
 
     public synchronized void refresh(World world) {
+        if (!unloadedWorlds.isEmpty() && unloadedWorlds.containsKey(OfflineWorld.of(world))) {
+            get(world); // Decode the groups of this world now that it is loaded
+        }
+
         OfflineGroupWorldLiveImpl map = worlds.get(world);
         if (map != null) {
             if (map.isEmpty()) {
@@ -222,15 +269,37 @@ public class OfflineGroupManager implements TrainCarts.Provider {
         return Collections.unmodifiableList(worldSnapshots);
     }
 
+    /**
+     * Gets the encoded groups of worlds that have not been loaded since the groups
+     * were loaded. These should be saved again unchanged.
+     *
+     * @return Unmodifiable list of world segments
+     */
+    synchronized List<OfflineGroupFileFormatModern.WorldSegment> getUnloadedWorldSegments() {
+        if (unloadedWorlds.isEmpty()) {
+            return Collections.emptyList();
+        } else {
+            return Collections.unmodifiableList(new ArrayList<>(unloadedWorlds.values()));
+        }
+    }
+
     /**
      * Loads all groups in all worlds specified. Call from {@link OfflineGroupFileHandler}
      *
      * @param worlds Worlds with groups to load
+     * @param unloadedWorlds Encoded groups of worlds that are not loaded, decoded once the world loads
      */
-    synchronized void load(List<OfflineGroupWorld> worlds) {
+    synchronized void load(List<OfflineGroupWorld> worlds, List<OfflineGroupFileFormatModern.WorldSegment> unloadedWorlds) {
         int totalgroups = 0;
         int totalmembers = 0;
-        int worldcount = worlds.size();
+        int worldcount = worlds.size() + unloadedWorlds.size();
+        for (OfflineGroupFileFormatModern.WorldSegment segment : unloadedWorlds) {
+            this.unloadedWorlds.put(segment.world, segment);
+            for (String name : segment.groupNames) {
+                this.unloadedWorldTrains.put(name, segment.world);
+            }
+            totalgroups += segment.groupNames.size();
+        }
         for (OfflineGroupWorld world : worlds) {
             OfflineGroupWorldLive liveWorld = get(world.getWorld());
             for (OfflineGroup group : world.getGroups()) {
@@ -307,7 +376,11 @@ public class OfflineGroupManager implements TrainCarts.Provider {
      * @return True if the group was destroyed successfully, False if this (partially) failed
      */
     public CompletableFuture<Boolean> destroyGroupAsync(String groupName) {
-        OfflineGroup group = containedTrains.get(groupName);
+        OfflineGroup group;
+        synchronized (this) {
+            decodeUnloadedWorldOf(groupName);
+            group = containedTrains.get(groupName);
+        }
         if (group == null) {
             return CompletableFuture.completedFuture(Boolean.FALSE);
         }
@@ -435,6 +508,8 @@ public class OfflineGroupManager implements TrainCarts.Provider {
             TrainProperties.clearAll();
             synchronized (OfflineGroupManager.this) {
                 worlds.clear();
+                unloadedWorlds.clear();
+                unloadedWorldTrains.clear();
             }
 
             return total;
@@ -507,6 +582,8 @@ public class OfflineGroupManager implements TrainCarts.Provider {
 
     public synchronized void deinit() {
         worlds.clear();
+        unloadedWorlds.clear();
+        unloadedWorldTrains.clear();
         containedMinecarts.clear();
         containedTrains.clear();
     }
@@ -569,13 +646,22 @@ public class OfflineGroupManager implements TrainCarts.Provider {
         return containedMinecarts.contains(uniqueId);
     }
 
+    /**
+     * Gets the UUIDs of all Minecarts stored in offline storage
+     *
+     * @return Snapshot copy of the Minecart UUIDs
+     */
+    public synchronized List<UUID> getContainedMinecarts() {
+        return new ArrayList<>(containedMinecarts);
+    }
+
     public synchronized int getStoredMemberCount(World world) {
         OfflineGroupWorldLiveImpl map = worlds.get(world);
         return (map == null) ? 0 : map.totalMemberCount();
     }
 
     public synchronized int getStoredCount() {
-        return containedTrains.size();
+        return containedTrains.size() + unloadedWorldTrains.size();
     }
 
     public synchronized int getStoredCountInLoadedWorlds() {
@@ -589,7 +675,7 @@ public class OfflineGroupManager implements TrainCarts.Provider {
     }
 
     public synchronized boolean contains(String trainname) {
-        return containedTrains.containsKey(trainname);
+        return containedTrains.containsKey(trainname) || unloadedWorldTrains.containsKey(trainname);
     }
 
     public synchronized boolean containsInLoadedWorld(String trainname) {
@@ -598,6 +684,7 @@ public class OfflineGroupManager implements TrainCarts.Provider {
     }
 
     public synchronized void rename(String oldtrainname, String newtrainname) {
+        decodeUnloadedWorldOf(oldtrainname);
         for (OfflineGroupWorldLive map : worlds.values()) {
             for (OfflineGroup group : map) {
                 if (group.name.equals(oldtrainname)) {
@@ -620,6 +707,7 @@ public class OfflineGroupManager implements TrainCarts.Provider {
     }
 
     public synchronized void removeGroup(String groupName) {
+        decodeUnloadedWorldOf(groupName);
         for (OfflineGroupWorldLive map : worlds.values()) {
             OfflineGroup group = map.remove(groupName);
             if (group != null) {
@@ -629,6 +717,7 @@ public class OfflineGroupManager implements TrainCarts.Provider {
     }
 
     public synchronized OfflineGroup findGroup(String groupName) {
+        decodeUnloadedWorldOf(groupName);
         for (OfflineGroupWorldLive map : worlds.values()) {
             for (OfflineGroup group : map.getGroups()) {
                 if (group.name.equals(groupName)) {
@@ -36,6 +36,17 @@ public abstract class OfflineGroupWorld implements Iterable<OfflineGroup> {
         return this.world;
     }
 
+    /**
+     * Gets the cache of the encoded groups of this world. As long as the same
+     * cache instance is returned, the groups have not changed, and a previously
+     * encoded result can be re-used when saving.
+     *
+     * @return Encoded groups cache
+     */
+    EncodedGroupsCache getEncodedGroupsCache() {
+        return new EncodedGroupsCache();
+    }
+
     @Override
     public Iterator<OfflineGroup> iterator() {
         return getGroups().iterator();
@@ -58,12 +69,21 @@ public abstract class OfflineGroupWorld implements Iterable<OfflineGroup> {
     }
 
     public static OfflineGroupWorld snapshot(OfflineWorld world, Collection<OfflineGroup> groups) {
+        return snapshot(world, groups, new EncodedGroupsCache());
+    }
+
+    static OfflineGroupWorld snapshot(OfflineWorld world, Collection<OfflineGroup> groups, EncodedGroupsCache cache) {
         final List<OfflineGroup> snapshotGroups = Collections.unmodifiableList(new ArrayList<>(groups));
         return new OfflineGroupWorld(world) {
             @Override
             public Collection<OfflineGroup> getGroups() {
                 return snapshotGroups;
             }
+
+            @Override
+            EncodedGroupsCache getEncodedGroupsCache() {
+                return cache;
+            }
         };
     }
 
@@ -93,4 +113,13 @@ public abstract class OfflineGroupWorld implements Iterable<OfflineGroup> {
             return snapshot(merged);
         }
     }
+
+    /**
+     * Stores the encoded data of all groups of a world. A new instance is created
+     * every time the groups of a world change. The data is filled in by the
+     * (asynchronous) writer, and is re-used by later saves while unchanged.
+     */
+    static final class EncodedGroupsCache {
+        volatile byte[] data = null;
+    }
 }
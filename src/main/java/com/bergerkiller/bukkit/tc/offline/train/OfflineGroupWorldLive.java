@@ -28,6 +28,7 @@ public class OfflineGroupWorldLive extends OfflineGroupWorld {
     private LongHashMap<HashSet<OfflineGroup>> groupmap = new LongHashMap<>();
     private Set<UUID> minecartEntityUUIDsBeingDestroyed = new HashSet<>();
     private boolean isDuringWorldUnloadEvent = false;
+    private EncodedGroupsCache encodedGroupsCache = new EncodedGroupsCache();
 
     public OfflineGroupWorldLive(OfflineGroupManager manager, OfflineWorld world) {
         super(world);
@@ -49,11 +50,18 @@ public class OfflineGroupWorldLive extends OfflineGroupWorld {
      * @return Snapshot OfflineGroupWorld
      */
     public OfflineGroupWorld createSnapshot() {
-        return snapshot(world, groups);
+        return snapshot(world, groups, encodedGroupsCache);
+    }
+
+    @Override
+    EncodedGroupsCache getEncodedGroupsCache() {
+        return encodedGroupsCache;
     }
 
     public void add(OfflineGroup group) {
-        this.groups.add(group);
+        if (this.groups.add(group)) {
+            this.encodedGroupsCache = new EncodedGroupsCache();
+        }
         group.forAllChunks(chunk -> {
             if (!group.getLoadedChunks().contains(chunk)) {
                 getOrCreateChunk(chunk).add(group);
@@ -148,7 +156,9 @@ public class OfflineGroupWorldLive extends OfflineGroupWorld {
     }
 
     public void remove(OfflineGroup group) {
-        this.groups.remove(group);
+        if (this.groups.remove(group)) {
+            this.encodedGroupsCache = new EncodedGroupsCache();
+        }
         group.forAllChunks(chunk -> {
             Set<OfflineGroup> groups = getOrCreateChunk(chunk);
             if (groups != null) {
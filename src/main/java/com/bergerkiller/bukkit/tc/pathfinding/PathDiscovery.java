@@ -0,0 +1,261 @@
+package com.bergerkiller.bukkit.tc.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.bergerkiller.bukkit.common.BlockLocation;
+
+/**
+ * Discovers the connections between path finding nodes by walking a {@link PathRailSnapshot}.
+ * As the snapshot is read-only, the nodes can be walked from on multiple threads at once.
+ * The result is the same no matter how many threads are used.
+ */
+public final class PathDiscovery {
+    private static final Comparator<BlockLocation> LOCATION_ORDER = Comparator
+            .comparing((BlockLocation l) -> l.world)
+            .thenComparingInt(l -> l.x)
+            .thenComparingInt(l -> l.y)
+            .thenComparingInt(l -> l.z);
+    private static final Comparator<Connection> CONNECTION_ORDER = Comparator
+            .comparing((Connection c) -> c.from, LOCATION_ORDER)
+            .thenComparing(c -> c.junctionName)
+            .thenComparing(c -> c.to, LOCATION_ORDER);
+
+    private PathDiscovery() {
+    }
+
+    /**
+     * Walks from all the nodes of a snapshot on the current thread
+     *
+     * @param snapshot Rail snapshot to walk
+     * @return discovered nodes and connections
+     */
+    public static Result discover(PathRailSnapshot snapshot) {
+        List<PathRailSnapshot.Piece> nodes = findNodes(snapshot);
+        return new Result(nodes, walkFrom(snapshot, nodes));
+    }
+
+    /**
+     * Walks from all the nodes of a snapshot on the threads of an executor. The nodes
+     * are divided over the number of tasks specified.
+     *
+     * @param snapshot Rail snapshot to walk
+     * @param executor Executor that runs the tasks
+     * @param numTasks Number of tasks to divide the nodes over
+     * @return future completed with the discovered nodes and connections
+     */
+    public static CompletableFuture<Result> discoverAsync(PathRailSnapshot snapshot, Executor executor, int numTasks) {
+        final List<PathRailSnapshot.Piece> nodes = findNodes(snapshot);
+        numTasks = Math.max(1, Math.min(numTasks, nodes.size()));
+
+        List<CompletableFuture<List<Connection>>> tasks = new ArrayList<>(numTasks);
+        for (int i = 0; i < numTasks; i++) {
+            final List<PathRailSnapshot.Piece> taskNodes = nodes.subList(
+                    (nodes.size() * i) / numTasks, (nodes.size() * (i + 1)) / numTasks);
+            tasks.add(CompletableFuture.supplyAsync(() -> walkFrom(snapshot, taskNodes), executor));
+        }
+
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[tasks.size()])).thenApply(unused -> {
+            List<Connection> connections = new ArrayList<>();
+            for (CompletableFuture<List<Connection>> task : tasks) {
+                connections.addAll(task.join());
+            }
+            return new Result(nodes, connections);
+        });
+    }
+
+    private static List<PathRailSnapshot.Piece> findNodes(PathRailSnapshot snapshot) {
+        List<PathRailSnapshot.Piece> nodes = new ArrayList<>();
+        for (PathRailSnapshot.Piece piece : snapshot.getPieces()) {
+            if (piece.isNode()) {
+                nodes.add(piece);
+            }
+        }
+        nodes.sort((a, b) -> LOCATION_ORDER.compare(a.location, b.location));
+        return nodes;
+    }
+
+    private static List<Connection> walkFrom(PathRailSnapshot snapshot, List<PathRailSnapshot.Piece> nodes) {
+        List<Connection> connections = new ArrayList<>();
+        Set<VisitedEntry> visited = new HashSet<>();
+        for (PathRailSnapshot.Piece node : nodes) {
+            // Switchers can send trains into any direction, otherwise only the path is followed
+            Iterable<String> junctions = node.switcher ? node.getExitJunctions() : node.pathJunctions;
+            for (String junctionName : junctions) {
+                visited.clear();
+                Connection connection = walk(snapshot, node, junctionName, visited);
+                if (connection != null) {
+                    connections.add(connection);
+                }
+            }
+        }
+        return connections;
+    }
+
+    // Distances are measured from the spawn position of the start rails to the spawn position
+    // of the rails of the node found, the same way the path finding operations measure them
+    private static Connection walk(PathRailSnapshot snapshot, PathRailSnapshot.Piece start, String junctionName, Set<VisitedEntry> visited) {
+        PathRailSnapshot.Exit exit = start.getExit(junctionName);
+        if (exit == null) {
+            return null; // End of the track
+        }
+
+        double distance = exit.spawnDistance;
+        while (true) {
+            distance += exit.distance;
+
+            PathRailSnapshot.Piece piece = snapshot.get(exit.next);
+            if (piece == null || !visited.add(new VisitedEntry(exit.next, exit.nextEntryJunction))) {
+                return null; // Not captured, or going round in circles
+            }
+
+            PathRailSnapshot.Entry entry = piece.getEntry(exit.nextEntryJunction);
+            if (entry == null || entry.blocked) {
+                return null; // Can't go this way
+            }
+            if (piece.isNode() && !piece.location.equals(start.location)) {
+                return new Connection(start.location, piece.location, distance + entry.spawnDistance, junctionName);
+            }
+            if (entry.exitJunction == null) {
+                return null; // End of the track
+            }
+
+            distance += entry.distance;
+            exit = piece.getExit(entry.exitJunction);
+            if (exit == null) {
+                return null; // End of the track
+            }
+        }
+    }
+
+    /**
+     * The nodes and connections between them found by walking a snapshot
+     */
+    public static final class Result {
+        private final List<PathRailSnapshot.Piece> nodes;
+        private final List<Connection> connections;
+
+        private Result(List<PathRailSnapshot.Piece> nodes, List<Connection> connections) {
+            connections.sort(CONNECTION_ORDER);
+            this.nodes = Collections.unmodifiableList(nodes);
+            this.connections = Collections.unmodifiableList(connections);
+        }
+
+        /**
+         * Gets the rail pieces that are path finding nodes, sorted by location
+         *
+         * @return nodes
+         */
+        public List<PathRailSnapshot.Piece> getNodes() {
+            return nodes;
+        }
+
+        /**
+         * Gets the connections found between the nodes, sorted by the location of
+         * the node they start at
+         *
+         * @return connections
+         */
+        public List<Connection> getConnections() {
+            return connections;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            } else if (!(o instanceof Result)) {
+                return false;
+            }
+
+            Result other = (Result) o;
+            if (nodes.size() != other.nodes.size()) {
+                return false;
+            }
+            for (int i = 0; i < nodes.size(); i++) {
+                if (!nodes.get(i).location.equals(other.nodes.get(i).location)) {
+                    return false;
+                }
+            }
+            return connections.equals(other.connections);
+        }
+
+        @Override
+        public int hashCode() {
+            return connections.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "Result{nodes=" + nodes + ", connections=" + connections + "}";
+        }
+    }
+
+    /**
+     * A connection found from one node to another
+     */
+    public static final class Connection {
+        public final BlockLocation from;
+        public final BlockLocation to;
+        public final double distance;
+        public final String junctionName;
+
+        public Connection(BlockLocation from, BlockLocation to, double distance, String junctionName) {
+            this.from = from;
+            this.to = to;
+            this.distance = distance;
+            this.junctionName = junctionName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            } else if (!(o instanceof Connection)) {
+                return false;
+            }
+
+            Connection other = (Connection) o;
+            return from.equals(other.from) && to.equals(other.to)
+                    && distance == other.distance
+                    && junctionName.equals(other.junctionName);
+        }
+
+        @Override
+        public int hashCode() {
+            return from.hashCode() * 31 + to.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "from " + from + " to " + to + " going " + junctionName + " distance " + distance;
+        }
+    }
+
+    private static final class VisitedEntry {
+        private final BlockLocation location;
+        private final String junctionName;
+
+        public VisitedEntry(BlockLocation location, String junctionName) {
+            this.location = location;
+            this.junctionName = junctionName;
+        }
+
+        @Override
+        public int hashCode() {
+            return location.hashCode() * 31 + junctionName.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            VisitedEntry other = (VisitedEntry) o;
+            return location.equals(other.location) && junctionName.equals(other.junctionName);
+        }
+    }
+}
@@ -41,12 +41,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 public class PathProvider extends Task implements TrainCarts.Provider {
     private static final String SWITCHER_NAME_FALLBACK = "::traincarts::switchable::";
     public static final int DEFAULT_MAX_PROCESSING_PER_TICK = 30; // Maximum processing time in Ms per tick
     public static boolean DEBUG_MODE = false;
+    private static final int SNAPSHOT_THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
     private final Map<String, PathWorld> worlds = new HashMap<String, PathWorld>();
     private final List<PathRoutingHandler> handlers = new ArrayList<PathRoutingHandler>();
     /**
@@ -76,6 +80,17 @@ public class PathProvider extends Task implements TrainCarts.Provider {
      * Once no more operations are being done, then this set is cleared.
      */
     private Set<PathNode> scheduledNodesSinceIdle = new HashSet<>();
+    /**
+     * Rerouting of all nodes using a snapshot of the rails, which is walked on worker
+     * threads. While busy, nodes scheduled for rerouting are deferred until it finishes.
+     * Is null when not rerouting this way.
+     */
+    private PathSnapshotDiscovery snapshotDiscovery = null;
+    /**
+     * Worker threads that walk rail snapshots. Created the first time a snapshot
+     * is walked, and shut down when this provider is disabled.
+     */
+    private ExecutorService snapshotExecutor = null;
     /**
      * People to notify when the routes have finished calculating
      */
@@ -275,6 +290,11 @@ public class PathProvider extends Task implements TrainCarts.Provider {
     public void disable() {
         this.stop();
 
+        if (this.snapshotExecutor != null) {
+            this.snapshotExecutor.shutdown();
+            this.snapshotExecutor = null;
+        }
+
         for (PathWorld world : this.getWorlds()) {
             world.clearAll();
         }
@@ -375,16 +395,48 @@ public class PathProvider extends Task implements TrainCarts.Provider {
      * Starts rerouting all nodes on all worlds
      */
     public void reroute() {
+        if (TCConfig.rerouteUsingSnapshot) {
+            rerouteUsingSnapshot();
+            return;
+        }
         for (PathWorld world : getWorlds()) {
             world.rerouteAll();
         }
     }
 
+    /**
+     * Starts rerouting all nodes on all worlds by capturing a snapshot of the rails
+     * connected to them, and walking that snapshot on worker threads.
+     */
+    public void rerouteUsingSnapshot() {
+        stopRouting();
+        if (snapshotExecutor == null) {
+            final AtomicInteger threadCounter = new AtomicInteger();
+            snapshotExecutor = Executors.newFixedThreadPool(SNAPSHOT_THREAD_COUNT, runnable -> {
+                Thread thread = new Thread(runnable, "TrainCarts-PathDiscovery-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        PathSnapshotDiscovery discovery = new PathSnapshotDiscovery(this, snapshotExecutor, SNAPSHOT_THREAD_COUNT);
+        for (PathWorld world : getWorlds()) {
+            for (BlockLocation location : world.getRailBlocks()) {
+                discovery.addRail(location);
+            }
+            world.clearAll();
+        }
+        this.snapshotDiscovery = discovery;
+    }
+
     /**
      * Stops all currently scheduled and pending path finding operations.
      * Existing routing information is kept.
      */
     public void stopRouting() {
+        if (this.snapshotDiscovery != null) {
+            this.snapshotDiscovery.cancel();
+            this.snapshotDiscovery = null;
+        }
         this.pendingDiscovery.clear();
         this.pendingNodes.clear();
         this.pendingOperations.clear();
@@ -415,6 +467,10 @@ public class PathProvider extends Task implements TrainCarts.Provider {
      * @param startNode
      */
     public void scheduleNode(PathNode startNode) {
+        if (snapshotDiscovery != null) {
+            snapshotDiscovery.deferNode(startNode);
+            return;
+        }
         pendingNodes.add(startNode);
         scheduledNodesSinceIdle.add(startNode);
     }
@@ -426,7 +482,9 @@ public class PathProvider extends Task implements TrainCarts.Provider {
      * @param startNode
      */
     public void scheduleNodeIfNotRecentlyRouted(PathNode startNode) {
-        if (scheduledNodesSinceIdle.add(startNode)) {
+        if (snapshotDiscovery != null) {
+            snapshotDiscovery.deferNode(startNode);
+        } else if (scheduledNodesSinceIdle.add(startNode)) {
             pendingNodes.add(startNode);
         }
     }
@@ -461,11 +519,16 @@ public class PathProvider extends Task implements TrainCarts.Provider {
      * @return True if processing is being performed, False if not
      */
     public boolean isProcessing() {
-        return !pendingDiscovery.isEmpty() || !pendingOperations.isEmpty() || !pendingNodes.isEmpty();
+        return snapshotDiscovery != null || !pendingDiscovery.isEmpty() || !pendingOperations.isEmpty() || !pendingNodes.isEmpty();
     }
 
     @Override
     public Task stop() {
+        if (this.snapshotDiscovery != null) {
+            getTrainCarts().log(Level.INFO, "Finishing path finding rerouting (can take a while)...");
+            this.snapshotDiscovery.runToCompletion();
+            finishSnapshotDiscovery();
+        }
         addPendingNodes();
         if (!this.pendingOperations.isEmpty()) {
             getTrainCarts().log(Level.INFO, "Performing " + this.pendingOperations.size() + " pending path finding operations (can take a while)...");
@@ -479,6 +542,18 @@ public class PathProvider extends Task implements TrainCarts.Provider {
 
     @Override
     public void run() {
+        if (this.snapshotDiscovery != null) {
+            boolean wasCapturing = this.snapshotDiscovery.isCapturing();
+            boolean done = this.snapshotDiscovery.run(System.currentTimeMillis(), this.maxProcessingPerTick);
+            if (wasCapturing) {
+                // Wipe the rail and sign caches polluted while capturing, like below
+                RailLookup.forceRecalculation();
+            }
+            if (!done) {
+                return;
+            }
+            finishSnapshotDiscovery();
+        }
         if (this.pendingOperations.isEmpty() && !this.pendingDiscovery.isEmpty()) {
             addNewlyDiscovered();
         }
@@ -528,6 +603,15 @@ public class PathProvider extends Task implements TrainCarts.Provider {
         RailLookup.forceRecalculation();
     }
 
+    // Reroutes nodes that changed while snapshot discovery was busy, the usual way
+    private void finishSnapshotDiscovery() {
+        List<PathNode> undiscovered = this.snapshotDiscovery.getUndiscoveredNodes();
+        this.snapshotDiscovery = null;
+        for (PathNode node : undiscovered) {
+            scheduleNode(node);
+        }
+    }
+
     // Discovers new switchers and destination signs. Stops upon the first new node found.
     private void addNewlyDiscovered() {
         final long startTime = System.currentTimeMillis();
@@ -622,7 +706,7 @@ public class PathProvider extends Task implements TrainCarts.Provider {
         }
     }
 
-    private static RailJunction findBestJunction(List<RailJunction> junctions, Block railBlock, RailPath.Position position) {
+    static RailJunction findBestJunction(List<RailJunction> junctions, Block railBlock, RailPath.Position position) {
         if (junctions.isEmpty()) {
             throw new IllegalArgumentException("Junctions list is empty");
         }
@@ -0,0 +1,217 @@
+package com.bergerkiller.bukkit.tc.pathfinding;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bergerkiller.bukkit.common.BlockLocation;
+
+/**
+ * A read-only copy of the rail pieces of a track network, and what the signs on them
+ * do for path finding. It is captured on the main thread, after which it can be walked
+ * by {@link PathDiscovery} on other threads without accessing the world.<br>
+ * <br>
+ * Every rail piece has junctions, through which it is entered and exited. Entering a
+ * rail piece through one junction leads to exiting it through another one, at which
+ * point the next rail piece is entered.
+ */
+public final class PathRailSnapshot {
+    private final Map<BlockLocation, Piece> pieces;
+
+    private PathRailSnapshot(Map<BlockLocation, Piece> pieces) {
+        this.pieces = pieces;
+    }
+
+    /**
+     * Gets the rail piece at a rail block location
+     *
+     * @param location Rail block location
+     * @return rail piece, or null if no rails were captured here
+     */
+    public Piece get(BlockLocation location) {
+        return pieces.get(location);
+    }
+
+    /**
+     * Gets all captured rail pieces
+     *
+     * @return rail pieces
+     */
+    public Collection<Piece> getPieces() {
+        return Collections.unmodifiableCollection(pieces.values());
+    }
+
+    /**
+     * Gets the number of captured rail pieces
+     *
+     * @return rail piece count
+     */
+    public int size() {
+        return pieces.size();
+    }
+
+    /**
+     * Starts building a new snapshot
+     *
+     * @return new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builds a snapshot one rail piece at a time. Not thread-safe.
+     */
+    public static final class Builder {
+        private final Map<BlockLocation, Piece> pieces = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Gets whether a rail piece was already added at a rail block location
+         *
+         * @param location Rail block location
+         * @return True if added
+         */
+        public boolean contains(BlockLocation location) {
+            return pieces.containsKey(location);
+        }
+
+        /**
+         * Adds a rail piece
+         *
+         * @param piece Rail piece to add
+         * @return this builder
+         */
+        public Builder add(Piece piece) {
+            pieces.put(piece.location, piece);
+            return this;
+        }
+
+        /**
+         * Builds the snapshot. This builder should not be used afterwards.
+         *
+         * @return snapshot
+         */
+        public PathRailSnapshot build() {
+            return new PathRailSnapshot(pieces);
+        }
+    }
+
+    /**
+     * A single rail piece. Is a path finding node if it has names or a switcher.
+     */
+    public static final class Piece {
+        /** Location of the rail block */
+        public final BlockLocation location;
+        /** Destination names of the node at this rail piece */
+        public final List<String> names;
+        /** Whether the node at this rail piece has a switcher */
+        public final boolean switcher;
+        /** Junctions walked from when this piece is a node without a switcher */
+        public final List<String> pathJunctions;
+        /** What happens when entering this rail piece, by the junction it is entered from */
+        private final Map<String, Entry> entries;
+        /** What is past every junction of this rail piece, by junction name */
+        private final Map<String, Exit> exits;
+
+        public Piece(BlockLocation location, List<String> names, boolean switcher, List<String> pathJunctions,
+                Map<String, Entry> entries, Map<String, Exit> exits
+        ) {
+            this.location = location;
+            this.names = Collections.unmodifiableList(names);
+            this.switcher = switcher;
+            this.pathJunctions = Collections.unmodifiableList(pathJunctions);
+            this.entries = Collections.unmodifiableMap(entries);
+            this.exits = Collections.unmodifiableMap(exits);
+        }
+
+        /**
+         * Gets whether this rail piece is a path finding node
+         *
+         * @return True if this piece is a node
+         */
+        public boolean isNode() {
+            return switcher || !names.isEmpty();
+        }
+
+        /**
+         * Gets what happens when entering this rail piece through a junction
+         *
+         * @param junctionName Name of the junction through which the piece is entered
+         * @return entry, or null if the piece can not be entered this way
+         */
+        public Entry getEntry(String junctionName) {
+            return entries.get(junctionName);
+        }
+
+        /**
+         * Gets what is past a junction of this rail piece
+         *
+         * @param junctionName Name of the junction through which the piece is exited
+         * @return exit, or null if there are no rails past this junction
+         */
+        public Exit getExit(String junctionName) {
+            return exits.get(junctionName);
+        }
+
+        /**
+         * Gets the names of all the junctions of this rail piece that lead to other rails
+         *
+         * @return exit junction names
+         */
+        public Collection<String> getExitJunctions() {
+            return exits.keySet();
+        }
+
+        @Override
+        public String toString() {
+            return "Piece{" + location + ", names=" + names + ", switcher=" + switcher + "}";
+        }
+    }
+
+    /**
+     * What happens when a rail piece is entered through a particular junction
+     */
+    public static final class Entry {
+        /** Whether signs on the rail piece block trains entering it this way */
+        public final boolean blocked;
+        /** Junction through which the rail piece is exited, null if the path ends */
+        public final String exitJunction;
+        /** Distance traveled over the rail piece to the exit junction */
+        public final double distance;
+        /** Distance between where the rail piece is entered and its spawn position */
+        public final double spawnDistance;
+
+        public Entry(boolean blocked, String exitJunction, double distance, double spawnDistance) {
+            this.blocked = blocked;
+            this.exitJunction = exitJunction;
+            this.distance = distance;
+            this.spawnDistance = spawnDistance;
+        }
+    }
+
+    /**
+     * The rail piece past a junction of a rail piece
+     */
+    public static final class Exit {
+        /** Rail block location of the rail piece that is entered next */
+        public final BlockLocation next;
+        /** Junction of the next rail piece through which it is entered */
+        public final String nextEntryJunction;
+        /** Distance traveled between the junction and the next rail piece */
+        public final double distance;
+        /** Distance between the spawn position of the rail piece and the junction */
+        public final double spawnDistance;
+
+        public Exit(BlockLocation next, String nextEntryJunction, double distance, double spawnDistance) {
+            this.next = next;
+            this.nextEntryJunction = nextEntryJunction;
+            this.distance = distance;
+            this.spawnDistance = spawnDistance;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.bergerkiller.bukkit.tc.pathfinding;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+
+import com.bergerkiller.bukkit.common.BlockLocation;
+import com.bergerkiller.bukkit.tc.controller.components.RailJunction;
+import com.bergerkiller.bukkit.tc.controller.components.RailPath;
+import com.bergerkiller.bukkit.tc.controller.components.RailState;
+import com.bergerkiller.bukkit.tc.rails.type.RailType;
+import com.bergerkiller.bukkit.tc.utils.TrackWalkingPoint;
+
+/**
+ * Reroutes by capturing a {@link PathRailSnapshot} of the track network, walking it with
+ * {@link PathDiscovery} on worker threads, and adding the nodes and connections that were
+ * found to the path finding graph. Capturing and adding is done on the main thread, for a
+ * limited amount of time every tick, as the rails and signs can only be read there.
+ */
+final class PathSnapshotDiscovery {
+    private static final int MAX_SUB_PATHS = 16;
+    private final PathProvider provider;
+    private final ExecutorService executor;
+    private final int numThreads;
+    private final Queue<BlockLocation> pendingRails = new ArrayDeque<>();
+    private final Set<BlockLocation> queuedRails = new HashSet<>();
+    private final Set<PathNode> deferredNodes = new LinkedHashSet<>();
+    private PathRailSnapshot.Builder builder = PathRailSnapshot.builder();
+    private CompletableFuture<PathDiscovery.Result> discovery = null;
+    private Set<BlockLocation> discoveredNodes = Collections.emptySet();
+    private Iterator<PathRailSnapshot.Piece> pendingNodes = null;
+    private Iterator<PathDiscovery.Connection> pendingConnections = null;
+
+    public PathSnapshotDiscovery(PathProvider provider, ExecutorService executor, int numThreads) {
+        this.provider = provider;
+        this.executor = executor;
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Adds a rail block to capture. All rails connected to it are captured as well.
+     *
+     * @param railLocation Rail block location
+     */
+    public void addRail(BlockLocation railLocation) {
+        if (queuedRails.add(railLocation)) {
+            pendingRails.add(railLocation);
+        }
+    }
+
+    /**
+     * Remembers a node that was scheduled for rerouting while this discovery was busy.
+     * If the node was not discovered, it is rerouted the usual way afterwards.
+     *
+     * @param node Node that was scheduled
+     */
+    public void deferNode(PathNode node) {
+        deferredNodes.add(node);
+    }
+
+    /**
+     * Gets the nodes that were scheduled for rerouting while this discovery was busy,
+     * and that were not discovered by it. Should be called once finished.
+     *
+     * @return nodes that still need to be rerouted
+     */
+    public List<PathNode> getUndiscoveredNodes() {
+        List<PathNode> result = new ArrayList<>();
+        for (PathNode node : deferredNodes) {
+            if (!discoveredNodes.contains(node.location) && node.getWorld().getNodeAtRail(node.location) == node) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets whether rails are still being captured. While capturing, the rail and
+     * sign caches are filled with the rails that are read.
+     *
+     * @return True if capturing
+     */
+    public boolean isCapturing() {
+        return builder != null;
+    }
+
+    /**
+     * Performs the next steps of discovery
+     *
+     * @param startTime System time in milliseconds at which processing this tick started
+     * @param maxProcessing Maximum processing time in milliseconds
+     * @return True if discovery has finished, False if not
+     */
+    public boolean run(long startTime, int maxProcessing) {
+        // Capture the rails on the main thread
+        if (builder != null) {
+            do {
+                BlockLocation railLocation = pendingRails.poll();
+                if (railLocation == null) {
+                    startDiscovery();
+                    break;
+                }
+                try {
+                    capture(railLocation);
+                } catch (Throwable t) {
+                    provider.getTrainCarts().getLogger().log(Level.SEVERE, "Failed to capture rails at " + railLocation, t);
+                }
+            } while ((System.currentTimeMillis() - startTime) <= maxProcessing);
+            return false;
+        }
+
+        // Wait for the worker threads to walk the snapshot
+        if (discovery != null) {
+            if (!discovery.isDone()) {
+                return false;
+            }
+
+            PathDiscovery.Result result;
+            try {
+                result = discovery.join();
+            } catch (Throwable t) {
+                provider.getTrainCarts().getLogger().log(Level.SEVERE, "Failed to discover path finding routes", t);
+                return true;
+            } finally {
+                discovery = null;
+            }
+            discoveredNodes = new HashSet<>(result.getNodes().size());
+            for (PathRailSnapshot.Piece node : result.getNodes()) {
+                discoveredNodes.add(node.location);
+            }
+            pendingNodes = result.getNodes().iterator();
+            pendingConnections = result.getConnections().iterator();
+        }
+
+        // Add the results to the path finding graph in batches
+        do {
+            if (pendingNodes.hasNext()) {
+                PathRailSnapshot.Piece piece = pendingNodes.next();
+                PathNode node = provider.getWorld(piece.location.world).getOrCreateAtRail(piece.location);
+                for (String name : piece.names) {
+                    node.addName(name);
+                }
+                if (piece.switcher) {
+                    node.addSwitcher();
+                }
+            } else if (pendingConnections.hasNext()) {
+                PathDiscovery.Connection connection = pendingConnections.next();
+                PathNode from = provider.getWorld(connection.from.world).getNodeAtRail(connection.from);
+                PathNode to = provider.getWorld(connection.to.world).getNodeAtRail(connection.to);
+                if (from != null && to != null) {
+                    from.addNeighbour(to, connection.distance, connection.junctionName);
+                }
+            } else {
+                return true;
+            }
+        } while ((System.currentTimeMillis() - startTime) <= maxProcessing);
+        return false;
+    }
+
+    /**
+     * Performs all remaining steps of discovery, waiting for the worker threads to finish
+     */
+    public void runToCompletion() {
+        while (!run(System.currentTimeMillis(), Integer.MAX_VALUE)) {
+            if (discovery != null) {
+                discovery.handle((result, error) -> null).join();
+            }
+        }
+    }
+
+    /**
+     * Stops discovery. Connections that were already added are kept.
+     */
+    public void cancel() {
+        builder = null;
+        pendingRails.clear();
+        if (discovery != null) {
+            discovery.cancel(false);
+            discovery = null;
+        }
+        pendingNodes = Collections.emptyIterator();
+        pendingConnections = Collections.emptyIterator();
+    }
+
+    private void startDiscovery() {
+        PathRailSnapshot snapshot = builder.build();
+        builder = null;
+        queuedRails.clear();
+        discovery = PathDiscovery.discoverAsync(snapshot, executor, numThreads * 4);
+    }
+
+    private void capture(BlockLocation railLocation) {
+        Block railBlock = railLocation.getBlock();
+        if (railBlock == null) {
+            return;
+        }
+        RailType railType = RailType.getType(railBlock);
+        if (railType == RailType.NONE) {
+            return;
+        }
+        List<RailJunction> junctions = railType.getJunctions(railBlock);
+        if (junctions.isEmpty()) {
+            return;
+        }
+
+        Map<String, PathRailSnapshot.Entry> entries = new HashMap<>();
+        Map<String, PathRailSnapshot.Exit> exits = new HashMap<>();
+        for (RailJunction junction : junctions) {
+            RailState state = railType.takeJunction(railBlock, junction);
+            if (state == null) {
+                continue;
+            }
+
+            // Enter the rails through the junction and ask the routing handlers what
+            // happens. This creates the nodes of destination and switcher signs.
+            RailState enterState = state.clone();
+            enterState.position().invertMotion();
+            enterState.initEnterDirection();
+            RailPath enterPath = enterState.loadRailLogic().getPath();
+            Location enterSpawnPos = railType.getSpawnLocation(railBlock, enterState.position().getMotionFace());
+            double enterSpawnDistance = enterSpawnPos.distance(enterState.positionLocation());
+            PathRoutingHandler.PathRouteEvent routeEvent = provider.handleRouting(enterState, enterPath, 0.0);
+            double distance = enterPath.move(enterState, Double.MAX_VALUE);
+            RailPath.Position exitPosition = routeEvent.hasSwitchedPosition() ? routeEvent.getSwitchedPosition() : enterState.position();
+            RailJunction exitJunction = PathProvider.findBestJunction(junctions, railBlock, exitPosition);
+            entries.put(junction.name(), new PathRailSnapshot.Entry(routeEvent.isBlocked(),
+                    (exitJunction == junction) ? null : exitJunction.name(), distance, enterSpawnDistance));
+
+            // Find the rails past the junction. Rails can consist of more than one path,
+            // so keep moving until a different rail block is reached. Include the distance
+            // from the spawn position to the junction, like path finding operations do.
+            Location exitSpawnPos = railType.getSpawnLocation(railBlock, state.position().getMotionFace());
+            double exitSpawnDistance = state.positionLocation().distance(exitSpawnPos);
+            TrackWalkingPoint walker = new TrackWalkingPoint(state);
+            walker.skipFirst();
+            for (int n = 0; n < MAX_SUB_PATHS && walker.moveFull(); n++) {
+                Block nextRailBlock = walker.state.railBlock();
+                if (railBlock.equals(nextRailBlock)) {
+                    continue;
+                }
+                List<RailJunction> nextJunctions = walker.state.railPiece().getJunctions();
+                if (!nextJunctions.isEmpty()) {
+                    BlockLocation next = new BlockLocation(nextRailBlock);
+                    RailJunction nextJunction = PathProvider.findBestJunction(nextJunctions, nextRailBlock, walker.state.position());
+                    exits.put(junction.name(), new PathRailSnapshot.Exit(next, nextJunction.name(),
+                            walker.movedTotal, exitSpawnDistance));
+                    addRail(next);
+                }
+                break;
+            }
+        }
+
+        // Junctions that lead into each other form the path followed when the node is
+        // not a switcher
+        List<String> pathJunctions = new ArrayList<>(2);
+        for (Map.Entry<String, PathRailSnapshot.Entry> entry : entries.entrySet()) {
+            String exitJunction = entry.getValue().exitJunction;
+            PathRailSnapshot.Entry reverse = (exitJunction == null) ? null : entries.get(exitJunction);
+            if (reverse != null && entry.getKey().equals(reverse.exitJunction)) {
+                pathJunctions.add(entry.getKey());
+            }
+        }
+
+        PathNode node = provider.getWorld(railLocation.world).getNodeAtRail(railLocation);
+        List<String> names = (node == null) ? Collections.emptyList() : new ArrayList<>(node.getNames());
+        boolean switcher = (node != null) && node.containsSwitcher();
+        builder.add(new PathRailSnapshot.Piece(railLocation, names, switcher, pathJunctions, entries, exits));
+    }
+}
@@ -8,7 +8,6 @@ import java.util.Set;
 import java.util.logging.Level;
 
 import com.bergerkiller.bukkit.tc.TCConfig;
-import com.bergerkiller.bukkit.tc.controller.spawnable.TrainSpawnPattern;
 import com.bergerkiller.bukkit.tc.properties.standard.StandardProperties;
 import com.bergerkiller.bukkit.tc.utils.modularconfiguration.BasicModularConfiguration;
 import com.bergerkiller.bukkit.tc.utils.modularconfiguration.ModularConfigurationEntry;
@@ -299,7 +298,17 @@ public abstract class SavedTrainPropertiesStore implements TrainCarts.Provider {
      * @return name found, null if none found
      */
     public String findName(String text) {
-        return TrainSpawnPattern.findNameInSortedList(getNames(), text);
+        return container.findLongestNamePrefix(text);
+    }
+
+    /**
+     * Gets a counter that changes every time saved trains are added, removed or replaced.
+     * If it did not change, {@link #findName(String)} returns the same names as before.
+     *
+     * @return Modification counter of the saved train names
+     */
+    public int getNamesModCount() {
+        return container.getNamesModCount();
     }
 
     /**
@@ -0,0 +1,83 @@
+package com.bergerkiller.bukkit.tc.properties;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.bergerkiller.bukkit.tc.Util;
+
+/**
+ * A parsed train name expression, where *-characters denote portions of 'any' contents.
+ * Besides matching train names, it exposes the text a matching name must start or end
+ * with, so that candidate trains can be looked up by name instead of testing every train.<br>
+ * <br>
+ * Parsed expressions are cached, as the same expressions are used over and over by
+ * remote control signs.
+ */
+final class TrainNameExpression {
+    private static final int CACHE_LIMIT = 1024;
+    private static final ConcurrentHashMap<String, TrainNameExpression> cache = new ConcurrentHashMap<>();
+    private final String[] elements;
+    private final boolean firstAny;
+    private final boolean lastAny;
+
+    private TrainNameExpression(String expression) {
+        this.elements = expression.split("\\*", -1);
+        this.firstAny = expression.startsWith("*");
+        this.lastAny = expression.endsWith("*");
+    }
+
+    /**
+     * Parses a train name expression, or returns a previously parsed one
+     *
+     * @param expression Expression to parse, must not be empty
+     * @return parsed train name expression
+     */
+    public static TrainNameExpression of(String expression) {
+        TrainNameExpression parsed = cache.get(expression);
+        if (parsed == null) {
+            if (cache.size() >= CACHE_LIMIT) {
+                cache.clear();
+            }
+            parsed = new TrainNameExpression(expression);
+            cache.put(expression, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * Gets whether this expression has no *-characters, and only matches a
+     * train name exactly equal to it
+     *
+     * @return True if this is an exact train name
+     */
+    public boolean isExact() {
+        return elements.length == 1;
+    }
+
+    /**
+     * Gets the text all train names matching this expression start with
+     *
+     * @return prefix, empty if the expression starts with a *-character
+     */
+    public String getPrefix() {
+        return firstAny ? "" : elements[0];
+    }
+
+    /**
+     * Gets the text all train names matching this expression end with
+     *
+     * @return suffix, empty if the expression ends with a *-character
+     */
+    public String getSuffix() {
+        return lastAny ? "" : elements[elements.length - 1];
+    }
+
+    /**
+     * Gets whether a train name matches this expression
+     *
+     * @param trainName Train name to match
+     * @return True if the train name matches
+     */
+    public boolean matches(String trainName) {
+        return Util.matchText(trainName, elements, firstAny, lastAny);
+    }
+}
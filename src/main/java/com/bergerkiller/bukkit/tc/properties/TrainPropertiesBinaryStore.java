@@ -0,0 +1,366 @@
+package com.bergerkiller.bukkit.tc.properties;
+
+import com.bergerkiller.bukkit.common.AsyncTask;
+import com.bergerkiller.bukkit.common.config.BasicConfiguration;
+import com.bergerkiller.bukkit.common.config.ConfigurationNode;
+import com.bergerkiller.bukkit.common.config.TempFileOutputStream;
+import com.bergerkiller.bukkit.common.utils.CommonUtil;
+import com.bergerkiller.bukkit.tc.TrainCarts;
+import com.bergerkiller.bukkit.tc.Util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores the properties of all trains in a versioned binary file, with one
+ * record per train. When saving, only the records of trains whose configuration
+ * changed since the previous save are appended to the file. Once the file holds
+ * too many outdated records, it is compacted in the background by rewriting only
+ * the latest record of every train.<br>
+ * <br>
+ * The configuration of every train is stored as compressed YAML, so that no
+ * information is lost compared to the legacy <i>TrainProperties.yml</i> format.
+ */
+class TrainPropertiesBinaryStore {
+    private static final int FILE_HEADER = 0x54435450; // 'TCTP'
+    private static final int VERSION = 1;
+    private static final int RECORD_PUT = 1;
+    private static final int RECORD_REMOVE = 2;
+    private static final long COMPACT_MIN_WASTED_BYTES = 64 * 1024;
+
+    private final TrainCarts plugin;
+    private final File dataFile;
+    /** Latest compressed configuration of every train, as written to the file */
+    private final Map<String, byte[]> records = new HashMap<>();
+    /** Names of trains that were changed, added or removed since the previous save */
+    private final Set<String> changedTrains = new LinkedHashSet<>();
+    private boolean compactionNeeded = false;
+    /** Set by the save task when writing failed, so the next save rewrites the complete file */
+    private volatile boolean saveFailed = false;
+    private long fileSize = 0;
+    private long liveSize = 0;
+    private CompletableFuture<Void> currentSaveOperation = CompletableFuture.completedFuture(null);
+
+    static {
+        // Force initialization. Avoids a thread deadlock due to getPlugin() not working async in onDisable.
+        CommonUtil.loadClass(TempFileOutputStream.class);
+    }
+
+    public TrainPropertiesBinaryStore(TrainCarts plugin, File dataFile) {
+        this.plugin = plugin;
+        this.dataFile = dataFile;
+    }
+
+    /**
+     * Gets whether the binary data file exists on disk
+     *
+     * @return True if the data file exists
+     */
+    public boolean exists() {
+        return dataFile.exists();
+    }
+
+    /**
+     * Marks the configuration of a train as changed, so that it is written
+     * out the next time {@link #save(ConfigurationNode, boolean)} is called.
+     * If the train no longer exists at that time, it is removed.
+     *
+     * @param trainName Name of the train that changed
+     */
+    public void markChanged(String trainName) {
+        changedTrains.add(trainName);
+    }
+
+    /**
+     * Marks the configuration of all trains as changed. The next save will
+     * rewrite the complete file.
+     */
+    public void markAllChanged() {
+        compactionNeeded = true;
+    }
+
+    /**
+     * Reads all train records from the binary data file. The latest record
+     * of every train name is decoded and passed to the loader.
+     *
+     * @param loader Accepts the name and decoded configuration of every train
+     */
+    public void load(BiConsumer<String, ConfigurationNode> loader) {
+        records.clear();
+        changedTrains.clear();
+        compactionNeeded = false;
+        fileSize = 0;
+        liveSize = 0;
+        if (!dataFile.exists()) {
+            // Write the file header on the first save
+            compactionNeeded = true;
+            return;
+        }
+
+        try (FileInputStream f_stream = new FileInputStream(dataFile);
+             DataInputStream stream = new DataInputStream(new BufferedInputStream(f_stream)))
+        {
+            if (stream.readInt() != FILE_HEADER) {
+                throw new IOException("Not a train properties data file");
+            }
+            int version = Util.readVariableLengthInt(stream);
+            if (version != VERSION) {
+                throw new IOException("Unsupported train properties data version " + version);
+            }
+
+            while (true) {
+                int recordType = stream.read();
+                if (recordType == -1) {
+                    break; // End of file
+                }
+
+                String name = stream.readUTF();
+                if (recordType == RECORD_PUT) {
+                    records.put(name, Util.readByteArray(stream));
+                } else if (recordType == RECORD_REMOVE) {
+                    records.remove(name);
+                } else {
+                    throw new IOException("Invalid record type " + recordType);
+                }
+            }
+        } catch (EOFException ex) {
+            // Write was interrupted, keep what was read and rewrite the file on next save
+            plugin.getLogger().log(Level.WARNING, "Reached unexpected end-of-file reading train properties, " +
+                    "the last changes might have been lost");
+            backupUnreadableFile();
+            compactionNeeded = true;
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to read train properties data", ex);
+            backupUnreadableFile();
+            compactionNeeded = true;
+        }
+
+        fileSize = dataFile.exists() ? dataFile.length() : 0;
+        for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+            liveSize += entry.getValue().length;
+            try {
+                loader.accept(entry.getKey(), decode(entry.getValue()));
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to decode properties of train " + entry.getKey(), t);
+            }
+        }
+    }
+
+    /**
+     * Moves a data file that could not be fully read out of the way, so that
+     * rewriting the file later does not destroy the records that could not be read.
+     * The file is renamed to have a <i>.corrupt</i> extension.
+     */
+    private void backupUnreadableFile() {
+        File backupFile = new File(dataFile.getPath() + ".corrupt");
+        try {
+            Files.move(dataFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            plugin.getLogger().log(Level.SEVERE, "Train properties data file " + dataFile.getName() +
+                    " could not be read completely. It has been moved to " + backupFile.getName() +
+                    ", only the trains that could be read are kept");
+        } catch (IOException ex) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to move unreadable train properties data file " +
+                    dataFile.getName() + " to " + backupFile.getName() + ", it will be overwritten on the next save", ex);
+        }
+    }
+
+    /**
+     * Writes all changed train configurations to the binary data file.
+     * Encoding happens right away, writing happens asynchronously. If the
+     * file needs compaction, the complete file is rewritten instead.
+     *
+     * @param root Configuration holding the configuration of all trains by name
+     * @param waitForCompletion Whether to wait until the write completes, such as on shutdown
+     * @return True if all changes were saved, False if saving was skipped because a previous
+     *         save is still in progress. The changes then stay queued for the next save.
+     */
+    public boolean save(ConfigurationNode root, boolean waitForCompletion) {
+        // Wait for previous save to complete. Changes stay queued when skipping.
+        if (!currentSaveOperation.isDone()) {
+            if (!waitForCompletion || !waitForSaveCompletion()) {
+                return false;
+            }
+        }
+
+        // If the previous save failed, the file might be missing records or hold a
+        // partially written record. Rewrite the complete file to recover.
+        if (saveFailed) {
+            saveFailed = false;
+            compactionNeeded = true;
+        }
+
+        // Encode the changed trains
+        final Map<String, byte[]> changes = new LinkedHashMap<>();
+        if (compactionNeeded) {
+            changedTrains.clear();
+            records.clear();
+            liveSize = 0;
+            for (ConfigurationNode node : root.getNodes()) {
+                encodeChange(node.getName(), node, changes);
+            }
+        } else {
+            for (String trainName : changedTrains) {
+                encodeChange(trainName, root.isNode(trainName) ? root.getNode(trainName) : null, changes);
+            }
+            changedTrains.clear();
+        }
+
+        // Rewrite everything when more than half the file are outdated records,
+        // or when nothing was written yet and the file header is missing
+        final boolean compact = compactionNeeded || fileSize == 0 ||
+                (fileSize - liveSize) > Math.max(liveSize, COMPACT_MIN_WASTED_BYTES);
+        compactionNeeded = false;
+        if (!compact && changes.isEmpty()) {
+            return true;
+        }
+
+        final List<Map.Entry<String, byte[]>> toWrite = new ArrayList<>(compact ?
+                new LinkedHashMap<>(records).entrySet() : changes.entrySet());
+        final File file = this.dataFile;
+        currentSaveOperation = CommonUtil.runCheckedAsync(() -> {
+            if (compact) {
+                try (TempFileOutputStream fileStream = new TempFileOutputStream(file);
+                     DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(fileStream))
+                ) {
+                    try {
+                        stream.writeInt(FILE_HEADER);
+                        Util.writeVariableLengthInt(stream, VERSION);
+                        writeRecords(stream, toWrite);
+                        stream.flush();
+                    } catch (Throwable t) {
+                        fileStream.close(false);
+                        throw t;
+                    }
+                }
+            } else {
+                try (FileOutputStream fileStream = new FileOutputStream(file, true);
+                     DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(fileStream))
+                ) {
+                    writeRecords(stream, toWrite);
+                }
+            }
+        }, runnable -> {
+            AsyncTask task = new AsyncTask("TrainCarts-TrainPropertiesSaver") {
+                @Override
+                public void run() {
+                    runnable.run();
+                }
+            };
+            task.start();
+        }).exceptionally(t -> {
+            plugin.getLogger().log(Level.SEVERE, "Failed to save train properties to disk", t);
+            saveFailed = true;
+            return null;
+        });
+
+        // Keep track of the (estimated) file size to know when to compact
+        long writtenSize = 0;
+        for (Map.Entry<String, byte[]> entry : toWrite) {
+            writtenSize += getRecordSize(entry.getKey(), entry.getValue());
+        }
+        fileSize = compact ? (writtenSize + 8) : (fileSize + writtenSize);
+
+        if (waitForCompletion) {
+            waitForSaveCompletion();
+        }
+        return true;
+    }
+
+    private void encodeChange(String trainName, ConfigurationNode node, Map<String, byte[]> changes) {
+        byte[] oldRecord;
+        if (node == null) {
+            oldRecord = records.remove(trainName);
+            changes.put(trainName, null);
+        } else {
+            byte[] newRecord;
+            try {
+                newRecord = encode(node);
+            } catch (IOException ex) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to encode properties of train " + trainName, ex);
+                return;
+            }
+            oldRecord = records.put(trainName, newRecord);
+            changes.put(trainName, newRecord);
+            liveSize += newRecord.length;
+        }
+        if (oldRecord != null) {
+            liveSize -= oldRecord.length;
+        }
+    }
+
+    private static void writeRecords(DataOutputStream stream, List<Map.Entry<String, byte[]>> records) throws IOException {
+        for (Map.Entry<String, byte[]> record : records) {
+            if (record.getValue() == null) {
+                stream.write(RECORD_REMOVE);
+                stream.writeUTF(record.getKey());
+            } else {
+                stream.write(RECORD_PUT);
+                stream.writeUTF(record.getKey());
+                Util.writeByteArray(stream, record.getValue());
+            }
+        }
+    }
+
+    private static long getRecordSize(String name, byte[] data) {
+        // Type byte + UTF length + name (approximation) + varint length + data
+        return 3 + name.length() + ((data == null) ? 0 : (5 + data.length));
+    }
+
+    private static byte[] encode(ConfigurationNode node) throws IOException {
+        ByteArrayOutputStream b_stream = new ByteArrayOutputStream();
+        try (DeflaterOutputStream d_stream = new DeflaterOutputStream(b_stream);
+             Writer writer = new OutputStreamWriter(d_stream, StandardCharsets.UTF_8))
+        {
+            writer.write(node.toString());
+        }
+        return b_stream.toByteArray();
+    }
+
+    private static ConfigurationNode decode(byte[] data) throws IOException {
+        BasicConfiguration config = new BasicConfiguration();
+        try (InputStream stream = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            config.loadFromStream(stream);
+        }
+        return config;
+    }
+
+    private boolean waitForSaveCompletion() {
+        try {
+            currentSaveOperation.get(30, TimeUnit.SECONDS);
+        } catch (TimeoutException ex) {
+            plugin.log(Level.SEVERE, "Failed to save train properties: save timed out");
+            return false;
+        } catch (Throwable t) { /* already logged */ }
+
+        return true;
+    }
+}
@@ -13,9 +13,14 @@ import com.bergerkiller.bukkit.common.utils.StringUtil;
 /**
  * Stores the train properties mapped by train name. Also stores a relaxed-name mapping
  * where all train names are lower-cased without style characters, as a backup.
+ * The train names are also stored reversed, so that trains can be looked up by the
+ * start or end of their name.
  */
 class TrainPropertiesMap {
-    private Map<String, TrainProperties> trainProperties = new TreeMap<>();
+    private TreeMap<String, TrainProperties> trainProperties = new TreeMap<>();
+    // Same as trainProperties, but with the train names reversed
+    // It allows for finding the trains whose name ends with a text
+    private TreeMap<String, TrainProperties> trainPropertiesReversed = new TreeMap<>();
     // This makes the train names all-lowercase and without chat style characters
     // It allows for people to select trains by a mixed-case or styled name
     private Map<String, List<TrainProperties>> trainPropertiesRelaxed = new TreeMap<>();
@@ -37,6 +42,43 @@ class TrainPropertiesMap {
         return trainProperties.containsKey(trainName);
     }
 
+    /**
+     * Finds all the train properties with a train name matching a train name expression.
+     * Only the trains whose name starts or ends with the fixed text of the expression
+     * are tested, and if the expression is an exact name, the train is looked up directly.
+     *
+     * @param expression Train name expression
+     * @return matching train properties, sorted by train name
+     */
+    public List<TrainProperties> match(TrainNameExpression expression) {
+        if (expression.isExact()) {
+            TrainProperties properties = trainProperties.get(expression.getPrefix());
+            return (properties == null) ? Collections.emptyList() : Collections.singletonList(properties);
+        }
+
+        String prefix = expression.getPrefix();
+        String suffix = expression.getSuffix();
+        Collection<TrainProperties> candidates;
+        boolean sorted = true;
+        if (prefix.length() >= suffix.length()) {
+            candidates = prefix.isEmpty() ? trainProperties.values() : startingWith(trainProperties, prefix);
+        } else {
+            candidates = startingWith(trainPropertiesReversed, reverse(suffix));
+            sorted = false;
+        }
+
+        List<TrainProperties> result = new ArrayList<>();
+        for (TrainProperties properties : candidates) {
+            if (expression.matches(properties.getTrainName())) {
+                result.add(properties);
+            }
+        }
+        if (!sorted && result.size() > 1) {
+            result.sort((a, b) -> a.getTrainName().compareTo(b.getTrainName()));
+        }
+        return result;
+    }
+
     public void add(String trainName, TrainProperties properties) {
         TrainProperties previous = trainProperties.put(trainName, properties);
         if (previous != null) {
@@ -44,6 +86,7 @@ class TrainPropertiesMap {
             removeFromRelaxedMappings(trainName, previous);
         }
         properties.removed = false;
+        trainPropertiesReversed.put(reverse(trainName), properties);
 
         String relaxed = createRelaxedKey(trainName);
         List<TrainProperties> prevAtRelaxedKey = trainPropertiesRelaxed.put(relaxed,
@@ -60,6 +103,7 @@ class TrainPropertiesMap {
         if (properties != null) {
             properties.removed = true;
             removeFromRelaxedMappings(trainName, properties);
+            trainPropertiesReversed.remove(reverse(trainName));
         }
         return properties;
     }
@@ -67,6 +111,7 @@ class TrainPropertiesMap {
     public void clear() {
         trainProperties.values().forEach(p -> p.removed = true);
         trainProperties.clear();
+        trainPropertiesReversed.clear();
         trainPropertiesRelaxed.clear();
     }
 
@@ -85,6 +130,14 @@ class TrainPropertiesMap {
         }
     }
 
+    private static Collection<TrainProperties> startingWith(TreeMap<String, TrainProperties> map, String prefix) {
+        return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    }
+
+    private static String reverse(String text) {
+        return new StringBuilder(text).reverse().toString();
+    }
+
     private static String createRelaxedKey(String trainName) {
         return StringUtil.stripChatStyle(trainName).toLowerCase(Locale.ENGLISH);
     }
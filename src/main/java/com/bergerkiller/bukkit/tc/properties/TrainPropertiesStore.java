@@ -2,7 +2,7 @@ package com.bergerkiller.bukkit.tc.properties;
 
 import com.bergerkiller.bukkit.common.config.ConfigurationNode;
 import com.bergerkiller.bukkit.common.config.FileConfiguration;
-import com.bergerkiller.bukkit.common.utils.StreamUtil;
+import com.bergerkiller.bukkit.common.config.yaml.YamlPath;
 import com.bergerkiller.bukkit.tc.CollisionMode;
 import com.bergerkiller.bukkit.tc.TrainCarts;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
@@ -14,6 +14,7 @@ import com.bergerkiller.bukkit.tc.properties.standard.type.TrainNameFormat;
 
 import org.bukkit.entity.Player;
 
+import java.io.File;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
@@ -25,7 +26,10 @@ public class TrainPropertiesStore extends LinkedHashSet<CartProperties> {
     private static boolean hasChanges = false;
     private static final long serialVersionUID = 1L;
     private static final String propertiesFile = "TrainProperties.yml";
+    private static final String propertiesDataFile = "TrainProperties.dat";
+    private static final String propertiesExportFile = "TrainProperties.export.yml";
     private static FileConfiguration config = null;
+    private static TrainPropertiesBinaryStore binaryStore = null;
     private static DefaultPropertiesLookup defaultProperties = null;
     private static TrainPropertiesMap trainProperties = new TrainPropertiesMap();
 
@@ -41,18 +45,15 @@ public class TrainPropertiesStore extends LinkedHashSet<CartProperties> {
     /**
      * Matches all train properties that have a train name matching the expression.
      * The expression can use *-characters to denote portions of 'any' contents.
+     * Trains are looked up by the start or end of their name, so this does not
+     * check every train that exists.
      *
      * @param expression
      * @return matching train properties (unmodifiable)
      */
     public static Collection<TrainProperties> matchAll(String expression) {
         if (expression != null && !expression.isEmpty()) {
-            final String[] elements = expression.split("\\*", -1);
-            final boolean first = expression.startsWith("*");
-            final boolean last = expression.endsWith("*");
-            return trainProperties.values().stream()
-                    .filter(p -> p.matchName(elements, first, last))
-                    .collect(StreamUtil.toUnmodifiableList());
+            return Collections.unmodifiableList(trainProperties.match(TrainNameExpression.of(expression)));
         }
         return Collections.emptySet();
     }
@@ -367,23 +368,45 @@ public class TrainPropertiesStore extends LinkedHashSet<CartProperties> {
     }
 
     /**
-     * Loads all Train Properties and defaults from disk
+     * Loads all Train Properties and defaults from disk. The properties are read
+     * from the binary <i>TrainProperties.dat</i> file. If a <i>TrainProperties.yml</i>
+     * exists, the trains stored in it are imported as well, replacing those of the
+     * same name. This is used to migrate from the legacy YAML format, and to import
+     * properties that were edited by hand after {@link #exportYaml() exporting} them.
      *
      * @param traincarts TrainCarts main plugin instance
      */
     public static void load(TrainCarts traincarts) {
         loadDefaults(traincarts);
+
+        // Only used as an in-memory representation of all trains' configuration
         config = new FileConfiguration(traincarts, propertiesFile);
-        config.load();
-        if (fixDeprecation(config)) {
-            config.save();
+        binaryStore = new TrainPropertiesBinaryStore(traincarts, traincarts.getDataFile(propertiesDataFile));
+        binaryStore.load((trainName, trainConfig) -> {
+            trainConfig.cloneIntoExcept(config.getNode(trainName), Collections.emptySet());
+        });
+
+        // Import trains from YAML
+        boolean imported = false;
+        if (config.exists()) {
+            FileConfiguration yamlConfig = new FileConfiguration(traincarts, propertiesFile);
+            yamlConfig.load();
+            fixDeprecation(yamlConfig);
+            for (ConfigurationNode node : yamlConfig.getNodes()) {
+                config.remove(node.getName());
+                node.cloneIntoExcept(config.getNode(node.getName()), Collections.emptySet());
+            }
+            binaryStore.markAllChanged();
+            imported = true;
         }
+
         for (ConfigurationNode node : config.getNodes()) {
             TrainProperties prop = new TrainProperties(traincarts, node.getName(), node);
             if (prop.isEmpty()) {
                 // Carts could not be decoded, invalid properties
                 // Get rid of it
                 config.remove(node.getName());
+                binaryStore.markChanged(node.getName());
                 traincarts.log(Level.WARNING, "Train properties with name " + prop.getTrainName() + " has no carts!");
                 continue;
             }
@@ -396,8 +419,50 @@ public class TrainPropertiesStore extends LinkedHashSet<CartProperties> {
         }
         hasChanges = false;
 
-        // Add a change listener which will set hasChanges to true
-        config.addChangeListener((path) -> hasChanges = true);
+        // Write the imported trains to the binary store right away, then get rid of the
+        // YAML file so it isn't imported again next time
+        if (imported) {
+            binaryStore.save(config, true);
+            File yamlFile = traincarts.getDataFile(propertiesFile);
+            File importedFile = traincarts.getDataFile(propertiesFile + ".imported");
+            if (importedFile.exists()) {
+                importedFile.delete();
+            }
+            if (!yamlFile.renameTo(importedFile)) {
+                traincarts.log(Level.WARNING, "Failed to rename " + propertiesFile + " after importing it, " +
+                        "it will be imported again next time");
+            }
+        }
+
+        // Add a change listener which tracks what trains changed and must be saved
+        config.addChangeListener(TrainPropertiesStore::onConfigChanged);
+    }
+
+    private static void onConfigChanged(YamlPath path) {
+        hasChanges = true;
+        if (path.isRoot()) {
+            binaryStore.markAllChanged();
+        } else {
+            while (path.depth() > 1) {
+                path = path.parent();
+            }
+            binaryStore.markChanged(path.name());
+        }
+    }
+
+    /**
+     * Exports the properties of all trains to a <i>TrainProperties.export.yml</i>
+     * YAML file for inspection or editing. By renaming this file to
+     * <i>TrainProperties.yml</i>, the trains stored inside are imported
+     * again the next time properties are {@link #load(TrainCarts) loaded}.
+     *
+     * @return File the properties were exported to
+     */
+    public static File exportYaml() {
+        FileConfiguration exported = new FileConfiguration(TrainCarts.plugin, propertiesExportFile);
+        config.cloneIntoExcept(exported, Collections.emptySet());
+        exported.save();
+        return TrainCarts.plugin.getDataFile(propertiesExportFile);
     }
 
     /**
@@ -476,7 +541,8 @@ public class TrainPropertiesStore extends LinkedHashSet<CartProperties> {
     }
 
     /**
-     * Saves all Train Properties to disk
+     * Saves all Train Properties to disk. Only the properties of trains that
+     * changed since the previous save are written.
      */
     public static void save(boolean autosave) {
         if (autosave && !hasChanges) {
@@ -489,8 +555,8 @@ public class TrainPropertiesStore extends LinkedHashSet<CartProperties> {
                 .collect(Collectors.toList());
         removedTrainProperties.forEach(prop -> remove(prop.getTrainName()));
 
-        config.save();
-        hasChanges = false;
+        // If a previous save is still busy, the changes stay queued for the next autosave
+        hasChanges = !binaryStore.save(config, !autosave);
     }
 
     /**
@@ -119,10 +119,10 @@ public class DefaultProperties {
     public boolean checkSavedTrainPermissions(CommandSender sender, SpawnableGroup spawnableGroup) {
         List<ConfigurationNode> cartConfigs = new ArrayList<>(spawnableGroup.getMembers().size());
         for (SpawnableMember member : spawnableGroup.getMembers()) {
-             cartConfigs.add(member.getConfig());
+             cartConfigs.add(member.getConfigReadOnly());
         }
 
-        return checkSavedTrainPermissions(sender, spawnableGroup.getConfig(), cartConfigs);
+        return checkSavedTrainPermissions(sender, spawnableGroup.getConfigReadOnly(), cartConfigs);
     }
 
     /**
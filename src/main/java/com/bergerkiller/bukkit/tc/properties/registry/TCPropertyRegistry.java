@@ -1,5 +1,10 @@
 package com.bergerkiller.bukkit.tc.properties.registry;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
@@ -11,6 +16,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
@@ -52,6 +58,8 @@ import org.bukkit.command.CommandSender;
 public final class TCPropertyRegistry implements IPropertyRegistry {
     // Used by findPatternLiterals(String)
     private static final Pattern LITERALS_PATTERN = Pattern.compile("([\\w\\s]+)\\|?");
+    // Limits the number of names for which the complex regex parser is remembered
+    private static final int COMPLEX_PARSER_CACHE_LIMIT = 1024;
 
     private final TrainCarts plugin;
     private final CloudSimpleHandler commands;
@@ -66,6 +74,7 @@ public final class TCPropertyRegistry implements IPropertyRegistry {
     private final Map<String, PropertyParserElement<?>> parsersByName = new HashMap<>();
     private final Map<String, PropertyParserElement<?>> parsersByPreProcessedName = new HashMap<>();
     private final List<PropertyParserElement<?>> parsersWithComplexRegex = new ArrayList<>();
+    private final Map<String, Optional<PropertyParserElement<?>>> complexParsersByName = new ConcurrentHashMap<>();
     private final List<IProperty<?>> pendingProperties = new ArrayList<IProperty<?>>();
 
     // Used during parse() to see what property is being parsed currently
@@ -209,6 +218,7 @@ public final class TCPropertyRegistry implements IPropertyRegistry {
     }
 
     private <T> void registerParser(final PropertyParserElement<T> parser) {
+        this.complexParsersByName.clear();
         List<String> literals = findPatternLiterals(parser.options.value());
         if (literals.isEmpty()) {
             this.parsersWithComplexRegex.add(parser);
@@ -220,6 +230,7 @@ public final class TCPropertyRegistry implements IPropertyRegistry {
     }
 
     private <T> void unregisterParser(PropertyParserElement<T> parser) {
+        this.complexParsersByName.clear();
         List<String> literals = findPatternLiterals(parser.options.value());
         if (literals.isEmpty()) {
             this.parsersWithComplexRegex.remove(parser);
@@ -253,15 +264,25 @@ public final class TCPropertyRegistry implements IPropertyRegistry {
             return true;
         }
 
-        // Complex
+        // Complex. Which of these parsers matches a name (if any) is remembered, so that
+        // the same name does not have to be matched against all of their patterns again.
+        Optional<PropertyParserElement<?>> complexResult = this.complexParsersByName.get(parser.name);
+        if (complexResult != null) {
+            return complexResult.isPresent() &&
+                   (result = CommonUtil.unsafeCast(complexResult.get())).match(parser);
+        }
+        complexResult = Optional.empty();
         for (PropertyParserElement<?> complexParserElementRaw : this.parsersWithComplexRegex) {
             if ((result = CommonUtil.unsafeCast(complexParserElementRaw)).match(parser)) {
-                return true;
+                complexResult = Optional.of(result);
+                break;
             }
         }
-
-        // Not found
-        return false;
+        if (this.complexParsersByName.size() >= COMPLEX_PARSER_CACHE_LIMIT) {
+            this.complexParsersByName.clear();
+        }
+        this.complexParsersByName.put(parser.name, complexResult);
+        return complexResult.isPresent();
     }
 
     /**
@@ -453,7 +474,7 @@ public final class TCPropertyRegistry implements IPropertyRegistry {
         public final String[] names;
         private final ArgumentAdapter[] argumentAdapters;
         private final ReturnAdapter returnAdapter;
-        private final FastMethod<Object> method;
+        private final MethodInvoker invoker;
 
         public PropertySelectorConditionElement(
                 IProperty<T> property,
@@ -503,20 +524,88 @@ public final class TCPropertyRegistry implements IPropertyRegistry {
 
             this.property = property;
             this.names = Stream.of(options).map(PropertySelectorCondition::value).toArray(String[]::new);
-            this.method = new FastMethod<Object>();
-            this.method.init(method);
+            this.invoker = createInvoker(property, method, this.argumentAdapters);
         }
 
         @Override
         public boolean matches(TrainProperties properties, SelectorCondition condition) {
-            Object[] args = new Object[this.argumentAdapters.length];
-            for (int i = 0; i < args.length; i++) {
-                args[i] = this.argumentAdapters[i].adapt(properties, condition);
-            }
-            Object result = this.method.invokeVA(this.property, args);
+            Object result = this.invoker.invoke(properties, condition);
             return this.returnAdapter.adapt(condition, result);
         }
 
+        /**
+         * Creates the invoker that calls the selector condition method with the adapted arguments.
+         * Where possible, a function that calls the method directly is generated, so that evaluating
+         * a selector for many trains does not invoke the method by reflection every time.
+         */
+        private static MethodInvoker createInvoker(final Object property, Method method, ArgumentAdapter[] argumentAdapters) {
+            if (argumentAdapters.length == 0) {
+                final MethodFunction0 function = generateFunction(MethodFunction0.class, method);
+                if (function != null) {
+                    return (properties, condition) -> function.invoke(property);
+                }
+            } else if (argumentAdapters.length == 1) {
+                final MethodFunction1 function = generateFunction(MethodFunction1.class, method);
+                final ArgumentAdapter arg0 = argumentAdapters[0];
+                if (function != null) {
+                    return (properties, condition) -> function.invoke(property, arg0.adapt(properties, condition));
+                }
+            } else if (argumentAdapters.length == 2) {
+                final MethodFunction2 function = generateFunction(MethodFunction2.class, method);
+                final ArgumentAdapter arg0 = argumentAdapters[0];
+                final ArgumentAdapter arg1 = argumentAdapters[1];
+                if (function != null) {
+                    return (properties, condition) -> function.invoke(property,
+                            arg0.adapt(properties, condition), arg1.adapt(properties, condition));
+                }
+            }
+
+            // Fallback: invoke it using a FastMethod
+            final FastMethod<Object> fastMethod = new FastMethod<Object>();
+            fastMethod.init(method);
+            return (properties, condition) -> {
+                Object[] args = new Object[argumentAdapters.length];
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = argumentAdapters[i].adapt(properties, condition);
+                }
+                return fastMethod.invokeVA(property, args);
+            };
+        }
+
+        /**
+         * Uses the LambdaMetafactory to generate a function that calls a method. The function
+         * interface method should accept the instance, followed by all method arguments, and
+         * return an Object.
+         *
+         * @param functionType Function interface type
+         * @param method Method to call
+         * @return generated function, or null if this is not possible for this method
+         */
+        private static <F> F generateFunction(Class<F> functionType, Method method) {
+            // The generated function must be able to access the method, and to find the
+            // class declaring it. Properties of other plugins are invoked using a FastMethod.
+            Class<?> declaringClass = method.getDeclaringClass();
+            if (!Modifier.isPublic(method.getModifiers()) ||
+                !Modifier.isPublic(declaringClass.getModifiers()) ||
+                declaringClass.getClassLoader() != TCPropertyRegistry.class.getClassLoader()
+            ) {
+                return null;
+            }
+
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                MethodHandle handle = lookup.unreflect(method);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "invoke",
+                        MethodType.methodType(functionType),
+                        MethodType.genericMethodType(handle.type().parameterCount()),
+                        handle,
+                        handle.type().wrap());
+                return functionType.cast(site.getTarget().invoke());
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+
         @FunctionalInterface
         private static interface ArgumentAdapter {
             Object adapt(TrainProperties properties, SelectorCondition condition);
@@ -526,6 +615,26 @@ public final class TCPropertyRegistry implements IPropertyRegistry {
         private static interface ReturnAdapter {
             boolean adapt(SelectorCondition condition, Object value);
         }
+
+        @FunctionalInterface
+        private static interface MethodInvoker {
+            Object invoke(TrainProperties properties, SelectorCondition condition);
+        }
+
+        @FunctionalInterface
+        private static interface MethodFunction0 {
+            Object invoke(Object instance);
+        }
+
+        @FunctionalInterface
+        private static interface MethodFunction1 {
+            Object invoke(Object instance, Object arg0);
+        }
+
+        @FunctionalInterface
+        private static interface MethodFunction2 {
+            Object invoke(Object instance, Object arg0, Object arg1);
+        }
     }
 
     /**
@@ -966,6 +966,8 @@ public final class RailLookup {
         protected final SignChangeTracker tracker;
         protected final BlockFace facing;
         private final TrackedSignLookup.RealSignKey key;
+        private SignController.Entry controllerEntry = null;
+        private int controllerEntryVersion = 0;
 
         private TrackedRealSignBase(TrainCarts plugin, SignChangeTracker tracker, RailPiece rail, boolean front) {
             super(tracker.getSign(), tracker.getBlock(), rail);
@@ -1012,41 +1014,24 @@ public final class RailLookup {
                 return StringUtil.EMPTY_ARRAY;
             }
 
-            List<String> lines = new ArrayList<>();
-
-            // Find other signs instances which are below this sign, repeatedly
-            // Ignore tracked signs which match a SignAction by itself.
-            // For this we use the SignController findNearby with a flag to include all
-            // signs in the results, not just ones that have sign actions.
-            //
-            // RailPiece signs() cannot be used, because those signs are only those
-            // that have sign actions.
-            Block signBlock = this.signBlock.getRelative(BlockFace.DOWN);
-            SignControllerWorld signController = plugin.getSignController().forWorld(rail.world());
-
-            while (true) {
-                SignController.Entry entry = signController.findForSign(signBlock, false);
+            // The extra lines are cached by the sign controller entry of this sign
+            // Only look up this entry again when signs in its chunk change
+            SignController.Entry entry = this.controllerEntry;
+            if (entry == null || this.controllerEntryVersion != entry.chunk.getSignsVersion()) {
+                SignControllerWorld signController = plugin.getSignController().forWorld(rail.world());
+                entry = signController.findForSign(this.signBlock, false);
                 if (entry == null) {
-                    break;
-                }
-                if (entry.sign.getFacing() != facing) {
-                    break;
-                }
-
-                // Load the sign, make sure it isn't an action sign itself
-                TrackedSign sign = isFrontText() ? entry.createFrontTrackedSign(rail)
-                                                 : entry.createBackTrackedSign(rail);
-                if (sign.getAction() != null) {
-                    break;
-                }
-
-                for (int i = 0; i < 4; i++) {
-                    lines.add(sign.getLine(i));
+                    // Not tracked by the controller (yet). Find the lines without caching them.
+                    this.controllerEntry = null;
+                    return signController.findExtraLinesBelow(this.signBlock, this.facing, isFrontText(), rail);
                 }
-                signBlock = signBlock.getRelative(BlockFace.DOWN);
+                this.controllerEntry = entry;
+                this.controllerEntryVersion = entry.chunk.getSignsVersion();
             }
 
-            return lines.toArray(new String[0]);
+            // Callers are free to modify the returned array, so don't hand out the cached one
+            String[] lines = (isFrontText() ? entry.front : entry.back).getExtraLines(rail);
+            return (lines.length == 0) ? lines : lines.clone();
         }
 
         @Override
@@ -29,14 +29,18 @@ import com.bergerkiller.bukkit.tc.utils.SignBuildOptions;
 import org.bukkit.block.Block;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 public class SignActionSwitcher extends TrainCartsSignAction {
     private BlockMap<CounterState> switchedTimes = new BlockMap<>();
+    private final Map<Object, SwitcherProgram> programs = new HashMap<>();
 
     private CounterState getSwitchedTimes(Block signblock) {
         CounterState i = switchedTimes.get(signblock);
@@ -64,26 +68,50 @@ public class SignActionSwitcher extends TrainCartsSignAction {
         }
     }
 
-    private static List<DirectionStatement> parseDirectionStatements(SignActionEvent info) {
+    /**
+     * Gets the compiled switcher program of a switcher sign. For real signs, the program
+     * is cached until the text on the sign, or the signs below it, changes.
+     *
+     * @param info
+     * @return switcher program
+     */
+    private SwitcherProgram getProgram(SignActionEvent info) {
+        String line2 = info.getLine(2);
+        String line3 = info.getLine(3);
+        String[] extraLines = info.getExtraLinesBelow();
+        if (!info.getTrackedSign().isRealSign()) {
+            return new SwitcherProgram(line2, line3, extraLines);
+        }
+
+        Object key = info.getTrackedSign().getUniqueKey();
+        SwitcherProgram program = programs.get(key);
+        if (program == null || !program.isCompiledFrom(line2, line3, extraLines)) {
+            program = new SwitcherProgram(line2, line3, extraLines);
+            programs.put(key, program);
+        }
+        return program;
+    }
+
+    private static List<DirectionStatement> parseDirectionStatements(String line2, String line3, String[] extraLines) {
         //find out what statements to parse
         List<DirectionStatement> statements = new ArrayList<>();
-        if (!info.getLine(2).isEmpty() || !info.getLine(3).isEmpty()) {
+        if (!line2.isEmpty() || !line3.isEmpty()) {
             String left_str = Direction.IMPLICIT_LEFT.aliases()[0];
-            if (info.getLine(2).isEmpty()) {
+            if (line2.isEmpty()) {
                 statements.add(new DirectionStatement("default", left_str));
             } else {
-                statements.add(new DirectionStatement(info.getLine(2), left_str));
+                statements.add(new DirectionStatement(line2, left_str));
             }
 
             String right_str = Direction.IMPLICIT_RIGHT.aliases()[0];
-            if (info.getLine(3).isEmpty()) {
+            if (line3.isEmpty()) {
                 statements.add(new DirectionStatement("default", right_str));
             } else {
-                statements.add(new DirectionStatement(info.getLine(3), right_str));
+                statements.add(new DirectionStatement(line3, right_str));
             }
         }
         //other signs below this sign we could parse?
-        for (String line : info.getExtraLinesBelow()) {
+        for (String line : extraLines) {
             if (line.isEmpty()) {
                 continue;
             }
@@ -124,6 +152,20 @@ public class SignActionSwitcher extends TrainCartsSignAction {
         return false;
     }
 
+    @Override
+    public void destroy(SignActionEvent info) {
+        programs.remove(info.getTrackedSign().getUniqueKey());
+    }
+
+    @Override
+    public void loadedChanged(SignActionEvent info, boolean loaded) {
+        // Forget the compiled program of signs in chunks that unload
+        // It is compiled again when a train uses the sign after it loads
+        if (!loaded) {
+            programs.remove(info.getTrackedSign().getUniqueKey());
+        }
+    }
+
     @Override
     public boolean isRailSwitcher(SignActionEvent info) {
         if (TCConfig.onlyPoweredSwitchersDoPathFinding && info.getHeader().isAlwaysOff()) {
@@ -164,19 +206,10 @@ public class SignActionSwitcher extends TrainCartsSignAction {
         private final boolean canToggleRails;
 
         public SwitcherLogic(SignActionEvent info) {
+            SwitcherProgram program = getProgram(info);
             this.info = info;
-            this.statements = parseDirectionStatements(info);
-
-            {
-                boolean calcHasFromDirections = false;
-                for (DirectionStatement statement : statements) {
-                    if (!statement.isSwitchedFromSelf() && !statement.isDefault()) {
-                        calcHasFromDirections = true;
-                        break;
-                    }
-                }
-                this.hasFromDirections = calcHasFromDirections;
-            }
+            this.statements = program.statements;
+            this.hasFromDirections = program.hasFromDirections;
 
             // Whether to update the switcher (lever) state
             this.doTrain = info.isTrainSign() && info.isAction(SignActionType.GROUP_ENTER, SignActionType.GROUP_UPDATE);
@@ -511,7 +544,7 @@ public class SignActionSwitcher extends TrainCartsSignAction {
                     // Many statements like random or redstone are not constant and must be evaluated
                     // when the train rolls over it.
                     if (isPathRouting) {
-                        Statement.MatchResult result = Statement.Matcher.of(stat.text).withSignEvent(info).match();
+                        Statement.MatchResult result = stat.getStatement().match(null, null, info);
                         if (!result.isConstant()) {
                             // Not a constant, can't use it for path prediction when routing
                             return null;
@@ -556,6 +589,49 @@ public class SignActionSwitcher extends TrainCartsSignAction {
         }
     }
 
+    /**
+     * The direction statements of a switcher sign, parsed from the text on the sign
+     * and the signs below it. The statements are compiled once, and are evaluated
+     * against trains without parsing the text again. Immutable.
+     */
+    private static final class SwitcherProgram {
+        private final String line2;
+        private final String line3;
+        private final String[] extraLines;
+        public final List<DirectionStatement> statements;
+        public final boolean hasFromDirections;
+
+        public SwitcherProgram(String line2, String line3, String[] extraLines) {
+            this.line2 = line2;
+            this.line3 = line3;
+            this.extraLines = extraLines;
+            this.statements = Collections.unmodifiableList(parseDirectionStatements(line2, line3, extraLines));
+
+            boolean calcHasFromDirections = false;
+            for (DirectionStatement statement : statements) {
+                if (!statement.isSwitchedFromSelf() && !statement.isDefault()) {
+                    calcHasFromDirections = true;
+                    break;
+                }
+            }
+            this.hasFromDirections = calcHasFromDirections;
+        }
+
+        /**
+         * Checks whether this program was compiled from the sign text specified
+         *
+         * @param line2 Third line of the sign
+         * @param line3 Fourth line of the sign
+         * @param extraLines Extra lines of the signs below the sign
+         * @return True if compiled from this text
+         */
+        public boolean isCompiledFrom(String line2, String line3, String[] extraLines) {
+            return this.line2.equals(line2) &&
+                   this.line3.equals(line3) &&
+                   (this.extraLines == extraLines || Arrays.equals(this.extraLines, extraLines));
+        }
+    }
+
     /**
      * Tracks the counter state of counters on a switcher sign.
      * Not persistent.
@@ -213,8 +213,7 @@ public class MutexZoneCache {
                 }
 
                 // Initialize the entered groups of this slot
-                slot.getEnteredGroups().clear();
-                slot.getEnteredGroups().addAll(MutexZoneSlot.UnloadedEnteredGroup.loadAll(plugin, slotData));
+                slot.loadEnteredGroups(MutexZoneSlot.UnloadedEnteredGroup.loadAll(plugin, slotData));
             }
         });
     }
@@ -17,6 +17,7 @@ import com.bergerkiller.bukkit.tc.offline.train.format.OfflineDataBlock;
 import com.bergerkiller.bukkit.tc.properties.TrainProperties;
 import com.bergerkiller.bukkit.tc.properties.TrainPropertiesStore;
 import com.bergerkiller.bukkit.tc.signactions.mutex.railslot.MutexRailSlot;
+import com.bergerkiller.bukkit.tc.signactions.mutex.railslot.MutexRailSlotIndex;
 import com.bergerkiller.bukkit.tc.signactions.mutex.railslot.MutexRailSlotMap;
 import org.bukkit.block.Block;
 
@@ -39,6 +40,8 @@ public class MutexZoneSlot {
     private static final int TICK_DELAY_CLEAR_AUTOMATIC = 6; // Tick delay until a group is fully cleared from a mutex (and lever toggles up)
     private final String name;
     private final List<EnteredGroup> entered = new ArrayList<>(2);
+    private final MutexRailSlotIndex<EnteredGroup> enteredRailIndex = new MutexRailSlotIndex<>();
+    private int enteredCounter = 0;
     private List<MutexZone> zones;
     private List<String> statements;
     private int tickLastHardEntered = 0;
@@ -99,10 +102,48 @@ public class MutexZoneSlot {
     /**
      * Gets a List of all entered groups that exist
      *
-     * @return List of entered groups
+     * @return Unmodifiable List of entered groups
      */
     public List<EnteredGroup> getEnteredGroups() {
-        return entered;
+        return Collections.unmodifiableList(entered);
+    }
+
+    /**
+     * Replaces all entered groups of this slot with the unloaded entered groups
+     * specified. Used when restoring the mutex state from persistent storage.
+     *
+     * @param unloadedGroups Unloaded entered groups to restore
+     */
+    public void loadEnteredGroups(List<UnloadedEnteredGroup> unloadedGroups) {
+        for (EnteredGroup enteredGroup : entered) {
+            enteredRailIndex.detach(enteredGroup.occupiedRails);
+        }
+        entered.clear();
+        for (UnloadedEnteredGroup unloadedGroup : unloadedGroups) {
+            addEnteredGroup(unloadedGroup);
+        }
+    }
+
+    private void addEnteredGroup(EnteredGroup enteredGroup) {
+        enteredGroup.enteredOrder = enteredCounter++;
+        entered.add(enteredGroup);
+        enteredRailIndex.attach(enteredGroup.occupiedRails, enteredGroup);
+    }
+
+    /**
+     * Looks up the entered groups that have occupied a particular rail block, or have
+     * locked this slot fully. The result is in the same order as the entered groups
+     * were added.
+     *
+     * @param railBlock Rail block
+     * @return Entered groups that might conflict with the rail block
+     */
+    private List<EnteredGroup> findEnteredGroupsAtRail(IntVector3 railBlock) {
+        List<EnteredGroup> result = enteredRailIndex.find(railBlock);
+        if (result.size() > 1) {
+            result.sort((g0, g1) -> Integer.compare(g0.enteredOrder, g1.enteredOrder));
+        }
+        return result;
     }
 
     /**
@@ -140,6 +181,7 @@ public class MutexZoneSlot {
                     swapEnteredGroup(enteredGroup, newGroup);
                 })) {
                     iter.remove();
+                    enteredRailIndex.detach(enteredGroup.occupiedRails);
                     swapDeactivatedEnteredGroups(enteredGroup, null);
                     trainsHaveLeft = true;
                 } else if (enteredGroup.hardEnter) {
@@ -165,6 +207,7 @@ public class MutexZoneSlot {
                 EnteredGroup unloaded = entered.unload();
                 if (entered != unloaded) {
                     iter.set(unloaded);
+                    enteredRailIndex.attach(unloaded.occupiedRails, unloaded);
                     swapDeactivatedEnteredGroups(entered, unloaded);
                 }
                 break;
@@ -222,6 +265,7 @@ public class MutexZoneSlot {
                         EnteredGroup enteredGroup = iter.next();
                         if (enteredGroup.isGroup(group)) {
                             iter.remove();
+                            enteredRailIndex.detach(enteredGroup.occupiedRails);
                             swapDeactivatedEnteredGroups(enteredGroup, null);
                             wasGroupHardEntered = enteredGroup.hardEnter;
                         } else if (enteredGroup.hardEnter) {
@@ -261,7 +305,7 @@ public class MutexZoneSlot {
         }
 
         LoadedEnteredGroup enteredGroup = new LoadedEnteredGroup(this, group, distanceToMutex, nowTicks, nowTicks);
-        this.entered.add(enteredGroup);
+        this.addEnteredGroup(enteredGroup);
         return enteredGroup;
     }
 
@@ -312,6 +356,7 @@ public class MutexZoneSlot {
 
     private void swapEnteredGroup(EnteredGroup toReplace, EnteredGroup replacement) {
         swapEnteredGroup(entered, toReplace, replacement);
+        enteredRailIndex.attach(replacement.occupiedRails, replacement);
         swapDeactivatedEnteredGroups(toReplace, replacement);
     }
 
@@ -407,6 +452,8 @@ public class MutexZoneSlot {
          */
         protected final ArrayList<EnteredGroup> groupsDeactivatingMe;
         protected IntVector3 groupsDeactivatingMeConflictRail;
+        /** Order in which this group was added to the slot. Conflicts are checked in this order. */
+        protected int enteredOrder;
 
         public EnteredGroup(double distanceToMutex) {
             this.occupiedRails = new MutexRailSlotMap();
@@ -424,6 +471,7 @@ public class MutexZoneSlot {
             this.otherGroupsToDeactivate = copy.otherGroupsToDeactivate;
             this.groupsDeactivatingMe = copy.groupsDeactivatingMe;
             this.groupsDeactivatingMeConflictRail = copy.groupsDeactivatingMeConflictRail;
+            this.enteredOrder = copy.enteredOrder;
         }
 
         public abstract boolean isGroup(MinecartGroup group);
@@ -612,7 +660,9 @@ public class MutexZoneSlot {
 
             // Remove all soft-entered groups that share rails in common (or if null, any and all)
             // If we find another group that already hard-entered the mutex, cancel.
-            for (EnteredGroup enteredGroup : slot.entered) {
+            // Only groups that occupy this rail block, or lock the slot fully, can conflict.
+            // These are looked up using the rail index, other groups are skipped right away.
+            for (EnteredGroup enteredGroup : slot.findEnteredGroupsAtRail(railBlock)) {
                 if (enteredGroup == this) {
                     continue;
                 }
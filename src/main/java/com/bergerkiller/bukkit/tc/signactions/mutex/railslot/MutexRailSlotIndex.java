@@ -0,0 +1,118 @@
+package com.bergerkiller.bukkit.tc.signactions.mutex.railslot;
+
+import com.bergerkiller.bukkit.common.bases.IntVector3;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the rail blocks occupied by all the {@link MutexRailSlotMap} instances of
+ * a single mutex zone slot. This makes it possible to find the trains whose occupied
+ * rails conflict with a rail block, without checking every train that entered
+ * or is waiting for the mutex zone slot.<br>
+ * <br>
+ * Rail slot maps are attached with an owner, which is returned by
+ * {@link #find(IntVector3)}. While attached, the rail slot map keeps this index
+ * up to date as rails are added and removed.
+ *
+ * @param <T> Owner type
+ */
+public final class MutexRailSlotIndex<T> {
+    /** All rail slot maps that have one of their rails set to a rail block */
+    private final Map<IntVector3, List<MutexRailSlotMap>> byRail = new HashMap<>();
+    /** All rail slot maps that are fully locked, and conflict with every rail block */
+    private final List<MutexRailSlotMap> fullyLocked = new ArrayList<>();
+
+    /**
+     * Attaches a rail slot map to this index. All rails currently occupied are
+     * indexed. If the map was already attached to this index, only the owner
+     * is updated.
+     *
+     * @param map Rail slot map to attach
+     * @param owner Owner of the rail slot map returned by {@link #find(IntVector3)}
+     */
+    public void attach(MutexRailSlotMap map, T owner) {
+        map.indexOwner = owner;
+        if (map.index != this) {
+            if (map.index != null) {
+                map.index.detach(map);
+            }
+            map.index = this;
+            map.indexAllRails();
+        }
+    }
+
+    /**
+     * Detaches a rail slot map from this index. All rails occupied by it
+     * are removed from this index.
+     *
+     * @param map Rail slot map to detach
+     */
+    public void detach(MutexRailSlotMap map) {
+        if (map.index == this) {
+            map.unindexAllRails();
+            map.index = null;
+            map.indexOwner = null;
+        }
+    }
+
+    /**
+     * Finds the owners of all rail slot maps that (potentially) occupy a rail block.
+     * This includes those that are fully locked. The owners are returned in a new list,
+     * so rails can be modified while iterating the result.
+     *
+     * @param rail Rail block coordinates
+     * @return List of owners of rail slot maps occupying the rail block
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> find(IntVector3 rail) {
+        List<MutexRailSlotMap> railMaps = byRail.getOrDefault(rail, Collections.emptyList());
+        if (railMaps.isEmpty() && fullyLocked.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<T> result = new ArrayList<>(railMaps.size() + fullyLocked.size());
+        for (MutexRailSlotMap map : railMaps) {
+            result.add((T) map.indexOwner);
+        }
+        for (MutexRailSlotMap map : fullyLocked) {
+            if (!map.isSmartLocked(rail)) {
+                result.add((T) map.indexOwner);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of distinct rail blocks stored in this index
+     *
+     * @return rail block count
+     */
+    public int getRailCount() {
+        return byRail.size();
+    }
+
+    void addRail(MutexRailSlotMap map, IntVector3 rail) {
+        byRail.computeIfAbsent(rail, r -> new ArrayList<>(2)).add(map);
+    }
+
+    void removeRail(MutexRailSlotMap map, IntVector3 rail) {
+        List<MutexRailSlotMap> railMaps = byRail.get(rail);
+        if (railMaps != null && railMaps.remove(map) && railMaps.isEmpty()) {
+            byRail.remove(rail);
+        }
+    }
+
+    void setFullyLocked(MutexRailSlotMap map, boolean locked) {
+        if (locked) {
+            if (!fullyLocked.contains(map)) {
+                fullyLocked.add(map);
+            }
+        } else {
+            fullyLocked.remove(map);
+        }
+    }
+}
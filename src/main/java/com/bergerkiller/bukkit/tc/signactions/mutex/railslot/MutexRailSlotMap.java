@@ -38,6 +38,10 @@ public class MutexRailSlotMap {
     private Map<IntVector3, MutexRailSlot> rails = INITIAL_RAILS;
     /** Last conflicting rail block */
     private MutexRailSlot conflict = null;
+    /** Index of the mutex zone slot this map is attached to, kept up to date with rails */
+    MutexRailSlotIndex<?> index = null;
+    /** Owner of this map returned by the index */
+    Object indexOwner = null;
 
     /**
      * Gets the last rails that were visited to enter a mutex zone slot, successful or not.
@@ -57,6 +61,9 @@ public class MutexRailSlotMap {
 
     public void clearConflict(IntVector3 conflictRail) {
         MutexRailSlot prevConflict = this.conflict;
+        if (index != null) {
+            unindexAllRails();
+        }
         rails = INITIAL_RAILS;
         railsFull.clear();
         conflict = railsLive.remove(conflictRail);
@@ -97,12 +104,22 @@ public class MutexRailSlotMap {
             currRails.clear();
             conflict = null;
         }
-        MutexRailSlot slot = currRails.computeIfAbsent(railBlock, MutexRailSlot::new);
+        MutexRailSlot slot = currRails.get(railBlock);
+        if (slot == null) {
+            slot = new MutexRailSlot(railBlock);
+            currRails.put(railBlock, slot);
+            if (index != null) {
+                index.addRail(this, railBlock);
+            }
+        }
         boolean added = slot.isNew();
         boolean wasFullLocking = slot.isFullLocking();
         slot.probe(type, nowTicks);
         if (!wasFullLocking && slot.isFullLocking()) {
             railsFull.add(slot);
+            if (index != null) {
+                index.setFullyLocked(this, true);
+            }
         }
         return added;
     }
@@ -141,8 +158,14 @@ public class MutexRailSlotMap {
                     // No longer used, release this particular rail block. Might release the entire mutex.
                     railsLive.remove(slot.rail());
                     iter.remove();
+                    if (index != null) {
+                        index.removeRail(this, slot.rail());
+                    }
                 }
             }
+            if (index != null) {
+                index.setFullyLocked(this, false);
+            }
         }
         return false;
     }
@@ -199,9 +222,29 @@ public class MutexRailSlotMap {
     private void onSlotRemoved(MutexRailSlot slot) {
         if (slot.isFullLocking()) {
             railsFull.remove(slot);
+            if (index != null && railsFull.isEmpty()) {
+                index.setFullyLocked(this, false);
+            }
+        }
+        if (index != null) {
+            index.removeRail(this, slot.rail());
         }
     }
 
+    void indexAllRails() {
+        for (IntVector3 rail : rails.keySet()) {
+            index.addRail(this, rail);
+        }
+        index.setFullyLocked(this, isFullyLocked());
+    }
+
+    void unindexAllRails() {
+        for (IntVector3 rail : rails.keySet()) {
+            index.removeRail(this, rail);
+        }
+        index.setFullyLocked(this, false);
+    }
+
     /**
      * Checks whether a particular rail block is used by a MinecartGroup
      *
@@ -254,6 +297,9 @@ public class MutexRailSlotMap {
         try (DataInputStream stream = root.findChildOrThrow("rail-slots").readData()) {
             boolean isSetToInitial = stream.readBoolean();
             int numRailSlots = Util.readVariableLengthInt(stream);
+            if (index != null) {
+                unindexAllRails();
+            }
 
             // Load in the rail slots
             railsLive.clear();
@@ -267,6 +313,9 @@ public class MutexRailSlotMap {
                 }
             }
             rails = isSetToInitial ? INITIAL_RAILS : railsLive;
+            if (index != null) {
+                indexAllRails();
+            }
 
             // Load in a conflict rail, if it exists
             if (stream.readBoolean()) {
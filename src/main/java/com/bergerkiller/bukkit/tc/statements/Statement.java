@@ -11,6 +11,7 @@ import java.util.List;
 
 public abstract class Statement {
     private static final List<Statement> statements = new ArrayList<>();
+    private static int compileVersion = 0;
 
     public static String[] parseArray(String text) {
         return text.split(";", -1);
@@ -42,6 +43,15 @@ public abstract class Statement {
 
     public static void deinit() {
         statements.clear();
+        compileVersion++;
+    }
+
+    /**
+     * Invalidates all {@link Compiled compiled statements}, so that they are compiled again
+     * the next time they are evaluated. Must be called when the statement shortcuts change.
+     */
+    public static void invalidateCompiled() {
+        compileVersion++;
     }
 
     public static <T extends Statement> T register(T statement) {
@@ -60,6 +70,7 @@ public abstract class Statement {
         }
 
         statements.add(index, statement);
+        compileVersion++;
         return statement;
     }
 
@@ -288,47 +299,147 @@ public abstract class Statement {
          * @return Match result, or Empty if no statement matched
          */
         public MatchResult match() {
-            boolean inv = false;
+            return new Compiled(this.text).match(member, group, signEvent);
+        }
+    }
+
+    /**
+     * Statement text that has been parsed ahead of time. The statement shortcuts are applied,
+     * the inversion and array syntax are parsed and the statement that handles the text is
+     * looked up once. Evaluating it against a cart or train only calls the statement handler.
+     * Compiled statements can be kept around, they are compiled again automatically when new
+     * statements are registered or the shortcuts change.
+     */
+    public static final class Compiled {
+        private final String text;
+        private int version;
+        private boolean inv;
+        private boolean isArray;
+        private String handledText;
+        private String[] array;
+        private Statement statement;
+
+        private Compiled(String text) {
+            this.text = text;
+            this.version = compileVersion - 1; // Compile on first use
+        }
+
+        /**
+         * Compiles statement text
+         *
+         * @param text Statement text
+         * @return compiled statement
+         */
+        public static Compiled of(String text) {
+            return new Compiled(text);
+        }
+
+        /**
+         * Gets the original text this statement was compiled from
+         *
+         * @return statement text
+         */
+        public String getText() {
+            return this.text;
+        }
+
+        private void compile() {
+            this.version = compileVersion;
+            this.inv = false;
+            this.isArray = false;
+            this.array = null;
+            this.statement = null;
+
             String text = TCConfig.statementShortcuts.replace(this.text);
             while (!text.isEmpty() && text.charAt(0) == '!') {
                 text = text.substring(1);
-                inv = !inv;
+                this.inv = !this.inv;
             }
+            this.handledText = text;
             if (text.isEmpty()) {
-                return MatchResult.create(StatementBoolean.EMPTY, false, inv);
+                this.statement = StatementBoolean.EMPTY;
+                return;
             }
 
             String lowerText = text.toLowerCase();
             int idx = lowerText.indexOf('@');
             String arrayText = idx == -1 ? null : lowerText.substring(0, idx);
-            String[] array = idx == -1 ? null : parseArray(text.substring(idx + 1));
             for (Statement statement : statements) {
                 if (arrayText != null && statement.matchArray(arrayText)) {
-                    if (!statement.hasRequiredContext(member, group, signEvent)) {
-                        return MatchResult.createWithMissingContext(statement, true, inv);
-                    } else if (member != null) {
-                        return MatchResult.create(statement, true, statement.handleArray(member, array, signEvent) != inv);
-                    } else if (group != null) {
-                        return MatchResult.create(statement, true, statement.handleArray(group, array, signEvent) != inv);
-                    } else {
-                        return MatchResult.create(statement, true, statement.handleArray((MinecartMember<?>) null, array, signEvent) != inv);
-                    }
+                    this.statement = statement;
+                    this.isArray = true;
+                    this.array = parseArray(text.substring(idx + 1));
+                    return;
                 } else if (statement.match(lowerText)) {
-                    if (!statement.hasRequiredContext(member, group, signEvent)) {
-                        return MatchResult.createWithMissingContext(statement, false, inv);
-                    } else if (member != null) {
-                        return MatchResult.create(statement, false, statement.handle(member, text, signEvent) != inv);
-                    } else if (group != null) {
-                        return MatchResult.create(statement, false, statement.handle(group, text, signEvent) != inv);
-                    } else {
-                        return MatchResult.create(statement, false, statement.handle((MinecartMember<?>) null, text, signEvent) != inv);
-                    }
+                    this.statement = statement;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Matches this statement against a cart or train, and returns
+         * the result of whether the condition is True.
+         *
+         * @param member MinecartMember to use for context, or null to use group
+         * @param group MinecartGroup to use for context, or null to use member
+         * @param signEvent Event defining the sign involved in this check, or null
+         * @return Match result
+         */
+        public MatchResult match(MinecartMember<?> member, MinecartGroup group, SignActionEvent signEvent) {
+            if (this.version != compileVersion) {
+                this.compile();
+            }
+
+            final Statement statement = this.statement;
+            if (statement == StatementBoolean.EMPTY) {
+                return MatchResult.create(StatementBoolean.EMPTY, false, inv);
+            } else if (statement == null) {
+                // Note: this never gets reached in practise because StatementTag (at the end) match() always evaluates true.
+                // Something is put here just to avoid unexpected behavior
+                return MatchResult.createWithMissingContext(StatementBoolean.EMPTY, false, inv);
+            } else if (!statement.hasRequiredContext(member, group, signEvent)) {
+                return MatchResult.createWithMissingContext(statement, isArray, inv);
+            }
+
+            boolean result;
+            if (isArray) {
+                if (member != null) {
+                    result = statement.handleArray(member, array, signEvent);
+                } else if (group != null) {
+                    result = statement.handleArray(group, array, signEvent);
+                } else {
+                    result = statement.handleArray((MinecartMember<?>) null, array, signEvent);
+                }
+            } else {
+                if (member != null) {
+                    result = statement.handle(member, handledText, signEvent);
+                } else if (group != null) {
+                    result = statement.handle(group, handledText, signEvent);
+                } else {
+                    result = statement.handle((MinecartMember<?>) null, handledText, signEvent);
                 }
             }
+            return MatchResult.create(statement, isArray, result != inv);
+        }
+
+        /**
+         * Gets if the member or group has this statement.
+         * If both member and group are null, then only statements that require no train
+         * will function. Statements that do will return false.
+         *
+         * @param member MinecartMember to use for context, or null to use group
+         * @param group MinecartGroup to use for context, or null to use member
+         * @param signEvent Event defining the sign involved in this check, or null
+         * @return True if successful, False if not
+         */
+        public boolean has(MinecartMember<?> member, MinecartGroup group, SignActionEvent signEvent) {
+            return match(member, group, signEvent).has();
+        }
 
-            // Note: this never gets reached in practise because StatementTag (at the end) match() always evaluates true.
-            // Something is put here just to avoid unexpected behavior
-            return MatchResult.createWithMissingContext(StatementBoolean.EMPTY, false, inv);
+        @Override
+        public String toString() {
+            return this.text;
         }
     }
 
@@ -28,10 +28,12 @@ public class Ticket {
     private int _maxNumberOfUses = 1;
     private long _expirationTime = -1L;
     private String _backgroundImagePath = "";
-    private ConfigurationNode _properties = new ConfigurationNode();
+    private ConfigurationNode _properties;
+    private boolean _changed = true;
 
     Ticket(String name) {
         this._name = name;
+        this.setPropertiesNode(new ConfigurationNode());
     }
 
     /**
@@ -93,6 +95,7 @@ public class Ticket {
      */
     public void setRealm(String realm) {
         this._realm = realm;
+        this.markChanged();
     }
 
     /**
@@ -119,6 +122,7 @@ public class Ticket {
      */
     public void setBackgroundImagePath(String path) {
         this._backgroundImagePath = path;
+        this.markChanged();
     }
 
     /**
@@ -218,6 +222,7 @@ public class Ticket {
      */
     public void setPlayerBound(boolean playerBound) {
         this._playerBound = playerBound;
+        this.markChanged();
     }
 
     /**
@@ -236,6 +241,7 @@ public class Ticket {
      */
     public void setMaxNumberOfUses(int maxNumberOfUses) {
         this._maxNumberOfUses = maxNumberOfUses;
+        this.markChanged();
     }
 
     /**
@@ -256,13 +262,14 @@ public class Ticket {
      */
     public void setExpirationTime(long expirationTimeMillis) {
         this._expirationTime = expirationTimeMillis;
+        this.markChanged();
     }
 
     /**
      * Gets all the properties that will be applied to trains when the ticket is used.
      * This can set destinations or tags, but also change other properties such as train speed.
      * 
-     * @return properties set for the ticket (mutable)
+     * @return properties set for the ticket (mutable, changes are saved automatically)
      */
     public ConfigurationNode getProperties() {
         return _properties;
@@ -274,8 +281,31 @@ public class Ticket {
      * @param properties to set to
      */
     public void setProperties(ConfigurationNode properties) {
-        this._properties = properties.clone();
-        TicketStore.markChanged();
+        this.setPropertiesNode(properties.clone());
+        this.markChanged();
+    }
+
+    private void setPropertiesNode(ConfigurationNode properties) {
+        this._properties = properties;
+        properties.addChangeListener(path -> markChanged());
+    }
+
+    /**
+     * Marks this ticket as changed, so that it is written to disk with the next save.
+     * Changes made to the {@link #getProperties()} node are detected automatically.
+     */
+    public void markChanged() {
+        this._changed = true;
+        TicketStore.markTicketChanged();
+    }
+
+    /**
+     * Gets whether this ticket was changed since it was last saved or loaded
+     *
+     * @return True if changed
+     */
+    boolean isChanged() {
+        return this._changed;
     }
 
     /**
@@ -289,7 +319,8 @@ public class Ticket {
         this._maxNumberOfUses = config.get("maxNumberOfUses", 1);
         this._expirationTime = config.get("expirationTimeMillis", -1L);
         this._backgroundImagePath = config.get("backgroundImagePath", "");
-        this._properties = config.getNode("properties").clone();
+        this.setPropertiesNode(config.getNode("properties").clone());
+        this._changed = false;
     }
 
     /**
@@ -308,6 +339,7 @@ public class Ticket {
         for (Map.Entry<String, Object> entry : this._properties.getValues().entrySet()) {
             savedProps.set(entry.getKey(), entry.getValue());
         }
+        this._changed = false;
     }
 
     /**
@@ -2,7 +2,9 @@ package com.bergerkiller.bukkit.tc.tickets;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
 import java.util.UUID;
 
 import com.bergerkiller.bukkit.common.inventory.CommonItemStack;
@@ -24,8 +26,13 @@ public class TicketStore {
     public static final Ticket DEFAULT = new Ticket("");
     private static final String saveFileName = "tickets.yml";
     private static boolean hasChanges = false;
+    private static boolean hasChangesOfAllTickets = false;
     private static final HashMap<String, Ticket> ticketMap = new HashMap<String, Ticket>();
     private static final HashMap<UUID, Ticket> editingMap = new HashMap<UUID, Ticket>();
+    /** Names of tickets that were removed or renamed since the last save */
+    private static final Set<String> removedTicketNames = new HashSet<String>();
+    /** Configuration last loaded or saved, only nodes of changed tickets are updated when saving */
+    private static FileConfiguration savedConfig = null;
 
     // Keys used in NBT
     protected static final String KEY_TICKET_NAME = "ticketName";
@@ -67,7 +74,7 @@ public class TicketStore {
         ticket.setProperties(baseTicket.getProperties());
         ticket.setPlayerBound(baseTicket.isPlayerBound());
         ticketMap.put(name, ticket);
-        markChanged();
+        ticket.markChanged();
         return ticket;
     }
 
@@ -109,7 +116,8 @@ public class TicketStore {
                 editIter.remove();
             }
         }
-        markChanged();
+        removedTicketNames.add(ticketName);
+        markTicketChanged();
         return true;
     }
 
@@ -133,7 +141,8 @@ public class TicketStore {
         }
         ticket.setName(newTicketName);
         ticketMap.put(newTicketName, ticket);
-        markChanged();
+        removedTicketNames.add(oldTicketName);
+        ticket.markChanged();
         return true;
     }
 
@@ -196,8 +205,7 @@ public class TicketStore {
      * @return True if the item is a ticket item
      */
     public static boolean isTicketItem(CommonItemStack item) {
-        CommonTagCompound tag = item.getCustomData();
-        return tag.containsKey(KEY_TICKET_NAME) && tag.getValue("plugin", "").equals("TrainCarts");
+        return readTicketItem(item).isTicketItem;
     }
 
     /**
@@ -219,12 +227,11 @@ public class TicketStore {
      * @return ticket for the item, null if item is not an existing ticket
      */
     public static Ticket getTicketFromItem(CommonItemStack item) {
-        CommonTagCompound nbt = item.getCustomData();
-        if (nbt.containsKey(KEY_TICKET_NAME)) {
-            return ticketMap.get(item.getCustomData().getValue(KEY_TICKET_NAME, ""));
-        } else {
-            return null;
-        }
+        return getTicket(readTicketItem(item));
+    }
+
+    private static Ticket getTicket(TicketItemData data) {
+        return (data.ticketName == null) ? null : ticketMap.get(data.ticketName);
     }
 
     /**
@@ -244,7 +251,7 @@ public class TicketStore {
      * @return number of times the ticket has been used
      */
     public static int getNumberOfUses(CommonItemStack item) {
-        return item.getCustomData().getValue(KEY_TICKET_NUMBER_OF_USES, 0);
+        return readTicketItem(item).numberOfUses;
     }
 
     /**
@@ -264,20 +271,22 @@ public class TicketStore {
      * @return True if the ticket item is expired
      */
     public static boolean isTicketExpired(CommonItemStack item) {
-        Ticket ticket = getTicketFromItem(item);
+        return isTicketExpired(readTicketItem(item));
+    }
+
+    private static boolean isTicketExpired(TicketItemData data) {
+        Ticket ticket = getTicket(data);
         if (ticket == null) {
             return true;
         } else {
-            CommonTagCompound tag = item.getCustomData();
             if (ticket.getMaxNumberOfUses() >= 0) {
-                int numberOfUses = tag.getValue(KEY_TICKET_NUMBER_OF_USES, 0);
-                if (numberOfUses >= ticket.getMaxNumberOfUses()) {
+                if (data.numberOfUses >= ticket.getMaxNumberOfUses()) {
                     return true;
                 }
             }
             if (ticket.getExpirationTime() >= 0) {
                 long timeNow = System.currentTimeMillis();
-                long timeCreated = tag.getValue(KEY_TICKET_CREATION_TIME, timeNow);
+                long timeCreated = data.hasCreationTime ? data.creationTime : timeNow;
                 if (timeNow >= (timeCreated + ticket.getExpirationTime())) {
                     return true;
                 }
@@ -307,12 +316,15 @@ public class TicketStore {
      * @return True if the player owns the ticket item and can use it
      */
     public static boolean isTicketOwner(Player player, CommonItemStack item) {
-        Ticket ticket = getTicketFromItem(item);
+        return isTicketOwner(player, readTicketItem(item));
+    }
+
+    private static boolean isTicketOwner(Player player, TicketItemData data) {
+        Ticket ticket = getTicket(data);
         if (ticket == null || !ticket.isPlayerBound()) {
             return true;
         } else {
-            CommonTagCompound tag = item.getCustomData();
-            UUID ownerUUID = tag.getUUID(KEY_TICKET_OWNER_UUID);
+            UUID ownerUUID = data.ownerUUID;
             if (ownerUUID == null) {
                 return true;
             } else {
@@ -337,21 +349,24 @@ public class TicketStore {
         }
 
         // First check both player's hands for tickets. These have priority!
+        // The ticket information of every item is read once, and then passed along
         CommonItemStack mainHand = CommonItemStack.of(HumanHand.getItemInMainHand(player));
         CommonItemStack offHand = CommonItemStack.of(HumanHand.getItemInOffHand(player));
-        if (isSuitableTicket(mainHand, trainProperties)) {
-            if (isSuitableTicket(offHand, trainProperties)) {
+        TicketItemData mainHandData = readTicketItem(mainHand);
+        TicketItemData offHandData = readTicketItem(offHand);
+        if (isSuitableTicket(mainHandData, trainProperties)) {
+            if (isSuitableTicket(offHandData, trainProperties)) {
                 Localization.TICKET_CONFLICT.message(player);
                 return false;
             }
-            if (preUseTicket(player, mainHand, trainProperties)) {
+            if (preUseTicket(player, mainHandData, trainProperties)) {
                 HumanHand.setItemInMainHand(player, useTicketItem(mainHand).toBukkit());
                 return true;
             } else {
                 return false;
             }
-        } else if (isSuitableTicket(offHand, trainProperties)) {
-            if (preUseTicket(player, offHand, trainProperties)) {
+        } else if (isSuitableTicket(offHandData, trainProperties)) {
+            if (preUseTicket(player, offHandData, trainProperties)) {
                 HumanHand.setItemInOffHand(player, useTicketItem(offHand).toBukkit());
                 return true;
             } else {
@@ -361,8 +376,8 @@ public class TicketStore {
 
         // If either hand has a ticket, show an 'incorrect' message
         {
-            Ticket mainHandTicket = getTicketFromItem(mainHand);
-            Ticket offHandTicket = getTicketFromItem(offHand);
+            Ticket mainHandTicket = getTicket(mainHandData);
+            Ticket offHandTicket = getTicket(offHandData);
             if (mainHandTicket != null || offHandTicket != null) {
                 if (mainHandTicket != null) {
                     Localization.TICKET_CONFLICT_TYPE.message(player, mainHandTicket.getName());
@@ -393,17 +408,22 @@ public class TicketStore {
         // Now we know none of the items in the main hand can be used, check the rest of the inventory
         PlayerInventory inventory = player.getInventory();
         int ticketInvIndex = -1;
+        CommonItemStack ticketItem = null;
+        TicketItemData ticketData = null;
         int start = (quickbar ? 0 : 9);
         int end = (quickbar ? 9 : inventory.getSize());
         for (int i = start; i < end; i++) {
             CommonItemStack item = CommonItemStack.of(inventory.getItem(i));
-            if (isSuitableTicket(item, trainProperties) && !isTicketExpired(item)) {
+            TicketItemData data = readTicketItem(item);
+            if (isSuitableTicket(data, trainProperties) && !isTicketExpired(data)) {
                 if (ticketInvIndex != -1) {
                     // Multiple tickets could be used. Don't know which...
                     Localization.TICKET_CONFLICT.message(player);
                     return TicketHandleResult.FAILURE;
                 } else {
                     ticketInvIndex = i;
+                    ticketItem = item;
+                    ticketData = data;
                 }
             }
         }
@@ -412,8 +432,7 @@ public class TicketStore {
             return TicketHandleResult.MISSING;
         }
 
-        CommonItemStack ticketItem = CommonItemStack.of(inventory.getItem(ticketInvIndex));
-        if (preUseTicket(player, ticketItem, trainProperties)) {
+        if (preUseTicket(player, ticketData, trainProperties)) {
             inventory.setItem(ticketInvIndex, useTicketItem(ticketItem).toBukkit());
             return TicketHandleResult.OK;
         } else {
@@ -421,8 +440,8 @@ public class TicketStore {
         }
     }
 
-    private static boolean isSuitableTicket(CommonItemStack item, TrainProperties trainProperties) {
-        Ticket ticket = getTicketFromItem(item);
+    private static boolean isSuitableTicket(TicketItemData data, TrainProperties trainProperties) {
+        Ticket ticket = getTicket(data);
         if (ticket != null) {
             for (String allowed : trainProperties.getTickets()) {
                 if (ticket.getName().equals(allowed) || (!LogicUtil.nullOrEmpty(ticket.getRealm()) && ticket.getRealm().equals(allowed))) {
@@ -433,22 +452,22 @@ public class TicketStore {
         return false;
     }
 
-    private static boolean preUseTicket(Player player, CommonItemStack item, TrainProperties trainProperties) {
+    private static boolean preUseTicket(Player player, TicketItemData data, TrainProperties trainProperties) {
         // Handle permissions and messages to the player
-        String ticketName = item.getCustomData().getValue(KEY_TICKET_NAME, "UNKNOWN");
-        if (!isTicketOwner(player, item)) {
-            String ownerName = item.getCustomData().getValue(KEY_TICKET_OWNER_NAME, "UNKNOWN");
+        String ticketName = (data.ticketName == null) ? "UNKNOWN" : data.ticketName;
+        if (!isTicketOwner(player, data)) {
+            String ownerName = (data.ownerName == null) ? "UNKNOWN" : data.ownerName;
             Localization.TICKET_CONFLICT_OWNER.message(player, ticketName, ownerName);
             return false;
         }
-        if (isTicketExpired(item)) {
+        if (isTicketExpired(data)) {
             Localization.TICKET_EXPIRED.message(player, ticketName);
             return false;
         }
         Localization.TICKET_USED.message(player, ticketName);
 
         // Apply ticket to the train
-        Ticket ticket = getTicketFromItem(item);
+        Ticket ticket = getTicket(data);
         if (ticket != null) {
             ConfigurationNode ticketTrainProperties = ticket.getProperties().clone();
             ticketTrainProperties.remove("carts"); // this would break a LOT
@@ -493,8 +512,33 @@ public class TicketStore {
         return item;
     }
 
+    /**
+     * Marks all tickets as changed, so that all of them are written to disk with the
+     * next save. Changes made to a single ticket are tracked by the ticket itself,
+     * see {@link Ticket#markChanged()}.
+     */
     public static void markChanged() {
         hasChanges = true;
+        hasChangesOfAllTickets = true;
+    }
+
+    static void markTicketChanged() {
+        hasChanges = true;
+    }
+
+    /**
+     * Reads the ticket information stored in the custom data of an item. Callers that
+     * check the same item more than once read it once, and pass the result along.
+     * Items without custom data, which are most items of an inventory, are not read at all.
+     *
+     * @param item Item to read
+     * @return Ticket item data
+     */
+    private static TicketItemData readTicketItem(CommonItemStack item) {
+        if (item.isEmpty() || !item.hasCustomData()) {
+            return TicketItemData.NONE;
+        }
+        return new TicketItemData(item.getCustomData());
     }
 
     public static void load(TrainCarts traincarts) {
@@ -504,6 +548,7 @@ public class TicketStore {
         // Clear before (re?)loading
         ticketMap.clear();
         editingMap.clear();
+        removedTicketNames.clear();
 
         // Load
         for (ConfigurationNode node : config.getNodes()) {
@@ -511,7 +556,9 @@ public class TicketStore {
             ticket.load(node);
             ticketMap.put(ticket.getName(), ticket);
         }
+        savedConfig = config;
         hasChanges = false;
+        hasChangesOfAllTickets = false;
 
         // Create 'images' directory, if it does not already exist
         traincarts.getDataFile("images").mkdirs();
@@ -522,11 +569,67 @@ public class TicketStore {
             return;
         }
 
-        FileConfiguration config = new FileConfiguration(traincarts, saveFileName);
-        for (Ticket ticket : ticketMap.values()) {
-            ticket.save(config.getNode(ticket.getName()));
+        // Write all tickets when not loaded before or when requested
+        // Otherwise, only update the nodes of the tickets that changed or were removed
+        FileConfiguration config = savedConfig;
+        if (config == null || hasChangesOfAllTickets || !autosave) {
+            config = new FileConfiguration(traincarts, saveFileName);
+            for (Ticket ticket : ticketMap.values()) {
+                ticket.save(config.getNode(ticket.getName()));
+            }
+        } else {
+            for (String removedName : removedTicketNames) {
+                config.remove(removedName);
+            }
+            for (Ticket ticket : ticketMap.values()) {
+                if (ticket.isChanged()) {
+                    config.remove(ticket.getName());
+                    ticket.save(config.getNode(ticket.getName()));
+                }
+            }
         }
         config.save();
+        savedConfig = config;
+        removedTicketNames.clear();
         hasChanges = false;
+        hasChangesOfAllTickets = false;
+    }
+
+    /**
+     * The ticket information stored in the custom data of an item
+     */
+    private static final class TicketItemData {
+        /** Data of items that have no custom data */
+        public static final TicketItemData NONE = new TicketItemData(new CommonTagCompound());
+
+        /** Whether the item is a TrainCarts ticket item */
+        public final boolean isTicketItem;
+        /** Name of the ticket, null if not set */
+        public final String ticketName;
+        public final int numberOfUses;
+        public final boolean hasCreationTime;
+        public final long creationTime;
+        public final UUID ownerUUID;
+        public final String ownerName;
+
+        public TicketItemData(CommonTagCompound tag) {
+            if (tag.containsKey(KEY_TICKET_NAME)) {
+                this.ticketName = tag.getValue(KEY_TICKET_NAME, "");
+                this.isTicketItem = tag.getValue("plugin", "").equals("TrainCarts");
+                this.numberOfUses = tag.getValue(KEY_TICKET_NUMBER_OF_USES, 0);
+                this.hasCreationTime = tag.containsKey(KEY_TICKET_CREATION_TIME);
+                this.creationTime = tag.getValue(KEY_TICKET_CREATION_TIME, 0L);
+                this.ownerUUID = tag.getUUID(KEY_TICKET_OWNER_UUID);
+                this.ownerName = tag.containsKey(KEY_TICKET_OWNER_NAME) ? tag.getValue(KEY_TICKET_OWNER_NAME, "") : null;
+            } else {
+                this.ticketName = null;
+                this.isTicketItem = false;
+                this.numberOfUses = tag.getValue(KEY_TICKET_NUMBER_OF_USES, 0);
+                this.hasCreationTime = false;
+                this.creationTime = 0L;
+                this.ownerUUID = null;
+                this.ownerName = null;
+            }
+        }
     }
 }
@@ -0,0 +1,203 @@
+package com.bergerkiller.bukkit.tc.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bergerkiller.bukkit.common.utils.MathUtil;
+
+/**
+ * Ranks the chunks along the predicted path of a train by the estimated time
+ * until the train reaches them. This is used to request the chunks that are
+ * reached first before those further away, well before the train gets there.<br>
+ * <br>
+ * Points of the path are added in the order the train travels them, with the
+ * distance from the front of the train. Past the end of the known path, the path
+ * can be extrapolated in a straight line.
+ */
+public class ChunkPreloadRanking {
+    /** Step distance used when extrapolating, small enough to not skip the corner of a chunk */
+    private static final double EXTRAPOLATE_STEP = 4.0;
+    private final Map<Long, RankedChunk> chunksByKey = new HashMap<>();
+    private final List<RankedChunk> chunks = new ArrayList<>();
+
+    /**
+     * Removes all previously added path points
+     */
+    public void clear() {
+        chunksByKey.clear();
+        chunks.clear();
+    }
+
+    /**
+     * Gets whether no path points were added yet
+     *
+     * @return True if empty
+     */
+    public boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    /**
+     * Adds a point of the predicted path. If the chunk was already added at a shorter
+     * distance, the shortest distance is kept.
+     *
+     * @param x Block x-coordinate of the point
+     * @param z Block z-coordinate of the point
+     * @param distance Distance the train travels to reach this point
+     */
+    public void addPoint(double x, double z, double distance) {
+        addChunk(MathUtil.toChunk(x), MathUtil.toChunk(z), distance);
+    }
+
+    /**
+     * Adds a chunk of the predicted path. If the chunk was already added at a shorter
+     * distance, the shortest distance is kept.
+     *
+     * @param cx Chunk x-coordinate
+     * @param cz Chunk z-coordinate
+     * @param distance Distance the train travels to reach this chunk
+     */
+    public void addChunk(int cx, int cz, double distance) {
+        Long key = MathUtil.longHashToLong(cx, cz);
+        RankedChunk chunk = chunksByKey.get(key);
+        if (chunk == null) {
+            chunk = new RankedChunk(cx, cz, key.longValue(), distance);
+            chunksByKey.put(key, chunk);
+            chunks.add(chunk);
+        } else if (distance < chunk.distance) {
+            chunk.distance = distance;
+        }
+    }
+
+    /**
+     * Extrapolates the predicted path in a straight line, adding the chunks the
+     * train would travel through.
+     *
+     * @param x Block x-coordinate where the known path ends
+     * @param z Block z-coordinate where the known path ends
+     * @param dirX Direction of travel along the x-axis at the end of the path
+     * @param dirZ Direction of travel along the z-axis at the end of the path
+     * @param distance Distance the train travels to reach the end of the path
+     * @param maxDistance Distance up to which to extrapolate the path
+     */
+    public void extrapolate(double x, double z, double dirX, double dirZ, double distance, double maxDistance) {
+        double len = MathUtil.length(dirX, dirZ);
+        if (len < 1e-8) {
+            return;
+        }
+        double stepX = EXTRAPOLATE_STEP * dirX / len;
+        double stepZ = EXTRAPOLATE_STEP * dirZ / len;
+        while (distance < maxDistance) {
+            x += stepX;
+            z += stepZ;
+            distance += EXTRAPOLATE_STEP;
+            addPoint(x, z, distance);
+        }
+    }
+
+    /**
+     * Ranks all chunks added by the estimated time the train needs to reach them,
+     * which is the distance divided by the speed. Chunks that take longer than the
+     * time limit to reach are omitted.
+     *
+     * @param speed Speed of the train in blocks/tick
+     * @param maxTicks Maximum estimated time in ticks of the chunks to include
+     * @return Ranked chunks, lowest estimated time first
+     */
+    public List<RankedChunk> rank(double speed, double maxTicks) {
+        if (chunks.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<RankedChunk> result = new ArrayList<>(chunks.size());
+        for (RankedChunk chunk : chunks) {
+            chunk.eta = computeETA(chunk.distance, speed);
+            if (chunk.eta <= maxTicks) {
+                result.add(chunk);
+            }
+        }
+        Collections.sort(result, Comparator.comparingDouble(RankedChunk::getETA));
+        return result;
+    }
+
+    /**
+     * Computes the estimated time to travel a distance at a given speed
+     *
+     * @param distance Distance in blocks
+     * @param speed Speed in blocks/tick
+     * @return Estimated time in ticks, infinite if the speed is zero
+     */
+    public static double computeETA(double distance, double speed) {
+        if (distance <= 0.0) {
+            return 0.0;
+        } else if (speed <= 1e-8) {
+            return Double.POSITIVE_INFINITY;
+        } else {
+            return distance / speed;
+        }
+    }
+
+    /**
+     * A chunk along the predicted path of a train
+     */
+    public static final class RankedChunk {
+        private final int cx, cz;
+        private final long key;
+        private double distance;
+        private double eta;
+
+        private RankedChunk(int cx, int cz, long key, double distance) {
+            this.cx = cx;
+            this.cz = cz;
+            this.key = key;
+            this.distance = distance;
+            this.eta = Double.POSITIVE_INFINITY;
+        }
+
+        public int getX() {
+            return cx;
+        }
+
+        public int getZ() {
+            return cz;
+        }
+
+        /**
+         * Gets the chunk coordinates as a key, as produced by
+         * {@link MathUtil#longHashToLong(int, int)}
+         *
+         * @return chunk key
+         */
+        public long getKey() {
+            return key;
+        }
+
+        /**
+         * Gets the distance the train travels until it reaches this chunk
+         *
+         * @return distance in blocks
+         */
+        public double getDistance() {
+            return distance;
+        }
+
+        /**
+         * Gets the estimated time until the train reaches this chunk, as computed
+         * during the last {@link ChunkPreloadRanking#rank(double, double)}
+         *
+         * @return estimated time in ticks
+         */
+        public double getETA() {
+            return eta;
+        }
+
+        @Override
+        public String toString() {
+            return "{cx=" + cx + ", cz=" + cz + ", distance=" + distance + ", eta=" + eta + "}";
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.bergerkiller.bukkit.tc.utils;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.logging.Level;
 
 import org.bukkit.World;
 import org.bukkit.block.Block;
@@ -12,14 +13,29 @@ import com.bergerkiller.bukkit.common.chunk.ForcedChunk;
 import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.LongHashMap;
+import com.bergerkiller.bukkit.tc.TCConfig;
+import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
+import com.bergerkiller.bukkit.tc.utils.ChunkPreloadRanking.RankedChunk;
 import com.bergerkiller.mountiplex.reflection.SafeMethod;
 
 /**
  * Stores the chunks kept loaded to track obstacles up ahead.
  * Is used by the track walking point to keep previously walked paths loaded,
- * reducing the chunk load/unload jitter that it can otherwise cause.
+ * reducing the chunk load/unload jitter that it can otherwise cause.<br>
+ * <br>
+ * Chunks further ahead are preloaded in advance, ranked by the time until the
+ * train reaches them, so that the train does not have to load them synchronously
+ * once it gets there.
  */
 public class ForwardChunkArea {
+    /** Maximum number of not yet loaded chunks that are requested every tick */
+    private static final int MAX_PRELOAD_REQUESTS_PER_TICK = 4;
+    /** Trains reaching a chunk that is not loaded within this many ticks are logged */
+    private static final double UNLOADED_CHUNK_WARNING_TICKS = 20.0;
+    /** Distance past the end of the walked path that is extrapolated, at most two chunks */
+    private static final double MAX_EXTRAPOLATE_DISTANCE = 32.0;
+    private final ChunkPreloadRanking preloadRanking = new ChunkPreloadRanking();
+    private long lastUnloadedChunkWarned = Long.MIN_VALUE;
     private final TickTracker beginTickTracker;
     private World world;
     private final LongHashMap<Entry> entries;
@@ -71,6 +87,8 @@ public class ForwardChunkArea {
             reset();
             this.world = world;
         }
+
+        this.preloadRanking.clear();
     }
 
     /**
@@ -91,6 +109,77 @@ public class ForwardChunkArea {
         add(block.getX() >> 4, block.getZ() >> 4);
     }
 
+    /**
+     * Keeps the chunk of a block on the path of the train loaded, and remembers
+     * the distance of it for ranking the chunks to preload in
+     * {@link #preload(MinecartGroup, double, double, double, double, double, double)}
+     *
+     * @param block Block on the path up ahead
+     * @param distance Distance from the front of the train to the block
+     */
+    public void addBlock(Block block, double distance) {
+        int cx = block.getX() >> 4;
+        int cz = block.getZ() >> 4;
+        add(cx, cz);
+        preloadRanking.addChunk(cx, cz, distance);
+    }
+
+    /**
+     * Preloads the chunks up ahead of the train. The path added using
+     * {@link #addBlock(Block, double)} is extrapolated in a straight line for at most
+     * two chunks, as the track past the walked path might curve away. Only chunks the
+     * train reaches within the configured preload time are included. The chunks that are not
+     * loaded yet are requested asynchronously, those the train reaches first before
+     * the others. Must be called after all blocks of the path were added.
+     *
+     * @param group The train, used for logging
+     * @param x Block x-coordinate where the known path ends
+     * @param z Block z-coordinate where the known path ends
+     * @param dirX Direction of travel along the x-axis at the end of the path
+     * @param dirZ Direction of travel along the z-axis at the end of the path
+     * @param distance Distance from the front of the train to the end of the path
+     * @param speed Speed of the train in blocks/tick
+     */
+    public void preload(MinecartGroup group, double x, double z, double dirX, double dirZ, double distance, double speed) {
+        double preloadTicks = TCConfig.keepChunksLoadedPreloadTime * 20.0;
+        if (world == null || preloadTicks <= 0.0) {
+            preloadRanking.clear();
+            return;
+        }
+
+        preloadRanking.extrapolate(x, z, dirX, dirZ, distance,
+                Math.min(speed * preloadTicks, distance + MAX_EXTRAPOLATE_DISTANCE));
+
+        int remainingRequests = MAX_PRELOAD_REQUESTS_PER_TICK;
+        for (RankedChunk chunk : preloadRanking.rank(speed, preloadTicks)) {
+            Entry e = entries.get(chunk.getKey());
+            if (e != null) {
+                e.state = state; // Keep loaded
+                continue;
+            }
+
+            if (!world.isChunkLoaded(chunk.getX(), chunk.getZ())) {
+                if (TCConfig.logSyncChunkLoads
+                        && chunk.getETA() <= UNLOADED_CHUNK_WARNING_TICKS
+                        && chunk.getKey() != lastUnloadedChunkWarned
+                ) {
+                    lastUnloadedChunkWarned = chunk.getKey();
+                    group.getTrainCarts().getLogger().log(Level.WARNING, "[ChunkPreload] Train '" +
+                            group.getProperties().getTrainName() + "' reaches chunk [" + chunk.getX() +
+                            ", " + chunk.getZ() + "] in " + MathUtil.round(chunk.getETA(), 1) +
+                            " ticks, but it is not loaded yet");
+                }
+                if (remainingRequests <= 0) {
+                    continue; // Request it next tick
+                }
+                remainingRequests--;
+            }
+
+            add(chunk.getX(), chunk.getZ());
+        }
+        preloadRanking.clear();
+    }
+
     public void add(int cx, int cz) {
         // Track new chunk
         long key = MathUtil.longHashToLong(cx, cz);
@@ -0,0 +1,176 @@
+package com.bergerkiller.bukkit.tc.utils;
+
+import java.util.Arrays;
+
+/**
+ * Stores a set of names in a prefix tree (trie), so that the longest name an
+ * input text starts with can be found by walking the characters of the input once.
+ * The time this takes does not depend on the number of names stored.<br>
+ * <br>
+ * Children of a node are stored in a sorted character array, which keeps memory
+ * usage low for the large number of nodes that only have one or a few children.
+ * Not thread-safe.
+ */
+public final class NamePrefixTrie {
+    private final Node root = new Node();
+    private int size = 0;
+
+    /**
+     * Gets the number of names stored
+     *
+     * @return name count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all names
+     */
+    public void clear() {
+        root.clear();
+        size = 0;
+    }
+
+    /**
+     * Adds a name. Does nothing if the name was already added.
+     *
+     * @param name Name to add
+     */
+    public void add(String name) {
+        Node node = root;
+        for (int i = 0; i < name.length(); i++) {
+            node = node.getOrCreateChild(name.charAt(i));
+        }
+        if (node.name == null) {
+            node.name = name;
+            size++;
+        }
+    }
+
+    /**
+     * Removes a name. Does nothing if the name was not added.
+     *
+     * @param name Name to remove
+     * @return True if the name was found and removed
+     */
+    public boolean remove(String name) {
+        if (root.remove(name, 0)) {
+            size--;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Gets whether a name was added
+     *
+     * @param name Name to find
+     * @return True if the name is contained
+     */
+    public boolean contains(String name) {
+        Node node = root;
+        for (int i = 0; i < name.length() && node != null; i++) {
+            node = node.getChild(name.charAt(i));
+        }
+        return node != null && node.name != null;
+    }
+
+    /**
+     * Finds the longest name that the input text starts with. If the input
+     * is a name itself, then that name is returned.
+     *
+     * @param input Input text to match
+     * @return Longest name the input starts with, or null if none matched
+     */
+    public String findLongestPrefix(String input) {
+        String longestPrefix = root.name;
+        Node node = root;
+        for (int i = 0; i < input.length(); i++) {
+            node = node.getChild(input.charAt(i));
+            if (node == null) {
+                break;
+            } else if (node.name != null) {
+                longestPrefix = node.name;
+            }
+        }
+        return longestPrefix;
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        /** Name that ends at this node, null if none does */
+        public String name = null;
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int childCount = 0;
+
+        public void clear() {
+            name = null;
+            keys = NO_KEYS;
+            children = NO_CHILDREN;
+            childCount = 0;
+        }
+
+        public boolean isEmpty() {
+            return name == null && childCount == 0;
+        }
+
+        public Node getChild(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            return (index >= 0) ? children[index] : null;
+        }
+
+        public Node getOrCreateChild(char c) {
+            int index = Arrays.binarySearch(keys, 0, childCount, c);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            // Insert a new child at the insertion point, keeping the keys sorted
+            index = -(index + 1);
+            if (childCount == keys.length) {
+                int newCapacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, newCapacity);
+                children = Arrays.copyOf(children, newCapacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, childCount - index);
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            Node child = new Node();
+            keys[index] = c;
+            children[index] = child;
+            childCount++;
+            return child;
+        }
+
+        public boolean remove(String removedName, int depth) {
+            if (depth == removedName.length()) {
+                if (name == null) {
+                    return false;
+                }
+                name = null;
+                return true;
+            }
+
+            int index = Arrays.binarySearch(keys, 0, childCount, removedName.charAt(depth));
+            if (index < 0) {
+                return false;
+            }
+            Node child = children[index];
+            if (!child.remove(removedName, depth + 1)) {
+                return false;
+            }
+
+            // Prune nodes that no longer lead to any name
+            if (child.isEmpty()) {
+                childCount--;
+                System.arraycopy(keys, index + 1, keys, index, childCount - index);
+                System.arraycopy(children, index + 1, children, index, childCount - index);
+                children[childCount] = null;
+            }
+            return true;
+        }
+    }
+}
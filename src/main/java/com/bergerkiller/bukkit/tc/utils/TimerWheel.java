@@ -0,0 +1,163 @@
+package com.bergerkiller.bukkit.tc.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.plugin.Plugin;
+
+import com.bergerkiller.bukkit.common.Task;
+
+/**
+ * Runs actions after a delay in ticks. Timeouts are stored in a hashed wheel of
+ * slots, so scheduling and cancelling is constant-time, and every tick only the
+ * timeouts of a single slot are checked. Cancelled timeouts are only flagged, they
+ * are removed from their slot the next time it is checked. The task that advances
+ * the wheel only runs while timeouts are scheduled.
+ */
+public class TimerWheel {
+    private final Plugin plugin;
+    private final List<Timeout>[] slots;
+    private final int mask;
+    private final List<Timeout> expiredBuffer = new ArrayList<>();
+    private int size = 0;
+    private long currentTick = 0;
+    private Task task = null;
+
+    /**
+     * Creates a new TimerWheel
+     *
+     * @param plugin Plugin that owns the task advancing the wheel
+     * @param numSlots Number of slots of the wheel, must be a power of two.
+     *                 Timeouts with a delay longer than this go around the wheel more than once.
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(Plugin plugin, int numSlots) {
+        if (numSlots <= 0 || (numSlots & (numSlots - 1)) != 0) {
+            throw new IllegalArgumentException("Number of slots must be a power of two");
+        }
+        this.plugin = plugin;
+        this.slots = new List[numSlots];
+        for (int i = 0; i < numSlots; i++) {
+            this.slots[i] = new ArrayList<>(4);
+        }
+        this.mask = numSlots - 1;
+    }
+
+    /**
+     * Gets the number of timeouts currently scheduled
+     *
+     * @return scheduled timeout count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules an action to run after a delay
+     *
+     * @param delayTicks Delay in ticks, at least 1 tick
+     * @param action Action to run once the delay has elapsed
+     * @return Timeout, which can be used to cancel it
+     */
+    public Timeout schedule(int delayTicks, Runnable action) {
+        Timeout timeout = new Timeout(currentTick + Math.max(1, delayTicks), action);
+        slots[(int) (timeout.deadline & mask)].add(timeout);
+        if (++size == 1 && task == null) {
+            task = new Task(plugin) {
+                @Override
+                public void run() {
+                    advance();
+                }
+            }.start(1, 1);
+        }
+        return timeout;
+    }
+
+    /**
+     * Cancels all scheduled timeouts, and stops the task advancing the wheel
+     */
+    public void clear() {
+        for (List<Timeout> slot : slots) {
+            for (Timeout timeout : slot) {
+                timeout.scheduled = false;
+            }
+            slot.clear();
+        }
+        size = 0;
+        Task.stop(task);
+        task = null;
+    }
+
+    private void advance() {
+        List<Timeout> slot = slots[(int) (++currentTick & mask)];
+        if (!slot.isEmpty()) {
+            // Collect the expired timeouts first, the actions can schedule new timeouts
+            // Cancelled timeouts are dropped here as well
+            List<Timeout> expired = expiredBuffer;
+            for (int i = slot.size() - 1; i >= 0; i--) {
+                Timeout timeout = slot.get(i);
+                if (!timeout.scheduled || timeout.deadline <= currentTick) {
+                    slot.set(i, slot.get(slot.size() - 1));
+                    slot.remove(slot.size() - 1);
+                    if (timeout.scheduled) {
+                        expired.add(timeout);
+                    }
+                }
+            }
+            try {
+                for (Timeout timeout : expired) {
+                    // An action run before might have cancelled this one
+                    if (timeout.scheduled) {
+                        timeout.scheduled = false;
+                        size--;
+                        timeout.action.run();
+                    }
+                }
+            } finally {
+                expired.clear();
+            }
+        }
+        if (size == 0) {
+            // Drop the cancelled timeouts that were not removed yet
+            for (List<Timeout> s : slots) {
+                s.clear();
+            }
+            Task.stop(task);
+            task = null;
+        }
+    }
+
+    /**
+     * An action scheduled to run after a delay
+     */
+    public final class Timeout {
+        private final long deadline;
+        private final Runnable action;
+        private boolean scheduled;
+
+        private Timeout(long deadline, Runnable action) {
+            this.deadline = deadline;
+            this.action = action;
+            this.scheduled = true;
+        }
+
+        /**
+         * Gets whether this timeout is still scheduled to run
+         *
+         * @return True if scheduled
+         */
+        public boolean isScheduled() {
+            return scheduled;
+        }
+
+        /**
+         * Cancels this timeout, if it did not run yet
+         */
+        public void cancel() {
+            if (scheduled) {
+                scheduled = false;
+                size--;
+            }
+        }
+    }
+}
@@ -302,6 +302,16 @@ public abstract class ModularConfiguration<T>
         return entries.getNames();
     }
 
+    @Override
+    public String findLongestNamePrefix(String text) {
+        return entries.findLongestNamePrefix(text);
+    }
+
+    @Override
+    public int getNamesModCount() {
+        return entries.getNamesModCount();
+    }
+
     @Override
     public List<ModularConfigurationEntry<T>> getAll() {
         return entries.getAll();
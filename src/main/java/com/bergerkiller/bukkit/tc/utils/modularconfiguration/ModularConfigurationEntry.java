@@ -492,6 +492,33 @@ public class ModularConfigurationEntry<T> implements Comparable<ModularConfigura
          */
         List<String> getNames();
 
+        /**
+         * Finds the entry with the longest name that a text starts with. If an entry
+         * exists with the text as name, then the text is returned.
+         *
+         * @param text Text to find a name in
+         * @return Longest name of an entry the text starts with, or <i>null</i>
+         *         if no entry name matched
+         */
+        default String findLongestNamePrefix(String text) {
+            String foundName = null;
+            for (String name : getNames()) {
+                if (text.startsWith(name) && (foundName == null || name.length() > foundName.length())) {
+                    foundName = name;
+                }
+            }
+            return foundName;
+        }
+
+        /**
+         * Gets a counter that changes every time entries are added, removed or replaced.
+         * If it did not change, {@link #findLongestNamePrefix(String)} returns the
+         * same names as before.
+         *
+         * @return Modification counter of the entry names
+         */
+        int getNamesModCount();
+
         /**
          * Gets an unmodifiable snapshot copy of all the entries that exist inside
          * this modular configuration. The entries are sorted alphabetically
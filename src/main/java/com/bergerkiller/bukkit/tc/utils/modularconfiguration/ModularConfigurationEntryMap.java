@@ -1,6 +1,7 @@
 package com.bergerkiller.bukkit.tc.utils.modularconfiguration;
 
 import com.bergerkiller.bukkit.common.config.ConfigurationNode;
+import com.bergerkiller.bukkit.tc.utils.NamePrefixTrie;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -9,7 +10,8 @@ import java.util.List;
 
 /**
  * Stores all entries contained inside a modular configuration or single module.
- * Adds a mechanism to retrieve a name-sorted list of entries contained inside.
+ * Adds a mechanism to retrieve a name-sorted list of entries contained inside,
+ * and keeps a prefix tree of the names to find names that a text starts with.
  * Internal implementation.
  *
  * @param <T> Type of object stored the configuration is for
@@ -19,22 +21,31 @@ class ModularConfigurationEntryMap<T> implements ModularConfigurationEntry.Conta
     private List<ModularConfigurationEntry<T>> entriesList = Collections.emptyList();
     private List<String> entryNamesList = Collections.emptyList();
     private List<T> entryValuesList = Collections.emptyList();
+    private final NamePrefixTrie entryNamesTrie = new NamePrefixTrie();
+    private int namesModCount = 0;
 
     public void clear() {
+        namesModCount++;
         entries.clear();
+        entryNamesTrie.clear();
         entriesList = Collections.emptyList();
         entryNamesList = Collections.emptyList();
         entryValuesList = Collections.emptyList();
     }
 
     public void set(String name, ModularConfigurationEntry<T> entry) {
-        entries.put(name, entry);
+        if (entries.put(name, entry) == null) {
+            entryNamesTrie.add(name);
+        }
+        namesModCount++;
         regenSortedLists();
     }
 
     public ModularConfigurationEntry<T> remove(String name) {
         ModularConfigurationEntry<T> entry = entries.remove(name);
         if (entry != null) {
+            entryNamesTrie.remove(name);
+            namesModCount++;
             regenSortedLists();
         }
         return entry;
@@ -79,6 +90,16 @@ class ModularConfigurationEntryMap<T> implements ModularConfigurationEntry.Conta
         return result;
     }
 
+    @Override
+    public String findLongestNamePrefix(String text) {
+        return entryNamesTrie.findLongestPrefix(text);
+    }
+
+    @Override
+    public int getNamesModCount() {
+        return namesModCount;
+    }
+
     @Override
     public List<ModularConfigurationEntry<T>> getAll() {
         List<ModularConfigurationEntry<T>> result = entriesList;
@@ -182,6 +182,16 @@ public class ModularConfigurationModule<T> implements ModularConfigurationBlock<
         return entries.getNames();
     }
 
+    @Override
+    public String findLongestNamePrefix(String text) {
+        return entries.findLongestNamePrefix(text);
+    }
+
+    @Override
+    public int getNamesModCount() {
+        return entries.getNamesModCount();
+    }
+
     @Override
     public List<ModularConfigurationEntry<T>> getAll() {
         return entries.getAll();
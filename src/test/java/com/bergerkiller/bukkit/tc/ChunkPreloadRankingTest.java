@@ -0,0 +1,104 @@
+package com.bergerkiller.bukkit.tc;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.bergerkiller.bukkit.tc.utils.ChunkPreloadRanking;
+import com.bergerkiller.bukkit.tc.utils.ChunkPreloadRanking.RankedChunk;
+
+public class ChunkPreloadRankingTest {
+
+    @Test
+    public void testRankStraightPath() {
+        // Path along the x-axis through 4 chunks, added out of order
+        ChunkPreloadRanking ranking = new ChunkPreloadRanking();
+        ranking.addPoint(40.5, 8.5, 40.0);
+        ranking.addPoint(0.5, 8.5, 0.0);
+        ranking.addPoint(20.5, 8.5, 20.0);
+        ranking.addPoint(60.5, 8.5, 60.0);
+
+        List<RankedChunk> ranked = ranking.rank(2.0, Double.MAX_VALUE);
+        assertEquals(4, ranked.size());
+        assertChunk(ranked.get(0), 0, 0, 0.0);
+        assertChunk(ranked.get(1), 1, 0, 10.0);
+        assertChunk(ranked.get(2), 2, 0, 20.0);
+        assertChunk(ranked.get(3), 3, 0, 30.0);
+    }
+
+    @Test
+    public void testKeepsShortestDistance() {
+        // A looping path visits the same chunk twice
+        ChunkPreloadRanking ranking = new ChunkPreloadRanking();
+        ranking.addPoint(5.0, 5.0, 30.0);
+        ranking.addPoint(20.0, 5.0, 50.0);
+        ranking.addPoint(6.0, 6.0, 10.0);
+
+        List<RankedChunk> ranked = ranking.rank(1.0, Double.MAX_VALUE);
+        assertEquals(2, ranked.size());
+        assertChunk(ranked.get(0), 0, 0, 10.0);
+        assertChunk(ranked.get(1), 1, 0, 50.0);
+    }
+
+    @Test
+    public void testMaxTicks() {
+        ChunkPreloadRanking ranking = new ChunkPreloadRanking();
+        for (int i = 0; i < 10; i++) {
+            ranking.addChunk(0, i, 16.0 * i);
+        }
+
+        // At 1.6 blocks/tick, chunk i is reached after 10 * i ticks
+        List<RankedChunk> ranked = ranking.rank(1.6, 45.0);
+        assertEquals(5, ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            assertChunk(ranked.get(i), 0, i, 10.0 * i);
+        }
+
+        // A faster train reaches more chunks in the same time
+        assertEquals(10, ranking.rank(4.0, 45.0).size());
+    }
+
+    @Test
+    public void testStationary() {
+        ChunkPreloadRanking ranking = new ChunkPreloadRanking();
+        ranking.addChunk(0, 0, 0.0);
+        ranking.addChunk(1, 0, 16.0);
+
+        List<RankedChunk> ranked = ranking.rank(0.0, 100.0);
+        assertEquals(1, ranked.size());
+        assertChunk(ranked.get(0), 0, 0, 0.0);
+    }
+
+    @Test
+    public void testExtrapolate() {
+        // Known path ends at x=16 moving towards -z, extrapolate 64 blocks further
+        ChunkPreloadRanking ranking = new ChunkPreloadRanking();
+        ranking.addPoint(16.5, 0.5, 0.0);
+        ranking.extrapolate(16.5, 0.5, 0.0, -0.4, 0.0, 64.0);
+
+        List<RankedChunk> ranked = ranking.rank(1.0, Double.MAX_VALUE);
+        assertEquals(5, ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            RankedChunk chunk = ranked.get(i);
+            assertEquals(1, chunk.getX());
+            assertEquals(-i, chunk.getZ());
+            if (i > 0) {
+                assertTrue(chunk.getETA() > ranked.get(i - 1).getETA());
+            }
+        }
+
+        // No direction, nothing is extrapolated
+        ranking.clear();
+        assertTrue(ranking.isEmpty());
+        ranking.extrapolate(0.0, 0.0, 0.0, 0.0, 0.0, 64.0);
+        assertTrue(ranking.isEmpty());
+    }
+
+    private static void assertChunk(RankedChunk chunk, int cx, int cz, double eta) {
+        assertEquals(cx, chunk.getX());
+        assertEquals(cz, chunk.getZ());
+        assertEquals(eta, chunk.getETA(), 1e-8);
+    }
+}
@@ -1,11 +1,19 @@
 package com.bergerkiller.bukkit.tc;
 
 import com.bergerkiller.bukkit.tc.attachments.control.effect.EffectLoop;
+import com.bergerkiller.bukkit.tc.attachments.control.effect.midi.MidiChart;
 import com.bergerkiller.bukkit.tc.attachments.control.effect.midi.MidiChartParameters;
+import com.bergerkiller.bukkit.tc.attachments.control.effect.midi.MidiNote;
 import com.bergerkiller.bukkit.tc.attachments.control.effect.midi.MidiTimeSignature;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests maths and logic of Midi (noteblock-esque) Playback
@@ -70,4 +78,159 @@ public class MidiEffectTest {
         assertEquals(0.1, p.getTimestamp(1), 1e-8);
         assertEquals(20.0, p.getTimestamp(200), 1e-8);
     }
+
+    @Test
+    public void testChartNotesSorted() {
+        MidiChart chart = createRandomChart(new Random(1234), 5000);
+        List<MidiNote> notes = chart.getNotes();
+        for (int i = 1; i < notes.size(); i++) {
+            assertTrue("Notes not sorted at " + i, notes.get(i - 1).compareTo(notes.get(i)) < 0);
+        }
+
+        // Overwriting a note at the same position does not add a new one
+        int count = notes.size();
+        MidiNote first = notes.get(0);
+        chart.addNoteOnBar(first.timeStepIndex(), first.pitchClass(), 0.5);
+        assertEquals(count, chart.getNotes().size());
+        assertEquals(0.5, chart.getNotes().get(0).options().volume(), 1e-8);
+    }
+
+    @Test
+    public void testChartVisibleNotes() {
+        MidiChart chart = createRandomChart(new Random(5678), 5000);
+        Random random = new Random(91011);
+        for (int n = 0; n < 500; n++) {
+            int start = random.nextInt(700) - 100;
+            int numTimeSteps = random.nextInt(80);
+
+            List<MidiNote> expected = new ArrayList<>();
+            for (MidiNote note : chart.getNotes()) {
+                int offset = note.timeStepIndex() - start;
+                if (offset >= 0 && offset < numTimeSteps) {
+                    expected.add(note);
+                }
+            }
+            assertEquals(expected, chart.getChartVisibleNotes(start, numTimeSteps));
+        }
+    }
+
+    @Test
+    public void testNotesInNanosRange() {
+        MidiChart chart = createRandomChart(new Random(1213), 5000);
+        Random random = new Random(1415);
+        long maxNanos = chart.getParameters().getTimestampNanos(600);
+        for (int n = 0; n < 500; n++) {
+            long start = (long) (random.nextDouble() * maxNanos) - 1000;
+            long end = start + (long) (random.nextDouble() * maxNanos * 0.1);
+            assertEquals(bruteForceNotesInRange(chart, start, end), chart.getNotesInRange(start, end));
+        }
+    }
+
+    @Test
+    public void testForNotesInRangeSequential() {
+        MidiChart chart = createRandomChart(new Random(1617), 5000);
+        long stepNanos = 50_000_000L; // One tick
+        long endNanos = chart.getParameters().getTimestampNanos(chart.getBounds().maxTimeStepIndex());
+
+        // Play the chart from start to end, twice (looped)
+        for (int loop = 0; loop < 2; loop++) {
+            List<MidiNote> played = new ArrayList<>();
+            long prev = 0;
+            boolean hasMore = true;
+            while (hasMore) {
+                long curr = prev + stepNanos;
+                hasMore = chart.forNotesInRange(prev, curr, played::add);
+                assertEquals(curr <= endNanos, hasMore);
+                prev = curr;
+            }
+            assertEquals(bruteForceNotesInRange(chart, 0, prev), played);
+        }
+    }
+
+    @Test
+    public void testForNotesInRangeSeeking() {
+        MidiChart chart = createRandomChart(new Random(1819), 5000);
+        Random random = new Random(2021);
+        long maxNanos = chart.getParameters().getTimestampNanos(600);
+        long prev = 0;
+        for (int n = 0; n < 2000; n++) {
+            // Mostly play sequentially, but randomly seek forwards or backwards
+            if (random.nextInt(10) == 0) {
+                prev = (long) (random.nextDouble() * maxNanos);
+            }
+            long curr = prev + random.nextInt(200_000_000);
+            List<MidiNote> played = new ArrayList<>();
+            chart.forNotesInRange(prev, curr, played::add);
+            assertEquals(bruteForceNotesInRange(chart, prev, curr), played);
+            prev = curr;
+        }
+    }
+
+    @Test
+    public void testForNotesInRangeAfterEdit() {
+        MidiChart chart = createRandomChart(new Random(2223), 1000);
+        long stepNanos = 50_000_000L;
+        long prev = 0;
+        Random random = new Random(2425);
+        for (int n = 0; n < 500; n++) {
+            long curr = prev + stepNanos;
+
+            // Add and remove notes around the playback position while playing
+            int timeStep = chart.getParameters().getTimeStepIndex(EffectLoop.Time.nanos(curr)) + random.nextInt(5) - 2;
+            MidiNote note = chart.addNoteOnBar(timeStep, random.nextInt(25) - 12, 1.0);
+            if (random.nextBoolean()) {
+                chart.removeNote(note);
+                assertFalse(chart.containsNote(note));
+            } else {
+                assertTrue(chart.containsNote(note));
+            }
+
+            List<MidiNote> played = new ArrayList<>();
+            chart.forNotesInRange(prev, curr, played::add);
+            assertEquals(bruteForceNotesInRange(chart, prev, curr), played);
+            prev = curr;
+        }
+    }
+
+    @Test
+    public void testToggleChartNotes() {
+        MidiChart chart = createRandomChart(new Random(2627), 2000);
+        List<MidiNote> original = new ArrayList<>(chart.getNotes());
+
+        MidiChart toggled = createRandomChart(new Random(2829), 200);
+        assertTrue(chart.toggleChartNotes(toggled));
+        assertTrue(chart.containsAllNotes(toggled.getNotes()));
+        assertFalse(chart.toggleChartNotes(toggled));
+        for (MidiNote note : toggled.getNotes()) {
+            assertFalse(chart.containsNote(note));
+        }
+
+        // All notes of the original chart not in the toggled chart must remain
+        List<MidiNote> expected = new ArrayList<>();
+        for (MidiNote note : original) {
+            if (!toggled.containsNote(note)) {
+                expected.add(note);
+            }
+        }
+        assertEquals(expected, chart.getNotes());
+    }
+
+    private static MidiChart createRandomChart(Random random, int numNotes) {
+        MidiChart chart = MidiChart.empty(MidiChartParameters.chromatic(MidiTimeSignature.COMMON, 150));
+        for (int i = 0; i < numNotes; i++) {
+            chart.addNoteOnBar(random.nextInt(500), random.nextInt(25) - 12, 1.0);
+        }
+        return chart;
+    }
+
+    private static List<MidiNote> bruteForceNotesInRange(MidiChart chart, long startNanos, long endNanos) {
+        List<MidiNote> result = new ArrayList<>();
+        for (MidiNote note : chart.getNotes()) {
+            long nanos = chart.getParameters().getTimestampNanos(note.timeStepIndex());
+            if (nanos >= startNanos && nanos < endNanos) {
+                result.add(note);
+            }
+        }
+        return result;
+    }
 }
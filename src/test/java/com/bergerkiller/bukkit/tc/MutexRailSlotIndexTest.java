@@ -0,0 +1,115 @@
+package com.bergerkiller.bukkit.tc;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.bergerkiller.bukkit.common.bases.IntVector3;
+import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneSlotType;
+import com.bergerkiller.bukkit.tc.signactions.mutex.railslot.MutexRailSlotIndex;
+import com.bergerkiller.bukkit.tc.signactions.mutex.railslot.MutexRailSlotMap;
+
+public class MutexRailSlotIndexTest {
+    private static final int NUM_TRAINS = 50;
+    private static final int JUNCTION_SIZE = 8;
+
+    @Test
+    public void testFiftyTrainsContending() {
+        MutexRailSlotIndex<Integer> index = new MutexRailSlotIndex<>();
+        List<MutexRailSlotMap> trains = new ArrayList<>();
+        for (int i = 0; i < NUM_TRAINS; i++) {
+            MutexRailSlotMap map = new MutexRailSlotMap();
+            trains.add(map);
+            index.attach(map, i);
+        }
+        final List<MutexRailSlotMap> allTrains = new ArrayList<>(trains);
+
+        // Every train probes a straight path through the junction, either along x or along z
+        // A few trains lock the slot fully, as with a normal mutex
+        Random random = new Random(12345);
+        int tick = 0;
+        for (int i = 0; i < NUM_TRAINS; i++) {
+            MutexZoneSlotType type = (i % 10 == 0) ? MutexZoneSlotType.NORMAL : MutexZoneSlotType.SMART;
+            for (IntVector3 rail : path(i, random.nextInt(JUNCTION_SIZE))) {
+                trains.get(i).add(type, rail, tick);
+            }
+        }
+        verifyIndex(index, allTrains, trains);
+
+        // Half the trains move on: their rails probed earlier are cleared
+        tick++;
+        for (int i = 0; i < NUM_TRAINS; i += 2) {
+            List<IntVector3> path = path(i, random.nextInt(JUNCTION_SIZE));
+            for (IntVector3 rail : path.subList(0, path.size() / 2)) {
+                trains.get(i).add(MutexZoneSlotType.SMART, rail, tick);
+            }
+            trains.get(i).clearOldRails(tick);
+        }
+        verifyIndex(index, allTrains, trains);
+
+        // Some trains conflict and reset the rails they occupy
+        for (int i = 1; i < NUM_TRAINS; i += 3) {
+            trains.get(i).clearConflict(new IntVector3(0, 0, 0));
+        }
+        verifyIndex(index, allTrains, trains);
+
+        // Individual rails are released
+        for (int i = 0; i < NUM_TRAINS; i++) {
+            trains.get(i).remove(new IntVector3(random.nextInt(JUNCTION_SIZE), 0, random.nextInt(JUNCTION_SIZE)));
+        }
+        verifyIndex(index, allTrains, trains);
+
+        // Trains leave the slot entirely
+        for (int i = NUM_TRAINS - 1; i >= 0; i -= 4) {
+            index.detach(trains.remove(i));
+        }
+        verifyIndex(index, allTrains, trains);
+
+        // Remaining trains re-enter the junction after a conflict
+        tick++;
+        for (MutexRailSlotMap map : trains) {
+            for (IntVector3 rail : path(random.nextInt(NUM_TRAINS), random.nextInt(JUNCTION_SIZE))) {
+                map.add(MutexZoneSlotType.SMART, rail, tick);
+            }
+        }
+        verifyIndex(index, allTrains, trains);
+    }
+
+    private static List<IntVector3> path(int train, int offset) {
+        List<IntVector3> path = new ArrayList<>(JUNCTION_SIZE);
+        for (int n = 0; n < JUNCTION_SIZE; n++) {
+            path.add(((train & 1) == 0) ? new IntVector3(n, 0, offset) : new IntVector3(offset, 0, n));
+        }
+        return path;
+    }
+
+    private static void verifyIndex(MutexRailSlotIndex<Integer> index, List<MutexRailSlotMap> allTrains, List<MutexRailSlotMap> trains) {
+        for (int x = -1; x <= JUNCTION_SIZE; x++) {
+            for (int z = -1; z <= JUNCTION_SIZE; z++) {
+                IntVector3 rail = new IntVector3(x, 0, z);
+
+                // Brute force: check every train
+                HashSet<MutexRailSlotMap> expected = new HashSet<>();
+                for (MutexRailSlotMap map : trains) {
+                    if (map.isFullyLocked() || map.isSmartLocked(rail)) {
+                        expected.add(map);
+                    }
+                }
+
+                // Index lookup
+                List<Integer> found = index.find(rail);
+                assertEquals("Duplicate results at " + rail, found.size(), new HashSet<>(found).size());
+                HashSet<MutexRailSlotMap> actual = new HashSet<>();
+                for (Integer owner : found) {
+                    actual.add(allTrains.get(owner));
+                }
+                assertEquals("Wrong trains found at " + rail, expected, actual);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.bergerkiller.bukkit.tc;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.bergerkiller.bukkit.common.BlockLocation;
+import com.bergerkiller.bukkit.tc.pathfinding.PathDiscovery;
+import com.bergerkiller.bukkit.tc.pathfinding.PathRailSnapshot;
+
+/**
+ * Tests the discovery of path finding routes by walking a snapshot of the rails
+ */
+public class PathDiscoveryTest {
+    private static final String[] JUNCTIONS = { "n", "e", "s", "w" };
+    private static final int[] DX = { 0, 1, 0, -1 };
+    private static final int[] DZ = { -1, 0, 1, 0 };
+
+    @Test
+    public void testDiscoverStraightLine() {
+        PathRailSnapshot.Builder builder = PathRailSnapshot.builder();
+        for (int x = 0; x < 5; x++) {
+            boolean isNode = (x == 0 || x == 4);
+            builder.add(straightPiece(x, 5, isNode ? "node" + x : null, false, x == 2));
+        }
+
+        // Piece 2 blocks trains coming from the east, so there is only a route from 0 to 4.
+        // The distance is measured between the spawn positions of both rails, like the
+        // path finding operations do.
+        PathDiscovery.Result result = PathDiscovery.discover(builder.build());
+        assertEquals(2, result.getNodes().size());
+        assertEquals(Collections.singletonList(new PathDiscovery.Connection(
+                        loc(0, 0), loc(4, 0), 4.0, "e")),
+                result.getConnections());
+    }
+
+    @Test
+    public void testDiscoverSwitcher() {
+        PathRailSnapshot.Builder builder = PathRailSnapshot.builder();
+        builder.add(straightPiece(0, 3, "west", false, false));
+        builder.add(straightPiece(1, 3, null, true, false));
+        builder.add(straightPiece(2, 3, "east", false, false));
+
+        // Switcher in the middle goes both ways, the nodes at the ends only have one way to go
+        PathDiscovery.Result result = PathDiscovery.discover(builder.build());
+        assertEquals(Arrays.asList(
+                        new PathDiscovery.Connection(loc(0, 0), loc(1, 0), 1.0, "e"),
+                        new PathDiscovery.Connection(loc(1, 0), loc(2, 0), 1.0, "e"),
+                        new PathDiscovery.Connection(loc(1, 0), loc(0, 0), 1.0, "w"),
+                        new PathDiscovery.Connection(loc(2, 0), loc(1, 0), 1.0, "w")),
+                result.getConnections());
+    }
+
+    @Test
+    public void testDiscoverThroughStartNode() {
+        // Loop of four pieces, the walk from the node passes it again before reaching the other node
+        PathRailSnapshot.Builder builder = PathRailSnapshot.builder();
+        builder.add(loopPiece(0, "start", 3));
+        builder.add(loopPiece(1, null, 0));
+        builder.add(loopPiece(2, null, 1));
+        builder.add(loopPiece(3, null, 2));
+        builder.add(new PathRailSnapshot.Piece(loc(0, 1),
+                Collections.singletonList("end"), false, Collections.emptyList(),
+                Collections.singletonMap("n", new PathRailSnapshot.Entry(false, null, 0.5, 0.5)),
+                Collections.emptyMap()));
+
+        // Only the spawn position offsets of the first and last rails are included
+        PathDiscovery.Result result = PathDiscovery.discover(builder.build());
+        assertEquals(Collections.singletonList(new PathDiscovery.Connection(
+                        loc(0, 0), loc(0, 1), 0.5 + 4.0 + 0.5, "e")),
+                result.getConnections());
+    }
+
+    @Test
+    public void testDiscoverParallelSameAsSequential() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Random random = new Random(5023);
+            for (int n = 0; n < 20; n++) {
+                PathRailSnapshot snapshot = randomGrid(random, 40, 40);
+                PathDiscovery.Result sequential = PathDiscovery.discover(snapshot);
+                assertFalse(sequential.getConnections().isEmpty());
+                for (int numTasks : new int[] { 1, 3, 16, 1000 }) {
+                    PathDiscovery.Result parallel = PathDiscovery.discoverAsync(snapshot, executor, numTasks).join();
+                    assertEquals(sequential, parallel);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // Straight piece going from west to east. The first and last piece end there.
+    private static PathRailSnapshot.Piece straightPiece(int x, int length, String name, boolean switcher, boolean blockFromEast) {
+        Map<String, PathRailSnapshot.Entry> entries = new HashMap<>();
+        Map<String, PathRailSnapshot.Exit> exits = new HashMap<>();
+        entries.put("w", new PathRailSnapshot.Entry(false, "e", 1.0, 0.5));
+        entries.put("e", new PathRailSnapshot.Entry(blockFromEast, "w", 1.0, 0.5));
+        if (x > 0) {
+            exits.put("w", new PathRailSnapshot.Exit(loc(x - 1, 0), "e", 0.0, 0.5));
+        }
+        if (x < (length - 1)) {
+            exits.put("e", new PathRailSnapshot.Exit(loc(x + 1, 0), "w", 0.0, 0.5));
+        }
+        return new PathRailSnapshot.Piece(loc(x, 0),
+                (name == null) ? Collections.emptyList() : Collections.singletonList(name),
+                switcher, Arrays.asList("e", "w"), entries, exits);
+    }
+
+    // Piece of a loop going east from piece 0 to 1, 2, 3 and back to 0. Piece 0 also
+    // continues south, towards the end node, when entered from the previous piece.
+    private static PathRailSnapshot.Piece loopPiece(int index, String name, int previous) {
+        Map<String, PathRailSnapshot.Entry> entries = new HashMap<>();
+        Map<String, PathRailSnapshot.Exit> exits = new HashMap<>();
+        BlockLocation location = loc(index, 0);
+        if (index == 0) {
+            entries.put("w", new PathRailSnapshot.Entry(false, "s", 1.0, 0.5));
+            exits.put("s", new PathRailSnapshot.Exit(loc(0, 1), "n", 0.0, 0.5));
+        } else {
+            entries.put("w", new PathRailSnapshot.Entry(false, "e", 1.0, 0.5));
+        }
+        exits.put("e", new PathRailSnapshot.Exit(loc((index + 1) & 3, 0), "w", 0.0, 0.5));
+        return new PathRailSnapshot.Piece(location,
+                (name == null) ? Collections.emptyList() : Collections.singletonList(name),
+                false, Collections.singletonList("e"), entries, exits);
+    }
+
+    // Grid of pieces that mostly go straight, with some turns, nodes and blocker signs
+    private static PathRailSnapshot randomGrid(Random random, int width, int height) {
+        PathRailSnapshot.Builder builder = PathRailSnapshot.builder();
+        for (int x = 0; x < width; x++) {
+            for (int z = 0; z < height; z++) {
+                Map<String, PathRailSnapshot.Entry> entries = new HashMap<>();
+                Map<String, PathRailSnapshot.Exit> exits = new HashMap<>();
+                int turn = (random.nextInt(8) == 0) ? (1 + random.nextInt(3)) : 2;
+                for (int j = 0; j < 4; j++) {
+                    int nx = x + DX[j];
+                    int nz = z + DZ[j];
+                    if (nx >= 0 && nz >= 0 && nx < width && nz < height) {
+                        exits.put(JUNCTIONS[j], new PathRailSnapshot.Exit(loc(nx, nz), JUNCTIONS[(j + 2) & 3],
+                                random.nextDouble(), random.nextDouble()));
+                    }
+                    entries.put(JUNCTIONS[j], new PathRailSnapshot.Entry(random.nextInt(30) == 0,
+                            JUNCTIONS[(j + turn) & 3], 0.5 + random.nextDouble(), random.nextDouble()));
+                }
+
+                List<String> names = new ArrayList<>();
+                if (random.nextInt(10) == 0) {
+                    names.add("node" + x + "_" + z);
+                }
+                boolean switcher = random.nextInt(20) == 0;
+                List<String> pathJunctions = (turn == 2) ? Arrays.asList("n", "s") : Collections.emptyList();
+                builder.add(new PathRailSnapshot.Piece(loc(x, z), names, switcher, pathJunctions, entries, exits));
+            }
+        }
+        return builder.build();
+    }
+
+    private static BlockLocation loc(int x, int z) {
+        return new BlockLocation("world", x, 64, z);
+    }
+}
@@ -0,0 +1,120 @@
+package com.bergerkiller.bukkit.tc;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.bukkit.block.BlockFace;
+import org.bukkit.util.Vector;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.bergerkiller.bukkit.common.math.Quaternion;
+import com.bergerkiller.bukkit.tc.controller.components.RailPath;
+
+/**
+ * Verifies that moving along a rail path and calculating the wheel orientation,
+ * as done every tick for every member, does not create any garbage.
+ */
+public class RailPathAllocationTest {
+    private static final int NUM_STEPS = 10000;
+    private static final double STEP_DISTANCE = 0.15;
+
+    @Test
+    public void testMoveWithoutAllocation() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(allocBean.isThreadAllocatedMemorySupported());
+        allocBean.setThreadAllocatedMemoryEnabled(true);
+
+        RailPath path = createBankedCurve();
+        RailPath.Position position = new RailPath.Position();
+        Vector forward = new Vector();
+        Vector up = new Vector();
+
+        // Warm up, so that class loading and the like is not counted
+        resetCart(position);
+        simulate(path, position, forward, up, NUM_STEPS);
+
+        resetCart(position);
+        long threadId = Thread.currentThread().getId();
+        long before = allocBean.getThreadAllocatedBytes(threadId);
+        double moved = simulate(path, position, forward, up, NUM_STEPS);
+        long allocated = allocBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("Cart did not move", moved > 100.0);
+
+        // A single Vector per step would already be hundreds of kilobytes,
+        // leave some room for the allocation counter itself
+        assertTrue("Moving " + NUM_STEPS + " steps allocated " + allocated + " bytes", allocated < 4096);
+    }
+
+    @Test
+    public void testWheelOrientationMatchesQuaternion() {
+        RailPath path = createBankedCurve();
+        RailPath.Position position = new RailPath.Position();
+        Vector forward = new Vector();
+        Vector up = new Vector();
+
+        resetCart(position);
+        for (int i = 0; i < 1000; i++) {
+            if (path.moveRelative(position, STEP_DISTANCE) < STEP_DISTANCE) {
+                position.invertMotion();
+            }
+            position.getWheelOrientation(forward, up);
+
+            Quaternion expected = position.getWheelOrientation();
+            assertVectorEquals(expected.forwardVector(), forward);
+            assertVectorEquals(expected.upVector(), up);
+        }
+    }
+
+    private static double simulate(RailPath path, RailPath.Position position, Vector forward, Vector up, int steps) {
+        double movedTotal = 0.0;
+        for (int i = 0; i < steps; i++) {
+            double moved = path.moveRelative(position, STEP_DISTANCE);
+            movedTotal += moved;
+            if (moved < STEP_DISTANCE) {
+                // End of the path reached, ride back
+                position.invertMotion();
+            }
+            position.getWheelOrientation(forward, up);
+        }
+        return movedTotal;
+    }
+
+    private static void resetCart(RailPath.Position position) {
+        position.relative = true;
+        position.posX = 0.0;
+        position.posY = 0.0;
+        position.posZ = 0.0;
+        position.setMotion(BlockFace.SOUTH);
+    }
+
+    /**
+     * Creates a quarter circle curve with a radius of 8 blocks, which banks
+     * towards the inside of the curve halfway through.
+     */
+    private static RailPath createBankedCurve() {
+        RailPath.Builder builder = new RailPath.Builder();
+        int numPoints = 16;
+        for (int i = 0; i <= numPoints; i++) {
+            double angle = 0.5 * Math.PI * i / numPoints;
+            double x = 8.0 - 8.0 * Math.cos(angle);
+            double z = 8.0 * Math.sin(angle);
+            double bank = 0.4 * Math.sin(2.0 * angle);
+            double up_x = bank * Math.cos(angle);
+            double up_z = -bank * Math.sin(angle);
+            builder.add(x, 0.0, z, up_x, 1.0, up_z);
+        }
+        return builder.build();
+    }
+
+    private static void assertVectorEquals(Vector expected, Vector actual) {
+        assertEquals(expected.getX(), actual.getX(), 1e-4);
+        assertEquals(expected.getY(), actual.getY(), 1e-4);
+        assertEquals(expected.getZ(), actual.getZ(), 1e-4);
+    }
+}
@@ -2,12 +2,16 @@ package com.bergerkiller.bukkit.tc;
 
 import com.bergerkiller.bukkit.tc.controller.spawnable.SpawnableGroup;
 import com.bergerkiller.bukkit.tc.controller.spawnable.TrainSpawnPattern;
+import com.bergerkiller.bukkit.tc.utils.NamePrefixTrie;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 import static org.junit.Assert.assertEquals;
@@ -64,6 +68,106 @@ public class TrainSpawnPatternTest {
         assertNull(TrainSpawnPattern.findNameInSortedList(testList, "Twee"));
     }
 
+    @Test
+    public void testTrainNameTrieShort() {
+        NamePrefixTrie trie = new NamePrefixTrie();
+        assertNull(trie.findLongestPrefix("Item"));
+        for (String name : Arrays.asList("Green", "Blue", "One", "OneLonger", "Two",
+                "Red", "Redder", "Pineapple", "Train12", "Train123")) {
+            trie.add(name);
+        }
+        assertEquals(10, trie.size());
+
+        assertEquals("Two", trie.findLongestPrefix("TwoWithMoreAfter"));
+        assertEquals("Two", trie.findLongestPrefix("Two"));
+        assertEquals("One", trie.findLongestPrefix("OneLong"));
+        assertEquals("OneLonger", trie.findLongestPrefix("OneLongerWithMore"));
+        assertEquals("Train123", trie.findLongestPrefix("Train123"));
+        assertEquals("Train12", trie.findLongestPrefix("Train124"));
+        assertNull(trie.findLongestPrefix("Twee"));
+        assertNull(trie.findLongestPrefix(""));
+
+        // Removing a longer name falls back to the shorter one, and keeps it
+        assertTrue(trie.remove("OneLonger"));
+        assertFalse(trie.remove("OneLonger"));
+        assertFalse(trie.remove("OneLong"));
+        assertEquals("One", trie.findLongestPrefix("OneLongerWithMore"));
+        assertTrue(trie.remove("One"));
+        assertNull(trie.findLongestPrefix("OneLongerWithMore"));
+        assertFalse(trie.contains("One"));
+        assertTrue(trie.contains("Two"));
+        assertEquals(8, trie.size());
+
+        trie.clear();
+        assertEquals(0, trie.size());
+        assertNull(trie.findLongestPrefix("TwoWithMoreAfter"));
+    }
+
+    @Test
+    public void testTrainNameTrieLarge() {
+        // Generate 50000 names sharing many prefixes, which are also often prefixes of each other
+        Random random = new Random(0x5EED);
+        Set<String> nameSet = new HashSet<>();
+        while (nameSet.size() < 50000) {
+            nameSet.add(randomName(random));
+        }
+        List<String> sortedNames = new ArrayList<>(nameSet);
+        Collections.sort(sortedNames);
+
+        NamePrefixTrie trie = new NamePrefixTrie();
+        for (String name : sortedNames) {
+            trie.add(name);
+        }
+        assertEquals(sortedNames.size(), trie.size());
+        verifyTrainNameTrie(random, sortedNames, trie);
+
+        // Remove half the names and verify again
+        for (int i = sortedNames.size() - 1; i >= 0; i -= 2) {
+            assertTrue(trie.remove(sortedNames.remove(i)));
+        }
+        assertEquals(sortedNames.size(), trie.size());
+        verifyTrainNameTrie(random, sortedNames, trie);
+    }
+
+    private static void verifyTrainNameTrie(Random random, List<String> sortedNames, NamePrefixTrie trie) {
+        for (int i = 0; i < 2000; i++) {
+            String input;
+            switch (i % 4) {
+            case 0:
+                // Exact name
+                input = sortedNames.get(random.nextInt(sortedNames.size()));
+                break;
+            case 1:
+                // Name with more pattern text after it
+                input = sortedNames.get(random.nextInt(sortedNames.size())) + randomName(random);
+                break;
+            case 2:
+                // Part of a name
+                input = sortedNames.get(random.nextInt(sortedNames.size()));
+                input = input.substring(0, random.nextInt(input.length()));
+                break;
+            default:
+                // Random text, likely not matching anything
+                input = randomName(random) + "Z";
+                break;
+            }
+
+            assertEquals("Input: " + input,
+                    TrainSpawnPattern.findNameInSortedList(sortedNames, input),
+                    trie.findLongestPrefix(input));
+        }
+    }
+
+    private static String randomName(Random random) {
+        String[] parts = { "Train", "Cart", "Red", "Blue", "A", "B", "1", "2", "3" };
+        StringBuilder str = new StringBuilder();
+        int numParts = 1 + random.nextInt(6);
+        for (int i = 0; i < numParts; i++) {
+            str.append(parts[random.nextInt(parts.length)]);
+        }
+        return str.toString();
+    }
+
     @Test
     public void testChanceWeightComplex() {
         TrainSpawnPattern.ParsedSpawnPattern pattern = TrainSpawnPattern.parse("40%[mmm]60%[sss]", n -> null);
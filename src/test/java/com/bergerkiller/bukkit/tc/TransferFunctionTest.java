@@ -2,10 +2,20 @@ package com.bergerkiller.bukkit.tc;
 
 import static org.junit.Assert.*;
 
+import com.bergerkiller.bukkit.common.map.MapCanvas;
+import com.bergerkiller.bukkit.tc.controller.functions.TransferFunction;
+import com.bergerkiller.bukkit.tc.controller.functions.TransferFunctionBoolean;
+import com.bergerkiller.bukkit.tc.controller.functions.TransferFunctionConditional;
 import com.bergerkiller.bukkit.tc.controller.functions.TransferFunctionConditional.Operator;
+import com.bergerkiller.bukkit.tc.controller.functions.TransferFunctionConstant;
 import com.bergerkiller.bukkit.tc.controller.functions.TransferFunctionCurve;
+import com.bergerkiller.bukkit.tc.controller.functions.TransferFunctionList;
+import com.bergerkiller.bukkit.tc.controller.functions.TransferFunctionList.FunctionMode;
+import com.bergerkiller.bukkit.tc.controller.functions.ui.MapWidgetTransferFunctionItem;
 import org.junit.Test;
 
+import java.util.Random;
+
 /**
  * Tests the correct functioning of transfer functions. These are used as part
  * of effect and animation automation.
@@ -300,6 +310,207 @@ public class TransferFunctionTest {
         });
     }
 
+    @Test
+    public void testCompileFoldsConstants() {
+        TransferFunctionList list = new TransferFunctionList();
+        list.add(new TransferFunctionList.Item(FunctionMode.ASSIGN, TransferFunctionConstant.of(2.0)));
+        list.add(new TransferFunctionList.Item(FunctionMode.MULTIPLY, TransferFunctionConstant.of(3.0)));
+        list.add(new TransferFunctionList.Item(FunctionMode.ADD, TransferFunctionConstant.of(1.0)));
+        TransferFunction compiled = list.clone().compile();
+        assertTrue(compiled instanceof TransferFunctionConstant);
+        assertEquals(7.0, compiled.map(0.0), 0.0);
+
+        // Conditional comparing constants always picks the same output
+        TransferFunctionConditional conditional = new TransferFunctionConditional();
+        conditional.setOperator(Operator.GREATER_THAN);
+        conditional.setLeftInput(TransferFunctionConstant.of(2.0));
+        conditional.setRightInput(TransferFunctionConstant.of(1.0));
+        conditional.setTrueOutput(TransferFunctionBoolean.TRUE);
+        conditional.setFalseOutput(TransferFunctionBoolean.FALSE);
+        assertSame(TransferFunctionBoolean.TRUE, conditional.clone().compile());
+    }
+
+    @Test
+    public void testCompileOmitsIdentity() {
+        TransferFunctionList list = new TransferFunctionList();
+        list.add(TransferFunction.identity());
+        list.add(new TransferFunctionList.Item(FunctionMode.MULTIPLY, TransferFunctionConstant.of(1.0)));
+        list.add(new TransferFunctionList.Item(FunctionMode.SUBTRACT, TransferFunctionConstant.of(0.0)));
+        assertSame(TransferFunction.identity(), list.clone().compile());
+        assertSame(TransferFunction.identity(), TransferFunctionCurve.empty().compile());
+    }
+
+    @Test
+    public void testCompileFlattensLists() {
+        TransferFunctionList inner = new TransferFunctionList();
+        inner.add(new CountingFunction(false));
+        inner.add(new TransferFunctionList.Item(FunctionMode.ADD, new CountingFunction(false)));
+        TransferFunctionList outer = new TransferFunctionList();
+        outer.add(inner);
+        outer.add(new TransferFunctionList.Item(FunctionMode.MULTIPLY, new CountingFunction(false)));
+
+        TransferFunction compiled = outer.clone().compile();
+        assertTrue(compiled instanceof TransferFunctionList);
+        assertEquals(3, ((TransferFunctionList) compiled).size());
+    }
+
+    @Test
+    public void testCompileMemoizesPure() {
+        CountingFunction counter = new CountingFunction(true);
+        TransferFunctionList list = new TransferFunctionList();
+        list.add(counter);
+        list.add(new TransferFunctionList.Item(FunctionMode.MULTIPLY, TransferFunctionConstant.of(2.0)));
+        TransferFunction compiled = list.compile();
+
+        assertEquals(2.0, compiled.map(1.0), 0.0);
+        assertEquals(2.0, compiled.map(1.0), 0.0);
+        assertEquals(1, counter.calls);
+        assertEquals(4.0, compiled.map(2.0), 0.0);
+        assertEquals(2, counter.calls);
+
+        // Functions that aren't pure must be called every time
+        CountingFunction impureCounter = new CountingFunction(false);
+        list.set(0, new TransferFunctionList.Item(FunctionMode.ASSIGN, impureCounter));
+        compiled = list.compile();
+        compiled.map(1.0);
+        compiled.map(1.0);
+        assertEquals(2, impureCounter.calls);
+
+        // Pure functions that are passed the output of one that isn't pure can't be memoized
+        TransferFunctionList impureList = new TransferFunctionList();
+        impureList.add(new CountingFunction(false));
+        impureList.add(TransferFunctionCurve.builder().add(0.0, 0.0).add(2.0, 4.0).build());
+        compiled = impureList.clone().compile();
+        for (int i = 0; i < 4; i++) {
+            assertEquals(impureList.map(0.5), compiled.map(0.5), 0.0);
+        }
+    }
+
+    @Test
+    public void testCompileKeepsHysteresisState() {
+        TransferFunctionConditional conditional = new TransferFunctionConditional();
+        conditional.setOperator(Operator.GREATER_THAN);
+        conditional.setLeftInput(TransferFunction.identity());
+        conditional.setRightInput(TransferFunctionConstant.of(0.5));
+        conditional.setHysteresis(0.2);
+        conditional.setTrueOutput(TransferFunctionBoolean.TRUE);
+        conditional.setFalseOutput(TransferFunctionBoolean.FALSE);
+        assertFalse(conditional.isPure());
+
+        // The same input gives a different output depending on what came before it
+        TransferFunction compiled = conditional.clone().compile();
+        assertEquals(0.0, compiled.map(0.6), 0.0);
+        assertEquals(1.0, compiled.map(0.8), 0.0);
+        assertEquals(1.0, compiled.map(0.6), 0.0);
+        assertEquals(0.0, compiled.map(0.2), 0.0);
+        assertEquals(0.0, compiled.map(0.6), 0.0);
+    }
+
+    @Test
+    public void testCompileMatchesInterpreted() {
+        Random random = new Random(0x5EED);
+        double[] inputs = new double[] { -1.0, -0.5, 0.0, 0.25, 0.5, 0.75, 1.0, 1.5, 2.0 };
+        for (int n = 0; n < 500; n++) {
+            TransferFunction interpreted = randomFunction(random, 4);
+            TransferFunction compiled = interpreted.clone().compile();
+            for (int i = 0; i < 200; i++) {
+                // Repeat inputs often, so that memoized results are used
+                double input = inputs[random.nextInt(inputs.length)];
+                int repeat = 1 + random.nextInt(3);
+                for (int r = 0; r < repeat; r++) {
+                    assertEquals("Function #" + n + " input #" + i,
+                            interpreted.map(input), compiled.map(input), 0.0);
+                }
+            }
+        }
+    }
+
+    private static TransferFunction randomFunction(Random random, int depth) {
+        int type = random.nextInt(depth > 0 ? 8 : 5);
+        switch (type) {
+        case 0:
+            return TransferFunction.identity();
+        case 1:
+            return TransferFunctionConstant.of(random.nextInt(5) * 0.5 - 1.0);
+        case 2:
+            return random.nextBoolean() ? TransferFunctionBoolean.TRUE : TransferFunctionBoolean.FALSE;
+        case 3:
+            return new CountingFunction(random.nextBoolean());
+        case 4:
+        {
+            TransferFunctionCurve.Builder builder = TransferFunctionCurve.builder();
+            int numPoints = random.nextInt(5);
+            for (int i = 0; i < numPoints; i++) {
+                builder.add(random.nextInt(5) * 0.5 - 1.0, random.nextInt(9) * 0.25);
+            }
+            return builder.build();
+        }
+        case 5:
+        {
+            TransferFunctionConditional conditional = new TransferFunctionConditional();
+            conditional.setOperator(Operator.values()[random.nextInt(Operator.values().length)]);
+            conditional.setHysteresis(random.nextBoolean() ? 0.0 : 0.3);
+            conditional.setLeftInput(randomFunction(random, depth - 1));
+            conditional.setRightInput(randomFunction(random, depth - 1));
+            conditional.setTrueOutput(randomFunction(random, depth - 1));
+            conditional.setFalseOutput(randomFunction(random, depth - 1));
+            return conditional;
+        }
+        default:
+        {
+            TransferFunctionList list = new TransferFunctionList();
+            int numItems = random.nextInt(5);
+            for (int i = 0; i < numItems; i++) {
+                FunctionMode mode = FunctionMode.values()[random.nextInt(FunctionMode.values().length)];
+                list.add(new TransferFunctionList.Item(mode, randomFunction(random, depth - 1)));
+            }
+            return list;
+        }
+        }
+    }
+
+    /**
+     * Adds a value that changes every time it is called to the input. Is only pure
+     * for the purpose of testing that pure functions are memoized.
+     */
+    private static class CountingFunction implements TransferFunction {
+        private final boolean pure;
+        public int calls = 0;
+
+        public CountingFunction(boolean pure) {
+            this.pure = pure;
+        }
+
+        @Override
+        public Serializer<? extends TransferFunction> getSerializer() {
+            return null;
+        }
+
+        @Override
+        public double map(double input) {
+            ++calls;
+            return pure ? input : (input + 0.25 * (calls % 4));
+        }
+
+        @Override
+        public boolean isPure() {
+            return pure;
+        }
+
+        @Override
+        public TransferFunction clone() {
+            return new CountingFunction(pure);
+        }
+
+        @Override
+        public void drawPreview(MapWidgetTransferFunctionItem widget, MapCanvas view) {
+        }
+
+        @Override
+        public void openDialog(Dialog dialog) {
+        }
+    }
+
     private static void assertCurveEquals(TransferFunctionCurve curve, double[][] values) {
         assertEquals(values.length, curve.size());
         for (int i = 0; i < values.length; i++) {
@@ -0,0 +1,50 @@
+package com.bergerkiller.bukkit.tc.properties;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.bergerkiller.bukkit.common.config.ConfigurationNode;
+
+/**
+ * Tests saving and loading train properties in the binary data file
+ */
+public class TrainPropertiesBinaryStoreTest {
+
+    @Test
+    public void testSaveLoadWithoutFile() throws IOException {
+        File dir = Files.createTempDirectory("traincarts").toFile();
+        File dataFile = new File(dir, "TrainProperties.dat");
+        try {
+            // First save on a fresh install, there is no data file yet
+            ConfigurationNode root = new ConfigurationNode();
+            root.getNode("train1").set("speedLimit", 0.4);
+            TrainPropertiesBinaryStore store = new TrainPropertiesBinaryStore(null, dataFile);
+            store.load((name, config) -> fail("No trains should be loaded"));
+            store.markChanged("train1");
+            assertTrue(store.save(root, true));
+            assertTrue(dataFile.exists());
+
+            // Append a second train to the file
+            root.getNode("train2").set("speedLimit", 0.2);
+            store.markChanged("train2");
+            assertTrue(store.save(root, true));
+
+            // Load it again as on the next startup
+            Map<String, ConfigurationNode> loaded = new HashMap<>();
+            new TrainPropertiesBinaryStore(null, dataFile).load(loaded::put);
+            assertEquals(2, loaded.size());
+            assertEquals(0.4, loaded.get("train1").get("speedLimit", 0.0), 0.0);
+            assertEquals(0.2, loaded.get("train2").get("speedLimit", 0.0), 0.0);
+        } finally {
+            dataFile.delete();
+            dir.delete();
+        }
+    }
+}